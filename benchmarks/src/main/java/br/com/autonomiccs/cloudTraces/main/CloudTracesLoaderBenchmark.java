@@ -0,0 +1,82 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * Loading of cloud traces files by {@link CloudTracesSimulator#getAllVirtualMachinesFromCloudTraces(String)}, for files of increasing size (every VM has 24
+ * samples) and different numbers of loader threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CloudTracesLoaderBenchmark {
+
+    private static final int SAMPLES_PER_VIRTUAL_MACHINE = 24;
+
+    @Param({"1000", "10000", "100000"})
+    private int numberOfVirtualMachines;
+
+    @Param({"1", "4"})
+    private int numberOfThreads;
+
+    private File cloudTracesFile;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticData.configureSimulator();
+        System.setProperty("cloudTraces.loader.threads", String.valueOf(numberOfThreads));
+        cloudTracesFile = SyntheticData.createCloudTracesFile(numberOfVirtualMachines, SAMPLES_PER_VIRTUAL_MACHINE, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cloudTracesFile.delete();
+    }
+
+    @Benchmark
+    public Collection<VirtualMachine> getAllVirtualMachinesFromCloudTraces() {
+        return CloudTracesSimulator.getAllVirtualMachinesFromCloudTraces(cloudTracesFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.main;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.autonomiccs.cloudTraces.algorithms.AlgorithmRegistry;
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * Placement of a VM with {@link CloudTracesSimulator#deployVirtualMachine(VirtualMachine, Cloud)} (followed by its destroy, so the cloud state does not drift) for
+ * every deployment heuristic, in clouds of increasing size that already run eight VMs per host.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeploymentBenchmark {
+
+    private static final int VIRTUAL_MACHINES_PER_HOST = 8;
+    private static final int NUMBER_OF_VIRTUAL_MACHINES_TO_DEPLOY = 1024;
+
+    @Param({"SmallestClustersFirstDeploymentHeuristic", "BestFitDeploymentHeuristic", "WorstFitDeploymentHeuristic", "DotProductDeploymentHeuristic",
+            "SamplingDeploymentHeuristic"})
+    private String deploymentHeuristic;
+
+    @Param({"1000", "10000", "50000"})
+    private int numberOfHosts;
+
+    private Cloud cloud;
+    private List<VirtualMachine> virtualMachinesToDeploy;
+    private int nextVirtualMachine;
+
+    @Setup
+    public void setup() {
+        SyntheticData.configureSimulator();
+        System.setProperty(AlgorithmRegistry.DEPLOYMENT_HEURISTIC_PROPERTY, deploymentHeuristic);
+        cloud = SyntheticData.createCloud(numberOfHosts);
+        CloudTracesSimulator.createJournal();
+        CloudTracesSimulator.loadAlgorithms(cloud);
+
+        List<VirtualMachine> runningVirtualMachines = SyntheticData.createVirtualMachines(numberOfHosts * VIRTUAL_MACHINES_PER_HOST, 2, 1);
+        virtualMachinesToDeploy = SyntheticData.createVirtualMachines(NUMBER_OF_VIRTUAL_MACHINES_TO_DEPLOY, 2, 2);
+        for (VirtualMachine virtualMachine : runningVirtualMachines) {
+            CloudTracesSimulator.deployVirtualMachine(virtualMachine, cloud);
+        }
+    }
+
+    @Benchmark
+    public void deployVirtualMachine() {
+        VirtualMachine virtualMachine = virtualMachinesToDeploy.get(nextVirtualMachine);
+        nextVirtualMachine = (nextVirtualMachine + 1) % NUMBER_OF_VIRTUAL_MACHINES_TO_DEPLOY;
+        CloudTracesSimulator.deployVirtualMachine(virtualMachine, cloud);
+        CloudTracesSimulator.destroyVirtualMachine(virtualMachine, cloud);
+    }
+}
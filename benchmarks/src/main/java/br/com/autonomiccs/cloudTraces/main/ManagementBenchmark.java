@@ -0,0 +1,108 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.autonomiccs.cloudTraces.algorithms.AlgorithmRegistry;
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * A management round of every cluster with {@link CloudTracesSimulator#executeManagement(Cloud, double)}, in clouds of increasing size with four VMs per host. The
+ * migrations of a round change the placement of the VMs, so the placement of the setup is restored before every invocation; otherwise the algorithm converges after a
+ * few invocations and rounds that do not migrate anything are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManagementBenchmark {
+
+    private static final int VIRTUAL_MACHINES_PER_HOST = 4;
+    private static final int NUMBER_OF_SAMPLES = 2;
+
+    @Param({"ClusterAdministrationAlgorithmEmptyImpl", "MemoryBalancingClusterAdministrationAlgorithm"})
+    private String clusterAdministrationAlgorithm;
+
+    @Param({"1000", "10000", "50000"})
+    private int numberOfHosts;
+
+    private Cloud cloud;
+    private List<VirtualMachine> virtualMachines;
+    private List<Host> initialHosts;
+
+    @Setup
+    public void setup() {
+        SyntheticData.configureSimulator();
+        System.setProperty(AlgorithmRegistry.CLUSTER_ADMINISTRATION_ALGORITHM_PROPERTY, clusterAdministrationAlgorithm);
+        cloud = SyntheticData.createCloud(numberOfHosts);
+        CloudTracesSimulator.createJournal();
+        CloudTracesSimulator.loadAlgorithms(cloud);
+
+        virtualMachines = SyntheticData.createVirtualMachines(numberOfHosts * VIRTUAL_MACHINES_PER_HOST, NUMBER_OF_SAMPLES, 1);
+        CloudTracesSimulator.createUsageInterpolator(virtualMachines, 0, SyntheticData.SAMPLE_INTERVAL, NUMBER_OF_SAMPLES * SyntheticData.SAMPLE_INTERVAL);
+        initialHosts = new ArrayList<>(virtualMachines.size());
+        for (VirtualMachine virtualMachine : virtualMachines) {
+            CloudTracesSimulator.deployVirtualMachine(virtualMachine, cloud);
+            initialHosts.add(virtualMachine.getHost());
+        }
+    }
+
+    /**
+     * VMs migrated by the previous invocation are moved back to the hosts they were deployed at.
+     */
+    @Setup(Level.Invocation)
+    public void restorePlacement() {
+        for (int i = 0; i < virtualMachines.size(); i++) {
+            VirtualMachine virtualMachine = virtualMachines.get(i);
+            Host initialHost = initialHosts.get(i);
+            if (virtualMachine.getHost() != initialHost) {
+                virtualMachine.getHost().destroyVirtualMachine(virtualMachine);
+                initialHost.addVirtualMachine(virtualMachine);
+            }
+        }
+    }
+
+    @Benchmark
+    public void executeManagement() {
+        CloudTracesSimulator.executeManagement(cloud, 0);
+    }
+}
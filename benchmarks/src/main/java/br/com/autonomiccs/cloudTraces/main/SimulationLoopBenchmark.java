@@ -0,0 +1,109 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.main;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * The phases of a simulation iteration that go through the whole cloud: the usage update of every host (with VMs being interpolated between samples) and the
+ * clusters standard deviations. Clouds have four VMs per host. The management of every cluster, which changes the placement of the VMs, is measured by
+ * {@link ManagementBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationLoopBenchmark {
+
+    private static final int VIRTUAL_MACHINES_PER_HOST = 4;
+    private static final int NUMBER_OF_SAMPLES = 288;
+
+    @Param({"1000", "10000", "50000"})
+    private int numberOfHosts;
+
+    private Cloud cloud;
+    private int iteration;
+
+    @Setup
+    public void setup() {
+        SyntheticData.configureSimulator();
+        cloud = SyntheticData.createCloud(numberOfHosts);
+        CloudTracesSimulator.createJournal();
+        CloudTracesSimulator.loadAlgorithms(cloud);
+
+        List<VirtualMachine> virtualMachines = SyntheticData.createVirtualMachines(numberOfHosts * VIRTUAL_MACHINES_PER_HOST, NUMBER_OF_SAMPLES, 1);
+        CloudTracesSimulator.createUsageInterpolator(virtualMachines, 0, SyntheticData.SAMPLE_INTERVAL, NUMBER_OF_SAMPLES * SyntheticData.SAMPLE_INTERVAL);
+        for (VirtualMachine virtualMachine : virtualMachines) {
+            CloudTracesSimulator.deployVirtualMachine(virtualMachine, cloud);
+        }
+    }
+
+    /**
+     * Times are between two samples of the VMs, so their usage is interpolated.
+     */
+    private double nextTime() {
+        iteration = (iteration + 1) % (NUMBER_OF_SAMPLES - 1);
+        return iteration * SyntheticData.SAMPLE_INTERVAL + SyntheticData.SAMPLE_INTERVAL / 2d;
+    }
+
+    @Benchmark
+    public void updateHostResourceUsageForTime() {
+        double time = nextTime();
+        for (Cluster c : cloud.getClusters()) {
+            for (Host h : c.getHosts()) {
+                CloudTracesSimulator.updateHostResourceUsageForTime(h, time);
+            }
+        }
+    }
+
+    @Benchmark
+    public double calculateClustersStandardDeviations() {
+        double sum = 0;
+        for (Cluster c : cloud.getClusters()) {
+            sum += CloudTracesSimulator.calculateClusterMemoryAllocatedInMibStd(c);
+            sum += CloudTracesSimulator.calculateClusterMemoryUsageInMibStd(c);
+            sum += CloudTracesSimulator.calculateClusterCpuAllocatedInGhStd(c);
+            sum += CloudTracesSimulator.calculateClusterCpuUsageInGhzStd(c);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.beans.VmServiceOffering;
+import br.com.autonomiccs.cloudTraces.beans.VmUsageSeries;
+import br.com.autonomiccs.cloudTraces.synthetic.HostProfile;
+import br.com.autonomiccs.cloudTraces.synthetic.SyntheticTopologyGenerator;
+
+/**
+ * Seeded synthetic data of the benchmarks: clouds, VMs with usage series, Google traces lines and cloud traces files of any size.
+ */
+class SyntheticData {
+
+    static final int SAMPLE_INTERVAL = 300;
+    static final int HOSTS_PER_CLUSTER = 50;
+
+    private static final String[] OFFERING_NAMES = {"micro", "small", "medium", "large"};
+
+    /**
+     * The simulator is configured to record events synchronously (no journal thread) and only warnings are logged, so no event is formatted.
+     */
+    static void configureSimulator() {
+        Logger.getRootLogger().setLevel(Level.WARN);
+        System.setProperty("cloudTraces.journal.asynchronous", "false");
+    }
+
+    static Cloud createCloud(int numberOfHosts) {
+        List<HostProfile> hostProfiles = HostProfile.parseHostProfiles("16:60:3400:5,32:100:3400:3,200:400:3400:1");
+        int numberOfClusters = Math.max(1, numberOfHosts / HOSTS_PER_CLUSTER);
+        return new SyntheticTopologyGenerator(1, numberOfClusters, HOSTS_PER_CLUSTER, HOSTS_PER_CLUSTER, hostProfiles, true).createCloud("benchmark");
+    }
+
+    /**
+     * VMs deployed at time zero that run (with random usage) during the given number of samples.
+     */
+    static List<VirtualMachine> createVirtualMachines(int numberOfVirtualMachines, int numberOfSamples, long seed) {
+        Random random = new Random(seed);
+        List<VirtualMachine> virtualMachines = new ArrayList<>(numberOfVirtualMachines);
+        for (int i = 0; i < numberOfVirtualMachines; i++) {
+            VmServiceOffering vmServiceOffering = createVmServiceOffering(random.nextInt(OFFERING_NAMES.length));
+            VmUsageSeries usageSeries = new VmUsageSeries(numberOfSamples);
+            for (int sample = 0; sample < numberOfSamples; sample++) {
+                usageSeries.add(sample * SAMPLE_INTERVAL, random.nextDouble() * vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores(),
+                        random.nextDouble() * vmServiceOffering.getMemoryInMegaByte());
+            }
+            VirtualMachine virtualMachine = new VirtualMachine();
+            virtualMachine.setVmId("VM-" + (i + 1));
+            virtualMachine.setDeployTime(0);
+            virtualMachine.setDestroyTime((numberOfSamples - 1) * SAMPLE_INTERVAL);
+            virtualMachine.setVmServiceOffering(vmServiceOffering);
+            virtualMachine.setUsageSeries(usageSeries);
+            virtualMachines.add(virtualMachine);
+        }
+        return virtualMachines;
+    }
+
+    /**
+     * Offering 0 is the smallest one (1 core, 1 GiB); every next offering doubles cores and memory.
+     */
+    static VmServiceOffering createVmServiceOffering(int offering) {
+        VmServiceOffering vmServiceOffering = new VmServiceOffering();
+        vmServiceOffering.setName(OFFERING_NAMES[offering]);
+        vmServiceOffering.setNumberOfCores(1 << offering);
+        vmServiceOffering.setCoreSpeed(3400);
+        vmServiceOffering.setMemoryInMegaByte(1024l << offering);
+        return vmServiceOffering;
+    }
+
+    /**
+     * Lines in the format of the Google cluster data traces: 'time jobId taskId jobType normalizedCores normalizedMemory'.
+     */
+    static String[] createGoogleTracesLines(int numberOfLines, long seed) {
+        Random random = new Random(seed);
+        String[] lines = new String[numberOfLines];
+        for (int i = 0; i < numberOfLines; i++) {
+            lines[i] = String.format(Locale.US, "%d %d %d %d %.6f %.6f", 90000 + (i / 1000) * SAMPLE_INTERVAL, 1000 + random.nextInt(5000), random.nextInt(500),
+                    random.nextInt(4), random.nextDouble(), random.nextDouble());
+        }
+        return lines;
+    }
+
+    /**
+     * It writes a cloud traces file (the format of {@link GoogleTracesToCloudTracesParser}) in which every VM has the given number of samples; VMs arrive one
+     * sample interval after the other, in groups.
+     */
+    static File createCloudTracesFile(int numberOfVirtualMachines, int samplesPerVirtualMachine, long seed) throws IOException {
+        File file = File.createTempFile("cloudVmTraces", ".csv");
+        file.deleteOnExit();
+        Random random = new Random(seed);
+        int virtualMachinesPerArrival = Math.max(1, numberOfVirtualMachines / 100);
+        try (Formatter formatter = new Formatter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file))), Locale.US)) {
+            formatter.format(
+                    "#Time, vmName, deployTime, remove time, service offering name, service offering number of cores, total allocated cpu, allocated memory, used cpu, used memory%n");
+            int lastArrival = (numberOfVirtualMachines - 1) / virtualMachinesPerArrival;
+            for (int interval = 0; interval < lastArrival + samplesPerVirtualMachine; interval++) {
+                int time = interval * SAMPLE_INTERVAL;
+                for (int arrival = Math.max(0, interval - samplesPerVirtualMachine + 1); arrival <= Math.min(interval, lastArrival); arrival++) {
+                    int deployTime = arrival * SAMPLE_INTERVAL;
+                    int destroyTime = deployTime + (samplesPerVirtualMachine - 1) * SAMPLE_INTERVAL;
+                    int firstVirtualMachine = arrival * virtualMachinesPerArrival;
+                    for (int vm = firstVirtualMachine; vm < Math.min(numberOfVirtualMachines, firstVirtualMachine + virtualMachinesPerArrival); vm++) {
+                        VmServiceOffering vmServiceOffering = createVmServiceOffering(vm % OFFERING_NAMES.length);
+                        long totalCpu = vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores();
+                        formatter.format("%d, VM-%d, %d, %d, %s, %d, %d, %d, %.10f, %.10f%n", time, vm + 1, deployTime, destroyTime, vmServiceOffering.getName(),
+                                vmServiceOffering.getNumberOfCores(), totalCpu, vmServiceOffering.getMemoryInMegaByte(), random.nextDouble() * totalCpu,
+                                random.nextDouble() * vmServiceOffering.getMemoryInMegaByte());
+                    }
+                }
+            }
+            if (formatter.ioException() != null) {
+                throw formatter.ioException();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+
+/**
+ * Algorithms (deployment heuristics and cluster administration algorithms) are created only once per simulation.
+ * The ones that implement this interface are notified about the simulation life cycle, which allows them to keep warm caches/indexes between calls.
+ */
+public interface AlgorithmLifecycle {
+
+    /**
+     * Called once, before the first iteration of the simulation, with the cloud topology that is going to be simulated.
+     */
+    public void initialize(Cloud cloud);
+
+    /**
+     * Called at the beginning of every simulation iteration, before any VM is deployed or destroyed for the given time.
+     */
+    public void onTick(Cloud cloud, double currentTime);
+
+    /**
+     * Called once, after the last iteration of the simulation.
+     */
+    public void finish(Cloud cloud);
+}
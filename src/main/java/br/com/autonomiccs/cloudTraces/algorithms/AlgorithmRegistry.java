@@ -0,0 +1,73 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import org.apache.commons.lang3.StringUtils;
+
+import br.com.autonomiccs.cloudTraces.algorithms.deployment.DeploymentHeuristic;
+import br.com.autonomiccs.cloudTraces.algorithms.deployment.SmallestClustersFirstDeploymentHeuristic;
+import br.com.autonomiccs.cloudTraces.algorithms.management.ClusterAdministrationAlgorithm;
+import br.com.autonomiccs.cloudTraces.algorithms.management.ClusterAdministrationAlgorithmEmptyImpl;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.service.SimulationConfigurationService;
+
+/**
+ * Registry of the algorithms that can be used in a simulation. Algorithms are discovered with {@link ServiceLoader}; therefore, to make a new algorithm available,
+ * you only need to add its full qualified name to 'META-INF/services/&lt;interface full qualified name&gt;'.
+ * The algorithm used in a simulation is selected by its simple or full qualified class name, using the configurations {@link #DEPLOYMENT_HEURISTIC_PROPERTY} and
+ * {@link #CLUSTER_ADMINISTRATION_ALGORITHM_PROPERTY}.
+ */
+public class AlgorithmRegistry {
+
+    public static final String DEPLOYMENT_HEURISTIC_PROPERTY = "cloudTraces.deploymentHeuristic";
+    public static final String CLUSTER_ADMINISTRATION_ALGORITHM_PROPERTY = "cloudTraces.clusterAdministrationAlgorithm";
+
+    public static DeploymentHeuristic getConfiguredDeploymentHeuristic() {
+        String name = SimulationConfigurationService.getProperty(DEPLOYMENT_HEURISTIC_PROPERTY, SmallestClustersFirstDeploymentHeuristic.class.getName());
+        return getAlgorithm(DeploymentHeuristic.class, name);
+    }
+
+    public static ClusterAdministrationAlgorithm getConfiguredClusterAdministrationAlgorithm() {
+        String name = SimulationConfigurationService.getProperty(CLUSTER_ADMINISTRATION_ALGORITHM_PROPERTY, ClusterAdministrationAlgorithmEmptyImpl.class.getName());
+        return getAlgorithm(ClusterAdministrationAlgorithm.class, name);
+    }
+
+    /**
+     * It returns a new instance of the algorithm registered for the given type, whose simple or full qualified class name is equal to the given name.
+     */
+    public static <T> T getAlgorithm(Class<T> algorithmType, String name) {
+        List<String> availableAlgorithms = new ArrayList<>();
+        for (T algorithm : ServiceLoader.load(algorithmType)) {
+            Class<?> algorithmClass = algorithm.getClass();
+            if (StringUtils.equals(algorithmClass.getName(), name) || StringUtils.equals(algorithmClass.getSimpleName(), name)) {
+                return algorithm;
+            }
+            availableAlgorithms.add(algorithmClass.getSimpleName());
+        }
+        throw new GoogleTracesToCloudTracesException(
+                String.format("Could not find a [%s] named [%s]; available ones are %s.", algorithmType.getSimpleName(), name, availableAlgorithms));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms.deployment;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import br.com.autonomiccs.cloudTraces.beans.ResourceAttribute;
+
+/**
+ * Base class of deployment heuristics that lets the simulator cache their clusters ranking ({@link ClusterRankingCache}).
+ * By default, the ranking is considered dependent on the VM being deployed, so it is never cached; heuristics whose ranking only depends on some cluster attributes
+ * should override both methods. Heuristics that implement {@link DeploymentHeuristic} directly rank the clusters for every VM.
+ */
+public abstract class AbstractDeploymentHeuristic implements DeploymentHeuristic {
+
+    /**
+     * The cluster attributes used by {@link #getRankedClustersToDeployVirtualMachine(java.util.List, br.com.autonomiccs.cloudTraces.beans.VirtualMachine)} to rank
+     * the clusters. The simulator only ranks the clusters again when one of these attributes changes in any cluster.
+     */
+    public Set<ResourceAttribute> getClusterRankingAttributes() {
+        return EnumSet.noneOf(ResourceAttribute.class);
+    }
+
+    /**
+     * If the ranking of clusters depends on the VM being deployed, the ranking is never cached.
+     */
+    public boolean isClusterRankingDependentOnVirtualMachine() {
+        return true;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms.deployment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.ResourceAttribute;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * It caches the clusters ranked by a {@link DeploymentHeuristic}. The clusters are ranked again only if the clusters list changes, or if one of the attributes
+ * that the heuristic uses to rank clusters ({@link AbstractDeploymentHeuristic#getClusterRankingAttributes()}) changes in any of the clusters. Heuristics that do not
+ * extend {@link AbstractDeploymentHeuristic} are not cached.
+ * Checking if the ranking is still valid costs O(#clusters * #attributes), and it does not allocate objects.
+ */
+public class ClusterRankingCache {
+
+    private DeploymentHeuristic deploymentHeuristic;
+    private boolean cacheable;
+    private ResourceAttribute[] rankingAttributes = new ResourceAttribute[0];
+
+    private List<Cluster> rankedClusters;
+    private List<Cluster> clustersUsedInRanking = new ArrayList<>();
+    private long versionOfAttributesUsedInRanking;
+
+    public ClusterRankingCache(DeploymentHeuristic deploymentHeuristic) {
+        this.deploymentHeuristic = deploymentHeuristic;
+        if (deploymentHeuristic instanceof AbstractDeploymentHeuristic) {
+            AbstractDeploymentHeuristic abstractDeploymentHeuristic = (AbstractDeploymentHeuristic)deploymentHeuristic;
+            this.cacheable = !abstractDeploymentHeuristic.isClusterRankingDependentOnVirtualMachine();
+            this.rankingAttributes = abstractDeploymentHeuristic.getClusterRankingAttributes().toArray(new ResourceAttribute[0]);
+        }
+    }
+
+    public List<Cluster> getRankedClustersToDeployVirtualMachine(List<Cluster> clusters, VirtualMachine virtualMachine) {
+        if (!cacheable) {
+            return deploymentHeuristic.getRankedClustersToDeployVirtualMachine(clusters, virtualMachine);
+        }
+        if (rankedClusters == null || !isSameClusters(clusters) || versionOfAttributesUsedInRanking != getVersionOfRankingAttributes(clusters)) {
+            rankedClusters = deploymentHeuristic.getRankedClustersToDeployVirtualMachine(clusters, virtualMachine);
+            clustersUsedInRanking = new ArrayList<>(clusters);
+            versionOfAttributesUsedInRanking = getVersionOfRankingAttributes(clusters);
+        }
+        return rankedClusters;
+    }
+
+    /**
+     * It discards the cached ranking, forcing the clusters to be ranked again in the next call.
+     */
+    public void invalidate() {
+        rankedClusters = null;
+    }
+
+    /**
+     * Attributes versions only increase; therefore, their sum changes if (and only if) at least one of them changed.
+     */
+    private long getVersionOfRankingAttributes(List<Cluster> clusters) {
+        long version = 0;
+        for (int i = 0; i < clusters.size(); i++) {
+            Cluster cluster = clusters.get(i);
+            for (ResourceAttribute attribute : rankingAttributes) {
+                version += cluster.getAttributeVersion(attribute);
+            }
+        }
+        return version;
+    }
+
+    /**
+     * The heuristic may sort the given list in place; thus, we only check if the same clusters are still there, not their order.
+     */
+    private boolean isSameClusters(List<Cluster> clusters) {
+        if (clusters.size() != clustersUsedInRanking.size()) {
+            return false;
+        }
+        for (int i = 0; i < clusters.size(); i++) {
+            if (clusters.get(i) != clustersUsedInRanking.get(i) && !clustersUsedInRanking.contains(clusters.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
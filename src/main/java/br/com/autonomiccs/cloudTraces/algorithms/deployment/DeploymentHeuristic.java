@@ -38,6 +38,8 @@ public interface DeploymentHeuristic {
     /**
     * This method will sort the given host list. It has to return the very same objects. Therefore, only shallo copies are allowed here.
     * The hosts at the top (lowest positions) are the most interesting to deploy the VM, whereas the ones at the bottom are the least interesting ones.
+    * If the given list itself is returned, its order must not have been changed; in that case, the simulator finds the first host that supports the VM using the cluster
+    * free capacity index ({@link br.com.autonomiccs.cloudTraces.index.ClusterFreeCapacityIndex}).
     */
     public List<Host> getRankedHostsToDeployVirtualMachie(List<Host> hosts, VirtualMachine virtualMachine);
 }
@@ -0,0 +1,39 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms.deployment;
+
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * Deployment heuristics that select the host of a VM directly (usually through an index), instead of ranking all of the hosts of a cluster.
+ * When the deployment heuristic implements this interface, the simulator uses {@link #findHostToDeployVirtualMachine(Cluster, VirtualMachine)} instead of
+ * {@link #getRankedHostsToDeployVirtualMachie(java.util.List, VirtualMachine)}.
+ */
+public interface IndexedDeploymentHeuristic extends DeploymentHeuristic {
+
+    /**
+     * It returns the host of the given cluster that should receive the VM, or null if no host of the cluster has enough resources to support the VM.
+     */
+    public Host findHostToDeployVirtualMachine(Cluster cluster, VirtualMachine virtualMachine);
+}
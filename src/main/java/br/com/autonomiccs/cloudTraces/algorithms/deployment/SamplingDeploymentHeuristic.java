@@ -0,0 +1,189 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms.deployment;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.beans.VmServiceOffering;
+import br.com.autonomiccs.cloudTraces.service.SimulationConfigurationService;
+
+/**
+ * Power of k choices placement. For every VM, it samples k hosts of the cluster at random and selects the one with the best {@link VectorPackingScore} among the ones
+ * that support the VM. Only when none of the sampled hosts supports the VM, the first host that supports it is taken from the cluster free capacity index. Therefore,
+ * placement costs O(k) no matter how many hosts the cluster has, except in the fallback, whose index search is O(n) in the worst case.
+ *
+ * The random generator is seeded, so simulations are reproducible. Optionally, every placement can be compared with the best host of the cluster (exhaustive search),
+ * and the quality gap is reported at the end of the simulation; this comparison costs O(n) per placement, so it should be enabled only to evaluate the heuristic.
+ */
+public class SamplingDeploymentHeuristic extends SmallestClustersFirstDeploymentHeuristic implements IndexedDeploymentHeuristic {
+
+    private final static Logger logger = Logger.getLogger(SamplingDeploymentHeuristic.class);
+
+    public static final String NUMBER_OF_CANDIDATES_PROPERTY = "cloudTraces.sampling.candidates";
+    public static final String SEED_PROPERTY = "cloudTraces.sampling.seed";
+    public static final String SCORE_PROPERTY = "cloudTraces.sampling.score";
+    public static final String REPORT_QUALITY_GAP_PROPERTY = "cloudTraces.sampling.reportQualityGap";
+
+    private int numberOfCandidates;
+    private Random random;
+    private VectorPackingScore vectorPackingScore;
+    private boolean reportQualityGap;
+
+    /**
+     * Biggest host CPU (position 0) and memory (position 1) of every cluster, used to normalize the scores.
+     */
+    private Map<Cluster, long[]> normalizationFactorsByCluster = new IdentityHashMap<>();
+
+    private long numberOfPlacements;
+    private long numberOfPlacementsWithFallback;
+    private long numberOfPlacementsComparedWithExhaustiveSearch;
+    private long numberOfPlacementsEqualToExhaustiveSearch;
+    private double sumOfQualityGaps;
+    private double highestQualityGap;
+
+    public SamplingDeploymentHeuristic() {
+        numberOfCandidates = Math.max(1, SimulationConfigurationService.getIntProperty(NUMBER_OF_CANDIDATES_PROPERTY, 2));
+        random = new Random(SimulationConfigurationService.getLongProperty(SEED_PROPERTY, 1l));
+        reportQualityGap = SimulationConfigurationService.getBooleanProperty(REPORT_QUALITY_GAP_PROPERTY, false);
+    }
+
+    @Override
+    public void initialize(Cloud cloud) {
+        logger.info(String.format("Sampling placement with [%d] candidates, score [%s], seed [%d]", numberOfCandidates, getVectorPackingScore(),
+                SimulationConfigurationService.getLongProperty(SEED_PROPERTY, 1l)));
+        for (Cluster cluster : cloud.getClusters()) {
+            getNormalizationFactors(cluster);
+        }
+    }
+
+    @Override
+    public void finish(Cloud cloud) {
+        logger.info(String.format("Sampling placement: #placements [%d], #placements that used the index fallback [%d]", numberOfPlacements,
+                numberOfPlacementsWithFallback));
+        if (numberOfPlacementsComparedWithExhaustiveSearch > 0) {
+            logger.info(String.format(
+                    "Sampling placement quality gap against exhaustive search: #placements compared [%d], #placements equal to exhaustive search [%d], mean gap [%.6f], highest gap [%.6f]",
+                    numberOfPlacementsComparedWithExhaustiveSearch, numberOfPlacementsEqualToExhaustiveSearch,
+                    sumOfQualityGaps / numberOfPlacementsComparedWithExhaustiveSearch, highestQualityGap));
+        }
+    }
+
+    @Override
+    public Host findHostToDeployVirtualMachine(Cluster cluster, VirtualMachine virtualMachine) {
+        List<Host> hosts = cluster.getHosts();
+        if (hosts.isEmpty()) {
+            return null;
+        }
+        VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+        long requestedCpuInMhz = vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores();
+        long requestedMemoryInMib = vmServiceOffering.getMemoryInMegaByte();
+        long[] normalizationFactors = getNormalizationFactors(cluster);
+
+        Host selectedHost = null;
+        double selectedHostScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numberOfCandidates; i++) {
+            Host candidate = hosts.get(random.nextInt(hosts.size()));
+            if (!canHostSupport(candidate, requestedCpuInMhz, requestedMemoryInMib)) {
+                continue;
+            }
+            double candidateScore = score(candidate, requestedCpuInMhz, requestedMemoryInMib, normalizationFactors);
+            if (candidateScore > selectedHostScore) {
+                selectedHost = candidate;
+                selectedHostScore = candidateScore;
+            }
+        }
+        if (selectedHost == null) {
+            selectedHost = cluster.getFreeCapacityIndex().findFirstHostThatSupports(requestedCpuInMhz, requestedMemoryInMib);
+            if (selectedHost == null) {
+                return null;
+            }
+            numberOfPlacementsWithFallback++;
+            selectedHostScore = score(selectedHost, requestedCpuInMhz, requestedMemoryInMib, normalizationFactors);
+        }
+        numberOfPlacements++;
+        if (reportQualityGap) {
+            compareWithExhaustiveSearch(hosts, requestedCpuInMhz, requestedMemoryInMib, normalizationFactors, selectedHostScore);
+        }
+        return selectedHost;
+    }
+
+    private void compareWithExhaustiveSearch(List<Host> hosts, long requestedCpuInMhz, long requestedMemoryInMib, long[] normalizationFactors, double selectedHostScore) {
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (Host host : hosts) {
+            if (canHostSupport(host, requestedCpuInMhz, requestedMemoryInMib)) {
+                bestScore = Math.max(bestScore, score(host, requestedCpuInMhz, requestedMemoryInMib, normalizationFactors));
+            }
+        }
+        double qualityGap = bestScore - selectedHostScore;
+        numberOfPlacementsComparedWithExhaustiveSearch++;
+        if (qualityGap <= 0) {
+            numberOfPlacementsEqualToExhaustiveSearch++;
+            return;
+        }
+        sumOfQualityGaps += qualityGap;
+        highestQualityGap = Math.max(highestQualityGap, qualityGap);
+    }
+
+    private double score(Host host, long requestedCpuInMhz, long requestedMemoryInMib, long[] normalizationFactors) {
+        double cpuNormalizationFactor = normalizationFactors[0];
+        double memoryNormalizationFactor = normalizationFactors[1];
+        return getVectorPackingScore().score(requestedCpuInMhz / cpuNormalizationFactor, requestedMemoryInMib / memoryNormalizationFactor,
+                host.getAvailableCpuInMhz() / cpuNormalizationFactor, host.getAvailableMemoryInMib() / memoryNormalizationFactor);
+    }
+
+    /**
+     * The score is only parsed when the heuristic is used, as every deployment heuristic is instantiated to build the registry of heuristics.
+     */
+    private VectorPackingScore getVectorPackingScore() {
+        if (vectorPackingScore == null) {
+            vectorPackingScore = VectorPackingScore
+                    .valueOf(SimulationConfigurationService.getProperty(SCORE_PROPERTY, VectorPackingScore.WORST_FIT.name()).trim().toUpperCase());
+        }
+        return vectorPackingScore;
+    }
+
+    private boolean canHostSupport(Host host, long cpuInMhz, long memoryInMib) {
+        return host.getAvailableCpuInMhz() >= cpuInMhz && host.getAvailableMemoryInMib() >= memoryInMib;
+    }
+
+    private long[] getNormalizationFactors(Cluster cluster) {
+        long[] normalizationFactors = normalizationFactorsByCluster.get(cluster);
+        if (normalizationFactors == null) {
+            normalizationFactors = new long[] {1, 1};
+            for (Host host : cluster.getHosts()) {
+                normalizationFactors[0] = Math.max(normalizationFactors[0], host.getTotalCpuPowerInMhz());
+                normalizationFactors[1] = Math.max(normalizationFactors[1], host.getTotalMemoryInMib());
+            }
+            normalizationFactorsByCluster.put(cluster, normalizationFactors);
+        }
+        return normalizationFactors;
+    }
+}
@@ -23,13 +23,30 @@ package br.com.autonomiccs.cloudTraces.algorithms.deployment;
 
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
+import br.com.autonomiccs.cloudTraces.algorithms.AlgorithmLifecycle;
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
 import br.com.autonomiccs.cloudTraces.beans.Cluster;
 import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.ResourceAttribute;
 import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
 
-public class SmallestClustersFirstDeploymentHeuristic implements DeploymentHeuristic {
+public class SmallestClustersFirstDeploymentHeuristic extends AbstractDeploymentHeuristic implements AlgorithmLifecycle {
+
+    @Override
+    public void initialize(Cloud cloud) {
+    }
+
+    @Override
+    public void onTick(Cloud cloud, double currentTime) {
+    }
+
+    @Override
+    public void finish(Cloud cloud) {
+    }
 
     @Override
     public List<Cluster> getRankedClustersToDeployVirtualMachine(List<Cluster> clusters, VirtualMachine virtualMachine) {
@@ -48,6 +65,16 @@ public class SmallestClustersFirstDeploymentHeuristic implements DeploymentHeuri
         return clusters;
     }
 
+    @Override
+    public Set<ResourceAttribute> getClusterRankingAttributes() {
+        return EnumSet.of(ResourceAttribute.TOTAL_MEMORY);
+    }
+
+    @Override
+    public boolean isClusterRankingDependentOnVirtualMachine() {
+        return false;
+    }
+
     @Override
     public List<Host> getRankedHostsToDeployVirtualMachie(List<Host> hosts, VirtualMachine virtualMachine) {
         return hosts;
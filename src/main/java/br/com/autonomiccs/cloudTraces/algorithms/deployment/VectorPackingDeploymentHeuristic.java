@@ -0,0 +1,127 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms.deployment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.beans.VmServiceOffering;
+import br.com.autonomiccs.cloudTraces.index.SortedHostIndex;
+
+/**
+ * Base class for vector bin packing heuristics. Clusters are ranked as in {@link SmallestClustersFirstDeploymentHeuristic}; inside a cluster, the host is selected
+ * with a {@link SortedHostIndex} that is created when the simulation starts and is kept up to date while VMs are deployed, destroyed and migrated.
+ */
+public abstract class VectorPackingDeploymentHeuristic extends SmallestClustersFirstDeploymentHeuristic implements IndexedDeploymentHeuristic {
+
+    private VectorPackingScore vectorPackingScore;
+    private Map<Cluster, SortedHostIndex> sortedHostIndexesByCluster = new IdentityHashMap<>();
+
+    public VectorPackingDeploymentHeuristic(VectorPackingScore vectorPackingScore) {
+        this.vectorPackingScore = vectorPackingScore;
+    }
+
+    @Override
+    public void initialize(Cloud cloud) {
+        for (Cluster cluster : cloud.getClusters()) {
+            getSortedHostIndex(cluster);
+        }
+    }
+
+    @Override
+    public void finish(Cloud cloud) {
+        for (SortedHostIndex sortedHostIndex : sortedHostIndexesByCluster.values()) {
+            sortedHostIndex.detach();
+        }
+        sortedHostIndexesByCluster.clear();
+    }
+
+    @Override
+    public Host findHostToDeployVirtualMachine(Cluster cluster, VirtualMachine virtualMachine) {
+        VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+        return vectorPackingScore.findHost(getSortedHostIndex(cluster), getVmRequestedCpu(vmServiceOffering), vmServiceOffering.getMemoryInMegaByte());
+    }
+
+    /**
+     * The simulator uses {@link #findHostToDeployVirtualMachine(Cluster, VirtualMachine)}; this method sorts a copy of the given hosts by their score, which costs
+     * O(n log n) for every call.
+     */
+    @Override
+    public List<Host> getRankedHostsToDeployVirtualMachie(List<Host> hosts, VirtualMachine virtualMachine) {
+        long biggestHostCpuInMhz = 1;
+        long biggestHostMemoryInMib = 1;
+        for (Host host : hosts) {
+            biggestHostCpuInMhz = Math.max(biggestHostCpuInMhz, host.getTotalCpuPowerInMhz());
+            biggestHostMemoryInMib = Math.max(biggestHostMemoryInMib, host.getTotalMemoryInMib());
+        }
+        VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+        final double requestedCpu = getVmRequestedCpu(vmServiceOffering) / (double)biggestHostCpuInMhz;
+        final double requestedMemory = vmServiceOffering.getMemoryInMegaByte() / (double)biggestHostMemoryInMib;
+        final double cpuNormalizationFactor = biggestHostCpuInMhz;
+        final double memoryNormalizationFactor = biggestHostMemoryInMib;
+
+        List<Host> rankedHosts = new ArrayList<>(hosts);
+        Collections.sort(rankedHosts, new Comparator<Host>() {
+            @Override
+            public int compare(Host o1, Host o2) {
+                return Double.compare(score(o2), score(o1));
+            }
+
+            private double score(Host host) {
+                return vectorPackingScore.score(requestedCpu, requestedMemory, host.getAvailableCpuInMhz() / cpuNormalizationFactor,
+                        host.getAvailableMemoryInMib() / memoryNormalizationFactor);
+            }
+        });
+        return rankedHosts;
+    }
+
+    public VectorPackingScore getVectorPackingScore() {
+        return vectorPackingScore;
+    }
+
+    /**
+     * It returns the index of the given cluster; the index is (re)built if the cluster was not indexed yet, or if hosts were added or removed from it.
+     */
+    protected SortedHostIndex getSortedHostIndex(Cluster cluster) {
+        SortedHostIndex sortedHostIndex = sortedHostIndexesByCluster.get(cluster);
+        if (sortedHostIndex == null || sortedHostIndex.getNumberOfIndexedHosts() != cluster.getHosts().size()) {
+            if (sortedHostIndex != null) {
+                sortedHostIndex.detach();
+            }
+            sortedHostIndex = new SortedHostIndex(cluster.getHosts());
+            sortedHostIndexesByCluster.put(cluster, sortedHostIndex);
+        }
+        return sortedHostIndex;
+    }
+
+    private long getVmRequestedCpu(VmServiceOffering vmServiceOffering) {
+        return vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms.deployment;
+
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.index.SortedHostIndex;
+
+/**
+ * Scores used by vector bin packing heuristics to select a host. Resources are normalized by the biggest host of the cluster.
+ * The higher the score, the more interesting the host is to receive the VM.
+ */
+public enum VectorPackingScore {
+
+    /**
+     * Prefers hosts that have the least resources left after receiving the VM.
+     */
+    BEST_FIT {
+        @Override
+        public double score(double requestedCpu, double requestedMemory, double availableCpu, double availableMemory) {
+            return -(availableCpu - requestedCpu + availableMemory - requestedMemory);
+        }
+
+        @Override
+        public Host findHost(SortedHostIndex sortedHostIndex, long cpuInMhz, long memoryInMib) {
+            return sortedHostIndex.findBestFit(cpuInMhz, memoryInMib);
+        }
+    },
+
+    /**
+     * Prefers hosts that have the most resources left after receiving the VM.
+     */
+    WORST_FIT {
+        @Override
+        public double score(double requestedCpu, double requestedMemory, double availableCpu, double availableMemory) {
+            return availableCpu - requestedCpu + availableMemory - requestedMemory;
+        }
+
+        @Override
+        public Host findHost(SortedHostIndex sortedHostIndex, long cpuInMhz, long memoryInMib) {
+            return sortedHostIndex.findWorstFit(cpuInMhz, memoryInMib);
+        }
+    },
+
+    /**
+     * Prefers hosts whose available resources are aligned with the VM requested resources (CPU x CPU + memory x memory).
+     */
+    DOT_PRODUCT {
+        @Override
+        public double score(double requestedCpu, double requestedMemory, double availableCpu, double availableMemory) {
+            return requestedCpu * availableCpu + requestedMemory * availableMemory;
+        }
+
+        @Override
+        public Host findHost(SortedHostIndex sortedHostIndex, long cpuInMhz, long memoryInMib) {
+            return sortedHostIndex.findHighestDotProduct(cpuInMhz, memoryInMib);
+        }
+    };
+
+    public abstract double score(double requestedCpu, double requestedMemory, double availableCpu, double availableMemory);
+
+    /**
+     * It returns the host with the highest score that supports the given resources, or null if no host supports them.
+     */
+    public abstract Host findHost(SortedHostIndex sortedHostIndex, long cpuInMhz, long memoryInMib);
+}
@@ -0,0 +1,38 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms.management;
+
+/**
+ * What the simulator does with the mapping of a cluster whose management exceeded the time budget.
+ */
+public enum BudgetOverrunPolicy {
+
+    /**
+     * The migrations are executed; the overrun is only recorded.
+     */
+    APPLY,
+
+    /**
+     * The migrations are discarded, as a manager with a fixed decision window would not wait for the algorithm.
+     */
+    DISCARD
+}
@@ -25,10 +25,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import br.com.autonomiccs.cloudTraces.algorithms.AlgorithmLifecycle;
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
 import br.com.autonomiccs.cloudTraces.beans.Host;
 import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
 
-public class ClusterAdministrationAlgorithmEmptyImpl implements ClusterAdministrationAlgorithm {
+public class ClusterAdministrationAlgorithmEmptyImpl implements ClusterAdministrationAlgorithm, AlgorithmLifecycle {
 
     /**
      * This constant was created to divide a number (in Bytes) by 1.000.000 (resulting in a number
@@ -36,6 +38,18 @@ public class ClusterAdministrationAlgorithmEmptyImpl implements ClusterAdministr
      */
     protected final static int BYTES_TO_MEGA_BYTES = 1000000;
 
+    @Override
+    public void initialize(Cloud cloud) {
+    }
+
+    @Override
+    public void onTick(Cloud cloud, double currentTime) {
+    }
+
+    @Override
+    public void finish(Cloud cloud) {
+    }
+
     @Override
     public List<Host> rankHosts(List<Host> hosts) {
         return hosts;
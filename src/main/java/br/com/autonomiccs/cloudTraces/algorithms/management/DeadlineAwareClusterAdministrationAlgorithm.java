@@ -0,0 +1,41 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms.management;
+
+import java.util.List;
+import java.util.Map;
+
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * Cluster administration algorithms that respect the management time budget of the simulation ('cloudTraces.management.budgetInMs'). When a budget is
+ * configured, the simulator calls {@link #mapVMsToHost(List, long)} instead of {@link #mapVMsToHost(List)}; algorithms should return the best mapping found
+ * until the deadline (a partial or anytime result) instead of the complete one.
+ */
+public interface DeadlineAwareClusterAdministrationAlgorithm extends ClusterAdministrationAlgorithm {
+
+    /**
+     * The deadline is a value of {@link System#nanoTime()}; the time spent in {@link #rankHosts(List)} counts to the budget of the cluster.
+     */
+    public Map<VirtualMachine, Host> mapVMsToHost(List<Host> rankedHosts, long deadlineInNanoseconds);
+}
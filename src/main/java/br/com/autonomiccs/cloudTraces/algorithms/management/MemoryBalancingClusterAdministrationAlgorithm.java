@@ -0,0 +1,159 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.algorithms.management;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.beans.VmServiceOffering;
+import br.com.autonomiccs.cloudTraces.service.SimulationConfigurationService;
+
+/**
+ * It balances the memory allocated to the hosts of a cluster: VMs are migrated, one at a time, from the host with the highest fraction of memory allocated to the one
+ * with the lowest, while that reduces the highest fraction, up to '-DcloudTraces.memoryBalancing.maxMigrations' migrations per cluster and management round.
+ *
+ * The migrations are planned over a copy of the hosts allocations, so the mapping is valid at any point of the loop; when the simulation has a management time budget,
+ * the loop stops at the deadline and the migrations planned so far are returned.
+ */
+public class MemoryBalancingClusterAdministrationAlgorithm extends ClusterAdministrationAlgorithmEmptyImpl implements DeadlineAwareClusterAdministrationAlgorithm {
+
+    public static final String MAX_MIGRATIONS_PROPERTY = "cloudTraces.memoryBalancing.maxMigrations";
+
+    private int maxMigrations;
+
+    public MemoryBalancingClusterAdministrationAlgorithm() {
+        maxMigrations = Math.max(0, SimulationConfigurationService.getIntProperty(MAX_MIGRATIONS_PROPERTY, 10));
+    }
+
+    /**
+     * Hosts are ranked from the highest to the lowest fraction of memory allocated; the hosts list of the cluster is not changed.
+     */
+    @Override
+    public List<Host> rankHosts(List<Host> hosts) {
+        List<Host> rankedHosts = new ArrayList<>(hosts);
+        Collections.sort(rankedHosts, new Comparator<Host>() {
+            @Override
+            public int compare(Host host1, Host host2) {
+                return Double.compare(getMemoryAllocatedFraction(host2.getMemoryAllocatedInMib(), host2), getMemoryAllocatedFraction(host1.getMemoryAllocatedInMib(), host1));
+            }
+        });
+        return rankedHosts;
+    }
+
+    @Override
+    public Map<VirtualMachine, Host> mapVMsToHost(List<Host> rankedHosts) {
+        return mapVMsToHost(rankedHosts, false, 0);
+    }
+
+    @Override
+    public Map<VirtualMachine, Host> mapVMsToHost(List<Host> rankedHosts, long deadlineInNanoseconds) {
+        return mapVMsToHost(rankedHosts, true, deadlineInNanoseconds);
+    }
+
+    private Map<VirtualMachine, Host> mapVMsToHost(List<Host> rankedHosts, boolean hasDeadline, long deadlineInNanoseconds) {
+        Map<VirtualMachine, Host> mapVMsToHost = new HashMap<>();
+        int numberOfHosts = rankedHosts.size();
+        long[] memoryAllocatedInMib = new long[numberOfHosts];
+        long[] cpuAllocatedInMhz = new long[numberOfHosts];
+        for (int i = 0; i < numberOfHosts; i++) {
+            memoryAllocatedInMib[i] = rankedHosts.get(i).getMemoryAllocatedInMib();
+            cpuAllocatedInMhz[i] = rankedHosts.get(i).getCpuAllocatedInMhz();
+        }
+        while (mapVMsToHost.size() < maxMigrations) {
+            if (hasDeadline && System.nanoTime() - deadlineInNanoseconds >= 0) {
+                break;
+            }
+            int sourceHost = 0;
+            int targetHost = 0;
+            for (int i = 1; i < numberOfHosts; i++) {
+                double memoryAllocatedFraction = getMemoryAllocatedFraction(memoryAllocatedInMib[i], rankedHosts.get(i));
+                if (memoryAllocatedFraction > getMemoryAllocatedFraction(memoryAllocatedInMib[sourceHost], rankedHosts.get(sourceHost))) {
+                    sourceHost = i;
+                }
+                if (memoryAllocatedFraction < getMemoryAllocatedFraction(memoryAllocatedInMib[targetHost], rankedHosts.get(targetHost))) {
+                    targetHost = i;
+                }
+            }
+            if (sourceHost == targetHost) {
+                break;
+            }
+            VirtualMachine virtualMachine = selectVirtualMachineToMigrate(rankedHosts.get(sourceHost), memoryAllocatedInMib[sourceHost], rankedHosts.get(targetHost),
+                    memoryAllocatedInMib[targetHost], cpuAllocatedInMhz[targetHost], mapVMsToHost);
+            if (virtualMachine == null) {
+                break;
+            }
+            VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+            long vmRequestedCpuInMhz = vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores();
+            memoryAllocatedInMib[sourceHost] -= vmServiceOffering.getMemoryInMegaByte();
+            cpuAllocatedInMhz[sourceHost] -= vmRequestedCpuInMhz;
+            memoryAllocatedInMib[targetHost] += vmServiceOffering.getMemoryInMegaByte();
+            cpuAllocatedInMhz[targetHost] += vmRequestedCpuInMhz;
+            mapVMsToHost.put(virtualMachine, rankedHosts.get(targetHost));
+        }
+        return mapVMsToHost;
+    }
+
+    /**
+     * Among the VMs of the source host that fit in the target host and whose migration lowers the highest fraction of memory allocated of the two hosts, it selects
+     * the one that leaves them closest to each other (ties are broken by VM id, as the VMs of a host are kept in a hash set). VMs already mapped in this round are
+     * not migrated again.
+     */
+    private VirtualMachine selectVirtualMachineToMigrate(Host sourceHost, long sourceMemoryAllocatedInMib, Host targetHost, long targetMemoryAllocatedInMib,
+            long targetCpuAllocatedInMhz, Map<VirtualMachine, Host> mapVMsToHost) {
+        double sourceMemoryAllocatedFraction = getMemoryAllocatedFraction(sourceMemoryAllocatedInMib, sourceHost);
+        VirtualMachine selectedVirtualMachine = null;
+        double selectedVirtualMachineDifference = Double.POSITIVE_INFINITY;
+        for (VirtualMachine virtualMachine : sourceHost.getVirtualMachines()) {
+            if (mapVMsToHost.containsKey(virtualMachine)) {
+                continue;
+            }
+            VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+            long vmMemoryInMib = vmServiceOffering.getMemoryInMegaByte();
+            if (targetHost.getAdmissibleMemoryInMib() - targetMemoryAllocatedInMib < vmMemoryInMib
+                    || targetHost.getAdmissibleCpuInMhz() - targetCpuAllocatedInMhz < vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores()) {
+                continue;
+            }
+            double newSourceMemoryAllocatedFraction = getMemoryAllocatedFraction(sourceMemoryAllocatedInMib - vmMemoryInMib, sourceHost);
+            double newTargetMemoryAllocatedFraction = getMemoryAllocatedFraction(targetMemoryAllocatedInMib + vmMemoryInMib, targetHost);
+            if (Math.max(newSourceMemoryAllocatedFraction, newTargetMemoryAllocatedFraction) >= sourceMemoryAllocatedFraction) {
+                continue;
+            }
+            double difference = Math.abs(newSourceMemoryAllocatedFraction - newTargetMemoryAllocatedFraction);
+            if (difference < selectedVirtualMachineDifference
+                    || (difference == selectedVirtualMachineDifference && virtualMachine.getVmId().compareTo(selectedVirtualMachine.getVmId()) < 0)) {
+                selectedVirtualMachine = virtualMachine;
+                selectedVirtualMachineDifference = difference;
+            }
+        }
+        return selectedVirtualMachine;
+    }
+
+    private double getMemoryAllocatedFraction(long memoryAllocatedInMib, Host host) {
+        return host.getTotalMemoryInMib() > 0 ? memoryAllocatedInMib / (double)host.getTotalMemoryInMib() : 0;
+    }
+}
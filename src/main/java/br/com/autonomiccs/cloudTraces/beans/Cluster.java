@@ -24,10 +24,16 @@ package br.com.autonomiccs.cloudTraces.beans;
 import java.util.ArrayList;
 import java.util.List;
 
+import br.com.autonomiccs.cloudTraces.index.ClusterFreeCapacityIndex;
+import br.com.autonomiccs.cloudTraces.metrics.ClusterBalanceStatistics;
+
 public class Cluster extends ComputingResource {
 
     private List<Host> hosts = new ArrayList<>();
 
+    private ClusterFreeCapacityIndex freeCapacityIndex;
+    private ClusterBalanceStatistics balanceStatistics;
+
     public Cluster(String id) {
         super(id);
     }
@@ -36,6 +42,46 @@ public class Cluster extends ComputingResource {
         return hosts;
     }
 
+    /**
+     * It returns the index of available resources of the cluster hosts. The index is rebuilt if hosts were added or removed from the cluster.
+     * If the hosts list is re-ordered, {@link #synchronizeFreeCapacityIndex()} has to be called to rebuild the index.
+     */
+    public ClusterFreeCapacityIndex getFreeCapacityIndex() {
+        if (freeCapacityIndex == null || freeCapacityIndex.getNumberOfIndexedHosts() != hosts.size()) {
+            rebuildFreeCapacityIndex();
+        }
+        return freeCapacityIndex;
+    }
+
+    /**
+     * It rebuilds the index of available resources if the hosts of the cluster (or their order) changed since the index was built. It costs O(n).
+     */
+    public void synchronizeFreeCapacityIndex() {
+        if (freeCapacityIndex == null || !freeCapacityIndex.isIndexing(hosts)) {
+            rebuildFreeCapacityIndex();
+        }
+    }
+
+    private void rebuildFreeCapacityIndex() {
+        if (freeCapacityIndex != null) {
+            freeCapacityIndex.detach();
+        }
+        freeCapacityIndex = new ClusterFreeCapacityIndex(hosts);
+    }
+
+    /**
+     * It returns the balance statistics (standard deviations) of the cluster hosts. The statistics are rebuilt if hosts were added or removed from the cluster.
+     */
+    public ClusterBalanceStatistics getBalanceStatistics() {
+        if (balanceStatistics == null || balanceStatistics.getNumberOfHosts() != hosts.size()) {
+            if (balanceStatistics != null) {
+                balanceStatistics.detach();
+            }
+            balanceStatistics = new ClusterBalanceStatistics(hosts);
+        }
+        return balanceStatistics;
+    }
+
     @Override
     public String toString() {
         return String.format("Cluster %s, #hosts[%d]", super.toString(), hosts.size());
@@ -45,6 +91,8 @@ public class Cluster extends ComputingResource {
     public Object clone() throws CloneNotSupportedException {
         Cluster clone = (Cluster)super.clone();
         clone.hosts = new ArrayList<>(this.hosts);
+        clone.freeCapacityIndex = null;
+        clone.balanceStatistics = null;
         return clone;
     }
 }
@@ -36,35 +36,34 @@ public abstract class ComputingResource implements Cloneable {
     private long memoryUsedInBytes;
     private long cpuUsedInMhz;
 
+    private long[] attributesVersions = new long[ResourceAttribute.values().length];
+
     public ComputingResource(String id) {
         this.id = id;
     }
 
     @Override
     public String toString() {
+        return formatResources(id, totalMemoryInBytes, totalCpuPowerInMhz, memoryAllocatedInBytes, cpuAllocatedInMhz, memoryUsedInBytes, cpuUsedInMhz);
+    }
+
+    /**
+     * It formats resource values the same way {@link #toString()} does; it allows snapshots of the values to be formatted later (e.g. by the simulation journal).
+     */
+    public static String formatResources(String id, long totalMemoryInBytes, long totalCpuPowerInMhz, long memoryAllocatedInBytes, long cpuAllocatedInMhz,
+            long memoryUsedInBytes, long cpuUsedInMhz) {
+        double memoryAllocatedAsPercentage = (memoryAllocatedInBytes / getLongAsDouble(totalMemoryInBytes)) * 100;
+        double cpuAllocatedAsPercentage = (cpuAllocatedInMhz / getLongAsDouble(totalCpuPowerInMhz)) * 100;
+        double usedMemoryAsPercentage = memoryAllocatedInBytes > 0 ? (memoryUsedInBytes / getLongAsDouble(memoryAllocatedInBytes)) * 100 : 0;
+        double usedCpuAsPercentage = cpuAllocatedInMhz > 0 ? (cpuUsedInMhz / getLongAsDouble(cpuAllocatedInMhz)) * 100 : 0;
         return String.format(
                 "id [%s], total memory [%dMB], total cpu [%dMhz], allocated memory [%dMB], allocated cpu [%dMhz], allocated memory in %% [%.2f], allocated cpu in %% [%.2f], memory used [%dMb], cpu used [%dMhz], used memory in %% [%.2f], used cpu in %% [%.2f]",
-                id, getTotalMemoryInMib(), totalCpuPowerInMhz, getMemoryAllocatedInMib(), cpuAllocatedInMhz, getMemoryAllocatedAsPercentage(), getCpuAllocatedAsPercentage(),
-                getMemoryUsedInMib(), cpuUsedInMhz, getUsedMemoryAsPercentage(), getUsedCpuAsPercentage());
-    }
-
-    private double getUsedMemoryAsPercentage() {
-        return getMemoryAllocatedInBytes() > 0 ? (getMemoryUsedInBytes() / getLongAsDouble(getMemoryAllocatedInBytes())) * 100 : 0;
-    }
-
-    private double getUsedCpuAsPercentage() {
-        return cpuAllocatedInMhz > 0 ? (getCpuUsedInMhz() / getLongAsDouble(cpuAllocatedInMhz)) * 100 : 0;
-    }
-
-    private double getMemoryAllocatedAsPercentage() {
-        return (getMemoryAllocatedInBytes() / getLongAsDouble(getTotalMemoryInBytes())) * 100;
+                id, totalMemoryInBytes / NUMBER_OF_BYTES_IN_ONE_MEGA_BYTE, totalCpuPowerInMhz, memoryAllocatedInBytes / NUMBER_OF_BYTES_IN_ONE_MEGA_BYTE, cpuAllocatedInMhz,
+                memoryAllocatedAsPercentage, cpuAllocatedAsPercentage, memoryUsedInBytes / NUMBER_OF_BYTES_IN_ONE_MEGA_BYTE, cpuUsedInMhz, usedMemoryAsPercentage,
+                usedCpuAsPercentage);
     }
 
-    private double getCpuAllocatedAsPercentage() {
-        return (cpuAllocatedInMhz / getLongAsDouble(totalCpuPowerInMhz)) * 100;
-    }
-
-    private double getLongAsDouble(long value) {
+    private static double getLongAsDouble(long value) {
         return value * 1d;
     }
 
@@ -89,7 +88,11 @@ public abstract class ComputingResource implements Cloneable {
     }
 
     public void setTotalMemoryInBytes(long totalMemoryInBytes) {
+        if (this.totalMemoryInBytes == totalMemoryInBytes) {
+            return;
+        }
         this.totalMemoryInBytes = totalMemoryInBytes;
+        attributeChanged(ResourceAttribute.TOTAL_MEMORY);
     }
 
     public long getTotalCpuPowerInMhz() {
@@ -97,7 +100,11 @@ public abstract class ComputingResource implements Cloneable {
     }
 
     public void setTotalCpuPowerInMhz(long totalCpuPowerInMhz) {
+        if (this.totalCpuPowerInMhz == totalCpuPowerInMhz) {
+            return;
+        }
         this.totalCpuPowerInMhz = totalCpuPowerInMhz;
+        attributeChanged(ResourceAttribute.TOTAL_CPU);
     }
 
     public long getMemoryAllocatedInBytes() {
@@ -105,7 +112,11 @@ public abstract class ComputingResource implements Cloneable {
     }
 
     public void setMemoryAllocatedInBytes(long memoryAllocatedInBytes) {
+        if (this.memoryAllocatedInBytes == memoryAllocatedInBytes) {
+            return;
+        }
         this.memoryAllocatedInBytes = memoryAllocatedInBytes;
+        attributeChanged(ResourceAttribute.ALLOCATED_MEMORY);
     }
 
     public long getCpuAllocatedInMhz() {
@@ -113,7 +124,11 @@ public abstract class ComputingResource implements Cloneable {
     }
 
     public void setCpuAllocatedInMhz(long cpuAllocatedInMhz) {
+        if (this.cpuAllocatedInMhz == cpuAllocatedInMhz) {
+            return;
+        }
         this.cpuAllocatedInMhz = cpuAllocatedInMhz;
+        attributeChanged(ResourceAttribute.ALLOCATED_CPU);
     }
 
     public long getMemoryUsedInBytes() {
@@ -121,11 +136,15 @@ public abstract class ComputingResource implements Cloneable {
     }
 
     public void setMemoryUsedInMiB(long memoryUsedInBytes) {
-        this.memoryUsedInBytes = memoryUsedInBytes * NUMBER_OF_BYTES_IN_ONE_MEGA_BYTE;
+        setMemoryUsedInBytes(memoryUsedInBytes * NUMBER_OF_BYTES_IN_ONE_MEGA_BYTE);
     }
 
     public void setMemoryUsedInBytes(long memoryUsedInBytes) {
+        if (this.memoryUsedInBytes == memoryUsedInBytes) {
+            return;
+        }
         this.memoryUsedInBytes = memoryUsedInBytes;
+        attributeChanged(ResourceAttribute.USED_MEMORY);
     }
 
     public long getCpuUsedInMhz() {
@@ -133,11 +152,35 @@ public abstract class ComputingResource implements Cloneable {
     }
 
     public void setCpuUsedInMhz(long cpuUsedInMhz) {
+        if (this.cpuUsedInMhz == cpuUsedInMhz) {
+            return;
+        }
         this.cpuUsedInMhz = cpuUsedInMhz;
+        attributeChanged(ResourceAttribute.USED_CPU);
+    }
+
+    /**
+     * It returns a counter that is incremented every time the value of the given attribute changes. Comparing versions is a cheap way to know if something changed.
+     */
+    public long getAttributeVersion(ResourceAttribute attribute) {
+        return attributesVersions[attribute.ordinal()];
+    }
+
+    private void attributeChanged(ResourceAttribute attribute) {
+        attributesVersions[attribute.ordinal()]++;
+        resourcesChanged();
+    }
+
+    /**
+     * Called every time that one of the resource values (total, allocated or used) is changed.
+     */
+    protected void resourcesChanged() {
     }
 
     @Override
     public Object clone() throws CloneNotSupportedException {
-        return super.clone();
+        ComputingResource clone = (ComputingResource)super.clone();
+        clone.attributesVersions = attributesVersions.clone();
+        return clone;
     }
 }
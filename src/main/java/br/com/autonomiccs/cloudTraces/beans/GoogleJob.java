@@ -94,6 +94,14 @@ public class GoogleJob {
         return mapTimeByTasks;
     }
 
+    /**
+     * It drops the task executions of the job (and the memory used by their collections).
+     */
+    public void clearTasks() {
+        tasks = new PriorityQueue<>();
+        mapTimeByTasks = new HashMap<>();
+    }
+
     public double getMaximumCpuUsageAtTime() {
         return maximumCpuUsageAtTime;
     }
@@ -128,7 +136,9 @@ public class GoogleJob {
 
     @Override
     public String toString() {
-        logger.debug(String.format("toString of: Job id [%s], number of tasks (with duplicated ones) [%d]", jobId, tasks.size()));
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("toString of: Job id [%s], number of tasks (with duplicated ones) [%d]", jobId, tasks.size()));
+        }
         int numberOfDuplicates = 0;
         Set<Integer> taskIds = new HashSet<>(tasks.size());
         for (GoogleTask t : tasks) {
@@ -21,7 +21,9 @@
  */
 package br.com.autonomiccs.cloudTraces.beans;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class Host extends ComputingResource {
@@ -29,6 +31,11 @@ public class Host extends ComputingResource {
     private Set<VirtualMachine> virtualMachines = new HashSet<>();
     private String clusterId;
 
+    private double cpuOvercommitRatio = 1;
+    private double memoryOvercommitRatio = 1;
+
+    private List<HostResourcesListener> resourcesListeners = new ArrayList<>();
+
     public Host(String id) {
         super(id);
     }
@@ -65,10 +72,99 @@ public class Host extends ComputingResource {
         vm.setHost(null);
     }
 
+    /**
+     * While a VM is migrated to this host, its resources are allocated here as well as in its current host (the VM is not added to the VMs of this host).
+     */
+    public void reserveResources(VirtualMachine vm) {
+        VmServiceOffering vmServiceOffering = vm.getVmServiceOffering();
+        setCpuAllocatedInMhz(getCpuAllocatedInMhz() + getVmRequestedCpu(vmServiceOffering));
+        setMemoryAllocatedInBytes(getMemoryAllocatedInBytes() + getVmRquestedMemoryInBytes(vmServiceOffering));
+    }
+
+    public void releaseReservedResources(VirtualMachine vm) {
+        VmServiceOffering vmServiceOffering = vm.getVmServiceOffering();
+        setCpuAllocatedInMhz(getCpuAllocatedInMhz() - getVmRequestedCpu(vmServiceOffering));
+        setMemoryAllocatedInBytes(getMemoryAllocatedInBytes() - getVmRquestedMemoryInBytes(vmServiceOffering));
+    }
+
     private long getVmRequestedCpu(VmServiceOffering vmServiceOffering) {
         return vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores();
     }
 
+    /**
+     * The CPU that is still available to be allocated to virtual machines.
+     */
+    public long getAvailableCpuInMhz() {
+        return getAdmissibleCpuInMhz() - getCpuAllocatedInMhz();
+    }
+
+    /**
+     * The memory that is still available to be allocated to virtual machines.
+     */
+    public long getAvailableMemoryInMib() {
+        return getAdmissibleMemoryInMib() - getMemoryAllocatedInMib();
+    }
+
+    /**
+     * The CPU that can be allocated to virtual machines: the total CPU multiplied by the overcommit ratio.
+     */
+    public long getAdmissibleCpuInMhz() {
+        if (cpuOvercommitRatio == 1) {
+            return getTotalCpuPowerInMhz();
+        }
+        return (long)(getTotalCpuPowerInMhz() * cpuOvercommitRatio);
+    }
+
+    /**
+     * The memory that can be allocated to virtual machines: the total memory multiplied by the overcommit ratio.
+     */
+    public long getAdmissibleMemoryInMib() {
+        if (memoryOvercommitRatio == 1) {
+            return getTotalMemoryInMib();
+        }
+        return (long)(getTotalMemoryInBytes() * memoryOvercommitRatio) / NUMBER_OF_BYTES_IN_ONE_MEGA_BYTE;
+    }
+
+    public double getCpuOvercommitRatio() {
+        return cpuOvercommitRatio;
+    }
+
+    public double getMemoryOvercommitRatio() {
+        return memoryOvercommitRatio;
+    }
+
+    /**
+     * Ratios greater than one allow more resources to be allocated than the host has (see {@link br.com.autonomiccs.cloudTraces.overcommit.OvercommitPolicy}); as
+     * they change the available resources, listeners are notified.
+     */
+    public void setOvercommitRatios(double cpuOvercommitRatio, double memoryOvercommitRatio) {
+        if (this.cpuOvercommitRatio == cpuOvercommitRatio && this.memoryOvercommitRatio == memoryOvercommitRatio) {
+            return;
+        }
+        this.cpuOvercommitRatio = cpuOvercommitRatio;
+        this.memoryOvercommitRatio = memoryOvercommitRatio;
+        resourcesChanged();
+    }
+
+    public void addResourcesListener(HostResourcesListener hostResourcesListener) {
+        resourcesListeners.add(hostResourcesListener);
+    }
+
+    public void removeResourcesListener(HostResourcesListener hostResourcesListener) {
+        resourcesListeners.remove(hostResourcesListener);
+    }
+
+    @Override
+    protected void resourcesChanged() {
+        for (int i = 0; i < resourcesListeners.size(); i++) {
+            resourcesListeners.get(i).hostResourcesChanged(this);
+        }
+    }
+
+    public String getClusterId() {
+        return clusterId;
+    }
+
     public void setClusterId(String clusterId) {
         this.clusterId = clusterId;
     }
@@ -95,6 +191,7 @@ public class Host extends ComputingResource {
     public Object clone() throws CloneNotSupportedException {
         Host clone = (Host)super.clone();
         clone.virtualMachines = new HashSet<>(virtualMachines);
+        clone.resourcesListeners = new ArrayList<>();
         return clone;
     }
 }
@@ -30,6 +30,7 @@ public class VirtualMachine {
 
     private VmServiceOffering vmServiceOffering;
     private GoogleJob googleJob;
+    private VmUsageSeries usageSeries;
 
     private Host host;
 
@@ -73,6 +74,14 @@ public class VirtualMachine {
         this.googleJob = googleJob;
     }
 
+    public VmUsageSeries getUsageSeries() {
+        return usageSeries;
+    }
+
+    public void setUsageSeries(VmUsageSeries usageSeries) {
+        this.usageSeries = usageSeries;
+    }
+
     public void setHost(Host host) {
         this.host = host;
     }
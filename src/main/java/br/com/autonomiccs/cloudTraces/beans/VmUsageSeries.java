@@ -0,0 +1,223 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.beans;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * The CPU (MHz) and memory (MB) usage of a VM through time. Samples are kept in primitive arrays sorted by time (there is at most one sample per time), so
+ * the usage at a given time is found with a binary search. The series may also have the usage of the VM at the iterations of the simulation (the tick grid usage,
+ * see {@link br.com.autonomiccs.cloudTraces.interpolation.VmUsageInterpolator}).
+ */
+public class VmUsageSeries {
+
+    private static final int[] NO_TIMES = new int[0];
+    private static final double[] NO_USAGES = new double[0];
+
+    private int[] times;
+    private double[] cpuUsages;
+    private double[] memoryUsages;
+    private int size;
+
+    private boolean sorted = true;
+
+    private int firstTick;
+    private double[] tickGridCpuUsages;
+    private double[] tickGridMemoryUsages;
+
+    public VmUsageSeries() {
+        this(0);
+    }
+
+    public VmUsageSeries(int initialCapacity) {
+        times = initialCapacity == 0 ? NO_TIMES : new int[initialCapacity];
+        cpuUsages = initialCapacity == 0 ? NO_USAGES : new double[initialCapacity];
+        memoryUsages = initialCapacity == 0 ? NO_USAGES : new double[initialCapacity];
+    }
+
+    /**
+     * Samples are expected in the order of time, but they may be added in any order (they are sorted before the series is read).
+     */
+    public void add(int time, double cpuUsage, double memoryUsage) {
+        if (size == times.length) {
+            int capacity = Math.max(16, size * 2);
+            times = Arrays.copyOf(times, capacity);
+            cpuUsages = Arrays.copyOf(cpuUsages, capacity);
+            memoryUsages = Arrays.copyOf(memoryUsages, capacity);
+        }
+        if (size > 0 && time <= times[size - 1]) {
+            sorted = false;
+        }
+        times[size] = time;
+        cpuUsages[size] = cpuUsage;
+        memoryUsages[size] = memoryUsage;
+        size++;
+    }
+
+    /**
+     * It sorts the samples (if they were not added in the order of time) and releases the unused capacity of the arrays.
+     */
+    public void trimToSize() {
+        sortIfNeeded();
+        if (size < times.length) {
+            times = Arrays.copyOf(times, size);
+            cpuUsages = Arrays.copyOf(cpuUsages, size);
+            memoryUsages = Arrays.copyOf(memoryUsages, size);
+        }
+    }
+
+    /**
+     * It drops all of the samples.
+     */
+    public void clear() {
+        times = NO_TIMES;
+        cpuUsages = NO_USAGES;
+        memoryUsages = NO_USAGES;
+        size = 0;
+        sorted = true;
+        tickGridCpuUsages = null;
+        tickGridMemoryUsages = null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getTime(int index) {
+        sortIfNeeded();
+        return times[index];
+    }
+
+    public double getCpuUsage(int index) {
+        sortIfNeeded();
+        return cpuUsages[index];
+    }
+
+    public double getMemoryUsage(int index) {
+        sortIfNeeded();
+        return memoryUsages[index];
+    }
+
+    /**
+     * It returns the index of the sample of the given time, or -1 if there is no sample at that time.
+     */
+    public int getIndexOfTime(double time) {
+        int index = getIndexOfFirstTimeFrom(time);
+        return index < size && times[index] == time ? index : -1;
+    }
+
+    /**
+     * It returns the index of the last sample with time lower or equal to the given time, or -1 if there is no such sample.
+     */
+    public int getIndexOfLastTimeUntil(double time) {
+        sortIfNeeded();
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * It returns the index of the first sample with time greater or equal to the given time, or {@link #size()} if there is no such sample.
+     */
+    public int getIndexOfFirstTimeFrom(double time) {
+        sortIfNeeded();
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * It sets the usage of the VM from the tick 'firstTick' on.
+     */
+    public void setTickGridUsage(int firstTick, double[] tickGridCpuUsages, double[] tickGridMemoryUsages) {
+        this.firstTick = firstTick;
+        this.tickGridCpuUsages = tickGridCpuUsages;
+        this.tickGridMemoryUsages = tickGridMemoryUsages;
+    }
+
+    public boolean hasTickGridUsage() {
+        return tickGridCpuUsages != null;
+    }
+
+    public boolean isInTickGridUsage(int tick) {
+        return tickGridCpuUsages != null && tick >= firstTick && tick - firstTick < tickGridCpuUsages.length;
+    }
+
+    public double getTickGridCpuUsage(int tick) {
+        return tickGridCpuUsages[tick - firstTick];
+    }
+
+    public double getTickGridMemoryUsage(int tick) {
+        return tickGridMemoryUsages[tick - firstTick];
+    }
+
+    private void sortIfNeeded() {
+        if (sorted) {
+            return;
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        final int[] unsortedTimes = times;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Integer.compare(unsortedTimes[o1], unsortedTimes[o2]);
+            }
+        });
+        int[] sortedTimes = new int[size];
+        double[] sortedCpuUsages = new double[size];
+        double[] sortedMemoryUsages = new double[size];
+        for (int i = 0; i < size; i++) {
+            sortedTimes[i] = times[order[i]];
+            sortedCpuUsages[i] = cpuUsages[order[i]];
+            sortedMemoryUsages[i] = memoryUsages[order[i]];
+            if (i > 0 && sortedTimes[i] == sortedTimes[i - 1]) {
+                throw new GoogleTracesToCloudTracesException(String.format("There is more than one usage sample at time [%d].", sortedTimes[i]));
+            }
+        }
+        times = sortedTimes;
+        cpuUsages = sortedCpuUsages;
+        memoryUsages = sortedMemoryUsages;
+        sorted = true;
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.checkpoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.ComputingResource;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.journal.ResourceSnapshot;
+import br.com.autonomiccs.cloudTraces.overcommit.ContentionTracker;
+import br.com.autonomiccs.cloudTraces.overcommit.OvercommitPolicy;
+import br.com.autonomiccs.cloudTraces.overcommit.StatefulOvercommitPolicy;
+
+/**
+ * State of a simulation at the end of an iteration: the cloud topology, the resources (total, allocated and used) and overcommit ratios of the cloud, clusters and
+ * hosts, the virtual machines placed at every host, the time and number of the iteration that was executed and of the next one, the cloud state with the highest
+ * memory allocation so far, the contention counters and the state of the overcommit policy (see {@link StatefulOvercommitPolicy}).
+ *
+ * Virtual machines are stored by id; when a checkpoint is read, they are placed again using the virtual machines loaded from the same cloud traces file. The time
+ * series of the virtual machines are not stored, as they come from the traces as well; the arrivals of virtual machines up to the last executed iteration are
+ * considered consumed.
+ *
+ * The state of the algorithms is not part of the checkpoint; they are initialized again with the restored cloud, which also allows one to fork a simulation by
+ * resuming it with other algorithms. The state of the overcommit policy is only restored if the resumed simulation uses the same policy.
+ */
+public class SimulationCheckpoint {
+
+    public static final int MAGIC_NUMBER = 0x43544350;
+    public static final int FORMAT_VERSION = 2;
+
+    private Cloud cloud;
+    private double lastIterationTime;
+    private double nextIterationTime;
+    private double timeUnitPerLoopIteration;
+    private int iteration;
+    private ResourceSnapshot cloudStateHighestMemoryAllocation;
+    private ContentionTracker contentionTracker;
+
+    /**
+     * Class and serialized state of the overcommit policy; the class is empty if the policy does not have a state.
+     */
+    private String overcommitPolicyClass;
+    private byte[] overcommitPolicyState;
+
+    /**
+     * @param iteration
+     *            number of iterations (executed or skipped) before the next one
+     * @param overcommitPolicy
+     *            null if the simulation has no overcommit policy
+     */
+    public SimulationCheckpoint(Cloud cloud, double lastIterationTime, double nextIterationTime, double timeUnitPerLoopIteration, int iteration,
+            ResourceSnapshot cloudStateHighestMemoryAllocation, ContentionTracker contentionTracker, OvercommitPolicy overcommitPolicy) {
+        this(cloud, lastIterationTime, nextIterationTime, timeUnitPerLoopIteration, iteration, cloudStateHighestMemoryAllocation, contentionTracker, "", new byte[0]);
+        if (overcommitPolicy instanceof StatefulOvercommitPolicy) {
+            ByteArrayOutputStream state = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(state)) {
+                ((StatefulOvercommitPolicy)overcommitPolicy).writeState(output, cloud);
+            } catch (IOException e) {
+                throw new GoogleTracesToCloudTracesException(e);
+            }
+            overcommitPolicyClass = overcommitPolicy.getClass().getName();
+            overcommitPolicyState = state.toByteArray();
+        }
+    }
+
+    private SimulationCheckpoint(Cloud cloud, double lastIterationTime, double nextIterationTime, double timeUnitPerLoopIteration, int iteration,
+            ResourceSnapshot cloudStateHighestMemoryAllocation, ContentionTracker contentionTracker, String overcommitPolicyClass, byte[] overcommitPolicyState) {
+        this.cloud = cloud;
+        this.lastIterationTime = lastIterationTime;
+        this.nextIterationTime = nextIterationTime;
+        this.timeUnitPerLoopIteration = timeUnitPerLoopIteration;
+        this.iteration = iteration;
+        this.cloudStateHighestMemoryAllocation = cloudStateHighestMemoryAllocation;
+        this.contentionTracker = contentionTracker;
+        this.overcommitPolicyClass = overcommitPolicyClass;
+        this.overcommitPolicyState = overcommitPolicyState;
+    }
+
+    public Cloud getCloud() {
+        return cloud;
+    }
+
+    /**
+     * Time of the last iteration executed before the checkpoint; arrivals of virtual machines until (and including) this time were already consumed.
+     */
+    public double getLastIterationTime() {
+        return lastIterationTime;
+    }
+
+    /**
+     * Time of the iteration that a resumed simulation executes first.
+     */
+    public double getNextIterationTime() {
+        return nextIterationTime;
+    }
+
+    public double getTimeUnitPerLoopIteration() {
+        return timeUnitPerLoopIteration;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public ResourceSnapshot getCloudStateHighestMemoryAllocation() {
+        return cloudStateHighestMemoryAllocation;
+    }
+
+    public ContentionTracker getContentionTracker() {
+        return contentionTracker;
+    }
+
+    /**
+     * It restores the state of the checkpointed overcommit policy in the given one, if both are the same stateful policy; it returns false otherwise (the overcommit
+     * ratios of the hosts are the ones of the checkpoint in both cases).
+     */
+    public boolean restoreOvercommitPolicyState(OvercommitPolicy overcommitPolicy) {
+        if (!(overcommitPolicy instanceof StatefulOvercommitPolicy) || !overcommitPolicy.getClass().getName().equals(overcommitPolicyClass)) {
+            return false;
+        }
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(overcommitPolicyState))) {
+            ((StatefulOvercommitPolicy)overcommitPolicy).readState(input, cloud);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        return true;
+    }
+
+    /**
+     * It writes the checkpoint to a temporary file that then replaces the given one; therefore, a crash while writing does not destroy the previous checkpoint.
+     */
+    public void write(String checkpointFile) {
+        File file = new File(checkpointFile);
+        File temporaryFile = new File(checkpointFile + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), 1 << 16))) {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(FORMAT_VERSION);
+            output.writeDouble(lastIterationTime);
+            output.writeDouble(nextIterationTime);
+            output.writeDouble(timeUnitPerLoopIteration);
+            output.writeInt(iteration);
+            writeCloud(output);
+            cloudStateHighestMemoryAllocation.write(output);
+            contentionTracker.write(output);
+            output.writeUTF(overcommitPolicyClass);
+            output.writeInt(overcommitPolicyState.length);
+            output.write(overcommitPolicyState);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private void writeCloud(DataOutputStream output) throws IOException {
+        writeResources(output, cloud);
+        output.writeInt(cloud.getClusters().size());
+        for (Cluster cluster : cloud.getClusters()) {
+            writeResources(output, cluster);
+            output.writeInt(cluster.getHosts().size());
+            for (Host host : cluster.getHosts()) {
+                writeResources(output, host);
+                output.writeBoolean(host.getClusterId() != null);
+                if (host.getClusterId() != null) {
+                    output.writeUTF(host.getClusterId());
+                }
+                output.writeDouble(host.getCpuOvercommitRatio());
+                output.writeDouble(host.getMemoryOvercommitRatio());
+                output.writeInt(host.getVirtualMachines().size());
+                for (VirtualMachine virtualMachine : host.getVirtualMachines()) {
+                    output.writeUTF(virtualMachine.getVmId());
+                }
+            }
+        }
+    }
+
+    private static void writeResources(DataOutputStream output, ComputingResource computingResource) throws IOException {
+        output.writeUTF(computingResource.getId());
+        output.writeLong(computingResource.getTotalMemoryInBytes());
+        output.writeLong(computingResource.getTotalCpuPowerInMhz());
+        output.writeLong(computingResource.getMemoryAllocatedInBytes());
+        output.writeLong(computingResource.getCpuAllocatedInMhz());
+        output.writeLong(computingResource.getMemoryUsedInBytes());
+        output.writeLong(computingResource.getCpuUsedInMhz());
+    }
+
+    /**
+     * It reads a checkpoint, placing the given virtual machines (loaded from the same traces of the checkpointed simulation) at the hosts they were.
+     */
+    public static SimulationCheckpoint read(String checkpointFile, Collection<VirtualMachine> virtualMachines) {
+        Map<String, VirtualMachine> virtualMachinesById = new HashMap<>(virtualMachines.size() * 2);
+        for (VirtualMachine virtualMachine : virtualMachines) {
+            virtualMachinesById.put(virtualMachine.getVmId(), virtualMachine);
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(checkpointFile), 1 << 16))) {
+            if (input.readInt() != MAGIC_NUMBER) {
+                throw new GoogleTracesToCloudTracesException(String.format("File [%s] is not a simulation checkpoint.", checkpointFile));
+            }
+            int formatVersion = input.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new GoogleTracesToCloudTracesException(String.format("Checkpoint version [%d] is not supported.", formatVersion));
+            }
+            double lastIterationTime = input.readDouble();
+            double nextIterationTime = input.readDouble();
+            double timeUnitPerLoopIteration = input.readDouble();
+            int iteration = input.readInt();
+            Cloud cloud = readCloud(input, virtualMachinesById);
+            ResourceSnapshot cloudStateHighestMemoryAllocation = new ResourceSnapshot();
+            cloudStateHighestMemoryAllocation.read(input);
+            ContentionTracker contentionTracker = new ContentionTracker();
+            contentionTracker.read(input);
+            String overcommitPolicyClass = input.readUTF();
+            byte[] overcommitPolicyState = new byte[input.readInt()];
+            input.readFully(overcommitPolicyState);
+            return new SimulationCheckpoint(cloud, lastIterationTime, nextIterationTime, timeUnitPerLoopIteration, iteration, cloudStateHighestMemoryAllocation,
+                    contentionTracker, overcommitPolicyClass, overcommitPolicyState);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private static Cloud readCloud(DataInputStream input, Map<String, VirtualMachine> virtualMachinesById) throws IOException {
+        Cloud cloud = new Cloud(input.readUTF());
+        long[] cloudResources = readResourceValues(input);
+
+        int numberOfClusters = input.readInt();
+        for (int i = 0; i < numberOfClusters; i++) {
+            Cluster cluster = new Cluster(input.readUTF());
+            long[] clusterResources = readResourceValues(input);
+
+            int numberOfHosts = input.readInt();
+            for (int j = 0; j < numberOfHosts; j++) {
+                Host host = new Host(input.readUTF());
+                long[] hostResources = readResourceValues(input);
+                if (input.readBoolean()) {
+                    host.setClusterId(input.readUTF());
+                }
+                host.setOvercommitRatios(input.readDouble(), input.readDouble());
+                host.setTotalMemoryInBytes(hostResources[0]);
+                host.setTotalCpuPowerInMhz(hostResources[1]);
+
+                int numberOfVirtualMachines = input.readInt();
+                for (int k = 0; k < numberOfVirtualMachines; k++) {
+                    String vmId = input.readUTF();
+                    VirtualMachine virtualMachine = virtualMachinesById.get(vmId);
+                    if (virtualMachine == null) {
+                        throw new GoogleTracesToCloudTracesException(String.format("VM [%s] of the checkpoint was not found in the cloud traces.", vmId));
+                    }
+                    host.addVirtualMachine(virtualMachine);
+                    cloud.addVirtualMachine(virtualMachine);
+                }
+                setResourceValues(host, hostResources);
+                cluster.getHosts().add(host);
+            }
+            setResourceValues(cluster, clusterResources);
+            cloud.getClusters().add(cluster);
+        }
+        setResourceValues(cloud, cloudResources);
+        return cloud;
+    }
+
+    private static long[] readResourceValues(DataInputStream input) throws IOException {
+        long[] values = new long[6];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = input.readLong();
+        }
+        return values;
+    }
+
+    private static void setResourceValues(ComputingResource computingResource, long[] values) {
+        computingResource.setTotalMemoryInBytes(values[0]);
+        computingResource.setTotalCpuPowerInMhz(values[1]);
+        computingResource.setMemoryAllocatedInBytes(values[2]);
+        computingResource.setCpuAllocatedInMhz(values[3]);
+        computingResource.setMemoryUsedInBytes(values[4]);
+        computingResource.setCpuUsedInMhz(values[5]);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.index;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.HostResourcesListener;
+
+/**
+ * Segment tree that keeps the maximum available CPU and memory of the hosts of a cluster.
+ * Every node of the tree has the maximum available CPU and the maximum available memory of the hosts below it. Therefore, we can tell in O(1) if a cluster cannot support a VM,
+ * and we can find the first host (in the cluster hosts order) that supports a VM by descending only into sub-trees that may have a suitable host.
+ * The search is not O(log n), though: the maximum CPU and the maximum memory of a node may come from different hosts, so a sub-tree can pass the check without
+ * having a host that supports both, and the search backtracks. In the worst case (e.g. hosts alternating between having only CPU and only memory available) it
+ * visits every node, which is O(n); it is still cheaper than a linear scan whenever whole sub-trees can be pruned.
+ * The index is kept up to date by listening to the changes in the hosts resources ({@link HostResourcesListener}); an update costs O(log n).
+ */
+public class ClusterFreeCapacityIndex implements HostResourcesListener {
+
+    private static final long NO_HOST = Long.MIN_VALUE;
+
+    private Host[] hosts;
+    private Map<Host, Integer> hostsPositions;
+
+    private int numberOfLeaves;
+    private long[] maximumAvailableCpuInMhz;
+    private long[] maximumAvailableMemoryInMib;
+
+    public ClusterFreeCapacityIndex(List<Host> clusterHosts) {
+        hosts = clusterHosts.toArray(new Host[clusterHosts.size()]);
+        hostsPositions = new IdentityHashMap<>(hosts.length);
+
+        numberOfLeaves = 1;
+        while (numberOfLeaves < hosts.length) {
+            numberOfLeaves *= 2;
+        }
+        maximumAvailableCpuInMhz = new long[2 * numberOfLeaves];
+        maximumAvailableMemoryInMib = new long[2 * numberOfLeaves];
+        for (int i = 0; i < numberOfLeaves; i++) {
+            if (i < hosts.length) {
+                hostsPositions.put(hosts[i], i);
+                hosts[i].addResourcesListener(this);
+                setLeaf(i, hosts[i].getAvailableCpuInMhz(), hosts[i].getAvailableMemoryInMib());
+            } else {
+                setLeaf(i, NO_HOST, NO_HOST);
+            }
+        }
+        for (int node = numberOfLeaves - 1; node > 0; node--) {
+            updateNode(node);
+        }
+    }
+
+    public int getNumberOfIndexedHosts() {
+        return hosts.length;
+    }
+
+    /**
+     * It returns true if the hosts used to build this index are the same ones (and in the same order) of the given list.
+     */
+    public boolean isIndexing(List<Host> clusterHosts) {
+        if (clusterHosts.size() != hosts.length) {
+            return false;
+        }
+        for (int i = 0; i < hosts.length; i++) {
+            if (clusterHosts.get(i) != hosts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * It checks in O(1) if there is at least one host that has the given amount of CPU and memory available.
+     */
+    public boolean canAnyHostSupport(long cpuInMhz, long memoryInMib) {
+        return hosts.length > 0 && maximumAvailableCpuInMhz[1] >= cpuInMhz && maximumAvailableMemoryInMib[1] >= memoryInMib;
+    }
+
+    /**
+     * It returns the first host (in the order of the cluster host list) that has the given amount of CPU and memory available, or null if there is no such host.
+     * It costs O(n) in the worst case (see the class documentation).
+     */
+    public Host findFirstHostThatSupports(long cpuInMhz, long memoryInMib) {
+        if (!canAnyHostSupport(cpuInMhz, memoryInMib)) {
+            return null;
+        }
+        int leaf = findFirstLeafThatSupports(1, cpuInMhz, memoryInMib);
+        return leaf < 0 ? null : hosts[leaf - numberOfLeaves];
+    }
+
+    private int findFirstLeafThatSupports(int node, long cpuInMhz, long memoryInMib) {
+        if (maximumAvailableCpuInMhz[node] < cpuInMhz || maximumAvailableMemoryInMib[node] < memoryInMib) {
+            return -1;
+        }
+        if (node >= numberOfLeaves) {
+            return node;
+        }
+        int leaf = findFirstLeafThatSupports(2 * node, cpuInMhz, memoryInMib);
+        if (leaf >= 0) {
+            return leaf;
+        }
+        return findFirstLeafThatSupports(2 * node + 1, cpuInMhz, memoryInMib);
+    }
+
+    @Override
+    public void hostResourcesChanged(Host host) {
+        Integer position = hostsPositions.get(host);
+        if (position == null) {
+            return;
+        }
+        int leaf = position + numberOfLeaves;
+        long availableCpuInMhz = host.getAvailableCpuInMhz();
+        long availableMemoryInMib = host.getAvailableMemoryInMib();
+        if (maximumAvailableCpuInMhz[leaf] == availableCpuInMhz && maximumAvailableMemoryInMib[leaf] == availableMemoryInMib) {
+            return;
+        }
+        setLeaf(position, availableCpuInMhz, availableMemoryInMib);
+        int node = (position + numberOfLeaves) / 2;
+        while (node > 0) {
+            updateNode(node);
+            node /= 2;
+        }
+    }
+
+    /**
+     * It stops listening to the hosts resources. It should be called when the index is not going to be used anymore.
+     */
+    public void detach() {
+        for (Host host : hosts) {
+            host.removeResourcesListener(this);
+        }
+    }
+
+    private void setLeaf(int position, long availableCpuInMhz, long availableMemoryInMib) {
+        maximumAvailableCpuInMhz[position + numberOfLeaves] = availableCpuInMhz;
+        maximumAvailableMemoryInMib[position + numberOfLeaves] = availableMemoryInMib;
+    }
+
+    private void updateNode(int node) {
+        maximumAvailableCpuInMhz[node] = Math.max(maximumAvailableCpuInMhz[2 * node], maximumAvailableCpuInMhz[2 * node + 1]);
+        maximumAvailableMemoryInMib[node] = Math.max(maximumAvailableMemoryInMib[2 * node], maximumAvailableMemoryInMib[2 * node + 1]);
+    }
+}
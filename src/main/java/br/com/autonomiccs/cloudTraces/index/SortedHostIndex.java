@@ -0,0 +1,192 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.index;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.HostResourcesListener;
+
+/**
+ * It keeps the hosts of a cluster sorted by their normalized available resources (available CPU + available memory, each one divided by the biggest host capacity of
+ * the cluster). The index is updated in O(log n) every time a host allocation changes ({@link HostResourcesListener}), so vector bin packing heuristics (best-fit,
+ * worst-fit and dot-product) can find their host without sorting the whole cluster for every VM.
+ */
+public class SortedHostIndex implements HostResourcesListener {
+
+    private static class HostEntry {
+        private Host host;
+        private int position;
+        private double key;
+    }
+
+    private static final Comparator<HostEntry> HOST_ENTRY_COMPARATOR = new Comparator<HostEntry>() {
+        @Override
+        public int compare(HostEntry o1, HostEntry o2) {
+            int keyComparison = Double.compare(o1.key, o2.key);
+            if (keyComparison != 0) {
+                return keyComparison;
+            }
+            return Integer.compare(o1.position, o2.position);
+        }
+    };
+
+    private TreeSet<HostEntry> sortedEntries = new TreeSet<>(HOST_ENTRY_COMPARATOR);
+    private Map<Host, HostEntry> entriesByHost = new IdentityHashMap<>();
+
+    private double biggestHostCpuInMhz = 1;
+    private double biggestHostMemoryInMib = 1;
+
+    /**
+     * Entry reused to search the sorted set; its position is lower than any host position, so it is placed before all of the hosts that have the same key.
+     */
+    private HostEntry searchEntry = new HostEntry();
+
+    public SortedHostIndex(List<Host> hosts) {
+        for (Host host : hosts) {
+            biggestHostCpuInMhz = Math.max(biggestHostCpuInMhz, host.getTotalCpuPowerInMhz());
+            biggestHostMemoryInMib = Math.max(biggestHostMemoryInMib, host.getTotalMemoryInMib());
+        }
+        for (int i = 0; i < hosts.size(); i++) {
+            HostEntry hostEntry = new HostEntry();
+            hostEntry.host = hosts.get(i);
+            hostEntry.position = i;
+            hostEntry.key = calculateKey(hostEntry.host);
+            entriesByHost.put(hostEntry.host, hostEntry);
+            sortedEntries.add(hostEntry);
+            hostEntry.host.addResourcesListener(this);
+        }
+        searchEntry.position = -1;
+    }
+
+    public int getNumberOfIndexedHosts() {
+        return entriesByHost.size();
+    }
+
+    public double getNormalizedCpu(long cpuInMhz) {
+        return cpuInMhz / biggestHostCpuInMhz;
+    }
+
+    public double getNormalizedMemory(long memoryInMib) {
+        return memoryInMib / biggestHostMemoryInMib;
+    }
+
+    /**
+     * It returns the host that supports the given resources and that has the least normalized resources left after receiving them, or null if no host supports them.
+     * Hosts with a key lower than the requested resources cannot support them, so we start looking from there.
+     */
+    public Host findBestFit(long cpuInMhz, long memoryInMib) {
+        searchEntry.key = getNormalizedCpu(cpuInMhz) + getNormalizedMemory(memoryInMib);
+        for (HostEntry hostEntry : sortedEntries.tailSet(searchEntry, true)) {
+            if (canHostSupport(hostEntry.host, cpuInMhz, memoryInMib)) {
+                return hostEntry.host;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * It returns the host that supports the given resources and that has the most normalized resources left after receiving them, or null if no host supports them.
+     */
+    public Host findWorstFit(long cpuInMhz, long memoryInMib) {
+        double requestedKey = getNormalizedCpu(cpuInMhz) + getNormalizedMemory(memoryInMib);
+        Iterator<HostEntry> iterator = sortedEntries.descendingIterator();
+        while (iterator.hasNext()) {
+            HostEntry hostEntry = iterator.next();
+            if (hostEntry.key < requestedKey) {
+                return null;
+            }
+            if (canHostSupport(hostEntry.host, cpuInMhz, memoryInMib)) {
+                return hostEntry.host;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * It returns the host that supports the given resources with the highest dot product between the normalized requested resources and the normalized available resources.
+     * The dot product of a host is at most max(requested CPU, requested memory) * key; therefore, walking the hosts from the highest key we can stop as soon as that
+     * bound is lower than the best dot product found.
+     */
+    public Host findHighestDotProduct(long cpuInMhz, long memoryInMib) {
+        double requestedCpu = getNormalizedCpu(cpuInMhz);
+        double requestedMemory = getNormalizedMemory(memoryInMib);
+        double biggestRequestedResource = Math.max(requestedCpu, requestedMemory);
+
+        Host bestHost = null;
+        double bestDotProduct = -1;
+        Iterator<HostEntry> iterator = sortedEntries.descendingIterator();
+        while (iterator.hasNext()) {
+            HostEntry hostEntry = iterator.next();
+            if (biggestRequestedResource * hostEntry.key < bestDotProduct) {
+                break;
+            }
+            Host host = hostEntry.host;
+            if (!canHostSupport(host, cpuInMhz, memoryInMib)) {
+                continue;
+            }
+            double dotProduct = requestedCpu * getNormalizedCpu(host.getAvailableCpuInMhz()) + requestedMemory * getNormalizedMemory(host.getAvailableMemoryInMib());
+            if (dotProduct > bestDotProduct) {
+                bestDotProduct = dotProduct;
+                bestHost = host;
+            }
+        }
+        return bestHost;
+    }
+
+    @Override
+    public void hostResourcesChanged(Host host) {
+        HostEntry hostEntry = entriesByHost.get(host);
+        if (hostEntry == null) {
+            return;
+        }
+        double newKey = calculateKey(host);
+        if (newKey == hostEntry.key) {
+            return;
+        }
+        sortedEntries.remove(hostEntry);
+        hostEntry.key = newKey;
+        sortedEntries.add(hostEntry);
+    }
+
+    /**
+     * It stops listening to the hosts resources. It should be called when the index is not going to be used anymore.
+     */
+    public void detach() {
+        for (Host host : entriesByHost.keySet()) {
+            host.removeResourcesListener(this);
+        }
+    }
+
+    private double calculateKey(Host host) {
+        return getNormalizedCpu(host.getAvailableCpuInMhz()) + getNormalizedMemory(host.getAvailableMemoryInMib());
+    }
+
+    private boolean canHostSupport(Host host, long cpuInMhz, long memoryInMib) {
+        return host.getAvailableCpuInMhz() >= cpuInMhz && host.getAvailableMemoryInMib() >= memoryInMib;
+    }
+}
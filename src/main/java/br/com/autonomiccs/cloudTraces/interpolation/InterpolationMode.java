@@ -0,0 +1,108 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.interpolation;
+
+import br.com.autonomiccs.cloudTraces.beans.VmUsageSeries;
+
+/**
+ * How the usage of a VM is calculated at a time between two of its samples. Values are calculated in closed form, without creating objects.
+ */
+public enum InterpolationMode {
+
+    /**
+     * The usage changes linearly between the samples; the values are the same of the commons-math {@code LinearInterpolator}.
+     */
+    LINEAR {
+        @Override
+        double interpolate(VmUsageSeries usageSeries, int sampleBefore, double time, boolean memory) {
+            double timeBefore = usageSeries.getTime(sampleBefore);
+            double valueBefore = getUsage(usageSeries, sampleBefore, memory);
+            double slope = (getUsage(usageSeries, sampleBefore + 1, memory) - valueBefore) / (usageSeries.getTime(sampleBefore + 1) - timeBefore);
+            return (time - timeBefore) * slope + valueBefore;
+        }
+    },
+
+    /**
+     * The usage of a sample holds until the next sample.
+     */
+    STEP {
+        @Override
+        double interpolate(VmUsageSeries usageSeries, int sampleBefore, double time, boolean memory) {
+            return getUsage(usageSeries, sampleBefore, memory);
+        }
+    },
+
+    /**
+     * Monotone cubic Hermite interpolation (Fritsch-Carlson): the curve is smooth, but it never overshoots the samples, so it does not create usage peaks (or
+     * negative usage) that are not in the traces. The tangents of the samples are the weighted harmonic mean of the slopes around them (as in PCHIP), which only
+     * depends on the neighbor samples.
+     */
+    MONOTONE_CUBIC {
+        @Override
+        double interpolate(VmUsageSeries usageSeries, int sampleBefore, double time, boolean memory) {
+            int sampleAfter = sampleBefore + 1;
+            double interval = usageSeries.getTime(sampleAfter) - usageSeries.getTime(sampleBefore);
+            double valueBefore = getUsage(usageSeries, sampleBefore, memory);
+            double valueAfter = getUsage(usageSeries, sampleAfter, memory);
+            double tangentBefore = calculateTangent(usageSeries, sampleBefore, memory);
+            double tangentAfter = calculateTangent(usageSeries, sampleAfter, memory);
+
+            double s = (time - usageSeries.getTime(sampleBefore)) / interval;
+            double s2 = s * s;
+            double s3 = s2 * s;
+            return (2 * s3 - 3 * s2 + 1) * valueBefore + (s3 - 2 * s2 + s) * interval * tangentBefore + (-2 * s3 + 3 * s2) * valueAfter
+                    + (s3 - s2) * interval * tangentAfter;
+        }
+
+        private double calculateTangent(VmUsageSeries usageSeries, int sample, boolean memory) {
+            if (sample == 0) {
+                return calculateSlope(usageSeries, 0, memory);
+            }
+            if (sample == usageSeries.size() - 1) {
+                return calculateSlope(usageSeries, sample - 1, memory);
+            }
+            double slopeBefore = calculateSlope(usageSeries, sample - 1, memory);
+            double slopeAfter = calculateSlope(usageSeries, sample, memory);
+            if (slopeBefore * slopeAfter <= 0) {
+                return 0;
+            }
+            double intervalBefore = usageSeries.getTime(sample) - usageSeries.getTime(sample - 1);
+            double intervalAfter = usageSeries.getTime(sample + 1) - usageSeries.getTime(sample);
+            double weightBefore = 2 * intervalAfter + intervalBefore;
+            double weightAfter = intervalAfter + 2 * intervalBefore;
+            return (weightBefore + weightAfter) / (weightBefore / slopeBefore + weightAfter / slopeAfter);
+        }
+
+        private double calculateSlope(VmUsageSeries usageSeries, int sample, boolean memory) {
+            return (getUsage(usageSeries, sample + 1, memory) - getUsage(usageSeries, sample, memory)) / (usageSeries.getTime(sample + 1) - usageSeries.getTime(sample));
+        }
+    };
+
+    /**
+     * It returns the memory (or CPU) usage at 'time', which is between the samples 'sampleBefore' and 'sampleBefore + 1' (exclusive).
+     */
+    abstract double interpolate(VmUsageSeries usageSeries, int sampleBefore, double time, boolean memory);
+
+    private static double getUsage(VmUsageSeries usageSeries, int sample, boolean memory) {
+        return memory ? usageSeries.getMemoryUsage(sample) : usageSeries.getCpuUsage(sample);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.interpolation;
+
+import java.util.Arrays;
+
+/**
+ * The times of the iterations of a simulation: they start at the first time and are incremented by the time of an iteration, in the same way (and with the same
+ * rounding) of the simulation loop.
+ */
+public class TickGrid {
+
+    private double[] times;
+
+    private double lastTimeSearched = Double.NaN;
+    private int lastTickFound = -1;
+
+    public TickGrid(double firstTime, double timeUnitPerLoopIteration, double endTime) {
+        int numberOfTicks = 0;
+        times = new double[16];
+        for (double time = firstTime; time < endTime; time += timeUnitPerLoopIteration) {
+            if (numberOfTicks == times.length) {
+                times = Arrays.copyOf(times, numberOfTicks * 2);
+            }
+            times[numberOfTicks++] = time;
+        }
+        times = Arrays.copyOf(times, numberOfTicks);
+    }
+
+    public int getNumberOfTicks() {
+        return times.length;
+    }
+
+    public double getTime(int tick) {
+        return times[tick];
+    }
+
+    /**
+     * It returns the tick of the given time, or -1 if the time is not in the grid. The last tick found is cached, as the usage of every VM is calculated for the same
+     * time in an iteration.
+     */
+    public int getTick(double time) {
+        if (time != lastTimeSearched) {
+            int tick = Arrays.binarySearch(times, time);
+            lastTickFound = tick < 0 ? -1 : tick;
+            lastTimeSearched = time;
+        }
+        return lastTickFound;
+    }
+
+    /**
+     * It returns the first tick with time greater or equal to the given time (or the number of ticks if there is no such tick).
+     */
+    public int getFirstTickFrom(double time) {
+        int tick = Arrays.binarySearch(times, time);
+        return tick < 0 ? -tick - 1 : tick;
+    }
+
+    /**
+     * It returns the first tick with time greater than the given time (or the number of ticks if there is no such tick).
+     */
+    public int getFirstTickAfter(double time) {
+        int tick = Arrays.binarySearch(times, time);
+        return tick < 0 ? -tick - 1 : tick + 1;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.interpolation;
+
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.beans.VmUsageSeries;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * It calculates the usage of VMs at a given time from their samples (see {@link VmUsageSeries}): the usage of the sample at that time; otherwise, the usage
+ * interpolated (see {@link InterpolationMode}) between the samples right before and right after it; or the usage of the last sample, if there is no sample after it.
+ * When a {@link TickGrid} is given, the usage of VMs can be calculated once for every iteration of the simulation (see {@link #resampleOnTickGrid(VirtualMachine)}),
+ * so iterations only read it.
+ */
+public class VmUsageInterpolator {
+
+    private InterpolationMode interpolationMode;
+    private TickGrid tickGrid;
+
+    public VmUsageInterpolator(InterpolationMode interpolationMode, TickGrid tickGrid) {
+        this.interpolationMode = interpolationMode;
+        this.tickGrid = tickGrid;
+    }
+
+    /**
+     * It sets the memory (MB) and CPU (MHz) used by the VM at the given time in the first and second positions of 'usage'.
+     */
+    public void calculateUsage(VmUsageSeries usageSeries, double time, double[] usage) {
+        if (tickGrid != null && usageSeries.hasTickGridUsage()) {
+            int tick = tickGrid.getTick(time);
+            if (usageSeries.isInTickGridUsage(tick)) {
+                usage[0] = usageSeries.getTickGridMemoryUsage(tick);
+                usage[1] = usageSeries.getTickGridCpuUsage(tick);
+                return;
+            }
+        }
+        calculateUsageFromSamples(usageSeries, time, usage);
+    }
+
+    private void calculateUsageFromSamples(VmUsageSeries usageSeries, double time, double[] usage) {
+        int sampleAtTime = usageSeries.getIndexOfTime(time);
+        if (sampleAtTime >= 0) {
+            usage[0] = usageSeries.getMemoryUsage(sampleAtTime);
+            usage[1] = usageSeries.getCpuUsage(sampleAtTime);
+            return;
+        }
+        int sampleBeforeTime = usageSeries.getIndexOfLastTimeUntil(time);
+        if (sampleBeforeTime < 0) {
+            throw new GoogleTracesToCloudTracesException("This cannot happen!");
+        }
+        if (sampleBeforeTime == usageSeries.size() - 1) {
+            usage[0] = usageSeries.getMemoryUsage(sampleBeforeTime);
+            usage[1] = usageSeries.getCpuUsage(sampleBeforeTime);
+            return;
+        }
+        usage[0] = interpolationMode.interpolate(usageSeries, sampleBeforeTime, time, true);
+        usage[1] = interpolationMode.interpolate(usageSeries, sampleBeforeTime, time, false);
+    }
+
+    /**
+     * It calculates the usage of the VM for the iterations in which it can be running: from the first iteration after its first sample (when it is deployed) until
+     * the first iteration after its destroy time (when it is destroyed).
+     */
+    public void resampleOnTickGrid(VirtualMachine virtualMachine) {
+        VmUsageSeries usageSeries = virtualMachine.getUsageSeries();
+        if (tickGrid == null || usageSeries.size() == 0) {
+            return;
+        }
+        int firstTick = tickGrid.getFirstTickFrom(usageSeries.getTime(0));
+        int lastTick = Math.min(Math.max(firstTick, tickGrid.getFirstTickAfter(virtualMachine.getDestroyTime())), tickGrid.getNumberOfTicks() - 1);
+        if (firstTick > lastTick) {
+            return;
+        }
+        double[] memoryUsages = new double[lastTick - firstTick + 1];
+        double[] cpuUsages = new double[memoryUsages.length];
+        double[] usage = new double[2];
+        for (int tick = firstTick; tick <= lastTick; tick++) {
+            calculateUsageFromSamples(usageSeries, tickGrid.getTime(tick), usage);
+            memoryUsages[tick - firstTick] = usage[0];
+            cpuUsages[tick - firstTick] = usage[1];
+        }
+        usageSeries.setTickGridUsage(firstTick, cpuUsages, memoryUsages);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.journal;
+
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * A slot of the {@link SimulationJournal} ring buffer. Slots are created once and reused, so recording an event only copies primitive values (and immutable ids) of
+ * the simulation objects; the message is formatted later by the {@link SimulationEventType}.
+ */
+class JournalEvent {
+
+    SimulationEventType eventType;
+    double time;
+    double endTime;
+    int count;
+    long processingTimeInNanoseconds;
+    double durationInSeconds;
+    long megaBytes;
+
+    String virtualMachineId;
+    String sourceId;
+    String targetId;
+
+    int virtualMachineDeployTime;
+    int virtualMachineDestroyTime;
+    String virtualMachineHostId;
+    long virtualMachineCpuInMhz;
+    long virtualMachineMemoryInMegaByte;
+
+    String epochOfLog;
+    double memoryStd;
+    double memoryUsageStd;
+    double cpuStd;
+    double cpuUsageStd;
+
+    final ResourceSnapshot resourceSnapshot = new ResourceSnapshot();
+
+    void captureVirtualMachine(VirtualMachine virtualMachine) {
+        virtualMachineId = virtualMachine.getVmId();
+        virtualMachineDeployTime = virtualMachine.getDeployTime();
+        virtualMachineDestroyTime = virtualMachine.getDestroyTime();
+        virtualMachineHostId = virtualMachine.getHost() != null ? virtualMachine.getHost().getId() : null;
+        virtualMachineCpuInMhz = virtualMachine.getVmServiceOffering().getCoreSpeed() * virtualMachine.getVmServiceOffering().getNumberOfCores();
+        virtualMachineMemoryInMegaByte = virtualMachine.getVmServiceOffering().getMemoryInMegaByte();
+    }
+
+    /**
+     * Same text of {@link VirtualMachine#toString()} at the time of the capture.
+     */
+    String formatVirtualMachine() {
+        return String.format("id [%s], deploy time [%d], destroy time [%d], host id [%s], allocated cpu [%dMhz], allocated memory [%dMB]", virtualMachineId,
+                virtualMachineDeployTime, virtualMachineDestroyTime, virtualMachineHostId, virtualMachineCpuInMhz, virtualMachineMemoryInMegaByte);
+    }
+
+    /**
+     * It releases references to ids, so a slot does not keep objects alive after its event is written.
+     */
+    void clear() {
+        eventType = null;
+        virtualMachineId = null;
+        sourceId = null;
+        targetId = null;
+        virtualMachineHostId = null;
+        epochOfLog = null;
+    }
+}
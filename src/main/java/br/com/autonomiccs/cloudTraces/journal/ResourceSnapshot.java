@@ -0,0 +1,151 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.commons.lang3.StringUtils;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.ComputingResource;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+
+/**
+ * It keeps a copy of the resource values of a cloud, cluster or host, so they can be formatted later (exactly as their toString methods do) without keeping a
+ * reference to an object that keeps changing during the simulation. Snapshots are meant to be reused.
+ */
+public class ResourceSnapshot {
+
+    private enum ResourceKind {
+        CLOUD, CLUSTER, HOST
+    }
+
+    private ResourceKind resourceKind;
+    private String id;
+    private String clusterId;
+
+    private long totalMemoryInBytes;
+    private long totalCpuPowerInMhz;
+    private long memoryAllocatedInBytes;
+    private long cpuAllocatedInMhz;
+    private long memoryUsedInBytes;
+    private long cpuUsedInMhz;
+
+    private int numberOfChildren;
+
+    public void capture(Cloud cloud) {
+        captureResources(ResourceKind.CLOUD, cloud);
+        numberOfChildren = cloud.getClusters().size();
+    }
+
+    public void capture(Cluster cluster) {
+        captureResources(ResourceKind.CLUSTER, cluster);
+        numberOfChildren = cluster.getHosts().size();
+    }
+
+    public void capture(Host host) {
+        captureResources(ResourceKind.HOST, host);
+        clusterId = host.getClusterId();
+        numberOfChildren = host.getVirtualMachines().size();
+    }
+
+    private void captureResources(ResourceKind resourceKind, ComputingResource computingResource) {
+        this.resourceKind = resourceKind;
+        id = computingResource.getId();
+        totalMemoryInBytes = computingResource.getTotalMemoryInBytes();
+        totalCpuPowerInMhz = computingResource.getTotalCpuPowerInMhz();
+        memoryAllocatedInBytes = computingResource.getMemoryAllocatedInBytes();
+        cpuAllocatedInMhz = computingResource.getCpuAllocatedInMhz();
+        memoryUsedInBytes = computingResource.getMemoryUsedInBytes();
+        cpuUsedInMhz = computingResource.getCpuUsedInMhz();
+    }
+
+    public boolean isEmpty() {
+        return resourceKind == null;
+    }
+
+    public long getMemoryAllocatedInBytes() {
+        return memoryAllocatedInBytes;
+    }
+
+    /**
+     * It returns the same text that the toString method of the captured resource returned at the time of the capture (or an empty string if nothing was captured).
+     */
+    public String format() {
+        if (isEmpty()) {
+            return StringUtils.EMPTY;
+        }
+        String resources = ComputingResource.formatResources(id, totalMemoryInBytes, totalCpuPowerInMhz, memoryAllocatedInBytes, cpuAllocatedInMhz, memoryUsedInBytes,
+                cpuUsedInMhz);
+        switch (resourceKind) {
+            case CLOUD:
+                return String.format("Cloud %s, #clusters[%d]", resources, numberOfChildren);
+            case CLUSTER:
+                return String.format("Cluster %s, #hosts[%d]", resources, numberOfChildren);
+            default:
+                return String.format("clusterId[%s] Host %s, #virtualMachines[%d]", clusterId, resources, numberOfChildren);
+        }
+    }
+
+    /**
+     * It writes the captured values, so they can be restored with {@link #read(DataInput)} (e.g. in simulation checkpoints).
+     */
+    public void write(DataOutput output) throws IOException {
+        output.writeBoolean(!isEmpty());
+        if (isEmpty()) {
+            return;
+        }
+        output.writeByte(resourceKind.ordinal());
+        output.writeUTF(id);
+        output.writeBoolean(clusterId != null);
+        if (clusterId != null) {
+            output.writeUTF(clusterId);
+        }
+        output.writeLong(totalMemoryInBytes);
+        output.writeLong(totalCpuPowerInMhz);
+        output.writeLong(memoryAllocatedInBytes);
+        output.writeLong(cpuAllocatedInMhz);
+        output.writeLong(memoryUsedInBytes);
+        output.writeLong(cpuUsedInMhz);
+        output.writeInt(numberOfChildren);
+    }
+
+    public void read(DataInput input) throws IOException {
+        if (!input.readBoolean()) {
+            resourceKind = null;
+            return;
+        }
+        resourceKind = ResourceKind.values()[input.readByte()];
+        id = input.readUTF();
+        clusterId = input.readBoolean() ? input.readUTF() : null;
+        totalMemoryInBytes = input.readLong();
+        totalCpuPowerInMhz = input.readLong();
+        memoryAllocatedInBytes = input.readLong();
+        cpuAllocatedInMhz = input.readLong();
+        memoryUsedInBytes = input.readLong();
+        cpuUsedInMhz = input.readLong();
+        numberOfChildren = input.readInt();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.journal;
+
+import org.apache.log4j.Level;
+
+/**
+ * Events recorded by the simulator during its main loop. Each event knows its log level and how to format its message; the messages are the same ones the simulator
+ * used to log directly (they are parsed by {@link br.com.autonomiccs.cloudTraces.main.ProcessLogFileResults}).
+ */
+public enum SimulationEventType {
+
+    ITERATION_STARTED(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return "Current time of iteration: " + event.time;
+        }
+    },
+    CLOUD_STATE(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Time [%.3f], cloud state [%s] ", event.time, event.resourceSnapshot.format());
+        }
+    },
+    VIRTUAL_MACHINES_WITH_EXECUTION(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Number of Virtual machines [%d] with execution at time [%.2f].", event.count, event.time);
+        }
+    },
+    DEPLOYING_VIRTUAL_MACHINE(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Deploy of virtual machine [%s] at time [%.2f] ", event.formatVirtualMachine(), event.time);
+        }
+    },
+    CLOUD_BEFORE_DEPLOYMENT(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Cloud resources before deploy of VM [%s]: %s", event.virtualMachineId, event.resourceSnapshot.format());
+        }
+    },
+    CLOUD_AFTER_DEPLOYMENT(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Cloud resources after deploy of VM [%s]: %s", event.virtualMachineId, event.resourceSnapshot.format());
+        }
+    },
+    HOST_BEFORE_DEPLOYMENT(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return "Host before deploy of VM: " + event.resourceSnapshot.format();
+        }
+    },
+    VIRTUAL_MACHINE_DEPLOYED(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("VM [%s] deployed at host [%s]", event.virtualMachineId, event.targetId);
+        }
+    },
+    HOST_AFTER_DEPLOYMENT(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return "Host after deploy of VM: " + event.resourceSnapshot.format();
+        }
+    },
+    CLOUD_BEFORE_DESTROYS(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Cloud resources before destroy of VMs at time [%.2f]: %s", event.time, event.resourceSnapshot.format());
+        }
+    },
+    DESTROYING_VIRTUAL_MACHINE(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return "Destroying VM: " + event.formatVirtualMachine() + "at time: " + event.time;
+        }
+    },
+    CLOUD_AFTER_DESTROYS(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Cloud resources after destroy of VMs at time [%.2f]: %s", event.time, event.resourceSnapshot.format());
+        }
+    },
+    VIRTUAL_MACHINES_DESTROYED(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Number of virtual machines [%d] destroyed at time [%.2f]", event.count, event.time);
+        }
+    },
+    MANAGEMENT_STARTED(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return "Executing management at time:" + event.time;
+        }
+    },
+    MIGRATIONS_MAPPED(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("#migrations [%d] mapped for cluster [%s] at time [%.2f]; total processing time [%d] (nanoSeconds)", event.count, event.targetId,
+                    event.time, event.processingTimeInNanoseconds);
+        }
+    },
+    MIGRATING_VIRTUAL_MACHINE(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Migrating vm[%s] from host[%s] to host [%s]", event.virtualMachineId, event.sourceId, event.targetId);
+        }
+    },
+    MIGRATION_COMPLETED(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Live migration of vm[%s] from host[%s] to host [%s] started at time [%.2f] and completed at time [%.2f]; duration [%.2f] (seconds), [%d] MB transferred",
+                    event.virtualMachineId, event.sourceId, event.targetId, event.time, event.endTime, event.durationInSeconds, event.megaBytes);
+        }
+    },
+    MIGRATIONS_DEFERRED(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Deferred [%d] migrations of cluster [%s] at time [%.2f] (VMs already migrating or concurrent migrations limit reached)", event.count,
+                    event.targetId, event.time);
+        }
+    },
+    MANAGEMENT_BUDGET_EXCEEDED(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Management of cluster [%s] exceeded its time budget by [%.3f ms] at time [%.2f]; [%d] mapped migrations discarded", event.targetId,
+                    event.processingTimeInNanoseconds / 1000000d, event.time, event.count);
+        }
+    },
+    HOST_CONTENTION(Level.DEBUG) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Host usage exceeds its capacity at time [%.2f]: %s", event.time, event.resourceSnapshot.format());
+        }
+    },
+    CLUSTER_STD(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Cluster [%s] %smemory STD [%.2fGib], memory usage STD [%.2fGib], cpu STD [%.2fGhz], cpu usage STD [%.2fGhz] at time [%.2f]",
+                    event.targetId, event.epochOfLog, event.memoryStd, event.memoryUsageStd, event.cpuStd, event.cpuUsageStd, event.time);
+        }
+    },
+    CLUSTER_CONFIGURATION(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Cluster configuration at time [%.2f]: %s", event.time, event.resourceSnapshot.format());
+        }
+    },
+    CHECKPOINT_WRITTEN(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Simulation checkpoint written to [%s] at time [%.2f]", event.targetId, event.time);
+        }
+    },
+    ITERATIONS_SKIPPED(Level.INFO) {
+        @Override
+        String format(JournalEvent event) {
+            return String.format("Adaptive stepping skipped [%d] idle iterations from time [%.2f] to [%.2f]", event.count, event.time, event.endTime);
+        }
+    };
+
+    private Level level;
+
+    private SimulationEventType(Level level) {
+        this.level = level;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    abstract String format(JournalEvent event);
+}
@@ -0,0 +1,408 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.journal;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * Journal of the events of the simulation main loop. Events are only recorded if the logger has their level enabled; then, their values are copied into a
+ * pre-allocated slot of a ring buffer. In asynchronous mode a consumer thread formats the messages and writes them with the given logger, so neither string
+ * formatting nor I/O happen in the simulation thread. In synchronous mode, events are formatted and logged as soon as they are recorded.
+ *
+ * The ring buffer has a single producer (the simulation thread) and a single consumer. When it is full, the producer waits for the consumer; events are never
+ * dropped, and they are written in the order they were recorded.
+ */
+public class SimulationJournal implements Closeable {
+
+    private final static Logger journalLogger = Logger.getLogger(SimulationJournal.class);
+
+    private static final long CONSUMER_IDLE_WAIT_IN_NANOSECONDS = 100000;
+    private static final long PRODUCER_FULL_BUFFER_WAIT_IN_NANOSECONDS = 10000;
+
+    private Logger logger;
+    private boolean asynchronous;
+
+    private JournalEvent[] slots;
+    private int slotsMask;
+
+    /**
+     * Only the producer changes it.
+     */
+    private long nextSequence = 0;
+    private AtomicLong publishedSequence = new AtomicLong();
+    private AtomicLong consumedSequence = new AtomicLong();
+
+    private volatile boolean running = true;
+    private Thread consumerThread;
+
+    /**
+     * @param logger events are written with this logger (and its levels decide which events are recorded)
+     * @param asynchronous if the events are formatted and written by a consumer thread
+     * @param bufferSize number of slots of the ring buffer; it is rounded up to a power of two
+     */
+    public SimulationJournal(Logger logger, boolean asynchronous, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new GoogleTracesToCloudTracesException(String.format("The journal buffer size [%d] must be positive.", bufferSize));
+        }
+        this.logger = logger;
+        this.asynchronous = asynchronous;
+
+        int numberOfSlots = asynchronous ? Integer.highestOneBit(bufferSize - 1) << 1 : 1;
+        if (numberOfSlots <= 0) {
+            numberOfSlots = 1;
+        }
+        slots = new JournalEvent[numberOfSlots];
+        for (int i = 0; i < numberOfSlots; i++) {
+            slots[i] = new JournalEvent();
+        }
+        slotsMask = numberOfSlots - 1;
+
+        if (asynchronous) {
+            consumerThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    consumeEvents();
+                }
+            }, "simulation-journal");
+            consumerThread.setDaemon(true);
+            consumerThread.start();
+        }
+    }
+
+    public boolean isEnabled(SimulationEventType eventType) {
+        return logger.isEnabledFor(eventType.getLevel());
+    }
+
+    public void iterationStarted(double time) {
+        JournalEvent event = claim(SimulationEventType.ITERATION_STARTED);
+        if (event != null) {
+            event.time = time;
+            publish(event);
+        }
+    }
+
+    public void cloudState(double time, Cloud cloud) {
+        recordCloud(SimulationEventType.CLOUD_STATE, time, cloud);
+    }
+
+    public void virtualMachinesWithExecution(int numberOfVirtualMachines, double time) {
+        recordCount(SimulationEventType.VIRTUAL_MACHINES_WITH_EXECUTION, numberOfVirtualMachines, time);
+    }
+
+    public void deployingVirtualMachine(VirtualMachine virtualMachine, double time) {
+        recordVirtualMachine(SimulationEventType.DEPLOYING_VIRTUAL_MACHINE, virtualMachine, time);
+    }
+
+    public void cloudBeforeDeployment(VirtualMachine virtualMachine, Cloud cloud) {
+        recordCloudAndVirtualMachineId(SimulationEventType.CLOUD_BEFORE_DEPLOYMENT, virtualMachine, cloud);
+    }
+
+    public void cloudAfterDeployment(VirtualMachine virtualMachine, Cloud cloud) {
+        recordCloudAndVirtualMachineId(SimulationEventType.CLOUD_AFTER_DEPLOYMENT, virtualMachine, cloud);
+    }
+
+    public void hostBeforeDeployment(Host host) {
+        recordHost(SimulationEventType.HOST_BEFORE_DEPLOYMENT, host);
+    }
+
+    public void hostAfterDeployment(Host host) {
+        recordHost(SimulationEventType.HOST_AFTER_DEPLOYMENT, host);
+    }
+
+    public void virtualMachineDeployed(VirtualMachine virtualMachine, Host host) {
+        JournalEvent event = claim(SimulationEventType.VIRTUAL_MACHINE_DEPLOYED);
+        if (event != null) {
+            event.virtualMachineId = virtualMachine.getVmId();
+            event.targetId = host.getId();
+            publish(event);
+        }
+    }
+
+    public void cloudBeforeDestroys(double time, Cloud cloud) {
+        recordCloud(SimulationEventType.CLOUD_BEFORE_DESTROYS, time, cloud);
+    }
+
+    public void destroyingVirtualMachine(VirtualMachine virtualMachine, double time) {
+        recordVirtualMachine(SimulationEventType.DESTROYING_VIRTUAL_MACHINE, virtualMachine, time);
+    }
+
+    public void cloudAfterDestroys(double time, Cloud cloud) {
+        recordCloud(SimulationEventType.CLOUD_AFTER_DESTROYS, time, cloud);
+    }
+
+    public void virtualMachinesDestroyed(int numberOfVirtualMachines, double time) {
+        recordCount(SimulationEventType.VIRTUAL_MACHINES_DESTROYED, numberOfVirtualMachines, time);
+    }
+
+    public void managementStarted(double time) {
+        JournalEvent event = claim(SimulationEventType.MANAGEMENT_STARTED);
+        if (event != null) {
+            event.time = time;
+            publish(event);
+        }
+    }
+
+    public void migrationsMapped(int numberOfMigrations, Cluster cluster, double time, long processingTimeInNanoseconds) {
+        JournalEvent event = claim(SimulationEventType.MIGRATIONS_MAPPED);
+        if (event != null) {
+            event.count = numberOfMigrations;
+            event.targetId = cluster.getId();
+            event.time = time;
+            event.processingTimeInNanoseconds = processingTimeInNanoseconds;
+            publish(event);
+        }
+    }
+
+    public void migratingVirtualMachine(VirtualMachine virtualMachine, Host sourceHost, Host targetHost) {
+        JournalEvent event = claim(SimulationEventType.MIGRATING_VIRTUAL_MACHINE);
+        if (event != null) {
+            event.virtualMachineId = virtualMachine.getVmId();
+            event.sourceId = sourceHost.getId();
+            event.targetId = targetHost.getId();
+            publish(event);
+        }
+    }
+
+    /**
+     * Times of a live migration are in the time unit of the traces.
+     */
+    public void migrationCompleted(VirtualMachine virtualMachine, Host sourceHost, Host targetHost, double startTime, double endTime, double durationInSeconds,
+            long megaBytesTransferred) {
+        JournalEvent event = claim(SimulationEventType.MIGRATION_COMPLETED);
+        if (event != null) {
+            event.virtualMachineId = virtualMachine.getVmId();
+            event.sourceId = sourceHost.getId();
+            event.targetId = targetHost.getId();
+            event.time = startTime;
+            event.endTime = endTime;
+            event.durationInSeconds = durationInSeconds;
+            event.megaBytes = megaBytesTransferred;
+            publish(event);
+        }
+    }
+
+    public void migrationsDeferred(int numberOfMigrations, Cluster cluster, double time) {
+        JournalEvent event = claim(SimulationEventType.MIGRATIONS_DEFERRED);
+        if (event != null) {
+            event.count = numberOfMigrations;
+            event.targetId = cluster.getId();
+            event.time = time;
+            publish(event);
+        }
+    }
+
+    public void managementBudgetExceeded(Cluster cluster, double time, long overrunInNanoseconds, int numberOfDiscardedMigrations) {
+        JournalEvent event = claim(SimulationEventType.MANAGEMENT_BUDGET_EXCEEDED);
+        if (event != null) {
+            event.targetId = cluster.getId();
+            event.time = time;
+            event.processingTimeInNanoseconds = overrunInNanoseconds;
+            event.count = numberOfDiscardedMigrations;
+            publish(event);
+        }
+    }
+
+    public void hostContention(Host host, double time) {
+        JournalEvent event = claim(SimulationEventType.HOST_CONTENTION);
+        if (event != null) {
+            event.time = time;
+            event.resourceSnapshot.capture(host);
+            publish(event);
+        }
+    }
+
+    /**
+     * Memory standard deviations are in GiB and CPU ones in GHz.
+     */
+    public void clusterStd(double time, Cluster cluster, String epochOfLog, double memoryStd, double memoryUsageStd, double cpuStd, double cpuUsageStd) {
+        JournalEvent event = claim(SimulationEventType.CLUSTER_STD);
+        if (event != null) {
+            event.time = time;
+            event.targetId = cluster.getId();
+            event.epochOfLog = epochOfLog;
+            event.memoryStd = memoryStd;
+            event.memoryUsageStd = memoryUsageStd;
+            event.cpuStd = cpuStd;
+            event.cpuUsageStd = cpuUsageStd;
+            publish(event);
+        }
+    }
+
+    public void clusterConfiguration(double time, Cluster cluster) {
+        JournalEvent event = claim(SimulationEventType.CLUSTER_CONFIGURATION);
+        if (event != null) {
+            event.time = time;
+            event.resourceSnapshot.capture(cluster);
+            publish(event);
+        }
+    }
+
+    public void checkpointWritten(String checkpointFile, double time) {
+        JournalEvent event = claim(SimulationEventType.CHECKPOINT_WRITTEN);
+        if (event != null) {
+            event.targetId = checkpointFile;
+            event.time = time;
+            publish(event);
+        }
+    }
+
+    public void iterationsSkipped(int numberOfIterations, double firstSkippedTime, double lastSkippedTime) {
+        JournalEvent event = claim(SimulationEventType.ITERATIONS_SKIPPED);
+        if (event != null) {
+            event.count = numberOfIterations;
+            event.time = firstSkippedTime;
+            event.endTime = lastSkippedTime;
+            publish(event);
+        }
+    }
+
+    private void recordCloud(SimulationEventType eventType, double time, Cloud cloud) {
+        JournalEvent event = claim(eventType);
+        if (event != null) {
+            event.time = time;
+            event.resourceSnapshot.capture(cloud);
+            publish(event);
+        }
+    }
+
+    private void recordCount(SimulationEventType eventType, int count, double time) {
+        JournalEvent event = claim(eventType);
+        if (event != null) {
+            event.count = count;
+            event.time = time;
+            publish(event);
+        }
+    }
+
+    private void recordVirtualMachine(SimulationEventType eventType, VirtualMachine virtualMachine, double time) {
+        JournalEvent event = claim(eventType);
+        if (event != null) {
+            event.captureVirtualMachine(virtualMachine);
+            event.time = time;
+            publish(event);
+        }
+    }
+
+    private void recordCloudAndVirtualMachineId(SimulationEventType eventType, VirtualMachine virtualMachine, Cloud cloud) {
+        JournalEvent event = claim(eventType);
+        if (event != null) {
+            event.virtualMachineId = virtualMachine.getVmId();
+            event.resourceSnapshot.capture(cloud);
+            publish(event);
+        }
+    }
+
+    private void recordHost(SimulationEventType eventType, Host host) {
+        JournalEvent event = claim(eventType);
+        if (event != null) {
+            event.resourceSnapshot.capture(host);
+            publish(event);
+        }
+    }
+
+    /**
+     * It returns the slot to be filled with the event values, or null if the event level is not enabled. When the ring buffer is full it waits for the consumer.
+     */
+    private JournalEvent claim(SimulationEventType eventType) {
+        if (!isEnabled(eventType)) {
+            return null;
+        }
+        if (!running) {
+            throw new GoogleTracesToCloudTracesException("The simulation journal is already closed.");
+        }
+        while (nextSequence - consumedSequence.get() >= slots.length) {
+            LockSupport.parkNanos(PRODUCER_FULL_BUFFER_WAIT_IN_NANOSECONDS);
+        }
+        JournalEvent event = slots[(int)(nextSequence & slotsMask)];
+        event.eventType = eventType;
+        return event;
+    }
+
+    private void publish(JournalEvent event) {
+        if (!asynchronous) {
+            write(event);
+            return;
+        }
+        nextSequence++;
+        publishedSequence.lazySet(nextSequence);
+    }
+
+    private void consumeEvents() {
+        long consumed = consumedSequence.get();
+        while (true) {
+            long published = publishedSequence.get();
+            if (consumed == published) {
+                if (!running && consumed == publishedSequence.get()) {
+                    return;
+                }
+                LockSupport.parkNanos(CONSUMER_IDLE_WAIT_IN_NANOSECONDS);
+                continue;
+            }
+            while (consumed < published) {
+                write(slots[(int)(consumed & slotsMask)]);
+                consumed++;
+                consumedSequence.lazySet(consumed);
+            }
+        }
+    }
+
+    private void write(JournalEvent event) {
+        try {
+            logger.log(event.eventType.getLevel(), event.eventType.format(event));
+        } catch (RuntimeException e) {
+            journalLogger.error(String.format("Could not write simulation event [%s].", event.eventType), e);
+        } finally {
+            event.clear();
+        }
+    }
+
+    /**
+     * It waits until all of the recorded events are written and stops the consumer thread.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (consumerThread == null) {
+            return;
+        }
+        LockSupport.unpark(consumerThread);
+        try {
+            consumerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+}
@@ -21,10 +21,7 @@
  */
 package br.com.autonomiccs.cloudTraces.main;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -32,38 +29,77 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.math3.analysis.interpolation.LinearInterpolator;
-import org.apache.commons.math3.stat.descriptive.moment.StandardDeviation;
 import org.apache.log4j.Logger;
 
+import br.com.autonomiccs.cloudTraces.algorithms.AlgorithmLifecycle;
+import br.com.autonomiccs.cloudTraces.algorithms.AlgorithmRegistry;
+import br.com.autonomiccs.cloudTraces.algorithms.deployment.ClusterRankingCache;
 import br.com.autonomiccs.cloudTraces.algorithms.deployment.DeploymentHeuristic;
-import br.com.autonomiccs.cloudTraces.algorithms.deployment.SmallestClustersFirstDeploymentHeuristic;
+import br.com.autonomiccs.cloudTraces.algorithms.deployment.IndexedDeploymentHeuristic;
+import br.com.autonomiccs.cloudTraces.algorithms.management.BudgetOverrunPolicy;
 import br.com.autonomiccs.cloudTraces.algorithms.management.ClusterAdministrationAlgorithm;
-import br.com.autonomiccs.cloudTraces.algorithms.management.ClusterAdministrationAlgorithmEmptyImpl;
+import br.com.autonomiccs.cloudTraces.algorithms.management.DeadlineAwareClusterAdministrationAlgorithm;
 import br.com.autonomiccs.cloudTraces.beans.Cloud;
 import br.com.autonomiccs.cloudTraces.beans.Cluster;
-import br.com.autonomiccs.cloudTraces.beans.GoogleJob;
-import br.com.autonomiccs.cloudTraces.beans.GoogleTask;
 import br.com.autonomiccs.cloudTraces.beans.Host;
 import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
 import br.com.autonomiccs.cloudTraces.beans.VmServiceOffering;
+import br.com.autonomiccs.cloudTraces.beans.VmUsageSeries;
+import br.com.autonomiccs.cloudTraces.checkpoint.SimulationCheckpoint;
 import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.index.ClusterFreeCapacityIndex;
+import br.com.autonomiccs.cloudTraces.interpolation.InterpolationMode;
+import br.com.autonomiccs.cloudTraces.interpolation.TickGrid;
+import br.com.autonomiccs.cloudTraces.interpolation.VmUsageInterpolator;
+import br.com.autonomiccs.cloudTraces.journal.ResourceSnapshot;
+import br.com.autonomiccs.cloudTraces.journal.SimulationEventType;
+import br.com.autonomiccs.cloudTraces.journal.SimulationJournal;
+import br.com.autonomiccs.cloudTraces.metrics.LatencyHistogram;
+import br.com.autonomiccs.cloudTraces.metrics.RunSummary;
+import br.com.autonomiccs.cloudTraces.metrics.SimulationMetricsWriter;
+import br.com.autonomiccs.cloudTraces.migration.LiveMigration;
+import br.com.autonomiccs.cloudTraces.migration.MigrationEngine;
+import br.com.autonomiccs.cloudTraces.overcommit.ContentionTracker;
+import br.com.autonomiccs.cloudTraces.overcommit.OvercommitPolicy;
+import br.com.autonomiccs.cloudTraces.overcommit.StaticRatioOvercommitPolicy;
+import br.com.autonomiccs.cloudTraces.overcommit.UsagePercentileOvercommitPolicy;
+import br.com.autonomiccs.cloudTraces.partition.PartitionWorker;
+import br.com.autonomiccs.cloudTraces.profiling.PhaseProfiler;
+import br.com.autonomiccs.cloudTraces.profiling.SimulationPhase;
+import br.com.autonomiccs.cloudTraces.service.SimulationConfigurationService;
 import br.com.autonomiccs.cloudTraces.service.VmServiceOfferingService;
-
+import br.com.autonomiccs.cloudTraces.stepping.VirtualMachineEventsQueue;
+import br.com.autonomiccs.cloudTraces.synthetic.HostProfile;
+import br.com.autonomiccs.cloudTraces.synthetic.SyntheticTopologyGenerator;
+import br.com.autonomiccs.cloudTraces.traces.CloudVmTracesLoader;
+import br.com.autonomiccs.cloudTraces.traces.CloudVmTracesScanner;
+import br.com.autonomiccs.cloudTraces.traces.VirtualMachineTracesIndex;
+
+/**
+ * The methods of the simulation loop that are measured by the benchmarks module ('benchmarks' directory) are package-private, so benchmarks in the same package can
+ * call them; so are the ones that the coordinator of partitioned simulations ({@link PartitionedCloudTracesSimulator}) shares with the simulator.
+ */
 public class CloudTracesSimulator {
 
     private final static Logger logger = Logger.getLogger(CloudTracesSimulator.class);
 
     /**
-     * Pattern that matches the data in the file data set.
+     * Size of the memory-mapped windows used to read the cloud traces file (see {@link CloudVmTracesScanner}), and number of threads that read it.
+     */
+    private static final String LOADER_WINDOW_SIZE_PROPERTY = "cloudTraces.loader.windowSizeInMib";
+    private static final String LOADER_THREADS_PROPERTY = "cloudTraces.loader.threads";
+
+    /**
+     * With the windowed loader, the cloud traces file is indexed (see {@link VirtualMachineTracesIndex}) and the task executions of a VM are only kept in memory
+     * from its deployment until its destruction.
      */
-    private static Pattern patternMatchVmsData = Pattern
-            .compile("(\\d+),\\s(VM-\\d+),\\s(\\d+),\\s(\\d+),\\s(\\w+),\\s(\\d+),\\s(\\d+),\\s(\\d+),\\s(\\d+(\\.\\d+)?),\\s(\\d+(\\.\\d+)?)");
+    private static final String LOADER_WINDOWED_PROPERTY = "cloudTraces.loader.windowed";
+    private static VirtualMachineTracesIndex virtualMachineTracesIndex;
 
     /**
      * As described in 'https://github.com/google/cluster-data' the monitored interval for the traces version 1 (used during the development of this code) is 7 hours.
@@ -77,54 +113,475 @@ public class CloudTracesSimulator {
      */
     private static int timeFramePerSimulationIterationInMinutes = 5;
 
+    /**
+     * Algorithms are created only once per simulation (see {@link AlgorithmRegistry}), so they can keep state between calls.
+     */
+    private static DeploymentHeuristic deploymentHeuristic;
+    private static ClusterAdministrationAlgorithm clusterAdministrationAlgorithm;
+    private static ClusterRankingCache clusterRankingCache;
+
+    /**
+     * Binary metrics file (see {@link SimulationMetricsWriter}); it is only written when a file is configured.
+     */
+    private static final String METRICS_FILE_PROPERTY = "cloudTraces.metrics.file";
+    private static final String METRICS_HOSTS_PROPERTY = "cloudTraces.metrics.hosts";
+    private static SimulationMetricsWriter metricsWriter;
+
+    /**
+     * Events of the simulation main loop are logged through the journal (see {@link SimulationJournal}), which by default formats and writes them in another thread.
+     */
+    private static final String JOURNAL_ASYNCHRONOUS_PROPERTY = "cloudTraces.journal.asynchronous";
+    private static final String JOURNAL_BUFFER_SIZE_PROPERTY = "cloudTraces.journal.bufferSize";
+    private static SimulationJournal journal;
+
+    /**
+     * Checkpoints (see {@link SimulationCheckpoint}) are written every 'cloudTraces.checkpoint.everyIterations' iterations when a checkpoint file is configured; a
+     * simulation can be resumed (or forked, with other algorithms) from a checkpoint with 'cloudTraces.resumeFrom'.
+     */
+    private static final String CHECKPOINT_FILE_PROPERTY = "cloudTraces.checkpoint.file";
+    private static final String CHECKPOINT_EVERY_ITERATIONS_PROPERTY = "cloudTraces.checkpoint.everyIterations";
+    private static final String RESUME_FROM_PROPERTY = "cloudTraces.resumeFrom";
+
+    /**
+     * With adaptive stepping, after every executed iteration the simulation jumps to the first iteration at which a VM arrives, a VM is destroyed or a deployed VM
+     * has a new usage sample; the iterations in between are not executed (no usage, management or logs), and their metrics repeat the ones of the last executed
+     * iteration.
+     */
+    private static final String ADAPTIVE_STEPPING_PROPERTY = "cloudTraces.adaptiveStepping";
+    private static VirtualMachineEventsQueue virtualMachineEventsQueue;
+
+    /**
+     * The usage of VMs between their samples is calculated by the {@link VmUsageInterpolator} with the configured {@link InterpolationMode}; the usage of every VM at
+     * every iteration can also be calculated once, when the VM is loaded (tick grid resampling).
+     */
+    private static final String INTERPOLATION_MODE_PROPERTY = "cloudTraces.interpolation.mode";
+    private static final String INTERPOLATION_RESAMPLE_ON_TICK_GRID_PROPERTY = "cloudTraces.interpolation.resampleOnTickGrid";
+    private static VmUsageInterpolator usageInterpolator;
+    private static double[] virtualMachineUsage = new double[2];
+
+    private static long[] hostResourceUsage = new long[2];
+
+    /**
+     * With a host bandwidth (MB per second) greater than zero, migrations are live migrations simulated by the {@link MigrationEngine}; otherwise (default) VMs are
+     * moved instantly.
+     */
+    private static final String MIGRATION_HOST_BANDWIDTH_PROPERTY = "cloudTraces.migration.hostBandwidthInMbPerSecond";
+    private static final String MIGRATION_CLUSTER_BANDWIDTH_PROPERTY = "cloudTraces.migration.clusterBandwidthInMbPerSecond";
+    private static final String MIGRATION_MAX_CONCURRENT_PER_HOST_PROPERTY = "cloudTraces.migration.maxConcurrentPerHost";
+    private static final String MIGRATION_MAX_CONCURRENT_PER_CLUSTER_PROPERTY = "cloudTraces.migration.maxConcurrentPerCluster";
+    private static MigrationEngine migrationEngine;
+
+    /**
+     * Time budget of the management of every cluster (rankHosts and mapVMsToHost); 0 means no budget. Algorithms that implement
+     * {@link DeadlineAwareClusterAdministrationAlgorithm} are informed of the deadline; overruns are recorded and, depending on the
+     * {@link BudgetOverrunPolicy}, their migrations are discarded.
+     */
+    private static final String MANAGEMENT_BUDGET_PROPERTY = "cloudTraces.management.budgetInMs";
+    private static final String MANAGEMENT_BUDGET_OVERRUN_POLICY_PROPERTY = "cloudTraces.management.budgetOverrunPolicy";
+    private static long managementBudgetInNanoseconds;
+    private static BudgetOverrunPolicy budgetOverrunPolicy = BudgetOverrunPolicy.APPLY;
+    private static long numberOfBudgetOverruns;
+    private static long maximumBudgetOverrunInNanoseconds;
+    private static long numberOfDiscardedMigrations;
+
+    /**
+     * File to which the {@link RunSummary} (sizes, times, garbage collection and memory) is written at the end of the simulation.
+     */
+    private static final String RUN_SUMMARY_FILE_PROPERTY = "cloudTraces.runSummary.file";
+
+    /**
+     * Set when the simulator is a worker of a partitioned simulation (see {@link PartitionedCloudTracesSimulator}).
+     */
+    private static PartitionWorker partitionWorker;
+
+    private static final String PROFILING_PHASES_PROPERTY = "cloudTraces.profiling.phases";
+    private static PhaseProfiler phaseProfiler;
+
+    /**
+     * Latencies of the placement of every VM (from the ranking of clusters until a host is selected), of 'rankHosts' and 'mapVMsToHost' for every cluster and of
+     * every executed iteration; their percentiles are logged at the end of the simulation and added to the run summary.
+     */
+    private static LatencyHistogram placementLatency = new LatencyHistogram("placement");
+    private static LatencyHistogram rankHostsLatency = new LatencyHistogram("rankHosts");
+    private static LatencyHistogram mapVMsToHostLatency = new LatencyHistogram("mapVMsToHost");
+    private static LatencyHistogram tickLatency = new LatencyHistogram("tick");
+
+    /**
+     * Overcommit policy ('NONE', 'STATIC_RATIO' or 'USAGE_PERCENTILE'); the static ratios are also the maximum ratios of the usage percentile policy.
+     */
+    private static final String OVERCOMMIT_POLICY_PROPERTY = "cloudTraces.overcommit.policy";
+    private static final String OVERCOMMIT_CPU_RATIO_PROPERTY = "cloudTraces.overcommit.cpuRatio";
+    private static final String OVERCOMMIT_MEMORY_RATIO_PROPERTY = "cloudTraces.overcommit.memoryRatio";
+    private static final String OVERCOMMIT_PERCENTILE_PROPERTY = "cloudTraces.overcommit.percentile";
+    private static final String OVERCOMMIT_HISTORY_SIZE_PROPERTY = "cloudTraces.overcommit.historySize";
+    private static final String OVERCOMMIT_TARGET_UTILIZATION_PROPERTY = "cloudTraces.overcommit.targetUtilization";
+    private static OvercommitPolicy overcommitPolicy;
+
+    /**
+     * With 'cloudTraces.topology=synthetic' the cloud is created by the {@link SyntheticTopologyGenerator} instead of the fixed topology of the simulator.
+     */
+    private static final String TOPOLOGY_PROPERTY = "cloudTraces.topology";
+    private static final String TOPOLOGY_SEED_PROPERTY = "cloudTraces.topology.seed";
+    private static final String TOPOLOGY_CLUSTERS_PROPERTY = "cloudTraces.topology.clusters";
+    private static final String TOPOLOGY_MIN_HOSTS_PER_CLUSTER_PROPERTY = "cloudTraces.topology.minHostsPerCluster";
+    private static final String TOPOLOGY_MAX_HOSTS_PER_CLUSTER_PROPERTY = "cloudTraces.topology.maxHostsPerCluster";
+    private static final String TOPOLOGY_HOST_PROFILES_PROPERTY = "cloudTraces.topology.hostProfiles";
+    private static final String TOPOLOGY_HOMOGENEOUS_CLUSTERS_PROPERTY = "cloudTraces.topology.homogeneousClusters";
+    private static ContentionTracker contentionTracker = new ContentionTracker();
+
     public static void main(String[] args) {
         validateInputFile(args);
+        long startTimeInNanoseconds = System.nanoTime();
 
         String cloudTracesFile = args[0];
-        Collection<VirtualMachine> virtualMachines = getAllVirtualMachinesFromCloudTraces(cloudTracesFile);
-        logger.info(String.format("#VirtualMachines [%d] found on [%s].", virtualMachines.size(), cloudTracesFile));
+        Collection<VirtualMachine> virtualMachines = loadVirtualMachines(cloudTracesFile);
+        long loadTimeInNanoseconds = System.nanoTime() - startTimeInNanoseconds;
+        partitionWorker = PartitionWorker.connectIfConfigured(virtualMachineTracesIndex);
+        if (partitionWorker == null) {
+            logger.info(String.format("#VirtualMachines [%d] found on [%s].", virtualMachines.size(), cloudTracesFile));
+        }
 
         Map<Integer, List<VirtualMachine>> mapVirtualMachinesTaskExecutionByTime = createMapVirtualMachinesTaskExecutionByTime(virtualMachines);
-        logger.info(String.format("#Times [%d] that have tasks being executed by VMs ", mapVirtualMachinesTaskExecutionByTime.size()));
+        if (virtualMachineTracesIndex == null) {
+            logger.info(String.format("#Times [%d] that have tasks being executed by VMs ", mapVirtualMachinesTaskExecutionByTime.size()));
+        } else if (partitionWorker == null) {
+            logger.info(String.format("#Times [%d] that have VMs arriving ", mapVirtualMachinesTaskExecutionByTime.size()));
+        }
 
-        Cloud cloud = createCloudEnvirtonmentToStartsimulation();
+        SimulationCheckpoint checkpointToResumeFrom = partitionWorker == null ? readCheckpointToResumeFrom(virtualMachines) : null;
+        Cloud cloud = checkpointToResumeFrom == null ? createCloudEnvirtonmentToStartsimulation() : checkpointToResumeFrom.getCloud();
+        if (partitionWorker != null) {
+            cloud = partitionWorker.selectClusters(cloud);
+        }
         logger.info("Cloud configuration: " + cloud);
+        createOvercommitPolicy(cloud, checkpointToResumeFrom);
+
+        loadAlgorithms(cloud);
+        createMetricsWriter(cloud);
 
         List<Integer> timesToExecuteTasks = new ArrayList<>(mapVirtualMachinesTaskExecutionByTime.keySet());
         Collections.sort(timesToExecuteTasks);
 
-        Integer firstTimeInTimeUnitOfUsedCloudData = timesToExecuteTasks.get(0);
-        Integer lastTimeInTimeUnitOfUserCloudData = timesToExecuteTasks.get(timesToExecuteTasks.size() - 1);
+        Integer firstTimeInTimeUnitOfUsedCloudData = partitionWorker == null ? timesToExecuteTasks.get(0) : partitionWorker.getFirstTime();
+        Integer lastTimeInTimeUnitOfUserCloudData = partitionWorker == null ? getLastTaskExecutionTime(virtualMachines, timesToExecuteTasks) : partitionWorker.getLastTime();
 
         logger.info("First time: " + firstTimeInTimeUnitOfUsedCloudData);
         logger.info("Last time: " + lastTimeInTimeUnitOfUserCloudData);
 
         double timeUnitPerLoopIteration = getTimeUnitPerLoopIteration(firstTimeInTimeUnitOfUsedCloudData, lastTimeInTimeUnitOfUserCloudData);
         logger.info("The time unit converted to trace time: " + timeUnitPerLoopIteration);
+        double simulationEndTime = lastTimeInTimeUnitOfUserCloudData + 2 * timeUnitPerLoopIteration;
+        createUsageInterpolator(virtualMachines, firstTimeInTimeUnitOfUsedCloudData, timeUnitPerLoopIteration, simulationEndTime);
+        createMigrationEngine(timeUnitPerLoopIteration);
+        configureManagementBudget();
 
         double currentTime = firstTimeInTimeUnitOfUsedCloudData;
 
-        long highetResourceAllocation = Long.MIN_VALUE;
-        String cloudStateHighestMemoryAllocation = "";
+        ResourceSnapshot cloudStateHighestMemoryAllocation = new ResourceSnapshot();
+        if (checkpointToResumeFrom != null) {
+            currentTime = resumeFromCheckpoint(checkpointToResumeFrom, mapVirtualMachinesTaskExecutionByTime, timeUnitPerLoopIteration);
+            cloudStateHighestMemoryAllocation = checkpointToResumeFrom.getCloudStateHighestMemoryAllocation();
+        }
 
-        while (currentTime < lastTimeInTimeUnitOfUserCloudData + 2 * timeUnitPerLoopIteration) {
-            logger.debug("Current time of iteration: " + currentTime);
-            if (cloud.getMemoryAllocatedInBytes() > highetResourceAllocation) {
-                highetResourceAllocation = cloud.getMemoryAllocatedInBytes();
-                cloudStateHighestMemoryAllocation = cloud.toString();
-            }
-            applyLoadOnCloudForCurrentTime(mapVirtualMachinesTaskExecutionByTime, cloud, currentTime);
-            destroyVirtualMachinesIfNeeded(cloud, currentTime);
+        String checkpointFile = partitionWorker == null ? SimulationConfigurationService.getProperty(CHECKPOINT_FILE_PROPERTY, StringUtils.EMPTY) : StringUtils.EMPTY;
+        int checkpointEveryIterations = SimulationConfigurationService.getIntProperty(CHECKPOINT_EVERY_ITERATIONS_PROPERTY, 100);
+        int iteration = checkpointToResumeFrom == null ? 0 : checkpointToResumeFrom.getIteration();
+        int executedIterations = 0;
+        boolean checkpointPending = false;
 
-            logger.info(String.format("Time [%.3f], cloud state [%s] ", currentTime, cloud));
+        if (partitionWorker == null && SimulationConfigurationService.getBooleanProperty(ADAPTIVE_STEPPING_PROPERTY, false)) {
+            createVirtualMachineEventsQueue(cloud, currentTime);
+        }
+
+        createJournal();
+        createPhaseProfiler();
+        long simulationStartTimeInNanoseconds = System.nanoTime();
+        try {
+            while (currentTime < simulationEndTime) {
+                if (partitionWorker != null) {
+                    partitionWorker.awaitTick(currentTime);
+                }
+                long iterationStartTimeInNanoseconds = System.nanoTime();
+                executedIterations++;
+                journal.iterationStarted(currentTime);
+                notifyAlgorithmsOfTick(cloud, currentTime);
+                if (cloudStateHighestMemoryAllocation.isEmpty() || cloud.getMemoryAllocatedInBytes() > cloudStateHighestMemoryAllocation.getMemoryAllocatedInBytes()) {
+                    cloudStateHighestMemoryAllocation.capture(cloud);
+                }
+                completeMigrationsUntil(currentTime);
+                startPhase(SimulationPhase.APPLY_LOAD);
+                applyLoadOnCloudForCurrentTime(mapVirtualMachinesTaskExecutionByTime, cloud, currentTime);
+                endPhase();
+                startPhase(SimulationPhase.DESTROY_VIRTUAL_MACHINES);
+                destroyVirtualMachinesIfNeeded(cloud, currentTime);
+                endPhase();
+                updateOvercommitRatiosAndTrackContention(cloud, currentTime);
+
+                journal.cloudState(currentTime, cloud);
+
+                startPhase(SimulationPhase.MANAGEMENT);
+                executeManagement(cloud, currentTime);
+                endPhase();
+                startPhase(SimulationPhase.CLUSTERS_LOG);
+                logClustersConfigurationsAndStdAtTime(cloud.getClusters(), currentTime);
+                endPhase();
+                writeMetricsAtTime(cloud, currentTime);
+                tickLatency.record(System.nanoTime() - iterationStartTimeInNanoseconds);
+                if (partitionWorker != null) {
+                    partitionWorker.sendTickResult(currentTime, cloud);
+                }
 
-            executeManagement(cloud, currentTime);
-            logClustersConfigurationsAndStdAtTime(cloud.getClusters(), currentTime);
+                double iterationTime = currentTime;
+                currentTime += timeUnitPerLoopIteration;
+                int previousIteration = iteration++;
+
+                if (virtualMachineEventsQueue != null && !hasMigrationsInProgress()) {
+                    double nextEventTime = getNextEventTime(timesToExecuteTasks, iterationTime);
+                    int minimumDestroyTime = virtualMachineEventsQueue.getMinimumDestroyTime();
+                    double firstSkippedTime = currentTime;
+                    int skippedIterations = 0;
+                    // The times of the iterations are accumulated as in fixed stepping, so executed iterations have exactly the same times.
+                    while (currentTime < simulationEndTime && currentTime < nextEventTime && currentTime <= minimumDestroyTime) {
+                        iterationTime = currentTime;
+                        currentTime += timeUnitPerLoopIteration;
+                        skippedIterations++;
+                    }
+                    if (skippedIterations > 0) {
+                        iteration += skippedIterations;
+                        journal.iterationsSkipped(skippedIterations, firstSkippedTime, iterationTime);
+                        if (metricsWriter != null) {
+                            metricsWriter.writeRepeatedTicks(firstSkippedTime, timeUnitPerLoopIteration, skippedIterations);
+                        }
+                    }
+                }
 
-            currentTime += timeUnitPerLoopIteration;
+                checkpointPending |= StringUtils.isNotBlank(checkpointFile) && checkpointEveryIterations > 0
+                        && iteration / checkpointEveryIterations > previousIteration / checkpointEveryIterations;
+                if (checkpointPending && !hasMigrationsInProgress()) {
+                    checkpointPending = false;
+                    new SimulationCheckpoint(cloud, iterationTime, currentTime, timeUnitPerLoopIteration, iteration, cloudStateHighestMemoryAllocation, contentionTracker,
+                            overcommitPolicy).write(checkpointFile);
+                    journal.checkpointWritten(checkpointFile, iterationTime);
+                }
+            }
+        } finally {
+            journal.close();
+            if (partitionWorker != null) {
+                partitionWorker.close();
+            }
         }
+        long simulationTimeInNanoseconds = System.nanoTime() - simulationStartTimeInNanoseconds;
         logger.info("Cloud configuration after simulation: " + cloud);
-        logger.info("Cloud highestResourceUsage: " + cloudStateHighestMemoryAllocation);
+        logger.info("Cloud highestResourceUsage: " + cloudStateHighestMemoryAllocation.format());
+        notifyAlgorithmsOfSimulationEnd(cloud);
+        closeMetricsWriter();
+        closeVirtualMachineTracesIndex();
+        logMigrationsSummary();
+        logContentionSummary();
+        logManagementBudgetSummary();
+        logPhasesSummary();
+        logLatencies();
+        writeRunSummary(partitionWorker == null ? virtualMachines.size() : partitionWorker.getNumberOfAssignedVirtualMachines(), cloud, iteration, executedIterations, loadTimeInNanoseconds, simulationTimeInNanoseconds,
+                System.nanoTime() - startTimeInNanoseconds);
+    }
+
+    /**
+     * With 'cloudTraces.profiling.phases=true' the phases of every iteration are measured (time, allocations of the simulation thread and garbage collections);
+     * the measurements are exposed through JMX while the simulation runs, logged at its end and added to the run summary.
+     */
+    private static void createPhaseProfiler() {
+        phaseProfiler = null;
+        if (SimulationConfigurationService.getBooleanProperty(PROFILING_PHASES_PROPERTY, false)) {
+            phaseProfiler = new PhaseProfiler();
+            phaseProfiler.registerMBeans();
+        }
+    }
+
+    private static void startPhase(SimulationPhase phase) {
+        if (phaseProfiler != null) {
+            phaseProfiler.startPhase(phase);
+        }
+    }
+
+    private static void endPhase() {
+        if (phaseProfiler != null) {
+            phaseProfiler.endPhase();
+        }
+    }
+
+    private static LatencyHistogram[] getLatencyHistograms() {
+        return new LatencyHistogram[] {placementLatency, rankHostsLatency, mapVMsToHostLatency, tickLatency};
+    }
+
+    private static void logLatencies() {
+        for (LatencyHistogram latencyHistogram : getLatencyHistograms()) {
+            logger.info("Simulation " + latencyHistogram);
+        }
+    }
+
+    private static void logPhasesSummary() {
+        if (phaseProfiler == null) {
+            return;
+        }
+        for (SimulationPhase phase : SimulationPhase.values()) {
+            logger.info("Simulation " + phaseProfiler.getStatistics(phase));
+        }
+    }
+
+    /**
+     * Iterations per second count every iteration simulated (executed or skipped by adaptive stepping) in the simulation time, which does not include loading the
+     * cloud traces.
+     */
+    private static void writeRunSummary(int numberOfVirtualMachines, Cloud cloud, int iterations, int executedIterations,
+            long loadTimeInNanoseconds, long simulationTimeInNanoseconds, long totalTimeInNanoseconds) {
+        String runSummaryFile = SimulationConfigurationService.getProperty(RUN_SUMMARY_FILE_PROPERTY, StringUtils.EMPTY);
+        if (StringUtils.isBlank(runSummaryFile)) {
+            return;
+        }
+        int numberOfHosts = 0;
+        for (Cluster c : cloud.getClusters()) {
+            numberOfHosts += c.getHosts().size();
+        }
+        RunSummary runSummary = new RunSummary();
+        runSummary.put("virtualMachines", numberOfVirtualMachines);
+        runSummary.put("clusters", cloud.getClusters().size());
+        runSummary.put("hosts", numberOfHosts);
+        runSummary.put("loaderThreads", SimulationConfigurationService.getIntProperty(LOADER_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+        runSummary.put("iterations", iterations);
+        runSummary.put("executedIterations", executedIterations);
+        runSummary.put("time.loadInMs", TimeUnit.NANOSECONDS.toMillis(loadTimeInNanoseconds));
+        runSummary.put("time.simulationInMs", TimeUnit.NANOSECONDS.toMillis(simulationTimeInNanoseconds));
+        runSummary.put("time.totalInMs", TimeUnit.NANOSECONDS.toMillis(totalTimeInNanoseconds));
+        runSummary.put("iterationsPerSecond", simulationTimeInNanoseconds > 0 ? iterations / (simulationTimeInNanoseconds / 1e9) : 0);
+        runSummary.addJvmStatistics();
+        if (managementBudgetInNanoseconds > 0) {
+            runSummary.put("management.budgetOverruns", numberOfBudgetOverruns);
+            runSummary.put("management.maxBudgetOverrunInMs", maximumBudgetOverrunInNanoseconds / 1000000d);
+            runSummary.put("management.discardedMigrations", numberOfDiscardedMigrations);
+        }
+        for (LatencyHistogram latencyHistogram : getLatencyHistograms()) {
+            latencyHistogram.addTo(runSummary);
+        }
+        if (phaseProfiler != null) {
+            phaseProfiler.addTo(runSummary);
+        }
+        runSummary.write(runSummaryFile);
+        logger.info(String.format("Run summary written to [%s].", runSummaryFile));
+    }
+
+    /**
+     * The VMs already in the cloud (when the simulation is resumed from a checkpoint) are added to the queue; the others are added when they are deployed.
+     */
+    private static void createVirtualMachineEventsQueue(Cloud cloud, double currentTime) {
+        virtualMachineEventsQueue = new VirtualMachineEventsQueue();
+        for (VirtualMachine virtualMachine : cloud.getVirtualMachines()) {
+            virtualMachineEventsQueue.add(virtualMachine, currentTime);
+        }
+    }
+
+    /**
+     * It returns the time of the next event after the executed iteration of 'iterationTime' that requires executing an iteration, other than destroys: the next time
+     * of the map of VMs by time (an arrival or, with the eager loader, a task execution) or the next usage sample of a deployed VM.
+     */
+    private static double getNextEventTime(List<Integer> sortedTimesToExecuteTasks, double iterationTime) {
+        int index = Collections.binarySearch(sortedTimesToExecuteTasks, (int)Math.floor(iterationTime));
+        index = index < 0 ? -index - 1 : index;
+        while (index < sortedTimesToExecuteTasks.size() && sortedTimesToExecuteTasks.get(index) <= iterationTime) {
+            index++;
+        }
+        int nextTimeToExecuteTasks = index < sortedTimesToExecuteTasks.size() ? sortedTimesToExecuteTasks.get(index) : Integer.MAX_VALUE;
+        return Math.min(nextTimeToExecuteTasks, virtualMachineEventsQueue.getNextSampleTime(iterationTime));
+    }
+
+    private static SimulationCheckpoint readCheckpointToResumeFrom(Collection<VirtualMachine> virtualMachines) {
+        String resumeFrom = SimulationConfigurationService.getProperty(RESUME_FROM_PROPERTY, StringUtils.EMPTY);
+        if (StringUtils.isBlank(resumeFrom)) {
+            return null;
+        }
+        SimulationCheckpoint checkpoint = SimulationCheckpoint.read(resumeFrom, virtualMachines);
+        logger.info(String.format("Resuming simulation from checkpoint [%s] of time [%.2f].", resumeFrom, checkpoint.getLastIterationTime()));
+        return checkpoint;
+    }
+
+    /**
+     * The arrivals of VMs until the last iteration of the checkpoint were already consumed, so they are removed; it returns the time of the next iteration.
+     */
+    private static double resumeFromCheckpoint(SimulationCheckpoint checkpoint, Map<Integer, List<VirtualMachine>> mapVirtualMachinesTaskExecutionByTime,
+            double timeUnitPerLoopIteration) {
+        if (Double.compare(checkpoint.getTimeUnitPerLoopIteration(), timeUnitPerLoopIteration) != 0) {
+            throw new GoogleTracesToCloudTracesException(String.format("The checkpoint time unit per iteration [%f] is different from the one of the traces [%f].",
+                    checkpoint.getTimeUnitPerLoopIteration(), timeUnitPerLoopIteration));
+        }
+        getVirtualMachinesWithTaskExecutionAtTime(mapVirtualMachinesTaskExecutionByTime,
+                getTimesUntilCurrentTime(mapVirtualMachinesTaskExecutionByTime, checkpoint.getLastIterationTime()));
+        if (virtualMachineTracesIndex != null) {
+            virtualMachineTracesIndex.materialize(checkpoint.getCloud().getVirtualMachines());
+            resampleUsageOnTickGrid(checkpoint.getCloud().getVirtualMachines());
+        }
+        contentionTracker = checkpoint.getContentionTracker();
+        return checkpoint.getNextIterationTime();
+    }
+
+    static void createJournal() {
+        boolean asynchronous = SimulationConfigurationService.getBooleanProperty(JOURNAL_ASYNCHRONOUS_PROPERTY, true);
+        int bufferSize = SimulationConfigurationService.getIntProperty(JOURNAL_BUFFER_SIZE_PROPERTY, 1 << 14);
+        journal = new SimulationJournal(logger, asynchronous, bufferSize);
+    }
+
+    private static void createMetricsWriter(Cloud cloud) {
+        String metricsFile = SimulationConfigurationService.getProperty(METRICS_FILE_PROPERTY, StringUtils.EMPTY);
+        if (StringUtils.isBlank(metricsFile)) {
+            return;
+        }
+        metricsWriter = new SimulationMetricsWriter(metricsFile, cloud, SimulationConfigurationService.getBooleanProperty(METRICS_HOSTS_PROPERTY, false));
+        logger.info(String.format("Writing simulation metrics to [%s].", metricsFile));
+    }
+
+    private static void writeMetricsAtTime(Cloud cloud, double currentTime) {
+        if (metricsWriter != null) {
+            metricsWriter.writeTick(currentTime, cloud);
+        }
+    }
+
+    private static void closeMetricsWriter() {
+        if (metricsWriter != null) {
+            metricsWriter.close();
+            metricsWriter = null;
+        }
+    }
+
+    static void loadAlgorithms(Cloud cloud) {
+        deploymentHeuristic = AlgorithmRegistry.getConfiguredDeploymentHeuristic();
+        clusterAdministrationAlgorithm = AlgorithmRegistry.getConfiguredClusterAdministrationAlgorithm();
+        clusterRankingCache = new ClusterRankingCache(deploymentHeuristic);
+        logger.info(String.format("Deployment heuristic [%s], cluster administration algorithm [%s]", deploymentHeuristic.getClass().getName(),
+                clusterAdministrationAlgorithm.getClass().getName()));
+        for (AlgorithmLifecycle algorithm : getAlgorithmsWithLifecycle()) {
+            algorithm.initialize(cloud);
+        }
+    }
+
+    private static void notifyAlgorithmsOfTick(Cloud cloud, double currentTime) {
+        for (AlgorithmLifecycle algorithm : getAlgorithmsWithLifecycle()) {
+            algorithm.onTick(cloud, currentTime);
+        }
+    }
+
+    private static void notifyAlgorithmsOfSimulationEnd(Cloud cloud) {
+        for (AlgorithmLifecycle algorithm : getAlgorithmsWithLifecycle()) {
+            algorithm.finish(cloud);
+        }
+    }
+
+    private static List<AlgorithmLifecycle> getAlgorithmsWithLifecycle() {
+        List<AlgorithmLifecycle> algorithms = new ArrayList<>();
+        if (deploymentHeuristic instanceof AlgorithmLifecycle) {
+            algorithms.add((AlgorithmLifecycle)deploymentHeuristic);
+        }
+        if (clusterAdministrationAlgorithm instanceof AlgorithmLifecycle && clusterAdministrationAlgorithm != deploymentHeuristic) {
+            algorithms.add((AlgorithmLifecycle)clusterAdministrationAlgorithm);
+        }
+        return algorithms;
     }
 
     private static void logClustersConfigurationsAndStdAtTime(List<Cluster> clusters, double currentTime) {
@@ -135,47 +592,100 @@ public class CloudTracesSimulator {
     }
 
     private static void logClusterConfigurationAtTime(Cluster c, double currentTime) {
-        logger.info(String.format("Cluster configuration at time [%.2f]: %s", currentTime, c));
+        journal.clusterConfiguration(currentTime, c);
     }
 
     private static void applyLoadOnCloudForCurrentTime(Map<Integer, List<VirtualMachine>> mapVirtualMachinesTaskExecutionByTime, Cloud cloud, double currentTime) {
-        List<Integer> timesUntilCurrenttime = getTimesUntilCurrentTime(mapVirtualMachinesTaskExecutionByTime, currentTime);
-        List<VirtualMachine> virtualMachinesWithTaskExecutionAtTime = getVirtualMachinesWithTaskExecutionAtTime(mapVirtualMachinesTaskExecutionByTime, timesUntilCurrenttime);
+        List<VirtualMachine> virtualMachinesWithTaskExecutionAtTime;
+        if (partitionWorker == null) {
+            List<Integer> timesUntilCurrenttime = getTimesUntilCurrentTime(mapVirtualMachinesTaskExecutionByTime, currentTime);
+            virtualMachinesWithTaskExecutionAtTime = getVirtualMachinesWithTaskExecutionAtTime(mapVirtualMachinesTaskExecutionByTime, timesUntilCurrenttime);
+        } else {
+            virtualMachinesWithTaskExecutionAtTime = partitionWorker.getAssignedVirtualMachines();
+        }
 
-        logger.info(String.format("Number of Virtual machines [%d] with execution at time [%.2f].", virtualMachinesWithTaskExecutionAtTime.size(), currentTime));
+        journal.virtualMachinesWithExecution(virtualMachinesWithTaskExecutionAtTime.size(), currentTime);
+        materializeVirtualMachinesToDeploy(virtualMachinesWithTaskExecutionAtTime);
+        synchronizeClustersFreeCapacityIndexes(cloud);
         for (VirtualMachine virtualMachine : virtualMachinesWithTaskExecutionAtTime) {
             if (virtualMachine.getHost() == null) {
-                logger.debug(String.format("Deploy of virtual machine [%s] at time [%.2f] ", virtualMachine, currentTime));
+                if (partitionWorker != null && !canAnyClusterSupportVirtualMachine(virtualMachine, cloud)) {
+                    partitionWorker.rejectVirtualMachine(virtualMachine);
+                    releaseVirtualMachine(virtualMachine);
+                    continue;
+                }
+                journal.deployingVirtualMachine(virtualMachine, currentTime);
                 deployVirtualMachine(virtualMachine, cloud);
                 displayCloudStateBeforeAndAfterVmDeployment(cloud, virtualMachine);
+                if (virtualMachineEventsQueue != null) {
+                    virtualMachineEventsQueue.add(virtualMachine, currentTime);
+                }
             }
         }
         updateCloudResourceCount(cloud, currentTime);
     }
 
+    /**
+     * Workers of a partitioned simulation reject the VMs that do not fit in their clusters, instead of failing the simulation.
+     */
+    private static boolean canAnyClusterSupportVirtualMachine(VirtualMachine virtualMachine, Cloud cloud) {
+        long vmRequestedCpu = getVmRequestedCpu(virtualMachine.getVmServiceOffering());
+        long vmRequestedMemoryInMib = virtualMachine.getVmServiceOffering().getMemoryInMegaByte();
+        for (Cluster c : cloud.getClusters()) {
+            if (c.getFreeCapacityIndex().canAnyHostSupport(vmRequestedCpu, vmRequestedMemoryInMib)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Management algorithms may re-order the hosts of a cluster, so once per iteration we make sure that the clusters free capacity indexes follow the hosts order.
+     */
+    private static void synchronizeClustersFreeCapacityIndexes(Cloud cloud) {
+        for (Cluster c : cloud.getClusters()) {
+            c.synchronizeFreeCapacityIndex();
+        }
+    }
+
     private static void updateCloudResourceCount(Cloud cloud, double currentTime) {
         updateCloudResourceUsageForTime(cloud, currentTime);
         updateCloudResourceAllocated(cloud);
     }
 
-    private static void executeManagement(Cloud cloud, double currentTime) {
-        logger.debug("Executing management at time:" + currentTime);
+    static void executeManagement(Cloud cloud, double currentTime) {
+        journal.managementStarted(currentTime);
         ClusterAdministrationAlgorithm clusterAdministrationAlgorithm = getClusterAdministrationAlgorithms();
         for (Cluster c : cloud.getClusters()) {
 
             long timeBeforeManagementProcess = System.nanoTime();
             List<Host> sortedHosts = clusterAdministrationAlgorithm.rankHosts(c.getHosts());
-            Map<VirtualMachine, Host> mapVMsToHost = clusterAdministrationAlgorithm.mapVMsToHost(sortedHosts);
+            long timeAfterRankingHosts = System.nanoTime();
+            Map<VirtualMachine, Host> mapVMsToHost = mapVMsToHost(clusterAdministrationAlgorithm, sortedHosts, timeBeforeManagementProcess);
             long timeAfterManagementProcess = System.nanoTime();
-            logger.info(String.format("#migrations [%d] mapped for cluster [%s] at time [%.2f]; total processing time [%d] (nanoSeconds)", mapVMsToHost.size(), c.getId(),
-                    currentTime, timeAfterManagementProcess - timeBeforeManagementProcess));
+            rankHostsLatency.record(timeAfterRankingHosts - timeBeforeManagementProcess);
+            mapVMsToHostLatency.record(timeAfterManagementProcess - timeAfterRankingHosts);
+            mapVMsToHost = checkManagementBudget(mapVMsToHost, c, currentTime, timeAfterManagementProcess - timeBeforeManagementProcess);
 
             if (!mapVMsToHost.isEmpty()) {
                 logClusterStdAtTime(currentTime, c, true);
             }
+            int deferredMigrations = 0;
             for (VirtualMachine vm : mapVMsToHost.keySet()) {
                 Host targetHost = mapVMsToHost.get(vm);
-                migrateVmToHost(vm, targetHost);
+                if (migrationEngine == null) {
+                    migrateVmToHost(vm, targetHost);
+                } else if (!startLiveMigration(vm, targetHost, c, currentTime)) {
+                    deferredMigrations++;
+                }
+            }
+            int startedMigrations = mapVMsToHost.size() - deferredMigrations;
+            journal.migrationsMapped(startedMigrations, c, currentTime, timeAfterManagementProcess - timeBeforeManagementProcess);
+            if (deferredMigrations > 0) {
+                journal.migrationsDeferred(deferredMigrations, c, currentTime);
+            }
+            if (metricsWriter != null && startedMigrations > 0) {
+                metricsWriter.addMigrations(c, startedMigrations);
             }
             updateClusterResourceAllocated(c);
             updateClusterResourceUsageForTime(c, currentTime);
@@ -191,64 +701,206 @@ public class CloudTracesSimulator {
     }
 
     private static void logClusterStdAtTime(double currentTime, Cluster c, String epochOfLog) {
+        if (!journal.isEnabled(SimulationEventType.CLUSTER_STD)) {
+            return;
+        }
         double clusterMemoryAllocatedInMibStd = calculateClusterMemoryAllocatedInMibStd(c);
         double clusterMemoryUsageInMibStd = calculateClusterMemoryUsageInMibStd(c);
         double clusterCpuAllocatedInGhStd = calculateClusterCpuAllocatedInGhStd(c);
         double clusterCpuUsageInGhStd = calculateClusterCpuUsageInGhzStd(c);
-        logger.info(String.format("Cluster [%s] %smemory STD [%.2fGib], memory usage STD [%.2fGib], cpu STD [%.2fGhz], cpu usage STD [%.2fGhz] at time [%.2f]", c.getId(),
-                epochOfLog, clusterMemoryAllocatedInMibStd / megaByteToGigaByte, clusterMemoryUsageInMibStd / megaByteToGigaByte, clusterCpuAllocatedInGhStd,
-                clusterCpuUsageInGhStd, currentTime));
+        journal.clusterStd(currentTime, c, epochOfLog, clusterMemoryAllocatedInMibStd / megaByteToGigaByte, clusterMemoryUsageInMibStd / megaByteToGigaByte,
+                clusterCpuAllocatedInGhStd, clusterCpuUsageInGhStd);
+    }
+
+    static double calculateClusterMemoryAllocatedInMibStd(Cluster cluster) {
+        return cluster.getBalanceStatistics().getMemoryAllocatedInMibStd();
+    }
+
+    static double calculateClusterMemoryUsageInMibStd(Cluster cluster) {
+        return cluster.getBalanceStatistics().getMemoryUsedInMibStd();
+    }
+
+    static double calculateClusterCpuAllocatedInGhStd(Cluster cluster) {
+        return cluster.getBalanceStatistics().getCpuAllocatedInMhzStd() / 1000d;
+    }
+
+    static double calculateClusterCpuUsageInGhzStd(Cluster cluster) {
+        return cluster.getBalanceStatistics().getCpuUsedInMhzStd() / 1000d;
     }
 
-    private static StandardDeviation std = new StandardDeviation(false);
+    private static void migrateVmToHost(VirtualMachine vm, Host targetHost) {
+        Host sourceHost = vm.getHost();
+
+        journal.migratingVirtualMachine(vm, sourceHost, targetHost);
 
-    private static double calculateClusterMemoryAllocatedInMibStd(Cluster cluster) {
-        List<Host> hosts = cluster.getHosts();
-        double hostsMemoryUsage[] = new double[hosts.size()];
-        for (int i = 0; i < hosts.size(); i++) {
-            hostsMemoryUsage[i] = hosts.get(i).getMemoryAllocatedInMib();
+        sourceHost.destroyVirtualMachine(vm);
+        targetHost.addVirtualMachine(vm);
+    }
+
+    private static boolean startLiveMigration(VirtualMachine vm, Host targetHost, Cluster c, double currentTime) {
+        Host sourceHost = vm.getHost();
+        if (!migrationEngine.startMigration(vm, targetHost, c, currentTime)) {
+            return false;
         }
-        return std.evaluate(hostsMemoryUsage);
+        journal.migratingVirtualMachine(vm, sourceHost, targetHost);
+        return true;
     }
 
-    private static double calculateClusterMemoryUsageInMibStd(Cluster cluster) {
-        List<Host> hosts = cluster.getHosts();
-        double hostsMemoryUsage[] = new double[hosts.size()];
-        for (int i = 0; i < hosts.size(); i++) {
-            hostsMemoryUsage[i] = hosts.get(i).getMemoryUsedInMib();
+    /**
+     * Live migrations whose transfers complete until the current time are applied before the iteration is executed, so VMs run on their target hosts from then on.
+     */
+    private static void completeMigrationsUntil(double currentTime) {
+        if (migrationEngine == null) {
+            return;
+        }
+        for (LiveMigration liveMigration : migrationEngine.advanceTo(currentTime)) {
+            journal.migrationCompleted(liveMigration.getVirtualMachine(), liveMigration.getSourceHost(), liveMigration.getTargetHost(), liveMigration.getStartTime(),
+                    liveMigration.getEndTime(), migrationEngine.getDurationInSeconds(liveMigration), liveMigration.getMemoryInMegaBytes());
         }
-        return std.evaluate(hostsMemoryUsage);
     }
 
-    private static double calculateClusterCpuAllocatedInGhStd(Cluster cluster) {
-        List<Host> hosts = cluster.getHosts();
-        double hostsCpuAllocated[] = new double[hosts.size()];
-        for (int i = 0; i < hosts.size(); i++) {
-            hostsCpuAllocated[i] = (hosts.get(i).getCpuAllocatedInMhz() / 1000d);
+    private static boolean hasMigrationsInProgress() {
+        return migrationEngine != null && migrationEngine.hasMigrationsInProgress();
+    }
+
+    /**
+     * One time unit of the traces is converted to seconds with the length (in minutes) of an iteration.
+     */
+    private static void createMigrationEngine(double timeUnitPerLoopIteration) {
+        double hostBandwidth = SimulationConfigurationService.getDoubleProperty(MIGRATION_HOST_BANDWIDTH_PROPERTY, 0);
+        if (hostBandwidth <= 0) {
+            return;
         }
-        return std.evaluate(hostsCpuAllocated);
+        double clusterBandwidth = SimulationConfigurationService.getDoubleProperty(MIGRATION_CLUSTER_BANDWIDTH_PROPERTY, 0);
+        int maximumConcurrentMigrationsPerHost = SimulationConfigurationService.getIntProperty(MIGRATION_MAX_CONCURRENT_PER_HOST_PROPERTY, 2);
+        int maximumConcurrentMigrationsPerCluster = SimulationConfigurationService.getIntProperty(MIGRATION_MAX_CONCURRENT_PER_CLUSTER_PROPERTY, 0);
+        double traceTimeUnitsPerSecond = timeUnitPerLoopIteration / (timeFramePerSimulationIterationInMinutes * 60d);
+        migrationEngine = new MigrationEngine(hostBandwidth, clusterBandwidth, maximumConcurrentMigrationsPerHost, maximumConcurrentMigrationsPerCluster,
+                traceTimeUnitsPerSecond);
+        logger.info(String.format("Live migrations with host bandwidth [%.2fMB/s], cluster bandwidth [%.2fMB/s], at most [%d] concurrent migrations per host and [%d] per cluster.",
+                hostBandwidth, clusterBandwidth, maximumConcurrentMigrationsPerHost, maximumConcurrentMigrationsPerCluster));
     }
 
-    private static double calculateClusterCpuUsageInGhzStd(Cluster cluster) {
-        List<Host> hosts = cluster.getHosts();
-        double hostsCpuUsageInGhz[] = new double[hosts.size()];
-        for (int i = 0; i < hosts.size(); i++) {
-            hostsCpuUsageInGhz[i] = (hosts.get(i).getCpuUsedInMhz() / 1000d);
+    private static void configureManagementBudget() {
+        managementBudgetInNanoseconds = TimeUnit.MILLISECONDS.toNanos(SimulationConfigurationService.getLongProperty(MANAGEMENT_BUDGET_PROPERTY, 0l));
+        budgetOverrunPolicy = BudgetOverrunPolicy.valueOf(
+                SimulationConfigurationService.getProperty(MANAGEMENT_BUDGET_OVERRUN_POLICY_PROPERTY, BudgetOverrunPolicy.APPLY.name()).trim().toUpperCase());
+        if (managementBudgetInNanoseconds > 0) {
+            logger.info(String.format("Management time budget of [%d ms] per cluster; overrun policy [%s].", TimeUnit.NANOSECONDS.toMillis(managementBudgetInNanoseconds),
+                    budgetOverrunPolicy));
         }
-        return std.evaluate(hostsCpuUsageInGhz);
     }
 
-    private static void migrateVmToHost(VirtualMachine vm, Host targetHost) {
-        Host sourceHost = vm.getHost();
+    private static Map<VirtualMachine, Host> mapVMsToHost(ClusterAdministrationAlgorithm clusterAdministrationAlgorithm, List<Host> rankedHosts,
+            long timeBeforeManagementProcess) {
+        if (managementBudgetInNanoseconds > 0 && clusterAdministrationAlgorithm instanceof DeadlineAwareClusterAdministrationAlgorithm) {
+            return ((DeadlineAwareClusterAdministrationAlgorithm)clusterAdministrationAlgorithm).mapVMsToHost(rankedHosts,
+                    timeBeforeManagementProcess + managementBudgetInNanoseconds);
+        }
+        return clusterAdministrationAlgorithm.mapVMsToHost(rankedHosts);
+    }
 
-        logger.debug(String.format("Migrating vm[%s] from host[%s] to host [%s]", vm.getVmId(), sourceHost.getId(), targetHost.getId()));
+    /**
+     * It records the overrun if the management of the cluster took longer than the budget; with {@link BudgetOverrunPolicy#DISCARD} the mapped migrations are
+     * dropped.
+     */
+    private static Map<VirtualMachine, Host> checkManagementBudget(Map<VirtualMachine, Host> mapVMsToHost, Cluster cluster, double currentTime,
+            long managementTimeInNanoseconds) {
+        long overrunInNanoseconds = managementTimeInNanoseconds - managementBudgetInNanoseconds;
+        if (managementBudgetInNanoseconds <= 0 || overrunInNanoseconds <= 0) {
+            return mapVMsToHost;
+        }
+        numberOfBudgetOverruns++;
+        maximumBudgetOverrunInNanoseconds = Math.max(maximumBudgetOverrunInNanoseconds, overrunInNanoseconds);
+        if (budgetOverrunPolicy == BudgetOverrunPolicy.DISCARD) {
+            numberOfDiscardedMigrations += mapVMsToHost.size();
+            journal.managementBudgetExceeded(cluster, currentTime, overrunInNanoseconds, mapVMsToHost.size());
+            return new HashMap<>();
+        }
+        journal.managementBudgetExceeded(cluster, currentTime, overrunInNanoseconds, 0);
+        return mapVMsToHost;
+    }
 
-        sourceHost.destroyVirtualMachine(vm);
-        targetHost.addVirtualMachine(vm);
+    private static void logManagementBudgetSummary() {
+        if (managementBudgetInNanoseconds <= 0) {
+            return;
+        }
+        logger.info(String.format("Management time budget exceeded in [%d] of [%d] cluster management rounds (max overrun [%.3f ms]); [%d] mapped migrations discarded.",
+                numberOfBudgetOverruns, rankHostsLatency.getTotalCount(), maximumBudgetOverrunInNanoseconds / 1000000d, numberOfDiscardedMigrations));
+    }
+
+    private static void logMigrationsSummary() {
+        if (migrationEngine == null) {
+            return;
+        }
+        logger.info(String.format(
+                "Live migrations: [%d] completed, [%d] deferred, [%d] cancelled; [%d] MB transferred; mean duration [%.2f] (seconds), max duration [%.2f] (seconds).",
+                migrationEngine.getNumberOfCompletedMigrations(), migrationEngine.getNumberOfDeferredMigrations(), migrationEngine.getNumberOfCancelledMigrations(),
+                migrationEngine.getMegaBytesTransferred(), migrationEngine.getMeanDurationInSeconds(), migrationEngine.getMaximumDurationInSeconds()));
+    }
+
+    /**
+     * When the simulation is resumed with the overcommit policy of the checkpoint, the policy state is restored and the hosts keep their ratios; otherwise the ratios
+     * are calculated by the new policy (or reset, without overcommit).
+     */
+    private static void createOvercommitPolicy(Cloud cloud, SimulationCheckpoint checkpointToResumeFrom) {
+        String policy = SimulationConfigurationService.getProperty(OVERCOMMIT_POLICY_PROPERTY, "NONE").trim().toUpperCase();
+        double cpuRatio = SimulationConfigurationService.getDoubleProperty(OVERCOMMIT_CPU_RATIO_PROPERTY, 2);
+        double memoryRatio = SimulationConfigurationService.getDoubleProperty(OVERCOMMIT_MEMORY_RATIO_PROPERTY, 1.5);
+        switch (policy) {
+            case "NONE":
+                if (checkpointToResumeFrom != null) {
+                    new StaticRatioOvercommitPolicy(1, 1).updateOvercommitRatios(cloud);
+                }
+                return;
+            case "STATIC_RATIO":
+                overcommitPolicy = new StaticRatioOvercommitPolicy(cpuRatio, memoryRatio);
+                break;
+            case "USAGE_PERCENTILE":
+                overcommitPolicy = new UsagePercentileOvercommitPolicy(SimulationConfigurationService.getDoubleProperty(OVERCOMMIT_PERCENTILE_PROPERTY, 95),
+                        SimulationConfigurationService.getIntProperty(OVERCOMMIT_HISTORY_SIZE_PROPERTY, 12),
+                        SimulationConfigurationService.getDoubleProperty(OVERCOMMIT_TARGET_UTILIZATION_PROPERTY, 0.8), cpuRatio, memoryRatio);
+                break;
+            default:
+                throw new GoogleTracesToCloudTracesException(
+                        String.format("Unknown overcommit policy [%s]; available ones are [NONE, STATIC_RATIO, USAGE_PERCENTILE].", policy));
+        }
+        logger.info(String.format("Overcommit policy [%s].", overcommitPolicy));
+        if (checkpointToResumeFrom != null && checkpointToResumeFrom.restoreOvercommitPolicyState(overcommitPolicy)) {
+            logger.info("Overcommit policy state restored from the checkpoint.");
+            return;
+        }
+        overcommitPolicy.updateOvercommitRatios(cloud);
+    }
+
+    /**
+     * The usage of the hosts is the one of the current time; contentions are tracked even without an overcommit policy.
+     */
+    private static void updateOvercommitRatiosAndTrackContention(Cloud cloud, double currentTime) {
+        for (Cluster c : cloud.getClusters()) {
+            for (Host h : c.getHosts()) {
+                if (contentionTracker.record(h)) {
+                    journal.hostContention(h, currentTime);
+                }
+            }
+        }
+        if (overcommitPolicy != null) {
+            overcommitPolicy.updateOvercommitRatios(cloud);
+        }
+    }
+
+    private static void logContentionSummary() {
+        if (overcommitPolicy == null && contentionTracker.getNumberOfCpuContentions() == 0 && contentionTracker.getNumberOfMemoryContentions() == 0) {
+            return;
+        }
+        logger.info(String.format(
+                "Host contentions: cpu [%d] (mean excess [%.2fMhz], max excess [%dMhz]), memory [%d] (mean excess [%.2fMB], max excess [%dMB]).",
+                contentionTracker.getNumberOfCpuContentions(), contentionTracker.getMeanCpuExcessInMhz(), contentionTracker.getMaximumCpuExcessInMhz(),
+                contentionTracker.getNumberOfMemoryContentions(), contentionTracker.getMeanMemoryExcessInMib(), contentionTracker.getMaximumMemoryExcessInMib()));
     }
 
-    private static ClusterAdministrationAlgorithmEmptyImpl getClusterAdministrationAlgorithms() {
-        return new ClusterAdministrationAlgorithmEmptyImpl();
+    private static ClusterAdministrationAlgorithm getClusterAdministrationAlgorithms() {
+        return clusterAdministrationAlgorithm;
     }
 
     private static void updateCloudResourceUsageForTime(Cloud cloud, double currentTime) {
@@ -275,133 +927,48 @@ public class CloudTracesSimulator {
         c.setCpuUsedInMhz(cpuUsed);
     }
 
-    private static final LinearInterpolator linearInterpolator = new LinearInterpolator();
+    static void updateHostResourceUsageForTime(Host h, double currentTime) {
+        calculateHostResourceUsageForTime(h, currentTime, hostResourceUsage);
+        h.setMemoryUsedInMiB(hostResourceUsage[0]);
+        h.setCpuUsedInMhz(hostResourceUsage[1]);
+    }
 
-    private static void updateHostResourceUsageForTime(Host h, double currentTime) {
+    /**
+     * It sets the memory (MiB) and CPU (MHz) used by the VMs of the host at the given time in the first and second positions of 'resourceUsage'.
+     */
+    private static void calculateHostResourceUsageForTime(Host h, double currentTime, long[] resourceUsage) {
         long memoryUsed = 0;
         long cpuUsed = 0;
         for (VirtualMachine vm : h.getVirtualMachines()) {
-            GoogleTask googleTask = getTaskExecutionForTimeEqualCurrentTime(vm, currentTime);
-            if (googleTask != null) {
-                memoryUsed += googleTask.getMemoryUsage();
-                cpuUsed += googleTask.getCpuUsage();
-                continue;
-            }
-            GoogleTask googleTaskBeforeCurrentTime = getTaskExecutionForTimeRightBeforeCurrentTime(vm, currentTime);
-            GoogleTask googleTaskAfterCurrentTime = getTaskExecutionForTimeRightAfterCurrentTime(vm, currentTime);
-
-            if (googleTaskBeforeCurrentTime == googleTaskAfterCurrentTime) {
-                memoryUsed += googleTaskAfterCurrentTime.getMemoryUsage();
-                cpuUsed += googleTaskAfterCurrentTime.getCpuUsage();
-                continue;
-            }
-
-            memoryUsed += calculateUsedMemoryInterpolatedValue(googleTaskBeforeCurrentTime, currentTime, googleTaskAfterCurrentTime);
-            cpuUsed += calculateUsedCpuInterpolatedValue(googleTaskBeforeCurrentTime, currentTime, googleTaskAfterCurrentTime);
+            usageInterpolator.calculateUsage(vm.getUsageSeries(), currentTime, virtualMachineUsage);
+            memoryUsed += virtualMachineUsage[0];
+            cpuUsed += virtualMachineUsage[1];
         }
-        h.setMemoryUsedInMiB(memoryUsed);
-        h.setCpuUsedInMhz(cpuUsed);
-    }
-
-    private static double calculateUsedCpuInterpolatedValue(GoogleTask googleTaskBeforeCurrentTime, double currentTime, GoogleTask googleTaskAfterCurrentTime) {
-        double x[] = new double[2];
-        x[0] = googleTaskBeforeCurrentTime.getTime();
-        x[1] = googleTaskAfterCurrentTime.getTime();
-
-        double y[] = new double[2];
-        y[0] = googleTaskBeforeCurrentTime.getCpuUsage();
-        y[1] = googleTaskAfterCurrentTime.getCpuUsage();
-        return linearInterpolator.interpolate(x, y).value(currentTime);
-    }
-
-    private static double calculateUsedMemoryInterpolatedValue(GoogleTask googleTaskBeforeCurrentTime, double currentTime, GoogleTask googleTaskAfterCurrentTime) {
-        double x[] = new double[2];
-        x[0] = googleTaskBeforeCurrentTime.getTime();
-        x[1] = googleTaskAfterCurrentTime.getTime();
-
-        double y[] = new double[2];
-        y[0] = googleTaskBeforeCurrentTime.getMemoryUsage();
-        y[1] = googleTaskAfterCurrentTime.getMemoryUsage();
-        return linearInterpolator.interpolate(x, y).value(currentTime);
-    }
-
-    private static GoogleTask getTaskExecutionForTimeRightAfterCurrentTime(VirtualMachine vm, double currentTime) {
-        Map<Integer, List<GoogleTask>> mapTimeByTasks = vm.getGoogleJob().getMapTimeByTasks();
-
-        List<Integer> times = getSortedTimes(mapTimeByTasks);
-
-        int i = times.size() - 1;
-        int lastTimeRightAfterCurrentTime = times.get(i);
-        while (i >= 0 && times.get(i) >= currentTime) {
-            lastTimeRightAfterCurrentTime = times.get(i);
-            i--;
-        }
-        return getTaskForSelectedTime(mapTimeByTasks, lastTimeRightAfterCurrentTime);
-    }
-
-    private static GoogleTask getTaskForSelectedTime(Map<Integer, List<GoogleTask>> mapTimeByTasks, int time) {
-        List<GoogleTask> googleTasks = mapTimeByTasks.get(time);
-        if (CollectionUtils.isEmpty(googleTasks)) {
-            throw new GoogleTracesToCloudTracesException("This cannot happen!");
-        }
-        return googleTasks.get(0);
-    }
-
-    private static List<Integer> getSortedTimes(Map<Integer, List<GoogleTask>> mapTimeByTasks) {
-        List<Integer> times = new ArrayList<>(mapTimeByTasks.keySet());
-        Collections.sort(times);
-        return times;
-    }
-
-    private static GoogleTask getTaskExecutionForTimeRightBeforeCurrentTime(VirtualMachine vm, double currentTime) {
-        Map<Integer, List<GoogleTask>> mapTimeByTasks = vm.getGoogleJob().getMapTimeByTasks();
-
-        List<Integer> times = getSortedTimes(mapTimeByTasks);
-
-        int lastTimeBeforeCurrentTime = 0;
-        int i = 0;
-        while (i < times.size() && times.get(i) <= currentTime) {
-            lastTimeBeforeCurrentTime = times.get(i);
-            i++;
-        }
-        return getTaskForSelectedTime(mapTimeByTasks, lastTimeBeforeCurrentTime);
-    }
-
-    private static GoogleTask getTaskExecutionForTimeEqualCurrentTime(VirtualMachine vm, double currentTime) {
-        Map<Integer, List<GoogleTask>> mapTimeByTasks = vm.getGoogleJob().getMapTimeByTasks();
-        for (int time : mapTimeByTasks.keySet()) {
-            if (mapTimeByTasks.get(time).size() != 1) {
-                throw new GoogleTracesToCloudTracesException(
-                        "This clause can never happen. At this point all of the tasks should have been grouped as a single one in a time slice.");
-            }
-            if (time == currentTime) {
-                return mapTimeByTasks.get(time).get(0);
-            }
-        }
-        return null;
+        resourceUsage[0] = memoryUsed;
+        resourceUsage[1] = cpuUsed;
     }
 
     private static void destroyVirtualMachinesIfNeeded(Cloud cloud, double currentTime) {
         int virtualMachinesDestroyed = 0;
-        logger.debug(String.format("Cloud resources before destroy of VMs at time [%.2f]: %s", currentTime, cloud));
+        journal.cloudBeforeDestroys(currentTime, cloud);
 
         for (VirtualMachine virtualMachine : new HashSet<>(cloud.getVirtualMachines())) {
             if (virtualMachine.getDestroyTime() < currentTime && virtualMachine.getHost() != null) {
                 virtualMachinesDestroyed++;
-                logger.debug("Destroying VM: " + virtualMachine + "at time: " + currentTime);
+                journal.destroyingVirtualMachine(virtualMachine, currentTime);
                 destroyVirtualMachine(virtualMachine, cloud);
             }
         }
         updateCloudResourceCount(cloud, currentTime);
 
-        logger.debug(String.format("Cloud resources after destroy of VMs at time [%.2f]: %s", currentTime, cloud));
-        logger.info(String.format("Number of virtual machines [%d] destroyed at time [%.2f]", virtualMachinesDestroyed, currentTime));
+        journal.cloudAfterDestroys(currentTime, cloud);
+        journal.virtualMachinesDestroyed(virtualMachinesDestroyed, currentTime);
     }
 
     private static void displayCloudStateBeforeAndAfterVmDeployment(Cloud cloud, VirtualMachine virtualMachine) {
-        logger.debug(String.format("Cloud resources before deploy of VM [%s]: %s", virtualMachine.getVmId(), cloud));
+        journal.cloudBeforeDeployment(virtualMachine, cloud);
         updateCloudResourceAllocated(cloud);
-        logger.debug(String.format("Cloud resources after deploy of VM [%s]: %s", virtualMachine.getVmId(), cloud));
+        journal.cloudAfterDeployment(virtualMachine, cloud);
     }
 
     private static void updateCloudResourceAllocated(Cloud cloud) {
@@ -427,67 +994,159 @@ public class CloudTracesSimulator {
         c.setMemoryAllocatedInBytes(allocatedMemory);
     }
 
-    private static void destroyVirtualMachine(VirtualMachine virtualMachine, Cloud cloud) {
+    static void destroyVirtualMachine(VirtualMachine virtualMachine, Cloud cloud) {
         cloud.destroyVirtualMachine(virtualMachine);
+        if (migrationEngine != null) {
+            migrationEngine.cancelMigration(virtualMachine);
+        }
 
         Host host = virtualMachine.getHost();
         host.destroyVirtualMachine(virtualMachine);
+        releaseVirtualMachine(virtualMachine);
+    }
+
+    /**
+     * With the windowed loader, the task executions of the VMs that are going to be deployed are loaded (all at once, see
+     * {@link VirtualMachineTracesIndex#materialize(Collection)}).
+     */
+    private static void materializeVirtualMachinesToDeploy(List<VirtualMachine> virtualMachinesWithTaskExecutionAtTime) {
+        if (virtualMachineTracesIndex == null) {
+            return;
+        }
+        List<VirtualMachine> virtualMachinesToDeploy = new ArrayList<>();
+        for (VirtualMachine virtualMachine : virtualMachinesWithTaskExecutionAtTime) {
+            if (virtualMachine.getHost() == null) {
+                virtualMachinesToDeploy.add(virtualMachine);
+            }
+        }
+        virtualMachineTracesIndex.materialize(virtualMachinesToDeploy);
+        resampleUsageOnTickGrid(virtualMachinesToDeploy);
+    }
+
+    static void createUsageInterpolator(Collection<VirtualMachine> virtualMachines, double firstTime, double timeUnitPerLoopIteration, double simulationEndTime) {
+        InterpolationMode interpolationMode = InterpolationMode
+                .valueOf(SimulationConfigurationService.getProperty(INTERPOLATION_MODE_PROPERTY, InterpolationMode.LINEAR.name()).trim().toUpperCase());
+        TickGrid tickGrid = null;
+        if (SimulationConfigurationService.getBooleanProperty(INTERPOLATION_RESAMPLE_ON_TICK_GRID_PROPERTY, false)) {
+            tickGrid = new TickGrid(firstTime, timeUnitPerLoopIteration, simulationEndTime);
+        }
+        logger.info(String.format("VMs usage interpolation [%s]%s.", interpolationMode, tickGrid == null ? "" : String.format(", resampled on [%d] iterations",
+                tickGrid.getNumberOfTicks())));
+        usageInterpolator = new VmUsageInterpolator(interpolationMode, tickGrid);
+        if (virtualMachineTracesIndex == null) {
+            resampleUsageOnTickGrid(virtualMachines);
+        }
+    }
+
+    private static void resampleUsageOnTickGrid(Collection<VirtualMachine> virtualMachines) {
+        for (VirtualMachine virtualMachine : virtualMachines) {
+            if (!virtualMachine.getUsageSeries().hasTickGridUsage()) {
+                usageInterpolator.resampleOnTickGrid(virtualMachine);
+            }
+        }
+    }
+
+    /**
+     * VMs destroyed or rejected by a worker of a partitioned simulation are never deployed by the worker again, so they are also dropped from its index.
+     */
+    private static void releaseVirtualMachine(VirtualMachine virtualMachine) {
+        if (partitionWorker != null) {
+            virtualMachineTracesIndex.remove(virtualMachine);
+        } else if (virtualMachineTracesIndex != null) {
+            virtualMachineTracesIndex.release(virtualMachine);
+        }
+    }
+
+    private static void closeVirtualMachineTracesIndex() {
+        if (virtualMachineTracesIndex != null) {
+            logger.info(String.format("Peak of [%d] VMs with task executions in memory.", virtualMachineTracesIndex.getPeakNumberOfMaterializedVirtualMachines()));
+            virtualMachineTracesIndex.close();
+            virtualMachineTracesIndex = null;
+        }
     }
 
     /**
      * This method will try to deploy the virtual machine in the given cloud.
      * We use a heuristic to support the deployment process.
-     * That means, the heuristic will decide in which cluster and hosts we try first to deploy the VM.
+     * That means, the heuristic will decide in which cluster and hosts we try first to deploy the VM. The clusters ranking is cached, and it is only re-calculated when
+     * the clusters attributes used by the heuristic change.
+     * Clusters that do not have a host with enough resources are skipped using the cluster free capacity index. Moreover, when the heuristic keeps the original order of
+     * the hosts, the first host that supports the VM is found through the index instead of checking every host; heuristics that implement
+     * {@link IndexedDeploymentHeuristic} select the host themselves.
      * If the deployment is not possible, an exception will be thrown.
      */
-    private static void deployVirtualMachine(VirtualMachine virtualMachine, Cloud cloud) {
+    static void deployVirtualMachine(VirtualMachine virtualMachine, Cloud cloud) {
+        long timeBeforePlacement = System.nanoTime();
         DeploymentHeuristic deploymentHeuristic = getDeploymentHeuristic();
+        VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+        long vmRequestedCpu = getVmRequestedCpu(vmServiceOffering);
+        long vmRequestedMemoryInMib = vmServiceOffering.getMemoryInMegaByte();
 
-        List<Cluster> rankedClustersToDeployVirtualMachine = deploymentHeuristic.getRankedClustersToDeployVirtualMachine(cloud.getClusters(), virtualMachine);
+        List<Cluster> rankedClustersToDeployVirtualMachine = clusterRankingCache.getRankedClustersToDeployVirtualMachine(cloud.getClusters(), virtualMachine);
         for (Cluster c : rankedClustersToDeployVirtualMachine) {
-            List<Host> clusterOriginalHostsList = c.getHosts();
-            List<Host> rankedHostsToDeployVirtualMachie = deploymentHeuristic.getRankedHostsToDeployVirtualMachie(clusterOriginalHostsList, virtualMachine);
-            for (Host host : rankedHostsToDeployVirtualMachie) {
-                if (canHostSupportVirtualMachine(host, virtualMachine)) {
-                    cloud.addVirtualMachine(virtualMachine);
-
-                    int indexOfTargetHost = clusterOriginalHostsList.indexOf(host);
-                    Host targetHost = clusterOriginalHostsList.get(indexOfTargetHost);
+            ClusterFreeCapacityIndex clusterFreeCapacityIndex = c.getFreeCapacityIndex();
+            if (!clusterFreeCapacityIndex.canAnyHostSupport(vmRequestedCpu, vmRequestedMemoryInMib)) {
+                continue;
+            }
+            Host targetHost = getHostToDeployVirtualMachine(deploymentHeuristic, c, virtualMachine);
+            if (targetHost != null) {
+                placementLatency.record(System.nanoTime() - timeBeforePlacement);
+                cloud.addVirtualMachine(virtualMachine);
 
-                    logger.debug("Host before deploy of VM: " + targetHost);
-                    logger.debug(String.format("VM [%s] deployed at host [%s]", virtualMachine.getVmId(), host.getId()));
+                journal.hostBeforeDeployment(targetHost);
+                journal.virtualMachineDeployed(virtualMachine, targetHost);
 
-                    targetHost.addVirtualMachine(virtualMachine);
-                    logger.debug("Host after deploy of VM: " + targetHost);
-                    return;
-                }
+                targetHost.addVirtualMachine(virtualMachine);
+                journal.hostAfterDeployment(targetHost);
+                return;
             }
         }
         throw new GoogleTracesToCloudTracesException("Could not find a suitable host to deploy VM: " + virtualMachine + "\nCloud state: " + cloud);
     }
 
-    private static boolean canHostSupportVirtualMachine(Host host, VirtualMachine virtualMachine) {
-        VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+    private static Host getHostToDeployVirtualMachine(DeploymentHeuristic deploymentHeuristic, Cluster c, VirtualMachine virtualMachine) {
+        if (deploymentHeuristic instanceof IndexedDeploymentHeuristic) {
+            return ((IndexedDeploymentHeuristic)deploymentHeuristic).findHostToDeployVirtualMachine(c, virtualMachine);
+        }
+        List<Host> clusterOriginalHostsList = c.getHosts();
+        List<Host> rankedHostsToDeployVirtualMachie = deploymentHeuristic.getRankedHostsToDeployVirtualMachie(clusterOriginalHostsList, virtualMachine);
+        if (rankedHostsToDeployVirtualMachie == clusterOriginalHostsList) {
+            VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+            return c.getFreeCapacityIndex().findFirstHostThatSupports(getVmRequestedCpu(vmServiceOffering), vmServiceOffering.getMemoryInMegaByte());
+        }
+        return getFirstHostThatSupportsVirtualMachine(rankedHostsToDeployVirtualMachie, virtualMachine);
+    }
 
-        long hostAvailableCpu = host.getTotalCpuPowerInMhz() - host.getCpuAllocatedInMhz();
-        int vmRequestedCpu = vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores();
+    private static Host getFirstHostThatSupportsVirtualMachine(List<Host> rankedHosts, VirtualMachine virtualMachine) {
+        for (Host host : rankedHosts) {
+            if (canHostSupportVirtualMachine(host, virtualMachine)) {
+                return host;
+            }
+        }
+        return null;
+    }
 
-        if (vmRequestedCpu > hostAvailableCpu) {
+    private static boolean canHostSupportVirtualMachine(Host host, VirtualMachine virtualMachine) {
+        VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+        if (getVmRequestedCpu(vmServiceOffering) > host.getAvailableCpuInMhz()) {
             return false;
         }
-        long hostTotalAvailableMemory = host.getTotalMemoryInMib() - host.getMemoryAllocatedInMib();
-        return vmServiceOffering.getMemoryInMegaByte() <= hostTotalAvailableMemory;
+        return vmServiceOffering.getMemoryInMegaByte() <= host.getAvailableMemoryInMib();
+    }
+
+    private static long getVmRequestedCpu(VmServiceOffering vmServiceOffering) {
+        return vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores();
     }
 
     private static DeploymentHeuristic getDeploymentHeuristic() {
-        return new SmallestClustersFirstDeploymentHeuristic();
+        return deploymentHeuristic;
     }
 
     /**
      *  It returns all of the time units that exist until the 'currentTime' variable.
      *  It will consider inclusive the value of current time.
      */
-    private static List<Integer> getTimesUntilCurrentTime(Map<Integer, List<VirtualMachine>> mapVirtualMachinesTaskExecutionByTime, double currentTime) {
+    static List<Integer> getTimesUntilCurrentTime(Map<Integer, List<VirtualMachine>> mapVirtualMachinesTaskExecutionByTime, double currentTime) {
         List<Integer> timesUntilCurrenttime = new ArrayList<>();
         for (Integer time : mapVirtualMachinesTaskExecutionByTime.keySet()) {
             if (time <= currentTime) {
@@ -501,7 +1160,7 @@ public class CloudTracesSimulator {
      * For every time that is sent by parameter, we return the list of {@link VirtualMachine} from the map of virtual machines by time.
      * It removes the entry mapped that is returned.
      */
-    private static List<VirtualMachine> getVirtualMachinesWithTaskExecutionAtTime(Map<Integer, List<VirtualMachine>> mapVirtualMachinesTaskExecutionByTime, List<Integer> times) {
+    static List<VirtualMachine> getVirtualMachinesWithTaskExecutionAtTime(Map<Integer, List<VirtualMachine>> mapVirtualMachinesTaskExecutionByTime, List<Integer> times) {
         List<VirtualMachine> virtualMachines = new ArrayList<>();
         for (Integer time : times) {
             List<VirtualMachine> virtualMachine = mapVirtualMachinesTaskExecutionByTime.remove(time);
@@ -510,13 +1169,16 @@ public class CloudTracesSimulator {
         return virtualMachines;
     }
 
-    private static double getTimeUnitPerLoopIteration(Integer firstTimeInTimeUnitOfUsedCloudData, Integer lastTimeInTimeUnitOfUserCloudData) {
+    static double getTimeUnitPerLoopIteration(Integer firstTimeInTimeUnitOfUsedCloudData, Integer lastTimeInTimeUnitOfUserCloudData) {
         int totalTimeUnits = lastTimeInTimeUnitOfUserCloudData - firstTimeInTimeUnitOfUsedCloudData;
         logger.info("Time elapsed every iteration: " + timeFramePerSimulationIterationInMinutes + " minutes");
         return (timeFramePerSimulationIterationInMinutes * totalTimeUnits) / (monitoredIntervalInMinutes * 1d);
     }
 
     private static Cloud createCloudEnvirtonmentToStartsimulation() {
+        if (StringUtils.equalsIgnoreCase(SimulationConfigurationService.getProperty(TOPOLOGY_PROPERTY, StringUtils.EMPTY).trim(), "synthetic")) {
+            return createSyntheticCloud();
+        }
         Cloud cloud = new Cloud("Google data traces");
         cloud.getClusters().addAll(createClustersMediumSizeHosts(10));
         cloud.getClusters().addAll(createClustersLargeSizeHosts(3));
@@ -534,6 +1196,17 @@ public class CloudTracesSimulator {
         return cloud;
     }
 
+    private static Cloud createSyntheticCloud() {
+        SyntheticTopologyGenerator syntheticTopologyGenerator = new SyntheticTopologyGenerator(
+                SimulationConfigurationService.getLongProperty(TOPOLOGY_SEED_PROPERTY, 1l), SimulationConfigurationService.getIntProperty(TOPOLOGY_CLUSTERS_PROPERTY, 100),
+                SimulationConfigurationService.getIntProperty(TOPOLOGY_MIN_HOSTS_PER_CLUSTER_PROPERTY, 16),
+                SimulationConfigurationService.getIntProperty(TOPOLOGY_MAX_HOSTS_PER_CLUSTER_PROPERTY, 64),
+                HostProfile.parseHostProfiles(SimulationConfigurationService.getProperty(TOPOLOGY_HOST_PROFILES_PROPERTY, "16:60:3400:5,32:100:3400:3,200:400:3400:1")),
+                SimulationConfigurationService.getBooleanProperty(TOPOLOGY_HOMOGENEOUS_CLUSTERS_PROPERTY, true));
+        logger.info("Synthetic topology: " + syntheticTopologyGenerator);
+        return syntheticTopologyGenerator.createCloud("Google data traces");
+    }
+
     private static List<Cluster> createClustersMediumSizeHosts(int numberOfClusters) {
         List<Cluster> clusters = new ArrayList<>();
         for (int i = 0; i < numberOfClusters; i++) {
@@ -599,98 +1272,95 @@ public class CloudTracesSimulator {
         return host;
     }
 
+    /**
+     * With the windowed loader, VMs are only mapped by the time of their first task execution (when they arrive), so the map does not grow with the number of task
+     * executions of the file; the times are sorted, so the VMs that arrive in the same iteration are deployed in the order of their arrival times.
+     */
     private static Map<Integer, List<VirtualMachine>> createMapVirtualMachinesTaskExecutionByTime(Collection<VirtualMachine> virtualMachines) {
+        if (virtualMachineTracesIndex != null) {
+            Map<Integer, List<VirtualMachine>> mapVirtualMachinesArrivalByTime = new TreeMap<>();
+            for (VirtualMachine virtualMachine : virtualMachines) {
+                addVirtualMachineAtTime(mapVirtualMachinesArrivalByTime, virtualMachineTracesIndex.getFirstTaskExecutionTime(virtualMachine), virtualMachine);
+            }
+            return mapVirtualMachinesArrivalByTime;
+        }
         Map<Integer, List<VirtualMachine>> mapVirtualMachinesTaskExecutionByTime = new HashMap<>();
         for (VirtualMachine virtualMachine : virtualMachines) {
-            Map<Integer, List<GoogleTask>> mapTimeByTasks = virtualMachine.getGoogleJob().getMapTimeByTasks();
-            for (Integer time : mapTimeByTasks.keySet()) {
-                List<VirtualMachine> vmsWithTasksExecutionAtTime = mapVirtualMachinesTaskExecutionByTime.get(time);
-                if (vmsWithTasksExecutionAtTime == null) {
-                    vmsWithTasksExecutionAtTime = new ArrayList<>();
-                    mapVirtualMachinesTaskExecutionByTime.put(time, vmsWithTasksExecutionAtTime);
-                }
-                vmsWithTasksExecutionAtTime.add(virtualMachine);
+            for (Integer time : getTaskExecutionTimes(virtualMachine)) {
+                addVirtualMachineAtTime(mapVirtualMachinesTaskExecutionByTime, time, virtualMachine);
             }
         }
         return mapVirtualMachinesTaskExecutionByTime;
     }
 
-    private static Collection<VirtualMachine> getAllVirtualMachinesFromCloudTraces(String cloudTraceFullQualifiedFilePath) {
-        Map<String, VirtualMachine> poolOfVirtualMachines = new HashMap<>();
-        try (BufferedReader bf = new BufferedReader(new FileReader(cloudTraceFullQualifiedFilePath))) {
-            String line = bf.readLine();
-            while (line != null) {
-                if (StringUtils.trim(line).isEmpty() || StringUtils.startsWith(line, "#")) {
-                    line = bf.readLine();
-                    continue;
-                }
-                Matcher matcher = patternMatchVmsData.matcher(line);
-                if (!matcher.matches()) {
-                    throw new GoogleTracesToCloudTracesException(String.format("String [%s] does not meet the expected pattern.", line));
-                }
-                int time = Integer.parseInt(matcher.group(1));
-                String vmId = matcher.group(2);
-                VirtualMachine virtualMachine = poolOfVirtualMachines.get(vmId);
-                if (virtualMachine == null) {
-                    virtualMachine = createVirtualMachine(matcher);
-                    poolOfVirtualMachines.put(vmId, virtualMachine);
-                }
-                loadTaskForTime(matcher, time, virtualMachine);
-                line = bf.readLine();
-            }
-        } catch (IOException e) {
-            throw new GoogleTracesToCloudTracesException(e);
+    private static void addVirtualMachineAtTime(Map<Integer, List<VirtualMachine>> mapVirtualMachinesTaskExecutionByTime, Integer time, VirtualMachine virtualMachine) {
+        List<VirtualMachine> vmsWithTasksExecutionAtTime = mapVirtualMachinesTaskExecutionByTime.get(time);
+        if (vmsWithTasksExecutionAtTime == null) {
+            vmsWithTasksExecutionAtTime = new ArrayList<>();
+            mapVirtualMachinesTaskExecutionByTime.put(time, vmsWithTasksExecutionAtTime);
+        }
+        vmsWithTasksExecutionAtTime.add(virtualMachine);
+    }
+
+    /**
+     * With the windowed loader, the map of VMs by time only has the arrival times, so the time of the last task execution is taken from the index.
+     */
+    private static int getLastTaskExecutionTime(Collection<VirtualMachine> virtualMachines, List<Integer> sortedTimesToExecuteTasks) {
+        if (virtualMachineTracesIndex == null) {
+            return sortedTimesToExecuteTasks.get(sortedTimesToExecuteTasks.size() - 1);
         }
-        return poolOfVirtualMachines.values();
+        int lastTime = Integer.MIN_VALUE;
+        for (VirtualMachine virtualMachine : virtualMachines) {
+            lastTime = Math.max(lastTime, virtualMachineTracesIndex.getLastTaskExecutionTime(virtualMachine));
+        }
+        return lastTime;
     }
 
-    private static void loadTaskForTime(Matcher matcher, int time, VirtualMachine virtualMachine) {
-        GoogleJob googleJob = virtualMachine.getGoogleJob();
-        int jobId = googleJob.getJobId();
-        GoogleTask googleTask = createTask(matcher, time, jobId);
+    /**
+     * The times of the samples of the VM are returned in the order of a hash set; it is the order they were added to the map of VMs by time when the samples were
+     * kept in hash maps by time, and it defines the order in which the VMs that arrive in the same iteration are deployed.
+     */
+    private static Set<Integer> getTaskExecutionTimes(VirtualMachine virtualMachine) {
+        Set<Integer> times = new HashSet<>();
+        VmUsageSeries usageSeries = virtualMachine.getUsageSeries();
+        for (int i = 0; i < usageSeries.size(); i++) {
+            times.add(usageSeries.getTime(i));
+        }
+        return times;
+    }
 
-        List<GoogleTask> listTasksByTime = googleJob.getMapTimeByTasks().get(time);
-        if (CollectionUtils.isEmpty(listTasksByTime)) {
-            listTasksByTime = new ArrayList<>();
-            googleJob.getMapTimeByTasks().put(time, listTasksByTime);
-        } else {
-            throw new GoogleTracesToCloudTracesException("this should not happen");
+    /**
+     * Workers of a partitioned simulation do not load the cloud traces: they start with an empty index, to which the coordinator adds the VMs assigned to them (see
+     * {@link PartitionWorker}); so they only read the lines of those VMs, and only keep in memory the task executions of the ones deployed in their clusters.
+     */
+    private static Collection<VirtualMachine> loadVirtualMachines(String cloudTracesFile) {
+        if (PartitionWorker.isConfigured()) {
+            int windowSizeInMib = SimulationConfigurationService.getIntProperty(LOADER_WINDOW_SIZE_PROPERTY, CloudVmTracesScanner.DEFAULT_WINDOW_SIZE_IN_BYTES >> 20);
+            virtualMachineTracesIndex = CloudVmTracesLoader.createEmptyIndex(cloudTracesFile, windowSizeInMib << 20);
+            return virtualMachineTracesIndex.getVirtualMachines();
         }
-        listTasksByTime.add(googleTask);
-        googleJob.getTasks().add(googleTask);
+        return SimulationConfigurationService.getBooleanProperty(LOADER_WINDOWED_PROPERTY, false) ? indexAllVirtualMachinesFromCloudTraces(cloudTracesFile)
+                : getAllVirtualMachinesFromCloudTraces(cloudTracesFile);
     }
 
-    private static GoogleTask createTask(Matcher matcher, int time, int jobId) {
-        GoogleTask googleTask = new GoogleTask(jobId + time, time, jobId);
-        googleTask.setCpuUsage(Double.parseDouble(matcher.group(9)));
-        googleTask.setMemoryUsage(Double.parseDouble(matcher.group(11)));
-        return googleTask;
+    static Collection<VirtualMachine> getAllVirtualMachinesFromCloudTraces(String cloudTraceFullQualifiedFilePath) {
+        int windowSizeInMib = SimulationConfigurationService.getIntProperty(LOADER_WINDOW_SIZE_PROPERTY, CloudVmTracesScanner.DEFAULT_WINDOW_SIZE_IN_BYTES >> 20);
+        int numberOfThreads = SimulationConfigurationService.getIntProperty(LOADER_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        return CloudVmTracesLoader.loadVirtualMachines(cloudTraceFullQualifiedFilePath, windowSizeInMib << 20, numberOfThreads);
     }
 
-    private static VirtualMachine createVirtualMachine(Matcher matcher) {
-        VirtualMachine virtualMachine = new VirtualMachine();
-        virtualMachine.setVmId(matcher.group(2));
-        virtualMachine.setDeployTime(Integer.parseInt(matcher.group(3)));
-        virtualMachine.setDestroyTime(Integer.parseInt(matcher.group(4)));
-        //Here the jobId do not matter anymore.
-        int jobId = virtualMachine.getVmId().hashCode();
-        GoogleJob googleJob = new GoogleJob(jobId);
-        virtualMachine.setGoogleJob(googleJob);
-        virtualMachine.setVmServiceOffering(createVmServiceOffering(matcher));
-        return virtualMachine;
+    private static Collection<VirtualMachine> indexAllVirtualMachinesFromCloudTraces(String cloudTraceFullQualifiedFilePath) {
+        virtualMachineTracesIndex = createVirtualMachineTracesIndex(cloudTraceFullQualifiedFilePath);
+        return virtualMachineTracesIndex.getVirtualMachines();
     }
 
-    private static VmServiceOffering createVmServiceOffering(Matcher matcher) {
-        VmServiceOffering vmServiceOffering = new VmServiceOffering();
-        vmServiceOffering.setName(matcher.group(5));
-        int numberOfCores = Integer.parseInt(matcher.group(6));
-        vmServiceOffering.setNumberOfCores(numberOfCores);
-        vmServiceOffering.setCoreSpeed(Integer.parseInt(matcher.group(7)) / numberOfCores);
-        vmServiceOffering.setMemoryInMegaByte(Long.parseLong(matcher.group(8)));
-        return vmServiceOffering;
+    static VirtualMachineTracesIndex createVirtualMachineTracesIndex(String cloudTraceFullQualifiedFilePath) {
+        int windowSizeInMib = SimulationConfigurationService.getIntProperty(LOADER_WINDOW_SIZE_PROPERTY, CloudVmTracesScanner.DEFAULT_WINDOW_SIZE_IN_BYTES >> 20);
+        int numberOfThreads = SimulationConfigurationService.getIntProperty(LOADER_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        return CloudVmTracesLoader.indexVirtualMachines(cloudTraceFullQualifiedFilePath, windowSizeInMib << 20, numberOfThreads);
     }
 
-    private static void validateInputFile(String[] args) {
+    static void validateInputFile(String[] args) {
         if (args.length != 1) {
             throw new GoogleTracesToCloudTracesException("You should inform the full qualified path to the cloud traces data set.");
         }
@@ -40,7 +40,6 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.log4j.Logger;
 
@@ -49,6 +48,7 @@ import br.com.autonomiccs.cloudTraces.beans.GoogleTask;
 import br.com.autonomiccs.cloudTraces.beans.GoogleTrace;
 import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
 import br.com.autonomiccs.cloudTraces.beans.VmServiceOffering;
+import br.com.autonomiccs.cloudTraces.beans.VmUsageSeries;
 import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
 import br.com.autonomiccs.cloudTraces.service.VmServiceOfferingService;
 
@@ -138,16 +138,13 @@ public class GoogleTracesToCloudTracesParser {
                         continue;
                     }
                     VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
-                    List<GoogleTask> vmTasksForTime = virtualMachine.getGoogleJob().getMapTimeByTasks().get(time);
-                    if (CollectionUtils.isEmpty(vmTasksForTime)) {
+                    VmUsageSeries usageSeries = virtualMachine.getUsageSeries();
+                    int sample = usageSeries.getIndexOfTime(time);
+                    if (sample < 0) {
                         continue;
                     }
-                    double vmUsedMemoryForTime = 0;
-                    double vmUsedCpuForTime = 0;
-                    for (GoogleTask googleTask : vmTasksForTime) {
-                        vmUsedCpuForTime += googleTask.getCpuUsage();
-                        vmUsedMemoryForTime += googleTask.getMemoryUsage();
-                    }
+                    double vmUsedMemoryForTime = usageSeries.getMemoryUsage(sample);
+                    double vmUsedCpuForTime = usageSeries.getCpuUsage(sample);
                     String vmTraceForTime = String.format("%d, %s, %d, %d, %s, %d, %d, %d, %.10f, %.10f", time, virtualMachine.getVmId(), virtualMachine.getDeployTime(),
                             virtualMachine.getDestroyTime(), vmServiceOffering.getName(), vmServiceOffering.getNumberOfCores(),
                             vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores(), vmServiceOffering.getMemoryInMegaByte(), vmUsedCpuForTime,
@@ -167,7 +164,10 @@ public class GoogleTracesToCloudTracesParser {
     private static List<Integer> getAllTimesThatWeExecuteTask(List<VirtualMachine> virtualMachines) {
         Set<Integer> times = new HashSet<>();
         for (VirtualMachine virtualMachine : virtualMachines) {
-            times.addAll(virtualMachine.getGoogleJob().getMapTimeByTasks().keySet());
+            VmUsageSeries usageSeries = virtualMachine.getUsageSeries();
+            for (int i = 0; i < usageSeries.size(); i++) {
+                times.add(usageSeries.getTime(i));
+            }
         }
         ArrayList<Integer> listOfTimes = new ArrayList<>(times);
         Collections.sort(listOfTimes);
@@ -190,10 +190,31 @@ public class GoogleTracesToCloudTracesParser {
         virtualMachine.setDeployTime(googleJob.getStartTime());
         virtualMachine.setDestroyTime(googleJob.getEndTime());
         virtualMachine.setGoogleJob(googleJob);
+        virtualMachine.setUsageSeries(createVmUsageSeriesForJob(googleJob));
         virtualMachine.setVmServiceOffering(getServiceOfferingForVmToSupportJobsPeakLoad(googleJob));
+        googleJob.clearTasks();
         return virtualMachine;
     }
 
+    /**
+     * The usage of the VM at a time is the sum of the usage of the job tasks executed at that time.
+     */
+    private static VmUsageSeries createVmUsageSeriesForJob(GoogleJob googleJob) {
+        List<Integer> times = new ArrayList<>(googleJob.getMapTimeByTasks().keySet());
+        Collections.sort(times);
+        VmUsageSeries usageSeries = new VmUsageSeries(times.size());
+        for (Integer time : times) {
+            double cpuUsageAtTime = 0;
+            double memoryUsageAtTime = 0;
+            for (GoogleTask googleTask : googleJob.getMapTimeByTasks().get(time)) {
+                cpuUsageAtTime += googleTask.getCpuUsage();
+                memoryUsageAtTime += googleTask.getMemoryUsage();
+            }
+            usageSeries.add(time, cpuUsageAtTime, memoryUsageAtTime);
+        }
+        return usageSeries;
+    }
+
     private static VmServiceOffering getServiceOfferingForVmToSupportJobsPeakLoad(GoogleJob googleJob) {
         for (VmServiceOffering vmServiceOffering : VmServiceOfferingService.getVmServiceOfferings()) {
             if (vmServiceOffering.getCoreSpeed() * vmServiceOffering.getNumberOfCores() < googleJob.getMaximumCpuUsageAtTime()) {
@@ -328,7 +349,7 @@ public class GoogleTracesToCloudTracesParser {
 
     private static Pattern patternMatchGoogleTracesGroups = Pattern.compile("(\\d+)\\s(\\d+)\\s(\\d+)\\s(\\d)\\s(.+)");
 
-    private static GoogleTrace createGoogleTrace(String line) {
+    static GoogleTrace createGoogleTrace(String line) {
         Matcher matcher = patternMatchGoogleTracesGroups.matcher(line);
         if (!matcher.matches()) {
             throw new GoogleTracesToCloudTracesException(String.format("The trace [%s] does not meet the expected pattern.", line));
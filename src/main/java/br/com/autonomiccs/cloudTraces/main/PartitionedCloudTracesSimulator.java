@@ -0,0 +1,363 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import br.com.autonomiccs.cloudTraces.beans.ComputingResource;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.partition.ClusterState;
+import br.com.autonomiccs.cloudTraces.partition.PartitionProtocol;
+import br.com.autonomiccs.cloudTraces.service.SimulationConfigurationService;
+import br.com.autonomiccs.cloudTraces.traces.VirtualMachineTracesIndex;
+
+/**
+ * Coordinator of a partitioned simulation: the clusters of the cloud are split among 'cloudTraces.partition.workers' worker JVMs (started by the coordinator on
+ * the same machine, running {@link CloudTracesSimulator}), so the cloud state is spread over several heaps and cores. At every iteration the coordinator assigns
+ * the VMs that arrive to the workers (the one with the largest fraction of free memory that has not rejected the VM yet), and waits for the state of the clusters of every worker
+ * (see {@link br.com.autonomiccs.cloudTraces.partition.PartitionProtocol}) before starting the next iteration. Deployment, destruction, usage and management of
+ * VMs happen in the workers; since management algorithms work on one cluster at a time, they run as in a single JVM. VMs rejected by a worker are only deployed in
+ * the next iteration, by another worker.
+ *
+ * Only the coordinator indexes the cloud traces; workers receive each VM assigned to them with the ranges of lines of its task executions, and only read those
+ * lines of the file. Thus, a worker only keeps in memory the VMs assigned to it, and drops them when they are destroyed or rejected.
+ *
+ * Every worker runs in the directory 'partition-<index>' (where its log, metrics and run summary are written), with the 'cloudTraces.*' system properties of the
+ * coordinator and the JVM arguments of 'cloudTraces.partition.jvmArguments'. Checkpoints and adaptive stepping are not supported in partitioned simulations.
+ */
+public class PartitionedCloudTracesSimulator {
+
+    private final static Logger logger = Logger.getLogger(PartitionedCloudTracesSimulator.class);
+
+    private static final String JVM_ARGUMENTS_PROPERTY = "cloudTraces.partition.jvmArguments";
+    private static final String PORT_PROPERTY = "cloudTraces.partition.port";
+
+    private static final String WORKER_DIRECTORY_PREFIX = "partition-";
+    private static final String SYSTEM_PROPERTIES_PREFIX = "cloudTraces.";
+
+    private static int numberOfWorkers;
+    private static List<Process> workerProcesses = new ArrayList<>();
+    private static DataInputStream[] inputStreams;
+    private static DataOutputStream[] outputStreams;
+
+    /**
+     * Total and free memory of the workers (from the last states of their clusters, received in the hello message and at the end of every iteration, minus the memory
+     * of the VMs assigned to them in the current iteration).
+     */
+    private static long[] totalMemoryInMib;
+    private static long[] freeMemoryInMib;
+    private static VirtualMachineTracesIndex virtualMachineTracesIndex;
+    private static Map<String, VirtualMachine> virtualMachinesById = new HashMap<>();
+    private static Map<Integer, List<VirtualMachine>> mapVirtualMachinesArrivalByTime = new HashMap<>();
+    private static int firstTime = Integer.MAX_VALUE;
+    private static int lastTime = Integer.MIN_VALUE;
+    private static Map<String, Set<Integer>> workersThatRejectedVirtualMachine = new HashMap<>();
+    private static long numberOfReassignments;
+
+    public static void main(String[] args) {
+        CloudTracesSimulator.validateInputFile(args);
+        String cloudTracesFile = new File(args[0]).getAbsolutePath();
+        numberOfWorkers = SimulationConfigurationService.getIntProperty(PartitionProtocol.NUMBER_OF_WORKERS_PROPERTY, 2);
+        if (numberOfWorkers < 1) {
+            throw new GoogleTracesToCloudTracesException(String.format("Invalid number of workers [%d].", numberOfWorkers));
+        }
+        int timeoutInMs = SimulationConfigurationService.getIntProperty(PartitionProtocol.TIMEOUT_PROPERTY, 600) * 1000;
+
+        long start = System.nanoTime();
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), SimulationConfigurationService.getIntProperty(PORT_PROPERTY, 0)));
+            serverSocket.setSoTimeout(timeoutInMs);
+            startWorkers(cloudTracesFile, serverSocket.getLocalPort());
+
+            indexVirtualMachines(cloudTracesFile);
+            logger.info(String.format("#VirtualMachines [%d] found on [%s].", virtualMachinesById.size(), cloudTracesFile));
+
+            acceptWorkers(serverSocket, timeoutInMs);
+            simulate();
+            waitForWorkers();
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        } finally {
+            for (Process workerProcess : workerProcesses) {
+                workerProcess.destroy();
+            }
+            if (virtualMachineTracesIndex != null) {
+                virtualMachineTracesIndex.close();
+            }
+        }
+        logger.info(String.format("Partitioned simulation with [%d] workers finished in [%d] ms; [%d] VMs reassigned after being rejected by a worker.", numberOfWorkers,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), numberOfReassignments));
+    }
+
+    /**
+     * The cloud traces are only indexed by the coordinator (the index has the ranges of lines of every VM, see {@link VirtualMachineTracesIndex}); the VMs are mapped
+     * by the time of their first task execution. The coordinator never loads task executions: a VM is sent, with its ranges of lines, to the worker it is assigned
+     * to, which loads its task executions from the file.
+     */
+    private static void indexVirtualMachines(String cloudTracesFile) {
+        virtualMachineTracesIndex = CloudTracesSimulator.createVirtualMachineTracesIndex(cloudTracesFile);
+        for (VirtualMachine virtualMachine : virtualMachineTracesIndex.getVirtualMachines()) {
+            virtualMachinesById.put(virtualMachine.getVmId(), virtualMachine);
+            int arrivalTime = virtualMachineTracesIndex.getFirstTaskExecutionTime(virtualMachine);
+            lastTime = Math.max(lastTime, virtualMachineTracesIndex.getLastTaskExecutionTime(virtualMachine));
+            firstTime = Math.min(firstTime, arrivalTime);
+            List<VirtualMachine> virtualMachinesArrivingAtTime = mapVirtualMachinesArrivalByTime.get(arrivalTime);
+            if (virtualMachinesArrivingAtTime == null) {
+                virtualMachinesArrivingAtTime = new ArrayList<>();
+                mapVirtualMachinesArrivalByTime.put(arrivalTime, virtualMachinesArrivingAtTime);
+            }
+            virtualMachinesArrivingAtTime.add(virtualMachine);
+        }
+        if (mapVirtualMachinesArrivalByTime.isEmpty()) {
+            throw new GoogleTracesToCloudTracesException(String.format("There are no task executions in [%s].", cloudTracesFile));
+        }
+    }
+
+    private static void simulate() throws IOException {
+        double timeUnitPerLoopIteration = CloudTracesSimulator.getTimeUnitPerLoopIteration(firstTime, lastTime);
+        double simulationEndTime = lastTime + 2 * timeUnitPerLoopIteration;
+
+        List<VirtualMachine> rejectedVirtualMachines = new ArrayList<>();
+        double currentTime = firstTime;
+        while (currentTime < simulationEndTime) {
+            List<VirtualMachine> arrivingVirtualMachines = CloudTracesSimulator.getVirtualMachinesWithTaskExecutionAtTime(mapVirtualMachinesArrivalByTime,
+                    CloudTracesSimulator.getTimesUntilCurrentTime(mapVirtualMachinesArrivalByTime, currentTime));
+            List<List<VirtualMachine>> virtualMachinesOfWorkers = new ArrayList<>();
+            for (int i = 0; i < numberOfWorkers; i++) {
+                virtualMachinesOfWorkers.add(new ArrayList<VirtualMachine>());
+            }
+            for (VirtualMachine virtualMachine : rejectedVirtualMachines) {
+                assignVirtualMachine(virtualMachine, virtualMachinesOfWorkers);
+                numberOfReassignments++;
+            }
+            for (VirtualMachine virtualMachine : arrivingVirtualMachines) {
+                assignVirtualMachine(virtualMachine, virtualMachinesOfWorkers);
+            }
+            for (int i = 0; i < numberOfWorkers; i++) {
+                sendTick(i, currentTime, virtualMachinesOfWorkers.get(i));
+            }
+            rejectedVirtualMachines = receiveTickResults(currentTime);
+            currentTime += timeUnitPerLoopIteration;
+        }
+    }
+
+    private static void assignVirtualMachine(VirtualMachine virtualMachine, List<List<VirtualMachine>> virtualMachinesOfWorkers) {
+        Set<Integer> workersThatRejected = workersThatRejectedVirtualMachine.get(virtualMachine.getVmId());
+        int selectedWorker = -1;
+        for (int i = 0; i < numberOfWorkers; i++) {
+            if ((workersThatRejected == null || !workersThatRejected.contains(i)) && (selectedWorker < 0 || getFreeMemoryFraction(i) > getFreeMemoryFraction(selectedWorker))) {
+                selectedWorker = i;
+            }
+        }
+        if (selectedWorker < 0) {
+            throw new GoogleTracesToCloudTracesException("Could not find a suitable host to deploy VM in any of the workers: " + virtualMachine);
+        }
+        virtualMachinesOfWorkers.get(selectedWorker).add(virtualMachine);
+        freeMemoryInMib[selectedWorker] -= virtualMachine.getVmServiceOffering().getMemoryInMegaByte();
+    }
+
+    private static double getFreeMemoryFraction(int worker) {
+        return totalMemoryInMib[worker] > 0 ? freeMemoryInMib[worker] / (double)totalMemoryInMib[worker] : 0;
+    }
+
+    private static void sendTick(int worker, double currentTime, List<VirtualMachine> virtualMachines) throws IOException {
+        DataOutputStream outputStream = outputStreams[worker];
+        outputStream.writeByte(PartitionProtocol.TICK);
+        outputStream.writeDouble(currentTime);
+        outputStream.writeInt(virtualMachines.size());
+        for (VirtualMachine virtualMachine : virtualMachines) {
+            virtualMachineTracesIndex.writeVirtualMachine(virtualMachine, outputStream);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * It waits for the results of the iteration of every worker (the barrier of the iteration), logs the state of the cloud and returns the VMs rejected by the
+     * workers.
+     */
+    private static List<VirtualMachine> receiveTickResults(double currentTime) throws IOException {
+        List<VirtualMachine> rejectedVirtualMachines = new ArrayList<>();
+        long totalMemory = 0, totalCpu = 0, memoryAllocated = 0, cpuAllocated = 0, memoryUsed = 0, cpuUsed = 0;
+        int numberOfVirtualMachines = 0;
+        for (int i = 0; i < numberOfWorkers; i++) {
+            DataInputStream inputStream = inputStreams[i];
+            expectMessage(inputStream, PartitionProtocol.TICK_RESULT, i);
+            PartitionProtocol.checkTime(currentTime, inputStream.readDouble());
+            int numberOfRejectedVirtualMachines = inputStream.readInt();
+            for (int j = 0; j < numberOfRejectedVirtualMachines; j++) {
+                String vmId = inputStream.readUTF();
+                Set<Integer> workersThatRejected = workersThatRejectedVirtualMachine.get(vmId);
+                if (workersThatRejected == null) {
+                    workersThatRejected = new HashSet<>();
+                    workersThatRejectedVirtualMachine.put(vmId, workersThatRejected);
+                }
+                workersThatRejected.add(i);
+                rejectedVirtualMachines.add(virtualMachinesById.get(vmId));
+            }
+            long workerTotalMemory = 0;
+            long workerFreeMemory = 0;
+            int numberOfClusters = inputStream.readInt();
+            for (int j = 0; j < numberOfClusters; j++) {
+                ClusterState clusterState = ClusterState.read(inputStream);
+                logger.debug(String.format("Worker [%d] cluster at time [%.2f]: %s", i, currentTime, clusterState));
+                totalMemory += clusterState.getTotalMemoryInBytes();
+                totalCpu += clusterState.getTotalCpuPowerInMhz();
+                memoryAllocated += clusterState.getMemoryAllocatedInBytes();
+                cpuAllocated += clusterState.getCpuAllocatedInMhz();
+                memoryUsed += clusterState.getMemoryUsedInBytes();
+                cpuUsed += clusterState.getCpuUsedInMhz();
+                numberOfVirtualMachines += clusterState.getNumberOfVirtualMachines();
+                workerTotalMemory += clusterState.getTotalMemoryInMib();
+                workerFreeMemory += clusterState.getFreeMemoryInMib();
+            }
+            totalMemoryInMib[i] = workerTotalMemory;
+            freeMemoryInMib[i] = workerFreeMemory;
+        }
+        logger.info(String.format("Cloud state at time [%.2f]: %s, #VMs [%d], #rejected VMs [%d]", currentTime,
+                ComputingResource.formatResources("partitioned cloud", totalMemory, totalCpu, memoryAllocated, cpuAllocated, memoryUsed, cpuUsed), numberOfVirtualMachines,
+                rejectedVirtualMachines.size()));
+        return rejectedVirtualMachines;
+    }
+
+    private static void expectMessage(DataInputStream inputStream, byte messageType, int worker) throws IOException {
+        byte receivedMessageType = inputStream.readByte();
+        if (receivedMessageType != messageType) {
+            throw new GoogleTracesToCloudTracesException(String.format("Unexpected message [%d] from worker [%d]; expected [%d].", receivedMessageType, worker, messageType));
+        }
+    }
+
+    /**
+     * Workers are started before the coordinator indexes the cloud traces, so they create their clouds (and start their JVMs) in the meantime.
+     */
+    private static void startWorkers(String cloudTracesFile, int port) throws IOException {
+        for (int i = 0; i < numberOfWorkers; i++) {
+            File workerDirectory = new File(WORKER_DIRECTORY_PREFIX + i).getAbsoluteFile();
+            if (!workerDirectory.isDirectory() && !workerDirectory.mkdirs()) {
+                throw new GoogleTracesToCloudTracesException(String.format("Cannot create directory [%s].", workerDirectory));
+            }
+            List<String> command = new ArrayList<>();
+            command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+            for (String argument : StringUtils.split(SimulationConfigurationService.getProperty(JVM_ARGUMENTS_PROPERTY, StringUtils.EMPTY))) {
+                command.add(argument);
+            }
+            command.addAll(getWorkerSystemProperties());
+            command.add(String.format("-D%s=%s:%d", PartitionProtocol.COORDINATOR_ADDRESS_PROPERTY, InetAddress.getLoopbackAddress().getHostAddress(), port));
+            command.add(String.format("-D%s=%d", PartitionProtocol.WORKER_INDEX_PROPERTY, i));
+            command.add(String.format("-D%s=%d", PartitionProtocol.NUMBER_OF_WORKERS_PROPERTY, numberOfWorkers));
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(CloudTracesSimulator.class.getName());
+            command.add(cloudTracesFile);
+            ProcessBuilder processBuilder = new ProcessBuilder(command).directory(workerDirectory).redirectErrorStream(true);
+            processBuilder.redirectOutput(new File(workerDirectory, "output.log"));
+            workerProcesses.add(processBuilder.start());
+        }
+        logger.info(String.format("[%d] workers started.", numberOfWorkers));
+    }
+
+    /**
+     * The 'cloudTraces.*' and log4j system properties of the coordinator; the configuration file is informed with its absolute path, as workers run in other
+     * directories.
+     */
+    private static List<String> getWorkerSystemProperties() {
+        List<String> systemProperties = new ArrayList<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (!name.startsWith(SYSTEM_PROPERTIES_PREFIX) && !name.equals("log4j.configuration")) {
+                continue;
+            }
+            String value = System.getProperty(name);
+            if (name.equals(SimulationConfigurationService.CONFIGURATION_FILE_PROPERTY)) {
+                value = new File(value).getAbsolutePath();
+            }
+            systemProperties.add(String.format("-D%s=%s", name, value));
+        }
+        return systemProperties;
+    }
+
+    private static void acceptWorkers(ServerSocket serverSocket, int timeoutInMs) throws IOException {
+        inputStreams = new DataInputStream[numberOfWorkers];
+        outputStreams = new DataOutputStream[numberOfWorkers];
+        totalMemoryInMib = new long[numberOfWorkers];
+        freeMemoryInMib = new long[numberOfWorkers];
+        for (int i = 0; i < numberOfWorkers; i++) {
+            Socket socket = serverSocket.accept();
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeoutInMs);
+            DataInputStream inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            expectMessage(inputStream, PartitionProtocol.HELLO, -1);
+            int workerIndex = inputStream.readInt();
+            if (workerIndex < 0 || workerIndex >= numberOfWorkers || inputStreams[workerIndex] != null) {
+                throw new GoogleTracesToCloudTracesException(String.format("Invalid worker index [%d].", workerIndex));
+            }
+            inputStreams[workerIndex] = inputStream;
+            outputStreams[workerIndex] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            int numberOfClusters = inputStream.readInt();
+            for (int j = 0; j < numberOfClusters; j++) {
+                ClusterState clusterState = ClusterState.read(inputStream);
+                totalMemoryInMib[workerIndex] += clusterState.getTotalMemoryInMib();
+                freeMemoryInMib[workerIndex] += clusterState.getFreeMemoryInMib();
+            }
+        }
+        for (int i = 0; i < numberOfWorkers; i++) {
+            outputStreams[i].writeByte(PartitionProtocol.START);
+            outputStreams[i].writeInt(firstTime);
+            outputStreams[i].writeInt(lastTime);
+            outputStreams[i].flush();
+        }
+        logger.info(String.format("[%d] workers connected.", numberOfWorkers));
+    }
+
+    private static void waitForWorkers() {
+        for (int i = 0; i < workerProcesses.size(); i++) {
+            try {
+                int exitValue = workerProcesses.get(i).waitFor();
+                if (exitValue != 0) {
+                    throw new GoogleTracesToCloudTracesException(String.format("Worker [%d] finished with exit value [%d]; see its output in [%s%d].", i, exitValue,
+                            WORKER_DIRECTORY_PREFIX, i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GoogleTracesToCloudTracesException(e);
+            }
+        }
+    }
+}
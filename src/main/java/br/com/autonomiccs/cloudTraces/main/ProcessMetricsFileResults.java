@@ -0,0 +1,97 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.metrics.ResourceMetrics;
+import br.com.autonomiccs.cloudTraces.metrics.SimulationMetricsReader;
+import br.com.autonomiccs.cloudTraces.metrics.TickMetrics;
+
+/**
+ * It produces the clusters weighted standard deviation means of {@link ProcessLogFileResults}, but from a binary metrics file written by the simulator (see
+ * {@link br.com.autonomiccs.cloudTraces.metrics.SimulationMetricsWriter}) instead of matching the simulation log with regular expressions.
+ */
+public class ProcessMetricsFileResults {
+
+    private static int megaByteToGigaByte = 1024;
+
+    public static void main(String[] args) throws IOException {
+        validateInputFile(args);
+
+        PrintWriter outputFile = new PrintWriter("simulationResultsToAnalyse.txt");
+        SimulationMetricsReader metricsReader = new SimulationMetricsReader(args[0]);
+        try {
+            writeWeightedStdMeans(metricsReader, outputFile);
+        } finally {
+            metricsReader.close();
+            outputFile.close();
+        }
+        System.out.println("Finished!");
+    }
+
+    /**
+     * For every simulation time, it writes the mean of the clusters standard deviations, weighted by the share of the cloud resources each cluster has.
+     */
+    private static void writeWeightedStdMeans(SimulationMetricsReader metricsReader, PrintWriter outputFile) {
+        outputFile.println("TIME CPU_STD_MEAN CPU_USAGE_STD_MEAN MEMORY_STD_MEAN MEMORY_USAGE_STD_MEAN");
+
+        TickMetrics tickMetrics;
+        while ((tickMetrics = metricsReader.nextTick()) != null) {
+            ResourceMetrics cloud = tickMetrics.getCloud();
+            ResourceMetrics[] clusters = tickMetrics.getClusters();
+
+            double weightedCpuStd = 0;
+            double weightedCpuUsageStd = 0;
+            double weightedMemoryStd = 0;
+            double weightedMemoryUsageStd = 0;
+            for (ResourceMetrics cluster : clusters) {
+                double clusterCpuDividedByCloudCpu = (double)cluster.getTotalCpuInMhz() / cloud.getTotalCpuInMhz();
+                double clusterMemoryDividedByCloudMemory = (double)cluster.getTotalMemoryInBytes() / cloud.getTotalMemoryInBytes();
+                weightedCpuStd += cluster.getCpuAllocatedInMhzStd() / 1000d * clusterCpuDividedByCloudCpu;
+                weightedCpuUsageStd += cluster.getCpuUsedInMhzStd() / 1000d * clusterCpuDividedByCloudCpu;
+                weightedMemoryStd += cluster.getMemoryAllocatedInMibStd() / megaByteToGigaByte * clusterMemoryDividedByCloudMemory;
+                weightedMemoryUsageStd += cluster.getMemoryUsedInMibStd() / megaByteToGigaByte * clusterMemoryDividedByCloudMemory;
+            }
+            int numberOfClusters = clusters.length;
+            outputFile.println(String.format("%.2f %s %s %s %s", tickMetrics.getTime(), weightedCpuStd / numberOfClusters, weightedCpuUsageStd / numberOfClusters,
+                    weightedMemoryStd / numberOfClusters, weightedMemoryUsageStd / numberOfClusters));
+        }
+    }
+
+    private static void validateInputFile(String[] args) {
+        if (args.length == 0) {
+            throw new GoogleTracesToCloudTracesException("The metrics file must be informed.");
+        }
+        File file = new File(args[0]);
+        if (!file.exists()) {
+            throw new GoogleTracesToCloudTracesException(String.format("File [%s] does not exist.", args[0]));
+        }
+        if (!file.canRead()) {
+            throw new GoogleTracesToCloudTracesException(String.format("Cannot read file [%s] .", args[0]));
+        }
+    }
+
+}
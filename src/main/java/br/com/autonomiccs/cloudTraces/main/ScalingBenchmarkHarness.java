@@ -0,0 +1,253 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.main;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.metrics.RunSummary;
+import br.com.autonomiccs.cloudTraces.metrics.ScalingBenchmarkReport;
+import br.com.autonomiccs.cloudTraces.service.SimulationConfigurationService;
+import br.com.autonomiccs.cloudTraces.synthetic.OfferingUsageModel;
+import br.com.autonomiccs.cloudTraces.synthetic.WorkloadModel;
+
+/**
+ * End-to-end scaling benchmark. For every number of VMs of 'cloudTraces.harness.virtualMachines' it generates synthetic cloud traces fitted from the given ones
+ * (with {@link SyntheticCloudTracesGenerator}, keeping the period of the traces, so the number of VMs running at the same time grows with the number of VMs); then,
+ * for every number of hosts of 'cloudTraces.harness.hosts' and of loader threads of 'cloudTraces.harness.loaderThreads', it simulates the traces with
+ * {@link CloudTracesSimulator} in a synthetic topology. Every step runs in a fresh JVM, so runs do not share JIT or heap state. Usage:
+ * {@code ScalingBenchmarkHarness <cloudVmTraces.csv> [output directory]}.
+ *
+ * The results (wall time, load and simulation times, iterations per second, garbage collection, peak memory and p99 latencies of every run) are written to
+ * 'report.csv' and 'report.html' in the output directory; with 'cloudTraces.harness.baseline=<report.csv of a previous execution>' the HTML report compares every
+ * run with the run of the baseline with the same sizes.
+ */
+public class ScalingBenchmarkHarness {
+
+    private final static Logger logger = Logger.getLogger(ScalingBenchmarkHarness.class);
+
+    private static final String VIRTUAL_MACHINES_PROPERTY = "cloudTraces.harness.virtualMachines";
+    private static final String HOSTS_PROPERTY = "cloudTraces.harness.hosts";
+    private static final String HOSTS_PER_CLUSTER_PROPERTY = "cloudTraces.harness.hostsPerCluster";
+    private static final String LOADER_THREADS_PROPERTY = "cloudTraces.harness.loaderThreads";
+    private static final String JVM_ARGUMENTS_PROPERTY = "cloudTraces.harness.jvmArguments";
+    private static final String SIMULATION_PROPERTIES_PROPERTY = "cloudTraces.harness.simulationProperties";
+    private static final String SEED_PROPERTY = "cloudTraces.harness.seed";
+    private static final String BASELINE_PROPERTY = "cloudTraces.harness.baseline";
+    private static final String REGRESSION_THRESHOLD_PROPERTY = "cloudTraces.harness.regressionThreshold";
+
+    private static final String LOG4J_CONFIGURATION = "log4j.rootLogger=WARN, stdout\nlog4j.appender.stdout=org.apache.log4j.ConsoleAppender\n"
+            + "log4j.appender.stdout.layout=org.apache.log4j.PatternLayout\nlog4j.appender.stdout.layout.ConversionPattern=%d{yyyy-MM-dd HH:mm:ss} %-5p %c{1} - %m%n\n";
+
+    private static String defaultOutputDirectory = "scalingBenchmark";
+
+    public static void main(String[] args) {
+        validateArguments(args);
+        File cloudTracesFile = new File(args[0]).getAbsoluteFile();
+        File outputDirectory = new File(args.length > 1 ? args[1] : defaultOutputDirectory).getAbsoluteFile();
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new GoogleTracesToCloudTracesException(String.format("Cannot create directory [%s].", outputDirectory));
+        }
+        long seed = SimulationConfigurationService.getLongProperty(SEED_PROPERTY, 1l);
+        int hostsPerCluster = SimulationConfigurationService.getIntProperty(HOSTS_PER_CLUSTER_PROPERTY, 50);
+        File log4jConfiguration = new File(outputDirectory, "log4j.properties");
+        writeText(log4jConfiguration, LOG4J_CONFIGURATION);
+
+        long numberOfSourceVirtualMachines = getNumberOfVirtualMachines(cloudTracesFile, seed);
+        ScalingBenchmarkReport report = new ScalingBenchmarkReport();
+        for (int numberOfVirtualMachines : parseSizes(SimulationConfigurationService.getProperty(VIRTUAL_MACHINES_PROPERTY, "1000,10000,100000"))) {
+            File tracesDirectory = new File(outputDirectory, "vms-" + numberOfVirtualMachines);
+            tracesDirectory.mkdirs();
+            File syntheticTracesFile = new File(tracesDirectory, "cloudVmTraces.csv");
+            List<String> generatorArguments = new ArrayList<>();
+            generatorArguments.add("-DcloudTraces.workload.seed=" + seed);
+            generatorArguments.add("-DcloudTraces.workload.arrivalRateFactor=" + (double)numberOfVirtualMachines / numberOfSourceVirtualMachines);
+            long start = System.nanoTime();
+            int exitValue = runJvm(tracesDirectory, log4jConfiguration, generatorArguments, SyntheticCloudTracesGenerator.class, cloudTracesFile.getPath(),
+                    String.valueOf(numberOfVirtualMachines), syntheticTracesFile.getPath());
+            long generationTimeInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (exitValue != 0) {
+                throw new GoogleTracesToCloudTracesException(String.format("Generation of [%d] VMs failed with exit value [%d]; see the output in [%s].",
+                        numberOfVirtualMachines, exitValue, tracesDirectory));
+            }
+            logger.info(String.format("Traces of [%d] VMs generated in [%d] ms.", numberOfVirtualMachines, generationTimeInMs));
+
+            for (int numberOfHosts : parseSizes(SimulationConfigurationService.getProperty(HOSTS_PROPERTY, "1000,10000"))) {
+                for (int loaderThreads : parseSizes(SimulationConfigurationService.getProperty(LOADER_THREADS_PROPERTY, "1"))) {
+                    Map<String, String> run = simulate(syntheticTracesFile, new File(tracesDirectory, String.format("hosts-%d-threads-%d", numberOfHosts, loaderThreads)),
+                            log4jConfiguration, numberOfHosts, hostsPerCluster, loaderThreads, seed);
+                    run.put("virtualMachines", String.valueOf(numberOfVirtualMachines));
+                    run.put("hosts", String.valueOf(numberOfHosts));
+                    run.put("loaderThreads", String.valueOf(loaderThreads));
+                    run.put("generationTimeInMs", String.valueOf(generationTimeInMs));
+                    report.addRun(run);
+                    logger.info(String.format("VMs [%d], hosts [%d], loader threads [%d]: status [%s], wall time [%s] ms, iterations per second [%s], peak RSS [%s] MiB.",
+                            numberOfVirtualMachines, numberOfHosts, loaderThreads, run.get("status"), run.get("wallTimeInMs"), run.get("iterationsPerSecond"),
+                            run.get("peakResidentSetSizeInMib")));
+                }
+            }
+        }
+        writeReports(report, outputDirectory);
+    }
+
+    /**
+     * It runs the simulation in a fresh JVM, in its own working directory (where its log and run summary are written). Failed runs (e.g. out of memory) are
+     * reported with their exit value instead of stopping the benchmark.
+     */
+    private static Map<String, String> simulate(File cloudTracesFile, File runDirectory, File log4jConfiguration, int numberOfHosts, int hostsPerCluster,
+            int loaderThreads, long seed) {
+        runDirectory.mkdirs();
+        File runSummaryFile = new File(runDirectory, "runSummary.properties");
+        runSummaryFile.delete();
+        List<String> simulatorArguments = new ArrayList<>();
+        simulatorArguments.add("-DcloudTraces.topology=synthetic");
+        simulatorArguments.add("-DcloudTraces.topology.seed=" + seed);
+        simulatorArguments.add("-DcloudTraces.topology.clusters=" + Math.max(1, numberOfHosts / hostsPerCluster));
+        simulatorArguments.add("-DcloudTraces.topology.minHostsPerCluster=" + hostsPerCluster);
+        simulatorArguments.add("-DcloudTraces.topology.maxHostsPerCluster=" + hostsPerCluster);
+        simulatorArguments.add("-DcloudTraces.loader.threads=" + loaderThreads);
+        simulatorArguments.add("-DcloudTraces.runSummary.file=" + runSummaryFile.getPath());
+        for (String argument : StringUtils.split(SimulationConfigurationService.getProperty(SIMULATION_PROPERTIES_PROPERTY, StringUtils.EMPTY))) {
+            simulatorArguments.add(argument);
+        }
+
+        long start = System.nanoTime();
+        int exitValue = runJvm(runDirectory, log4jConfiguration, simulatorArguments, CloudTracesSimulator.class, cloudTracesFile.getPath());
+        long wallTimeInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Map<String, String> run = new HashMap<>();
+        run.put("wallTimeInMs", String.valueOf(wallTimeInMs));
+        if (exitValue != 0 || !runSummaryFile.isFile()) {
+            run.put("status", "FAILED(" + exitValue + ")");
+            return run;
+        }
+        run.put("status", ScalingBenchmarkReport.STATUS_OK);
+        Properties runSummary = RunSummary.read(runSummaryFile.getPath());
+        run.put("loadTimeInMs", runSummary.getProperty("time.loadInMs"));
+        run.put("simulationTimeInMs", runSummary.getProperty("time.simulationInMs"));
+        run.put("iterations", runSummary.getProperty("iterations"));
+        run.put("iterationsPerSecond", runSummary.getProperty("iterationsPerSecond"));
+        run.put("gcCount", runSummary.getProperty("gc.count"));
+        run.put("gcTimeInMs", runSummary.getProperty("gc.timeInMs"));
+        run.put("peakHeapUsedInMib", runSummary.getProperty("memory.peakHeapUsedInMib"));
+        run.put("peakResidentSetSizeInMib", runSummary.getProperty("memory.peakResidentSetSizeInMib"));
+        run.put("placementP99InUs", runSummary.getProperty("latency.placement.p99InUs"));
+        run.put("rankHostsP99InUs", runSummary.getProperty("latency.rankHosts.p99InUs"));
+        run.put("mapVMsToHostP99InUs", runSummary.getProperty("latency.mapVMsToHost.p99InUs"));
+        run.put("tickP99InUs", runSummary.getProperty("latency.tick.p99InUs"));
+        return run;
+    }
+
+    /**
+     * It runs the main class in a JVM with the same class path of this one, plus the arguments of 'cloudTraces.harness.jvmArguments' (e.g. '-Xmx8g'); its output is
+     * written to 'output.log' in the working directory. It returns the exit value of the JVM.
+     */
+    private static int runJvm(File workingDirectory, File log4jConfiguration, List<String> systemProperties, Class<?> mainClass, String... arguments) {
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        for (String argument : StringUtils.split(SimulationConfigurationService.getProperty(JVM_ARGUMENTS_PROPERTY, StringUtils.EMPTY))) {
+            command.add(argument);
+        }
+        command.add("-Dlog4j.configuration=" + log4jConfiguration.toURI());
+        command.addAll(systemProperties);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        for (String argument : arguments) {
+            command.add(argument);
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder(command).directory(workingDirectory).redirectErrorStream(true);
+        processBuilder.redirectOutput(new File(workingDirectory, "output.log"));
+        try {
+            return processBuilder.start().waitFor();
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private static long getNumberOfVirtualMachines(File cloudTracesFile, long seed) {
+        long numberOfVirtualMachines = 0;
+        for (OfferingUsageModel offeringUsageModel : WorkloadModel.fit(cloudTracesFile.getPath(), seed).getOfferingUsageModels()) {
+            numberOfVirtualMachines += offeringUsageModel.getNumberOfVirtualMachines();
+        }
+        return numberOfVirtualMachines;
+    }
+
+    private static void writeReports(ScalingBenchmarkReport report, File outputDirectory) {
+        File csvReport = new File(outputDirectory, "report.csv");
+        report.writeCsv(csvReport.getPath());
+        String baselineFile = SimulationConfigurationService.getProperty(BASELINE_PROPERTY, StringUtils.EMPTY);
+        ScalingBenchmarkReport baseline = StringUtils.isBlank(baselineFile) ? null : ScalingBenchmarkReport.readCsv(baselineFile);
+        File htmlReport = new File(outputDirectory, "report.html");
+        int numberOfRegressions = report.writeHtml(htmlReport.getPath(), baseline, SimulationConfigurationService.getDoubleProperty(REGRESSION_THRESHOLD_PROPERTY, 0.1));
+        logger.info(String.format("Reports written to [%s] and [%s].", csvReport, htmlReport));
+        if (baseline != null) {
+            logger.info(String.format("[%d] of [%d] runs regressed in comparison with the baseline [%s].", numberOfRegressions, report.getRuns().size(), baselineFile));
+        }
+    }
+
+    private static List<Integer> parseSizes(String sizes) {
+        List<Integer> parsedSizes = new ArrayList<>();
+        for (String size : StringUtils.split(sizes, ", ")) {
+            try {
+                parsedSizes.add(Integer.parseInt(size));
+            } catch (NumberFormatException e) {
+                throw new GoogleTracesToCloudTracesException(String.format("Invalid size [%s] in [%s].", size, sizes));
+            }
+        }
+        return parsedSizes;
+    }
+
+    private static void writeText(File file, String text) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.ISO_8859_1)) {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private static void validateArguments(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            throw new GoogleTracesToCloudTracesException("You should inform the cloud traces data set to fit and, optionally, the output directory.");
+        }
+        if (!new File(args[0]).canRead()) {
+            throw new GoogleTracesToCloudTracesException(String.format("Cannot read file [%s].", args[0]));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.main;
+
+import java.io.File;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.log4j.Logger;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.service.SimulationConfigurationService;
+import br.com.autonomiccs.cloudTraces.synthetic.SyntheticWorkloadGenerator;
+import br.com.autonomiccs.cloudTraces.synthetic.WorkloadModel;
+
+/**
+ * It fits a {@link WorkloadModel} to a cloud traces file and writes a synthetic cloud traces file with the requested number of VMs. Usage:
+ * {@code SyntheticCloudTracesGenerator <cloudVmTraces.csv> <number of VMs> [output file]}; the random generator is seeded with 'cloudTraces.workload.seed' and the
+ * arrival rate of the VMs is multiplied by 'cloudTraces.workload.arrivalRateFactor' (e.g. 10 for a cloud with ten times more VMs running at the same time).
+ */
+public class SyntheticCloudTracesGenerator {
+
+    private final static Logger logger = Logger.getLogger(SyntheticCloudTracesGenerator.class);
+
+    private static final String SEED_PROPERTY = "cloudTraces.workload.seed";
+    private static final String ARRIVAL_RATE_FACTOR_PROPERTY = "cloudTraces.workload.arrivalRateFactor";
+
+    private static String syntheticCloudTracesFileName = "syntheticCloudVmTraces.csv";
+
+    public static void main(String[] args) {
+        validateArguments(args);
+        String outputFile = args.length > 2 ? args[2] : syntheticCloudTracesFileName;
+        long seed = SimulationConfigurationService.getLongProperty(SEED_PROPERTY, 1l);
+        double arrivalRateFactor = SimulationConfigurationService.getDoubleProperty(ARRIVAL_RATE_FACTOR_PROPERTY, 1);
+
+        long start = System.currentTimeMillis();
+        WorkloadModel workloadModel = WorkloadModel.fit(args[0], seed);
+        logger.info(String.format("Workload model fitted from [%s] in [%d] ms: %s", args[0], System.currentTimeMillis() - start, workloadModel));
+
+        start = System.currentTimeMillis();
+        long lines = new SyntheticWorkloadGenerator(workloadModel, seed, arrivalRateFactor).generate(outputFile, Integer.parseInt(args[1]));
+        logger.info(String.format("#lines [%d] of [%s] VMs written to [%s] in [%d] ms (seed [%d], arrival rate factor [%.2f]).", lines, args[1], outputFile,
+                System.currentTimeMillis() - start, seed, arrivalRateFactor));
+    }
+
+    private static void validateArguments(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            throw new GoogleTracesToCloudTracesException("You should inform the cloud traces data set to fit, the number of VMs to generate and, optionally, the output file.");
+        }
+        File file = new File(args[0]);
+        if (!file.canRead()) {
+            throw new GoogleTracesToCloudTracesException(String.format("Cannot read file [%s].", args[0]));
+        }
+        if (!NumberUtils.isDigits(args[1])) {
+            throw new GoogleTracesToCloudTracesException(String.format("Invalid number of VMs [%s].", args[1]));
+        }
+    }
+}
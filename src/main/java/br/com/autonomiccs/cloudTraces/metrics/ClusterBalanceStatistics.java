@@ -0,0 +1,114 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.metrics;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.HostResourcesListener;
+
+/**
+ * Balance metrics of a cluster: the standard deviation of the allocated and used memory (in MiB) and CPU (in MHz) of its hosts.
+ * The statistics are updated every time a host resource changes ({@link HostResourcesListener}); therefore, reading them costs O(1) instead of going through
+ * every host of the cluster.
+ */
+public class ClusterBalanceStatistics implements HostResourcesListener {
+
+    private static final int MEMORY_ALLOCATED = 0;
+    private static final int MEMORY_USED = 1;
+    private static final int CPU_ALLOCATED = 2;
+    private static final int CPU_USED = 3;
+
+    private StreamingStandardDeviation memoryAllocatedInMib = new StreamingStandardDeviation();
+    private StreamingStandardDeviation memoryUsedInMib = new StreamingStandardDeviation();
+    private StreamingStandardDeviation cpuAllocatedInMhz = new StreamingStandardDeviation();
+    private StreamingStandardDeviation cpuUsedInMhz = new StreamingStandardDeviation();
+
+    /**
+     * The values of each host that are currently accounted in the statistics.
+     */
+    private Map<Host, long[]> valuesByHost = new IdentityHashMap<>();
+
+    public ClusterBalanceStatistics(List<Host> hosts) {
+        for (Host host : hosts) {
+            long[] values = new long[4];
+            readHostValues(host, values);
+            memoryAllocatedInMib.add(values[MEMORY_ALLOCATED]);
+            memoryUsedInMib.add(values[MEMORY_USED]);
+            cpuAllocatedInMhz.add(values[CPU_ALLOCATED]);
+            cpuUsedInMhz.add(values[CPU_USED]);
+            valuesByHost.put(host, values);
+            host.addResourcesListener(this);
+        }
+    }
+
+    @Override
+    public void hostResourcesChanged(Host host) {
+        long[] values = valuesByHost.get(host);
+        if (values == null) {
+            return;
+        }
+        memoryAllocatedInMib.replace(values[MEMORY_ALLOCATED], host.getMemoryAllocatedInMib());
+        memoryUsedInMib.replace(values[MEMORY_USED], host.getMemoryUsedInMib());
+        cpuAllocatedInMhz.replace(values[CPU_ALLOCATED], host.getCpuAllocatedInMhz());
+        cpuUsedInMhz.replace(values[CPU_USED], host.getCpuUsedInMhz());
+        readHostValues(host, values);
+    }
+
+    public int getNumberOfHosts() {
+        return valuesByHost.size();
+    }
+
+    public double getMemoryAllocatedInMibStd() {
+        return memoryAllocatedInMib.getStandardDeviation();
+    }
+
+    public double getMemoryUsedInMibStd() {
+        return memoryUsedInMib.getStandardDeviation();
+    }
+
+    public double getCpuAllocatedInMhzStd() {
+        return cpuAllocatedInMhz.getStandardDeviation();
+    }
+
+    public double getCpuUsedInMhzStd() {
+        return cpuUsedInMhz.getStandardDeviation();
+    }
+
+    /**
+     * It stops listening to the hosts resources. It should be called when the statistics are not going to be used anymore.
+     */
+    public void detach() {
+        for (Host host : valuesByHost.keySet()) {
+            host.removeResourcesListener(this);
+        }
+    }
+
+    private void readHostValues(Host host, long[] values) {
+        values[MEMORY_ALLOCATED] = host.getMemoryAllocatedInMib();
+        values[MEMORY_USED] = host.getMemoryUsedInMib();
+        values[CPU_ALLOCATED] = host.getCpuAllocatedInMhz();
+        values[CPU_USED] = host.getCpuUsedInMhz();
+    }
+}
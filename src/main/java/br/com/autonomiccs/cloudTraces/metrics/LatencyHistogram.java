@@ -0,0 +1,122 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.metrics;
+
+/**
+ * Histogram of latencies (in nanoseconds) with log-linear buckets, as the ones of HdrHistogram: values below {@value #SUB_BUCKET_COUNT} have their own buckets,
+ * and every power of two above it is split in {@value #SUB_BUCKET_COUNT}/2 linear buckets, so any value is recorded with a relative error below 1% in a fixed
+ * array of counts. Recording a value costs a few arithmetic operations and does not allocate; percentiles are calculated from the counts.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final int NUMBER_OF_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+
+    private String name;
+    private long[] counts = new long[NUMBER_OF_BUCKETS];
+    private long totalCount;
+    private long maximum;
+    private long sum;
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long valueInNanoseconds) {
+        long value = Math.max(0, valueInNanoseconds);
+        counts[getBucketIndex(value)]++;
+        totalCount++;
+        maximum = Math.max(maximum, value);
+        sum += value;
+    }
+
+    private static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int)value;
+        }
+        int exponent = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return exponent * SUB_BUCKET_HALF_COUNT + (int)(value >>> exponent);
+    }
+
+    /**
+     * Highest value that is recorded in the bucket (all values of a bucket are equivalent within the precision of the histogram).
+     */
+    private static long getBucketHighestValue(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        int exponent = bucketIndex / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = bucketIndex % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaximum() {
+        return maximum;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum / (double)totalCount;
+    }
+
+    /**
+     * Value (in nanoseconds) below or equal to which 'percentile'% of the recorded values are; e.g. 99.9 for the p999.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long)Math.ceil(Math.min(percentile, 100) / 100 * totalCount));
+        long cumulativeCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= countAtPercentile) {
+                return Math.min(getBucketHighestValue(i), maximum);
+            }
+        }
+        return maximum;
+    }
+
+    public void addTo(RunSummary runSummary) {
+        String prefix = "latency." + name + ".";
+        runSummary.put(prefix + "count", totalCount);
+        runSummary.put(prefix + "p50InUs", getValueAtPercentile(50) / 1000d);
+        runSummary.put(prefix + "p99InUs", getValueAtPercentile(99) / 1000d);
+        runSummary.put(prefix + "p999InUs", getValueAtPercentile(99.9) / 1000d);
+        runSummary.put(prefix + "maxInUs", maximum / 1000d);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("latency of [%s]: count [%d], mean [%.1f us], p50 [%.1f us], p99 [%.1f us], p999 [%.1f us], max [%.1f us]", name, totalCount,
+                getMean() / 1000, getValueAtPercentile(50) / 1000d, getValueAtPercentile(99) / 1000d, getValueAtPercentile(99.9) / 1000d, maximum / 1000d);
+    }
+}
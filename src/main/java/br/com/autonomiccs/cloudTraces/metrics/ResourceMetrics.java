@@ -0,0 +1,156 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.metrics;
+
+/**
+ * Metrics of a computing resource (cloud, cluster or host) at a simulation time, as written by {@link SimulationMetricsWriter}.
+ * Standard deviations and number of migrations are only available for clusters.
+ */
+public class ResourceMetrics {
+
+    private String id;
+
+    private long totalMemoryInBytes;
+    private long totalCpuInMhz;
+    private long memoryAllocatedInBytes;
+    private long cpuAllocatedInMhz;
+    private long memoryUsedInBytes;
+    private long cpuUsedInMhz;
+    private int numberOfVirtualMachines;
+
+    private double memoryAllocatedInMibStd;
+    private double memoryUsedInMibStd;
+    private double cpuAllocatedInMhzStd;
+    private double cpuUsedInMhzStd;
+    private int numberOfMigrations;
+
+    public ResourceMetrics(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getTotalMemoryInBytes() {
+        return totalMemoryInBytes;
+    }
+
+    public void setTotalMemoryInBytes(long totalMemoryInBytes) {
+        this.totalMemoryInBytes = totalMemoryInBytes;
+    }
+
+    public long getTotalCpuInMhz() {
+        return totalCpuInMhz;
+    }
+
+    public void setTotalCpuInMhz(long totalCpuInMhz) {
+        this.totalCpuInMhz = totalCpuInMhz;
+    }
+
+    public long getMemoryAllocatedInBytes() {
+        return memoryAllocatedInBytes;
+    }
+
+    public void setMemoryAllocatedInBytes(long memoryAllocatedInBytes) {
+        this.memoryAllocatedInBytes = memoryAllocatedInBytes;
+    }
+
+    public long getCpuAllocatedInMhz() {
+        return cpuAllocatedInMhz;
+    }
+
+    public void setCpuAllocatedInMhz(long cpuAllocatedInMhz) {
+        this.cpuAllocatedInMhz = cpuAllocatedInMhz;
+    }
+
+    public long getMemoryUsedInBytes() {
+        return memoryUsedInBytes;
+    }
+
+    public void setMemoryUsedInBytes(long memoryUsedInBytes) {
+        this.memoryUsedInBytes = memoryUsedInBytes;
+    }
+
+    public long getCpuUsedInMhz() {
+        return cpuUsedInMhz;
+    }
+
+    public void setCpuUsedInMhz(long cpuUsedInMhz) {
+        this.cpuUsedInMhz = cpuUsedInMhz;
+    }
+
+    public int getNumberOfVirtualMachines() {
+        return numberOfVirtualMachines;
+    }
+
+    public void setNumberOfVirtualMachines(int numberOfVirtualMachines) {
+        this.numberOfVirtualMachines = numberOfVirtualMachines;
+    }
+
+    public double getMemoryAllocatedInMibStd() {
+        return memoryAllocatedInMibStd;
+    }
+
+    public void setMemoryAllocatedInMibStd(double memoryAllocatedInMibStd) {
+        this.memoryAllocatedInMibStd = memoryAllocatedInMibStd;
+    }
+
+    public double getMemoryUsedInMibStd() {
+        return memoryUsedInMibStd;
+    }
+
+    public void setMemoryUsedInMibStd(double memoryUsedInMibStd) {
+        this.memoryUsedInMibStd = memoryUsedInMibStd;
+    }
+
+    public double getCpuAllocatedInMhzStd() {
+        return cpuAllocatedInMhzStd;
+    }
+
+    public void setCpuAllocatedInMhzStd(double cpuAllocatedInMhzStd) {
+        this.cpuAllocatedInMhzStd = cpuAllocatedInMhzStd;
+    }
+
+    public double getCpuUsedInMhzStd() {
+        return cpuUsedInMhzStd;
+    }
+
+    public void setCpuUsedInMhzStd(double cpuUsedInMhzStd) {
+        this.cpuUsedInMhzStd = cpuUsedInMhzStd;
+    }
+
+    public int getNumberOfMigrations() {
+        return numberOfMigrations;
+    }
+
+    public void setNumberOfMigrations(int numberOfMigrations) {
+        this.numberOfMigrations = numberOfMigrations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "id [%s], total memory [%dB], total cpu [%dMhz], allocated memory [%dB], allocated cpu [%dMhz], memory used [%dB], cpu used [%dMhz], #virtualMachines [%d]", id,
+                totalMemoryInBytes, totalCpuInMhz, memoryAllocatedInBytes, cpuAllocatedInMhz, memoryUsedInBytes, cpuUsedInMhz, numberOfVirtualMachines);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.metrics;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.lang3.StringUtils;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * Summary of a simulation run (sizes, times, garbage collection and memory of the JVM), written as a properties file so tools such as
+ * {@link br.com.autonomiccs.cloudTraces.main.ScalingBenchmarkHarness} can read it. Values are written in the order they were added.
+ */
+public class RunSummary {
+
+    private static final String PROC_STATUS_FILE = "/proc/self/status";
+    private static final String PEAK_RESIDENT_SET_SIZE_ENTRY = "VmHWM:";
+
+    private Map<String, String> values = new LinkedHashMap<>();
+
+    public void put(String key, long value) {
+        values.put(key, String.valueOf(value));
+    }
+
+    public void put(String key, double value) {
+        values.put(key, String.format(Locale.US, "%.3f", value));
+    }
+
+    public void put(String key, String value) {
+        values.put(key, value);
+    }
+
+    /**
+     * It adds the number and time of garbage collections, the peak of heap used (sum of the peaks of the heap pools) and, when the operating system informs it, the
+     * peak resident set size of the process.
+     */
+    public void addJvmStatistics() {
+        long numberOfCollections = 0;
+        long collectionTimeInMs = 0;
+        for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            numberOfCollections += Math.max(0, garbageCollector.getCollectionCount());
+            collectionTimeInMs += Math.max(0, garbageCollector.getCollectionTime());
+        }
+        long peakHeapUsedInBytes = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP && memoryPool.getPeakUsage() != null) {
+                peakHeapUsedInBytes += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+        put("gc.count", numberOfCollections);
+        put("gc.timeInMs", collectionTimeInMs);
+        put("memory.peakHeapUsedInMib", peakHeapUsedInBytes >> 20);
+        put("memory.peakResidentSetSizeInMib", getPeakResidentSetSizeInMib());
+    }
+
+    /**
+     * It returns -1 if the peak resident set size is not available (it is read from '/proc/self/status', so only on Linux).
+     */
+    private static long getPeakResidentSetSizeInMib() {
+        File procStatus = new File(PROC_STATUS_FILE);
+        if (!procStatus.canRead()) {
+            return -1;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(procStatus), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(PEAK_RESIDENT_SET_SIZE_ENTRY)) {
+                    return Long.parseLong(StringUtils.removeEnd(line.substring(PEAK_RESIDENT_SET_SIZE_ENTRY.length()).trim(), "kB").trim()) >> 10;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    public void write(String file) {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.ISO_8859_1))) {
+            writer.write("# Cloud traces simulation run summary");
+            writer.newLine();
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    public static Properties read(String file) {
+        Properties properties = new Properties();
+        try (FileInputStream inputStream = new FileInputStream(file)) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.metrics;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * Results of the runs of {@link br.com.autonomiccs.cloudTraces.main.ScalingBenchmarkHarness}, one per number of VMs, hosts and loader threads. They are written
+ * as CSV (which can be read back as the baseline of a later report) and as an HTML table that compares every run with the run of the baseline with the same
+ * sizes; runs whose wall time, iterations per second, garbage collection time, peak resident set size or p99 latencies got worse by more than the
+ * regression threshold are highlighted.
+ */
+public class ScalingBenchmarkReport {
+
+    private static final String[] COLUMNS = {"virtualMachines", "hosts", "loaderThreads", "status", "generationTimeInMs", "wallTimeInMs", "loadTimeInMs",
+            "simulationTimeInMs", "iterations", "iterationsPerSecond", "gcCount", "gcTimeInMs", "peakHeapUsedInMib", "peakResidentSetSizeInMib", "placementP99InUs", "rankHostsP99InUs", "mapVMsToHostP99InUs",
+            "tickP99InUs"};
+
+    /**
+     * Metrics compared with the baseline, and whether higher values are better.
+     */
+    private static final String[] COMPARED_COLUMNS = {"wallTimeInMs", "iterationsPerSecond", "gcTimeInMs", "peakResidentSetSizeInMib", "placementP99InUs",
+            "tickP99InUs"};
+    private static final boolean[] HIGHER_IS_BETTER = {false, true, false, false, false, false};
+
+    public static final String STATUS_OK = "OK";
+
+    private List<Map<String, String>> runs = new ArrayList<>();
+
+    /**
+     * It adds a run; metrics not informed (e.g. of a failed run) are written as empty values.
+     */
+    public void addRun(Map<String, String> run) {
+        runs.add(run);
+    }
+
+    public List<Map<String, String>> getRuns() {
+        return runs;
+    }
+
+    public void writeCsv(String file) {
+        try (BufferedWriter writer = createWriter(file)) {
+            writer.write(StringUtils.join(COLUMNS, ','));
+            writer.newLine();
+            for (Map<String, String> run : runs) {
+                String[] values = new String[COLUMNS.length];
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    values[i] = StringUtils.defaultString(run.get(COLUMNS[i]));
+                }
+                writer.write(StringUtils.join(values, ','));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    /**
+     * It reads a report written by {@link #writeCsv(String)}; columns are matched by the header, so reports with other columns can still be read.
+     */
+    public static ScalingBenchmarkReport readCsv(String file) {
+        ScalingBenchmarkReport report = new ScalingBenchmarkReport();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                return report;
+            }
+            String[] columns = header.split(",", -1);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                String[] values = line.split(",", -1);
+                Map<String, String> run = new HashMap<>();
+                for (int i = 0; i < columns.length && i < values.length; i++) {
+                    run.put(columns[i], values[i]);
+                }
+                report.addRun(run);
+            }
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        return report;
+    }
+
+    /**
+     * It writes the HTML report; the baseline may be null. A change is a regression when it is worse than the baseline by more than 'regressionThreshold' (a
+     * fraction of the baseline value). It returns the number of runs with regressions.
+     */
+    public int writeHtml(String file, ScalingBenchmarkReport baseline, double regressionThreshold) {
+        Map<String, Map<String, String>> baselineRuns = new HashMap<>();
+        if (baseline != null) {
+            for (Map<String, String> run : baseline.getRuns()) {
+                baselineRuns.put(getKey(run), run);
+            }
+        }
+        int numberOfRegressions = 0;
+        try (BufferedWriter writer = createWriter(file)) {
+            writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>Cloud traces scaling benchmark</title>\n");
+            writer.write("<style>table{border-collapse:collapse;font-family:monospace}th,td{border:1px solid #999;padding:2px 6px;text-align:right}"
+                    + ".regression{background:#f4c7c3}.improvement{background:#c8e6c9}</style>\n</head>\n<body>\n");
+            writer.write("<h1>Cloud traces scaling benchmark</h1>\n");
+            if (baseline != null) {
+                writer.write(String.format(Locale.US, "<p>Changes are relative to the baseline; regressions are changes worse than %.1f%%.</p>%n", regressionThreshold * 100));
+            }
+            writer.write("<table>\n<tr>");
+            for (String column : COLUMNS) {
+                writer.write("<th>" + column + "</th>");
+            }
+            if (baseline != null) {
+                for (String column : COMPARED_COLUMNS) {
+                    writer.write("<th>" + column + " change</th>");
+                }
+            }
+            writer.write("</tr>\n");
+            for (Map<String, String> run : runs) {
+                writer.write("<tr>");
+                for (String column : COLUMNS) {
+                    writer.write("<td>" + StringEscapeUtils.escapeHtml4(StringUtils.defaultString(run.get(column))) + "</td>");
+                }
+                boolean regression = false;
+                if (baseline != null) {
+                    Map<String, String> baselineRun = baselineRuns.get(getKey(run));
+                    for (int i = 0; i < COMPARED_COLUMNS.length; i++) {
+                        double change = getRelativeChange(run, baselineRun, COMPARED_COLUMNS[i]);
+                        if (Double.isNaN(change)) {
+                            writer.write("<td>-</td>");
+                            continue;
+                        }
+                        double worsening = HIGHER_IS_BETTER[i] ? -change : change;
+                        String cssClass = worsening > regressionThreshold ? "regression" : worsening < -regressionThreshold ? "improvement" : "";
+                        regression |= worsening > regressionThreshold;
+                        writer.write(String.format(Locale.US, "<td class=\"%s\">%+.1f%%</td>", cssClass, change * 100));
+                    }
+                }
+                if (regression) {
+                    numberOfRegressions++;
+                }
+                writer.write("</tr>\n");
+            }
+            writer.write("</table>\n</body>\n</html>\n");
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        return numberOfRegressions;
+    }
+
+    private static String getKey(Map<String, String> run) {
+        return run.get("virtualMachines") + "/" + run.get("hosts") + "/" + run.get("loaderThreads");
+    }
+
+    /**
+     * It returns NaN when the metric is not available in both runs (or the baseline value is not positive).
+     */
+    private static double getRelativeChange(Map<String, String> run, Map<String, String> baselineRun, String column) {
+        if (baselineRun == null || !STATUS_OK.equals(run.get("status")) || !STATUS_OK.equals(baselineRun.get("status"))) {
+            return Double.NaN;
+        }
+        try {
+            double value = Double.parseDouble(run.get(column));
+            double baselineValue = Double.parseDouble(baselineRun.get(column));
+            return baselineValue > 0 ? (value - baselineValue) / baselineValue : Double.NaN;
+        } catch (NumberFormatException | NullPointerException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static BufferedWriter createWriter(String file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.metrics;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * It reads files written by {@link SimulationMetricsWriter}. The header is read when the reader is created; then, every call to {@link #nextTick()} reads the
+ * metrics of the next simulation time. The returned {@link TickMetrics} (and its {@link ResourceMetrics}) is reused between calls, so reading a file does not
+ * allocate objects per record. Repeated ticks (see {@link SimulationMetricsWriter#writeRepeatedTicks(double, double, int)}) are returned one by one, as if every
+ * iteration had its own record.
+ */
+public class SimulationMetricsReader implements Closeable {
+
+    private DataInputStream inputStream;
+    private boolean hasHostRecords;
+    private TickMetrics tickMetrics;
+
+    private int remainingRepeatedTicks;
+    private double repeatedTicksTimeUnit;
+
+    public SimulationMetricsReader(String metricsFile) {
+        try {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(metricsFile), 1 << 16));
+            readHeader(metricsFile);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    public boolean hasHostRecords() {
+        return hasHostRecords;
+    }
+
+    /**
+     * It returns the metrics of the next simulation time, or null when there are no more records.
+     */
+    public TickMetrics nextTick() {
+        if (remainingRepeatedTicks > 0) {
+            remainingRepeatedTicks--;
+            tickMetrics.setTime(tickMetrics.getTime() + repeatedTicksTimeUnit);
+            return tickMetrics;
+        }
+        try {
+            byte recordType = inputStream.readByte();
+            if (recordType == SimulationMetricsWriter.END_OF_FILE) {
+                return null;
+            }
+            if (recordType == SimulationMetricsWriter.REPEATED_TICKS_RECORD) {
+                return readRepeatedTicks();
+            }
+            if (recordType != SimulationMetricsWriter.TICK_RECORD) {
+                throw new GoogleTracesToCloudTracesException(String.format("Unexpected record type [%d] in the metrics file.", recordType));
+            }
+            tickMetrics.setTime(inputStream.readDouble());
+            readResourcesAllocatedAndUsed(tickMetrics.getCloud());
+            tickMetrics.getCloud().setNumberOfVirtualMachines(inputStream.readInt());
+
+            ResourceMetrics[] clusters = tickMetrics.getClusters();
+            for (int i = 0; i < clusters.length; i++) {
+                readCluster(clusters[i]);
+                if (hasHostRecords) {
+                    for (ResourceMetrics host : tickMetrics.getHostsByCluster()[i]) {
+                        readResourcesAllocatedAndUsed(host);
+                        host.setNumberOfVirtualMachines(inputStream.readInt());
+                    }
+                }
+            }
+            return tickMetrics;
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private TickMetrics readRepeatedTicks() throws IOException {
+        tickMetrics.setTime(inputStream.readDouble());
+        repeatedTicksTimeUnit = inputStream.readDouble();
+        remainingRepeatedTicks = inputStream.readInt() - 1;
+        for (ResourceMetrics cluster : tickMetrics.getClusters()) {
+            cluster.setNumberOfMigrations(0);
+        }
+        return tickMetrics;
+    }
+
+    @Override
+    public void close() {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private void readHeader(String metricsFile) throws IOException {
+        if (inputStream.readInt() != SimulationMetricsWriter.MAGIC_NUMBER) {
+            throw new GoogleTracesToCloudTracesException(String.format("File [%s] is not a simulation metrics file.", metricsFile));
+        }
+        int formatVersion = inputStream.readInt();
+        if (formatVersion < 1 || formatVersion > SimulationMetricsWriter.FORMAT_VERSION) {
+            throw new GoogleTracesToCloudTracesException(String.format("Metrics file version [%d] is not supported.", formatVersion));
+        }
+        hasHostRecords = inputStream.readBoolean();
+        ResourceMetrics cloud = readIdAndTotals();
+
+        int numberOfClusters = inputStream.readInt();
+        ResourceMetrics[] clusters = new ResourceMetrics[numberOfClusters];
+        ResourceMetrics[][] hostsByCluster = new ResourceMetrics[numberOfClusters][];
+        for (int i = 0; i < numberOfClusters; i++) {
+            clusters[i] = readIdAndTotals();
+            hostsByCluster[i] = new ResourceMetrics[inputStream.readInt()];
+            for (int j = 0; j < hostsByCluster[i].length; j++) {
+                hostsByCluster[i][j] = readIdAndTotals();
+            }
+        }
+        tickMetrics = new TickMetrics(cloud, clusters, hasHostRecords ? hostsByCluster : null);
+    }
+
+    private void readCluster(ResourceMetrics cluster) throws IOException {
+        readResourcesAllocatedAndUsed(cluster);
+        cluster.setNumberOfVirtualMachines(inputStream.readInt());
+        cluster.setMemoryAllocatedInMibStd(inputStream.readDouble());
+        cluster.setMemoryUsedInMibStd(inputStream.readDouble());
+        cluster.setCpuAllocatedInMhzStd(inputStream.readDouble());
+        cluster.setCpuUsedInMhzStd(inputStream.readDouble());
+        cluster.setNumberOfMigrations(inputStream.readInt());
+    }
+
+    private ResourceMetrics readIdAndTotals() throws IOException {
+        ResourceMetrics resourceMetrics = new ResourceMetrics(inputStream.readUTF());
+        resourceMetrics.setTotalMemoryInBytes(inputStream.readLong());
+        resourceMetrics.setTotalCpuInMhz(inputStream.readLong());
+        return resourceMetrics;
+    }
+
+    private void readResourcesAllocatedAndUsed(ResourceMetrics resourceMetrics) throws IOException {
+        resourceMetrics.setMemoryAllocatedInBytes(inputStream.readLong());
+        resourceMetrics.setCpuAllocatedInMhz(inputStream.readLong());
+        resourceMetrics.setMemoryUsedInBytes(inputStream.readLong());
+        resourceMetrics.setCpuUsedInMhz(inputStream.readLong());
+    }
+}
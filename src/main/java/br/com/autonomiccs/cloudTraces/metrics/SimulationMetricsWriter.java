@@ -0,0 +1,191 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.metrics;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.ComputingResource;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * It writes the cloud, clusters and (optionally) hosts metrics of every simulation time to a compact binary file, which can be read with
+ * {@link SimulationMetricsReader}. The file layout is:
+ * <ul>
+ * <li>header: magic number, format version, whether host records are present, cloud id and totals, and for every cluster its id, totals and hosts (ids and totals);</li>
+ * <li>one record per simulation time: the time, the cloud allocated/used resources and number of VMs, and then, for every cluster (in the header order), its
+ * allocated/used resources, number of VMs, standard deviations and number of migrations, followed by its hosts allocated/used resources and number of VMs if host
+ * records are present;</li>
+ * <li>for the iterations skipped by adaptive stepping, a record with the time of the first skipped iteration, the time unit per iteration and the number of
+ * iterations, instead of one record per iteration: the metrics of the previous record repeat at those times, without migrations;</li>
+ * <li>an end of file marker.</li>
+ * </ul>
+ * Values that do not change during the simulation (ids and totals) are written only once, in the header.
+ */
+public class SimulationMetricsWriter implements Closeable {
+
+    public static final int MAGIC_NUMBER = 0x43544d53;
+    public static final int FORMAT_VERSION = 2;
+
+    protected static final byte TICK_RECORD = 1;
+    protected static final byte REPEATED_TICKS_RECORD = 2;
+    protected static final byte END_OF_FILE = 0;
+
+    private DataOutputStream outputStream;
+    private boolean writeHostRecords;
+
+    private List<Cluster> clusters;
+
+    /**
+     * Hosts of each cluster in header order; management algorithms re-sort the clusters' hosts lists.
+     */
+    private List<List<Host>> hostsByCluster = new ArrayList<>();
+
+    private Map<Cluster, Integer> clustersPositions = new IdentityHashMap<>();
+    private int[] numberOfMigrationsByCluster;
+
+    public SimulationMetricsWriter(String metricsFile, Cloud cloud, boolean writeHostRecords) {
+        this.writeHostRecords = writeHostRecords;
+        this.clusters = new ArrayList<>(cloud.getClusters());
+        this.numberOfMigrationsByCluster = new int[clusters.size()];
+        for (int i = 0; i < clusters.size(); i++) {
+            clustersPositions.put(clusters.get(i), i);
+            hostsByCluster.add(new ArrayList<>(clusters.get(i).getHosts()));
+        }
+        try {
+            outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(metricsFile), 1 << 16));
+            writeHeader(cloud);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    /**
+     * It accounts migrations executed in the given cluster; they are written in the next record and then reset.
+     */
+    public void addMigrations(Cluster cluster, int numberOfMigrations) {
+        Integer position = clustersPositions.get(cluster);
+        if (position != null) {
+            numberOfMigrationsByCluster[position] += numberOfMigrations;
+        }
+    }
+
+    public void writeTick(double time, Cloud cloud) {
+        try {
+            outputStream.writeByte(TICK_RECORD);
+            outputStream.writeDouble(time);
+            writeResourcesAllocatedAndUsed(cloud);
+            outputStream.writeInt(cloud.getVirtualMachines().size());
+            for (int i = 0; i < clusters.size(); i++) {
+                writeCluster(clusters.get(i), hostsByCluster.get(i), numberOfMigrationsByCluster[i]);
+                numberOfMigrationsByCluster[i] = 0;
+            }
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    /**
+     * The times of the repeated ticks are accumulated from 'firstTime', as the simulator calculates the times of its iterations.
+     */
+    public void writeRepeatedTicks(double firstTime, double timeUnitPerLoopIteration, int numberOfTicks) {
+        try {
+            outputStream.writeByte(REPEATED_TICKS_RECORD);
+            outputStream.writeDouble(firstTime);
+            outputStream.writeDouble(timeUnitPerLoopIteration);
+            outputStream.writeInt(numberOfTicks);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            outputStream.writeByte(END_OF_FILE);
+            outputStream.close();
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private void writeHeader(Cloud cloud) throws IOException {
+        outputStream.writeInt(MAGIC_NUMBER);
+        outputStream.writeInt(FORMAT_VERSION);
+        outputStream.writeBoolean(writeHostRecords);
+        writeIdAndTotals(cloud);
+        outputStream.writeInt(clusters.size());
+        for (int i = 0; i < clusters.size(); i++) {
+            writeIdAndTotals(clusters.get(i));
+            outputStream.writeInt(hostsByCluster.get(i).size());
+            for (Host host : hostsByCluster.get(i)) {
+                writeIdAndTotals(host);
+            }
+        }
+    }
+
+    private void writeCluster(Cluster cluster, List<Host> hosts, int numberOfMigrations) throws IOException {
+        writeResourcesAllocatedAndUsed(cluster);
+        int numberOfVirtualMachines = 0;
+        for (Host host : hosts) {
+            numberOfVirtualMachines += host.getVirtualMachines().size();
+        }
+        outputStream.writeInt(numberOfVirtualMachines);
+
+        ClusterBalanceStatistics balanceStatistics = cluster.getBalanceStatistics();
+        outputStream.writeDouble(balanceStatistics.getMemoryAllocatedInMibStd());
+        outputStream.writeDouble(balanceStatistics.getMemoryUsedInMibStd());
+        outputStream.writeDouble(balanceStatistics.getCpuAllocatedInMhzStd());
+        outputStream.writeDouble(balanceStatistics.getCpuUsedInMhzStd());
+        outputStream.writeInt(numberOfMigrations);
+
+        if (writeHostRecords) {
+            for (Host host : hosts) {
+                writeResourcesAllocatedAndUsed(host);
+                outputStream.writeInt(host.getVirtualMachines().size());
+            }
+        }
+    }
+
+    private void writeIdAndTotals(ComputingResource computingResource) throws IOException {
+        outputStream.writeUTF(computingResource.getId());
+        outputStream.writeLong(computingResource.getTotalMemoryInBytes());
+        outputStream.writeLong(computingResource.getTotalCpuPowerInMhz());
+    }
+
+    private void writeResourcesAllocatedAndUsed(ComputingResource computingResource) throws IOException {
+        outputStream.writeLong(computingResource.getMemoryAllocatedInBytes());
+        outputStream.writeLong(computingResource.getCpuAllocatedInMhz());
+        outputStream.writeLong(computingResource.getMemoryUsedInBytes());
+        outputStream.writeLong(computingResource.getCpuUsedInMhz());
+    }
+}
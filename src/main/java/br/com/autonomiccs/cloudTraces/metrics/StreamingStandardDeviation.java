@@ -0,0 +1,78 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.metrics;
+
+/**
+ * Population standard deviation of a set of integer values that change over time. It keeps the count, the sum and the sum of squares of the values, so adding,
+ * removing or replacing a value, and reading the standard deviation, cost O(1).
+ * Since values are integers, sums are exact (unlike Welford's or compensated floating point sums, they do not drift when values are removed). The variance numerator
+ * (n * sum of squares - sum^2) is only calculated exactly while sum of squares <= Long.MAX_VALUE / n; with values of the magnitude of the memory of a 400 GiB
+ * host in MiB, that bounds the exact calculation to clusters of about 7,000 hosts. Larger sets fall back to double arithmetic (sum of squares / n - mean^2), which
+ * loses precision when the deviation is small compared to the mean.
+ */
+public class StreamingStandardDeviation {
+
+    private long count;
+    private long sum;
+    private long sumOfSquares;
+
+    public void add(long value) {
+        count++;
+        sum += value;
+        sumOfSquares += value * value;
+    }
+
+    public void remove(long value) {
+        count--;
+        sum -= value;
+        sumOfSquares -= value * value;
+    }
+
+    public void replace(long oldValue, long newValue) {
+        sum += newValue - oldValue;
+        sumOfSquares += newValue * newValue - oldValue * oldValue;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : sum / (double)count;
+    }
+
+    public double getStandardDeviation() {
+        if (count == 0) {
+            return 0;
+        }
+        double variance;
+        if (sumOfSquares <= Long.MAX_VALUE / count) {
+            // By the Cauchy-Schwarz inequality, sum^2 <= n * sum of squares; thus, none of the products below overflows.
+            long varianceNumerator = count * sumOfSquares - sum * sum;
+            variance = varianceNumerator / ((double)count * count);
+        } else {
+            double mean = getMean();
+            variance = sumOfSquares / (double)count - mean * mean;
+        }
+        return variance > 0 ? Math.sqrt(variance) : 0;
+    }
+}
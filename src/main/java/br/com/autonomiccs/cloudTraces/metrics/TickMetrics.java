@@ -0,0 +1,63 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.metrics;
+
+/**
+ * Metrics of the whole cloud at one simulation time. Objects of this class are reused by {@link SimulationMetricsReader} while reading a metrics file.
+ */
+public class TickMetrics {
+
+    private double time;
+    private ResourceMetrics cloud;
+    private ResourceMetrics[] clusters;
+
+    /**
+     * Hosts of every cluster (same order of {@link #getClusters()}); null if the metrics file does not have host records.
+     */
+    private ResourceMetrics[][] hostsByCluster;
+
+    public TickMetrics(ResourceMetrics cloud, ResourceMetrics[] clusters, ResourceMetrics[][] hostsByCluster) {
+        this.cloud = cloud;
+        this.clusters = clusters;
+        this.hostsByCluster = hostsByCluster;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public void setTime(double time) {
+        this.time = time;
+    }
+
+    public ResourceMetrics getCloud() {
+        return cloud;
+    }
+
+    public ResourceMetrics[] getClusters() {
+        return clusters;
+    }
+
+    public ResourceMetrics[][] getHostsByCluster() {
+        return hostsByCluster;
+    }
+}
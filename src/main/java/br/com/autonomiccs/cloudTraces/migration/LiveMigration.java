@@ -0,0 +1,108 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.migration;
+
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * A live migration in progress (or completed) of a VM: its memory is transferred from the source to the target host, while the VM keeps running in the source.
+ */
+public class LiveMigration {
+
+    private VirtualMachine virtualMachine;
+    private Host sourceHost;
+    private Host targetHost;
+    private Cluster cluster;
+
+    private double startTime;
+    private double endTime;
+    private long memoryInMegaBytes;
+    private double remainingMegaBytes;
+
+    /**
+     * Transfer rate (MB per second) since the last time the rates of the migrations were calculated.
+     */
+    private double rateInMegaBytesPerSecond;
+
+    LiveMigration(VirtualMachine virtualMachine, Host targetHost, Cluster cluster, double startTime) {
+        this.virtualMachine = virtualMachine;
+        this.sourceHost = virtualMachine.getHost();
+        this.targetHost = targetHost;
+        this.cluster = cluster;
+        this.startTime = startTime;
+        this.memoryInMegaBytes = virtualMachine.getVmServiceOffering().getMemoryInMegaByte();
+        this.remainingMegaBytes = memoryInMegaBytes;
+    }
+
+    public VirtualMachine getVirtualMachine() {
+        return virtualMachine;
+    }
+
+    public Host getSourceHost() {
+        return sourceHost;
+    }
+
+    public Host getTargetHost() {
+        return targetHost;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Time (in the time unit of the traces) the transfer completed.
+     */
+    public double getEndTime() {
+        return endTime;
+    }
+
+    void setEndTime(double endTime) {
+        this.endTime = endTime;
+    }
+
+    public long getMemoryInMegaBytes() {
+        return memoryInMegaBytes;
+    }
+
+    double getRemainingMegaBytes() {
+        return remainingMegaBytes;
+    }
+
+    void setRemainingMegaBytes(double remainingMegaBytes) {
+        this.remainingMegaBytes = remainingMegaBytes;
+    }
+
+    double getRateInMegaBytesPerSecond() {
+        return rateInMegaBytesPerSecond;
+    }
+
+    void setRateInMegaBytesPerSecond(double rateInMegaBytesPerSecond) {
+        this.rateInMegaBytesPerSecond = rateInMegaBytesPerSecond;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.migration;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+
+/**
+ * It simulates the live migrations requested by management algorithms; instead of moving VMs instantly, the memory of the VM is transferred through the network:
+ * <ul>
+ * <li>every host has a link (with the same bandwidth in each direction) that is shared by the migrations leaving it, and by the migrations arriving on it;</li>
+ * <li>optionally, migrations of a cluster also share the cluster link;</li>
+ * <li>a migration gets an equal share of the most congested link it uses, so rates change every time a migration starts or completes;</li>
+ * <li>while the memory is transferred, the VM runs in the source host and its resources are also allocated in the target host;</li>
+ * <li>migrations that would exceed the number of concurrent migrations of a host or cluster (or of VMs already migrating) are not started (they are deferred; the
+ * management algorithm may request them again).</li>
+ * </ul>
+ * Times are in the time unit of the traces; bandwidths are in MB per second.
+ */
+public class MigrationEngine {
+
+    /**
+     * Migrations with less remaining memory than this (MB) are complete; it absorbs rounding errors.
+     */
+    private static final double COMPLETION_TOLERANCE_IN_MEGA_BYTES = 1e-6;
+
+    private double hostBandwidthInMegaBytesPerSecond;
+    private double clusterBandwidthInMegaBytesPerSecond;
+    private int maximumConcurrentMigrationsPerHost;
+    private int maximumConcurrentMigrationsPerCluster;
+    private double traceTimeUnitsPerSecond;
+
+    private List<LiveMigration> migrationsInProgress = new ArrayList<>();
+    private Map<VirtualMachine, LiveMigration> migrationsByVirtualMachine = new IdentityHashMap<>();
+    private double currentTime;
+
+    private Map<Host, int[]> outgoingMigrationsByHost = new IdentityHashMap<>();
+    private Map<Host, int[]> incomingMigrationsByHost = new IdentityHashMap<>();
+    private Map<Cluster, int[]> migrationsByCluster = new IdentityHashMap<>();
+
+    private long numberOfCompletedMigrations;
+    private long numberOfDeferredMigrations;
+    private long numberOfCancelledMigrations;
+    private long megaBytesTransferred;
+    private double totalDurationInSeconds;
+    private double maximumDurationInSeconds;
+
+    /**
+     * A cluster bandwidth or a maximum number of concurrent migrations per cluster equal to zero means that there is no such limit.
+     */
+    public MigrationEngine(double hostBandwidthInMegaBytesPerSecond, double clusterBandwidthInMegaBytesPerSecond, int maximumConcurrentMigrationsPerHost,
+            int maximumConcurrentMigrationsPerCluster, double traceTimeUnitsPerSecond) {
+        this.hostBandwidthInMegaBytesPerSecond = hostBandwidthInMegaBytesPerSecond;
+        this.clusterBandwidthInMegaBytesPerSecond = clusterBandwidthInMegaBytesPerSecond;
+        this.maximumConcurrentMigrationsPerHost = maximumConcurrentMigrationsPerHost;
+        this.maximumConcurrentMigrationsPerCluster = maximumConcurrentMigrationsPerCluster;
+        this.traceTimeUnitsPerSecond = traceTimeUnitsPerSecond;
+    }
+
+    /**
+     * It starts the migration of the VM to the target host (a host of the given cluster); it returns false if the migration is deferred. The transfers in progress
+     * must have been advanced until the current time (see {@link #advanceTo(double)}). A VM that is already in the target host has nothing to transfer.
+     */
+    public boolean startMigration(VirtualMachine virtualMachine, Host targetHost, Cluster cluster, double time) {
+        Host sourceHost = virtualMachine.getHost();
+        if (sourceHost == targetHost) {
+            return true;
+        }
+        if (sourceHost == null || migrationsByVirtualMachine.containsKey(virtualMachine)
+                || getNumberOfMigrations(outgoingMigrationsByHost, sourceHost) + getNumberOfMigrations(incomingMigrationsByHost, sourceHost) >= maximumConcurrentMigrationsPerHost
+                || getNumberOfMigrations(outgoingMigrationsByHost, targetHost) + getNumberOfMigrations(incomingMigrationsByHost, targetHost) >= maximumConcurrentMigrationsPerHost
+                || (maximumConcurrentMigrationsPerCluster > 0 && getNumberOfMigrations(migrationsByCluster, cluster) >= maximumConcurrentMigrationsPerCluster)) {
+            numberOfDeferredMigrations++;
+            return false;
+        }
+        if (migrationsInProgress.isEmpty()) {
+            currentTime = time;
+        }
+        LiveMigration liveMigration = new LiveMigration(virtualMachine, targetHost, cluster, time);
+        targetHost.reserveResources(virtualMachine);
+        migrationsInProgress.add(liveMigration);
+        migrationsByVirtualMachine.put(virtualMachine, liveMigration);
+        changeNumberOfMigrations(liveMigration, 1);
+        return true;
+    }
+
+    /**
+     * It transfers memory until the given time; the migrations completed are applied (VMs are moved from the source to the target host) and returned, in the
+     * order they completed.
+     */
+    public List<LiveMigration> advanceTo(double time) {
+        List<LiveMigration> completedMigrations = new ArrayList<>();
+        if (migrationsInProgress.isEmpty()) {
+            currentTime = time;
+            return completedMigrations;
+        }
+        while (!migrationsInProgress.isEmpty() && currentTime < time) {
+            calculateRates();
+            double secondsUntilNextCompletion = Double.POSITIVE_INFINITY;
+            for (LiveMigration liveMigration : migrationsInProgress) {
+                secondsUntilNextCompletion = Math.min(secondsUntilNextCompletion, liveMigration.getRemainingMegaBytes() / liveMigration.getRateInMegaBytesPerSecond());
+            }
+            double secondsUntilTime = (time - currentTime) / traceTimeUnitsPerSecond;
+            double seconds = Math.min(secondsUntilNextCompletion, secondsUntilTime);
+            currentTime = seconds == secondsUntilTime ? time : currentTime + seconds * traceTimeUnitsPerSecond;
+
+            Iterator<LiveMigration> iterator = migrationsInProgress.iterator();
+            while (iterator.hasNext()) {
+                LiveMigration liveMigration = iterator.next();
+                liveMigration.setRemainingMegaBytes(liveMigration.getRemainingMegaBytes() - liveMigration.getRateInMegaBytesPerSecond() * seconds);
+                if (liveMigration.getRemainingMegaBytes() <= COMPLETION_TOLERANCE_IN_MEGA_BYTES) {
+                    iterator.remove();
+                    liveMigration.setEndTime(currentTime);
+                    completeMigration(liveMigration);
+                    completedMigrations.add(liveMigration);
+                }
+            }
+        }
+        currentTime = time;
+        return completedMigrations;
+    }
+
+    /**
+     * The migration of a VM that is destroyed is cancelled: the resources reserved in the target host are released.
+     */
+    public void cancelMigration(VirtualMachine virtualMachine) {
+        LiveMigration liveMigration = migrationsByVirtualMachine.remove(virtualMachine);
+        if (liveMigration == null) {
+            return;
+        }
+        migrationsInProgress.remove(liveMigration);
+        changeNumberOfMigrations(liveMigration, -1);
+        liveMigration.getTargetHost().releaseReservedResources(virtualMachine);
+        numberOfCancelledMigrations++;
+    }
+
+    private void completeMigration(LiveMigration liveMigration) {
+        VirtualMachine virtualMachine = liveMigration.getVirtualMachine();
+        migrationsByVirtualMachine.remove(virtualMachine);
+        changeNumberOfMigrations(liveMigration, -1);
+
+        Host targetHost = liveMigration.getTargetHost();
+        targetHost.releaseReservedResources(virtualMachine);
+        liveMigration.getSourceHost().destroyVirtualMachine(virtualMachine);
+        targetHost.addVirtualMachine(virtualMachine);
+
+        double durationInSeconds = getDurationInSeconds(liveMigration);
+        numberOfCompletedMigrations++;
+        megaBytesTransferred += liveMigration.getMemoryInMegaBytes();
+        totalDurationInSeconds += durationInSeconds;
+        maximumDurationInSeconds = Math.max(maximumDurationInSeconds, durationInSeconds);
+    }
+
+    /**
+     * Every migration gets an equal share of each link it uses; its rate is the one of the most congested link.
+     */
+    private void calculateRates() {
+        for (LiveMigration liveMigration : migrationsInProgress) {
+            double rate = Math.min(hostBandwidthInMegaBytesPerSecond / getNumberOfMigrations(outgoingMigrationsByHost, liveMigration.getSourceHost()),
+                    hostBandwidthInMegaBytesPerSecond / getNumberOfMigrations(incomingMigrationsByHost, liveMigration.getTargetHost()));
+            if (clusterBandwidthInMegaBytesPerSecond > 0) {
+                rate = Math.min(rate, clusterBandwidthInMegaBytesPerSecond / getNumberOfMigrations(migrationsByCluster, liveMigration.getCluster()));
+            }
+            liveMigration.setRateInMegaBytesPerSecond(rate);
+        }
+    }
+
+    private void changeNumberOfMigrations(LiveMigration liveMigration, int change) {
+        changeNumberOfMigrations(outgoingMigrationsByHost, liveMigration.getSourceHost(), change);
+        changeNumberOfMigrations(incomingMigrationsByHost, liveMigration.getTargetHost(), change);
+        changeNumberOfMigrations(migrationsByCluster, liveMigration.getCluster(), change);
+    }
+
+    private static <T> void changeNumberOfMigrations(Map<T, int[]> migrationsByResource, T resource, int change) {
+        int[] numberOfMigrations = migrationsByResource.get(resource);
+        if (numberOfMigrations == null) {
+            numberOfMigrations = new int[1];
+            migrationsByResource.put(resource, numberOfMigrations);
+        }
+        numberOfMigrations[0] += change;
+        if (numberOfMigrations[0] == 0) {
+            migrationsByResource.remove(resource);
+        }
+    }
+
+    private static <T> int getNumberOfMigrations(Map<T, int[]> migrationsByResource, T resource) {
+        int[] numberOfMigrations = migrationsByResource.get(resource);
+        return numberOfMigrations == null ? 0 : numberOfMigrations[0];
+    }
+
+    public double getDurationInSeconds(LiveMigration liveMigration) {
+        return (liveMigration.getEndTime() - liveMigration.getStartTime()) / traceTimeUnitsPerSecond;
+    }
+
+    public boolean isMigrating(VirtualMachine virtualMachine) {
+        return migrationsByVirtualMachine.containsKey(virtualMachine);
+    }
+
+    public boolean hasMigrationsInProgress() {
+        return !migrationsInProgress.isEmpty();
+    }
+
+    public long getNumberOfCompletedMigrations() {
+        return numberOfCompletedMigrations;
+    }
+
+    public long getNumberOfDeferredMigrations() {
+        return numberOfDeferredMigrations;
+    }
+
+    public long getNumberOfCancelledMigrations() {
+        return numberOfCancelledMigrations;
+    }
+
+    public long getMegaBytesTransferred() {
+        return megaBytesTransferred;
+    }
+
+    public double getMeanDurationInSeconds() {
+        return numberOfCompletedMigrations == 0 ? 0 : totalDurationInSeconds / numberOfCompletedMigrations;
+    }
+
+    public double getMaximumDurationInSeconds() {
+        return maximumDurationInSeconds;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.overcommit;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import br.com.autonomiccs.cloudTraces.beans.Host;
+
+/**
+ * It counts the contention events of the simulation: a host is in contention at an iteration if the usage of its VMs exceeds its physical CPU or memory, which can
+ * only happen when hosts are overcommitted.
+ */
+public class ContentionTracker {
+
+    private long numberOfCpuContentions;
+    private long numberOfMemoryContentions;
+    private long maximumCpuExcessInMhz;
+    private long maximumMemoryExcessInMib;
+    private long totalCpuExcessInMhz;
+    private long totalMemoryExcessInMib;
+
+    /**
+     * It returns true if the host is in contention (its usage must be the one of the current iteration).
+     */
+    public boolean record(Host host) {
+        long cpuExcessInMhz = host.getCpuUsedInMhz() - host.getTotalCpuPowerInMhz();
+        long memoryExcessInMib = host.getMemoryUsedInMib() - host.getTotalMemoryInMib();
+        if (cpuExcessInMhz > 0) {
+            numberOfCpuContentions++;
+            totalCpuExcessInMhz += cpuExcessInMhz;
+            maximumCpuExcessInMhz = Math.max(maximumCpuExcessInMhz, cpuExcessInMhz);
+        }
+        if (memoryExcessInMib > 0) {
+            numberOfMemoryContentions++;
+            totalMemoryExcessInMib += memoryExcessInMib;
+            maximumMemoryExcessInMib = Math.max(maximumMemoryExcessInMib, memoryExcessInMib);
+        }
+        return cpuExcessInMhz > 0 || memoryExcessInMib > 0;
+    }
+
+    /**
+     * It writes the counters, so they can be restored with {@link #read(DataInput)} (e.g. in simulation checkpoints).
+     */
+    public void write(DataOutput output) throws IOException {
+        output.writeLong(numberOfCpuContentions);
+        output.writeLong(numberOfMemoryContentions);
+        output.writeLong(maximumCpuExcessInMhz);
+        output.writeLong(maximumMemoryExcessInMib);
+        output.writeLong(totalCpuExcessInMhz);
+        output.writeLong(totalMemoryExcessInMib);
+    }
+
+    public void read(DataInput input) throws IOException {
+        numberOfCpuContentions = input.readLong();
+        numberOfMemoryContentions = input.readLong();
+        maximumCpuExcessInMhz = input.readLong();
+        maximumMemoryExcessInMib = input.readLong();
+        totalCpuExcessInMhz = input.readLong();
+        totalMemoryExcessInMib = input.readLong();
+    }
+
+    public long getNumberOfCpuContentions() {
+        return numberOfCpuContentions;
+    }
+
+    public long getNumberOfMemoryContentions() {
+        return numberOfMemoryContentions;
+    }
+
+    public long getMaximumCpuExcessInMhz() {
+        return maximumCpuExcessInMhz;
+    }
+
+    public long getMaximumMemoryExcessInMib() {
+        return maximumMemoryExcessInMib;
+    }
+
+    public double getMeanCpuExcessInMhz() {
+        return numberOfCpuContentions == 0 ? 0 : totalCpuExcessInMhz / (double)numberOfCpuContentions;
+    }
+
+    public double getMeanMemoryExcessInMib() {
+        return numberOfMemoryContentions == 0 ? 0 : totalMemoryExcessInMib / (double)numberOfMemoryContentions;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.overcommit;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+
+/**
+ * It decides how much of the resources of the hosts can be allocated to VMs, setting the overcommit ratios of the hosts (see
+ * {@link br.com.autonomiccs.cloudTraces.beans.Host#setOvercommitRatios(double, double)}); the available resources of the hosts (used to admit VMs) follow them.
+ */
+public interface OvercommitPolicy {
+
+    /**
+     * Called when the simulation starts and, then, at every iteration after the usage of the hosts is updated.
+     */
+    public void updateOvercommitRatios(Cloud cloud);
+}
@@ -0,0 +1,45 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.overcommit;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+
+/**
+ * Overcommit policies whose ratios depend on the previous iterations of the simulation. Their state is written to checkpoints (see
+ * {@link br.com.autonomiccs.cloudTraces.checkpoint.SimulationCheckpoint}), so a resumed simulation calculates the same ratios of an uninterrupted one.
+ */
+public interface StatefulOvercommitPolicy extends OvercommitPolicy {
+
+    /**
+     * Hosts are identified by their positions in the cloud (order of the clusters and of their hosts), which checkpoints keep.
+     */
+    public void writeState(DataOutput output, Cloud cloud) throws IOException;
+
+    /**
+     * It reads the state written by {@link #writeState(DataOutput, Cloud)}, for the same hosts of the given cloud; it does not record usage nor change ratios.
+     */
+    public void readState(DataInput input, Cloud cloud) throws IOException;
+}
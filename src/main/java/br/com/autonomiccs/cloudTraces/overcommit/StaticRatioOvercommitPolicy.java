@@ -0,0 +1,54 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.overcommit;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+
+/**
+ * The same overcommit ratios for every host, e.g. a CPU ratio of 2 allows twice the CPU of a host to be allocated.
+ */
+public class StaticRatioOvercommitPolicy implements OvercommitPolicy {
+
+    private double cpuOvercommitRatio;
+    private double memoryOvercommitRatio;
+
+    public StaticRatioOvercommitPolicy(double cpuOvercommitRatio, double memoryOvercommitRatio) {
+        this.cpuOvercommitRatio = cpuOvercommitRatio;
+        this.memoryOvercommitRatio = memoryOvercommitRatio;
+    }
+
+    @Override
+    public void updateOvercommitRatios(Cloud cloud) {
+        for (Cluster c : cloud.getClusters()) {
+            for (Host h : c.getHosts()) {
+                h.setOvercommitRatios(cpuOvercommitRatio, memoryOvercommitRatio);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("static ratio, cpu [%.2f], memory [%.2f]", cpuOvercommitRatio, memoryOvercommitRatio);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.overcommit;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+
+/**
+ * Overcommit ratios calculated from the recent usage of every host. At every iteration the utilization of the allocated resources (used / allocated) of a host is
+ * recorded; the host ratio is the target utilization divided by a percentile of the last utilizations, e.g. if the VMs of a host use at most 40% of what was allocated
+ * to them, with a target of 80% the host can allocate twice its resources. Ratios are never lower than one nor higher than the maximum ratios; hosts without usage
+ * history are not overcommitted.
+ */
+public class UsagePercentileOvercommitPolicy implements StatefulOvercommitPolicy {
+
+    private double percentile;
+    private int historySize;
+    private double targetUtilization;
+    private double maximumCpuOvercommitRatio;
+    private double maximumMemoryOvercommitRatio;
+
+    private Map<Host, UsageHistory> usageHistoriesByHost = new IdentityHashMap<>();
+    private double[] sortedUtilizations;
+
+    /**
+     * @param percentile
+     *            in ]0, 100]
+     * @param historySize
+     *            number of iterations whose utilization is kept for every host
+     */
+    public UsagePercentileOvercommitPolicy(double percentile, int historySize, double targetUtilization, double maximumCpuOvercommitRatio,
+            double maximumMemoryOvercommitRatio) {
+        this.percentile = percentile;
+        this.historySize = historySize;
+        this.targetUtilization = targetUtilization;
+        this.maximumCpuOvercommitRatio = maximumCpuOvercommitRatio;
+        this.maximumMemoryOvercommitRatio = maximumMemoryOvercommitRatio;
+        this.sortedUtilizations = new double[historySize];
+    }
+
+    @Override
+    public void updateOvercommitRatios(Cloud cloud) {
+        for (Cluster c : cloud.getClusters()) {
+            for (Host h : c.getHosts()) {
+                UsageHistory usageHistory = usageHistoriesByHost.get(h);
+                if (usageHistory == null) {
+                    usageHistory = new UsageHistory(historySize);
+                    usageHistoriesByHost.put(h, usageHistory);
+                }
+                usageHistory.record(h);
+                h.setOvercommitRatios(calculateOvercommitRatio(usageHistory.cpuUtilizations, usageHistory.numberOfCpuSamples, maximumCpuOvercommitRatio),
+                        calculateOvercommitRatio(usageHistory.memoryUtilizations, usageHistory.numberOfMemorySamples, maximumMemoryOvercommitRatio));
+            }
+        }
+    }
+
+    /**
+     * The utilizations of every host are written from the oldest to the newest; therefore, a simulation can be resumed with a different history size.
+     */
+    @Override
+    public void writeState(DataOutput output, Cloud cloud) throws IOException {
+        for (Cluster c : cloud.getClusters()) {
+            for (Host h : c.getHosts()) {
+                UsageHistory usageHistory = usageHistoriesByHost.get(h);
+                output.writeBoolean(usageHistory != null);
+                if (usageHistory != null) {
+                    writeUtilizations(output, usageHistory.cpuUtilizations, usageHistory.numberOfCpuSamples, usageHistory.nextCpuSample);
+                    writeUtilizations(output, usageHistory.memoryUtilizations, usageHistory.numberOfMemorySamples, usageHistory.nextMemorySample);
+                }
+            }
+        }
+    }
+
+    private static void writeUtilizations(DataOutput output, double[] utilizations, int numberOfSamples, int nextSample) throws IOException {
+        output.writeInt(numberOfSamples);
+        for (int i = 0; i < numberOfSamples; i++) {
+            output.writeDouble(utilizations[(nextSample - numberOfSamples + i + utilizations.length) % utilizations.length]);
+        }
+    }
+
+    @Override
+    public void readState(DataInput input, Cloud cloud) throws IOException {
+        usageHistoriesByHost.clear();
+        for (Cluster c : cloud.getClusters()) {
+            for (Host h : c.getHosts()) {
+                if (!input.readBoolean()) {
+                    continue;
+                }
+                UsageHistory usageHistory = new UsageHistory(historySize);
+                int numberOfCpuSamples = input.readInt();
+                for (int i = 0; i < numberOfCpuSamples; i++) {
+                    usageHistory.addCpuUtilization(input.readDouble());
+                }
+                int numberOfMemorySamples = input.readInt();
+                for (int i = 0; i < numberOfMemorySamples; i++) {
+                    usageHistory.addMemoryUtilization(input.readDouble());
+                }
+                usageHistoriesByHost.put(h, usageHistory);
+            }
+        }
+    }
+
+    private double calculateOvercommitRatio(double[] utilizations, int numberOfSamples, double maximumOvercommitRatio) {
+        if (numberOfSamples == 0) {
+            return 1;
+        }
+        System.arraycopy(utilizations, 0, sortedUtilizations, 0, numberOfSamples);
+        Arrays.sort(sortedUtilizations, 0, numberOfSamples);
+        int index = Math.max(0, (int)Math.ceil(percentile / 100 * numberOfSamples) - 1);
+        double utilization = sortedUtilizations[index];
+        if (utilization <= 0) {
+            return maximumOvercommitRatio;
+        }
+        return Math.max(1, Math.min(maximumOvercommitRatio, targetUtilization / utilization));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("usage percentile [%.1f] of the last [%d] iterations, target utilization [%.2f], maximum ratios cpu [%.2f] and memory [%.2f]", percentile,
+                historySize, targetUtilization, maximumCpuOvercommitRatio, maximumMemoryOvercommitRatio);
+    }
+
+    /**
+     * Ring buffers with the last utilizations of a host; iterations in which nothing is allocated in the host are not recorded.
+     */
+    private static class UsageHistory {
+
+        private double[] cpuUtilizations;
+        private double[] memoryUtilizations;
+        private int numberOfCpuSamples;
+        private int numberOfMemorySamples;
+        private int nextCpuSample;
+        private int nextMemorySample;
+
+        private UsageHistory(int historySize) {
+            cpuUtilizations = new double[historySize];
+            memoryUtilizations = new double[historySize];
+        }
+
+        private void record(Host host) {
+            if (host.getCpuAllocatedInMhz() > 0) {
+                addCpuUtilization(host.getCpuUsedInMhz() / (double)host.getCpuAllocatedInMhz());
+            }
+            if (host.getMemoryAllocatedInBytes() > 0) {
+                addMemoryUtilization(host.getMemoryUsedInBytes() / (double)host.getMemoryAllocatedInBytes());
+            }
+        }
+
+        private void addCpuUtilization(double utilization) {
+            cpuUtilizations[nextCpuSample] = utilization;
+            nextCpuSample = (nextCpuSample + 1) % cpuUtilizations.length;
+            numberOfCpuSamples = Math.min(numberOfCpuSamples + 1, cpuUtilizations.length);
+        }
+
+        private void addMemoryUtilization(double utilization) {
+            memoryUtilizations[nextMemorySample] = utilization;
+            nextMemorySample = (nextMemorySample + 1) % memoryUtilizations.length;
+            numberOfMemorySamples = Math.min(numberOfMemorySamples + 1, memoryUtilizations.length);
+        }
+    }
+}
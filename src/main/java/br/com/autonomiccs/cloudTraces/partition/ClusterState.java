@@ -0,0 +1,141 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.partition;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.ComputingResource;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+
+/**
+ * Resources of a cluster at the end of an iteration, as reported by a {@link PartitionWorker} to the coordinator.
+ */
+public class ClusterState {
+
+    private String id;
+    private long totalMemoryInBytes;
+    private long totalCpuPowerInMhz;
+    private long memoryAllocatedInBytes;
+    private long cpuAllocatedInMhz;
+    private long memoryUsedInBytes;
+    private long cpuUsedInMhz;
+    private long totalMemoryInMib;
+    private long freeMemoryInMib;
+    private int numberOfVirtualMachines;
+
+    public static ClusterState capture(Cluster cluster) {
+        ClusterState clusterState = new ClusterState();
+        clusterState.id = cluster.getId();
+        clusterState.totalMemoryInBytes = cluster.getTotalMemoryInBytes();
+        clusterState.totalCpuPowerInMhz = cluster.getTotalCpuPowerInMhz();
+        clusterState.memoryAllocatedInBytes = cluster.getMemoryAllocatedInBytes();
+        clusterState.cpuAllocatedInMhz = cluster.getCpuAllocatedInMhz();
+        clusterState.memoryUsedInBytes = cluster.getMemoryUsedInBytes();
+        clusterState.cpuUsedInMhz = cluster.getCpuUsedInMhz();
+        clusterState.totalMemoryInMib = cluster.getTotalMemoryInMib();
+        clusterState.freeMemoryInMib = cluster.getTotalMemoryInMib() - cluster.getMemoryAllocatedInMib();
+        for (Host host : cluster.getHosts()) {
+            clusterState.numberOfVirtualMachines += host.getVirtualMachines().size();
+        }
+        return clusterState;
+    }
+
+    public void write(DataOutput output) throws IOException {
+        output.writeUTF(id);
+        output.writeLong(totalMemoryInBytes);
+        output.writeLong(totalCpuPowerInMhz);
+        output.writeLong(memoryAllocatedInBytes);
+        output.writeLong(cpuAllocatedInMhz);
+        output.writeLong(memoryUsedInBytes);
+        output.writeLong(cpuUsedInMhz);
+        output.writeLong(totalMemoryInMib);
+        output.writeLong(freeMemoryInMib);
+        output.writeInt(numberOfVirtualMachines);
+    }
+
+    public static ClusterState read(DataInput input) throws IOException {
+        ClusterState clusterState = new ClusterState();
+        clusterState.id = input.readUTF();
+        clusterState.totalMemoryInBytes = input.readLong();
+        clusterState.totalCpuPowerInMhz = input.readLong();
+        clusterState.memoryAllocatedInBytes = input.readLong();
+        clusterState.cpuAllocatedInMhz = input.readLong();
+        clusterState.memoryUsedInBytes = input.readLong();
+        clusterState.cpuUsedInMhz = input.readLong();
+        clusterState.totalMemoryInMib = input.readLong();
+        clusterState.freeMemoryInMib = input.readLong();
+        clusterState.numberOfVirtualMachines = input.readInt();
+        return clusterState;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getTotalMemoryInBytes() {
+        return totalMemoryInBytes;
+    }
+
+    public long getTotalCpuPowerInMhz() {
+        return totalCpuPowerInMhz;
+    }
+
+    public long getMemoryAllocatedInBytes() {
+        return memoryAllocatedInBytes;
+    }
+
+    public long getCpuAllocatedInMhz() {
+        return cpuAllocatedInMhz;
+    }
+
+    public long getMemoryUsedInBytes() {
+        return memoryUsedInBytes;
+    }
+
+    public long getCpuUsedInMhz() {
+        return cpuUsedInMhz;
+    }
+
+    public long getTotalMemoryInMib() {
+        return totalMemoryInMib;
+    }
+
+    /**
+     * Memory of the cluster that is not allocated to VMs.
+     */
+    public long getFreeMemoryInMib() {
+        return freeMemoryInMib;
+    }
+
+    public int getNumberOfVirtualMachines() {
+        return numberOfVirtualMachines;
+    }
+
+    @Override
+    public String toString() {
+        return ComputingResource.formatResources(id, totalMemoryInBytes, totalCpuPowerInMhz, memoryAllocatedInBytes, cpuAllocatedInMhz, memoryUsedInBytes,
+                cpuUsedInMhz) + String.format(", #VMs [%d]", numberOfVirtualMachines);
+    }
+}
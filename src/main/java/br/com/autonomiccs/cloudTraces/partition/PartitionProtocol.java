@@ -0,0 +1,75 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.partition;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * Messages exchanged between the coordinator of a partitioned simulation ({@link br.com.autonomiccs.cloudTraces.main.PartitionedCloudTracesSimulator}) and its
+ * workers, over one TCP connection per worker:
+ *
+ * <pre>
+ * worker      -> coordinator: HELLO, worker index, number of clusters, (cluster state)*
+ * coordinator -> worker:      START, time of the first task execution, time of the last task execution
+ * coordinator -> worker:      TICK, time, number of VMs, (VM and ranges of lines)*     once per iteration
+ * worker      -> coordinator: TICK_RESULT, time, number of rejected VMs, (VM id)*,
+ *                             number of clusters, (cluster state)*                        once per iteration
+ * </pre>
+ *
+ * Only the coordinator indexes the cloud traces: the VMs assigned to a worker are sent with the ranges of lines of their task executions (see
+ * {@link br.com.autonomiccs.cloudTraces.traces.VirtualMachineTracesIndex#writeVirtualMachine(br.com.autonomiccs.cloudTraces.beans.VirtualMachine, java.io.DataOutput)}),
+ * and the worker reads only those lines of the file. The coordinator only sends the next TICK after it receives the TICK_RESULT of every worker, so the connections also work as a barrier per iteration.
+ */
+public final class PartitionProtocol {
+
+    /**
+     * Address ('host:port') of the coordinator; it is only informed to workers, and it turns the simulator into a worker.
+     */
+    public static final String COORDINATOR_ADDRESS_PROPERTY = "cloudTraces.partition.coordinator";
+    public static final String WORKER_INDEX_PROPERTY = "cloudTraces.partition.workerIndex";
+    public static final String NUMBER_OF_WORKERS_PROPERTY = "cloudTraces.partition.workers";
+    public static final String TIMEOUT_PROPERTY = "cloudTraces.partition.timeoutInSeconds";
+
+    public static final byte HELLO = 1;
+    public static final byte TICK = 2;
+    public static final byte TICK_RESULT = 3;
+    public static final byte START = 4;
+
+    private PartitionProtocol() {
+    }
+
+    /**
+     * Clusters are assigned to workers in a round-robin fashion, following their order in the cloud topology.
+     */
+    public static boolean isClusterOfWorker(int clusterIndex, int workerIndex, int numberOfWorkers) {
+        return clusterIndex % numberOfWorkers == workerIndex;
+    }
+
+    /**
+     * Iterations are identified by their times, which the coordinator and the workers calculate in the same way; they must be exactly the same.
+     */
+    public static void checkTime(double expectedTime, double time) {
+        if (Double.compare(expectedTime, time) != 0) {
+            throw new GoogleTracesToCloudTracesException(String.format("The coordinator and the worker are at different iterations ([%.2f] and [%.2f]).", expectedTime, time));
+        }
+    }
+}
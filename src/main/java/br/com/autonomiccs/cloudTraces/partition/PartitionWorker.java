@@ -0,0 +1,226 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.partition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.service.SimulationConfigurationService;
+import br.com.autonomiccs.cloudTraces.traces.VirtualMachineTracesIndex;
+
+/**
+ * Worker side of a partitioned simulation (see {@link PartitionProtocol}). The simulator of a worker only keeps its partition of the clusters, and only knows
+ * the VMs that the coordinator assigns to it: they are received with the ranges of lines of their task executions and added to the (initially empty) index of the
+ * worker, so the worker does not index the cloud traces. VMs that do not fit in any of its hosts are rejected, and the coordinator assigns them to another worker
+ * in the next iteration.
+ */
+public class PartitionWorker implements Closeable {
+
+    private final static Logger logger = Logger.getLogger(PartitionWorker.class);
+
+    private int workerIndex;
+    private int numberOfWorkers;
+    private Socket socket;
+    private DataInputStream inputStream;
+    private DataOutputStream outputStream;
+
+    private VirtualMachineTracesIndex virtualMachineTracesIndex;
+    private int firstTime;
+    private int lastTime;
+    private List<VirtualMachine> assignedVirtualMachines = new ArrayList<>();
+    private List<VirtualMachine> rejectedVirtualMachines = new ArrayList<>();
+    private int numberOfAssignedVirtualMachines;
+    private long numberOfRejectedVirtualMachines;
+
+    private PartitionWorker(String coordinatorAddress, int workerIndex, int numberOfWorkers, VirtualMachineTracesIndex virtualMachineTracesIndex) {
+        this.workerIndex = workerIndex;
+        this.numberOfWorkers = numberOfWorkers;
+        this.virtualMachineTracesIndex = virtualMachineTracesIndex;
+        String host = StringUtils.substringBeforeLast(coordinatorAddress, ":");
+        int port = Integer.parseInt(StringUtils.substringAfterLast(coordinatorAddress, ":"));
+        try {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port));
+            socket.setSoTimeout(SimulationConfigurationService.getIntProperty(PartitionProtocol.TIMEOUT_PROPERTY, 600) * 1000);
+            inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        logger.info(String.format("Worker [%d] of [%d] connected to the coordinator [%s].", workerIndex, numberOfWorkers, coordinatorAddress));
+    }
+
+    public static boolean isConfigured() {
+        return StringUtils.isNotBlank(SimulationConfigurationService.getProperty(PartitionProtocol.COORDINATOR_ADDRESS_PROPERTY, StringUtils.EMPTY));
+    }
+
+    /**
+     * It returns null if the simulator is not a worker of a partitioned simulation. The VMs assigned to the worker are added to the given index.
+     */
+    public static PartitionWorker connectIfConfigured(VirtualMachineTracesIndex virtualMachineTracesIndex) {
+        if (!isConfigured()) {
+            return null;
+        }
+        String coordinatorAddress = SimulationConfigurationService.getProperty(PartitionProtocol.COORDINATOR_ADDRESS_PROPERTY, StringUtils.EMPTY);
+        return new PartitionWorker(coordinatorAddress, SimulationConfigurationService.getIntProperty(PartitionProtocol.WORKER_INDEX_PROPERTY, 0),
+                SimulationConfigurationService.getIntProperty(PartitionProtocol.NUMBER_OF_WORKERS_PROPERTY, 1), virtualMachineTracesIndex);
+    }
+
+    /**
+     * It creates the cloud of the partition of this worker, with its clusters of the given cloud, and sends their initial state to the coordinator (in the hello
+     * message), so the VMs of the first iteration are already assigned according to the capacity of the workers. Then, it waits for the times of the first and last
+     * task executions of the cloud traces, which define the iterations of the simulation.
+     */
+    public Cloud selectClusters(Cloud cloud) {
+        Cloud partition = new Cloud(cloud.getId() + " (partition " + workerIndex + ")");
+        long totalMemory = 0;
+        long totalCpu = 0;
+        for (int i = 0; i < cloud.getClusters().size(); i++) {
+            if (PartitionProtocol.isClusterOfWorker(i, workerIndex, numberOfWorkers)) {
+                Cluster cluster = cloud.getClusters().get(i);
+                partition.getClusters().add(cluster);
+                totalMemory += cluster.getTotalMemoryInBytes();
+                totalCpu += cluster.getTotalCpuPowerInMhz();
+            }
+        }
+        partition.setTotalMemoryInBytes(totalMemory);
+        partition.setTotalCpuPowerInMhz(totalCpu);
+        try {
+            outputStream.writeByte(PartitionProtocol.HELLO);
+            outputStream.writeInt(workerIndex);
+            writeClustersStates(partition);
+            outputStream.flush();
+            expectMessage(PartitionProtocol.START);
+            firstTime = inputStream.readInt();
+            lastTime = inputStream.readInt();
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        return partition;
+    }
+
+    /**
+     * It waits for the coordinator to start the iteration of the given time, and receives the VMs assigned to this worker in the iteration (the ones that arrive in
+     * the cloud, and the ones rejected by other workers in the previous iteration).
+     */
+    public void awaitTick(double time) {
+        assignedVirtualMachines.clear();
+        try {
+            expectMessage(PartitionProtocol.TICK);
+            PartitionProtocol.checkTime(inputStream.readDouble(), time);
+            int numberOfVirtualMachines = inputStream.readInt();
+            for (int i = 0; i < numberOfVirtualMachines; i++) {
+                assignedVirtualMachines.add(virtualMachineTracesIndex.readVirtualMachine(inputStream));
+            }
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        numberOfAssignedVirtualMachines += assignedVirtualMachines.size();
+    }
+
+    /**
+     * The VMs to deploy in the current iteration, in the order the coordinator assigned them.
+     */
+    public List<VirtualMachine> getAssignedVirtualMachines() {
+        return assignedVirtualMachines;
+    }
+
+    public void rejectVirtualMachine(VirtualMachine virtualMachine) {
+        rejectedVirtualMachines.add(virtualMachine);
+        numberOfRejectedVirtualMachines++;
+    }
+
+    /**
+     * It sends the VMs rejected and the state of the clusters of this worker at the end of the iteration.
+     */
+    public void sendTickResult(double time, Cloud cloud) {
+        try {
+            outputStream.writeByte(PartitionProtocol.TICK_RESULT);
+            outputStream.writeDouble(time);
+            outputStream.writeInt(rejectedVirtualMachines.size());
+            for (VirtualMachine virtualMachine : rejectedVirtualMachines) {
+                outputStream.writeUTF(virtualMachine.getVmId());
+            }
+            writeClustersStates(cloud);
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        rejectedVirtualMachines.clear();
+    }
+
+    private void writeClustersStates(Cloud cloud) throws IOException {
+        outputStream.writeInt(cloud.getClusters().size());
+        for (Cluster cluster : cloud.getClusters()) {
+            ClusterState.capture(cluster).write(outputStream);
+        }
+    }
+
+    private void expectMessage(byte messageType) throws IOException {
+        byte receivedMessageType = inputStream.readByte();
+        if (receivedMessageType != messageType) {
+            throw new GoogleTracesToCloudTracesException(String.format("Unexpected message [%d] from the coordinator; expected [%d].", receivedMessageType, messageType));
+        }
+    }
+
+    public int getWorkerIndex() {
+        return workerIndex;
+    }
+
+    public int getFirstTime() {
+        return firstTime;
+    }
+
+    public int getLastTime() {
+        return lastTime;
+    }
+
+    public int getNumberOfAssignedVirtualMachines() {
+        return numberOfAssignedVirtualMachines;
+    }
+
+    @Override
+    public void close() {
+        logger.info(String.format("Worker [%d]: [%d] VMs assigned, [%d] rejections.", workerIndex, numberOfAssignedVirtualMachines, numberOfRejectedVirtualMachines));
+        try {
+            socket.close();
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.profiling;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.metrics.RunSummary;
+
+/**
+ * It measures, for every {@link SimulationPhase}, the time, the bytes allocated by the simulation thread (with {@link com.sun.management.ThreadMXBean}, when the
+ * JVM supports it) and the garbage collections that finished between {@link #startPhase(SimulationPhase)} and {@link #endPhase()}. Phases are not nested; the
+ * profiler must only be used by the simulation thread, so allocations of the loader and journal threads are not attributed to the phases.
+ */
+public class PhaseProfiler {
+
+    private static final String OBJECT_NAME_PATTERN = "br.com.autonomiccs.cloudTraces:type=SimulationPhase,name=%s";
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+    private List<GarbageCollectorMXBean> garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private PhaseStatistics[] statistics = new PhaseStatistics[SimulationPhase.values().length];
+
+    private SimulationPhase currentPhase;
+    private long phaseStartTimeInNanoseconds;
+    private long phaseStartAllocatedBytes;
+    private long phaseStartGcCount;
+    private long phaseStartGcTimeInMs;
+
+    public PhaseProfiler() {
+        ThreadMXBean platformThreadMXBean = ManagementFactory.getThreadMXBean();
+        if (platformThreadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean)platformThreadMXBean;
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+                sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+                threadMXBean = sunThreadMXBean;
+            }
+        }
+        for (SimulationPhase phase : SimulationPhase.values()) {
+            statistics[phase.ordinal()] = new PhaseStatistics(phase);
+        }
+    }
+
+    public void startPhase(SimulationPhase phase) {
+        currentPhase = phase;
+        phaseStartGcCount = getGcCount();
+        phaseStartGcTimeInMs = getGcTimeInMs();
+        phaseStartAllocatedBytes = getAllocatedBytes();
+        phaseStartTimeInNanoseconds = System.nanoTime();
+    }
+
+    public void endPhase() {
+        long timeInNanoseconds = System.nanoTime() - phaseStartTimeInNanoseconds;
+        long allocatedBytes = threadMXBean == null ? -1 : getAllocatedBytes() - phaseStartAllocatedBytes;
+        statistics[currentPhase.ordinal()].add(timeInNanoseconds, allocatedBytes, getGcCount() - phaseStartGcCount, getGcTimeInMs() - phaseStartGcTimeInMs);
+        currentPhase = null;
+    }
+
+    private long getAllocatedBytes() {
+        return threadMXBean == null ? 0 : threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private long getGcCount() {
+        long gcCount = 0;
+        for (GarbageCollectorMXBean garbageCollector : garbageCollectors) {
+            gcCount += Math.max(0, garbageCollector.getCollectionCount());
+        }
+        return gcCount;
+    }
+
+    private long getGcTimeInMs() {
+        long gcTimeInMs = 0;
+        for (GarbageCollectorMXBean garbageCollector : garbageCollectors) {
+            gcTimeInMs += Math.max(0, garbageCollector.getCollectionTime());
+        }
+        return gcTimeInMs;
+    }
+
+    public PhaseStatistics getStatistics(SimulationPhase phase) {
+        return statistics[phase.ordinal()];
+    }
+
+    /**
+     * It registers the statistics of every phase in the platform MBean server (e.g. to be watched with JConsole while the simulation runs).
+     */
+    public void registerMBeans() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (PhaseStatistics phaseStatistics : statistics) {
+                ObjectName objectName = getObjectName(phaseStatistics.getPhase());
+                if (!mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.registerMBean(phaseStatistics, objectName);
+                }
+            }
+        } catch (JMException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private static ObjectName getObjectName(SimulationPhase phase) throws JMException {
+        return new ObjectName(String.format(OBJECT_NAME_PATTERN, phase.name()));
+    }
+
+    public void addTo(RunSummary runSummary) {
+        for (PhaseStatistics phaseStatistics : statistics) {
+            String prefix = "phase." + phaseStatistics.getMethodName() + ".";
+            runSummary.put(prefix + "invocations", phaseStatistics.getInvocations());
+            runSummary.put(prefix + "timeInMs", phaseStatistics.getTimeInMs());
+            runSummary.put(prefix + "allocatedBytes", phaseStatistics.getAllocatedBytes());
+            runSummary.put(prefix + "allocatedBytesPerInvocation", phaseStatistics.getAllocatedBytesPerInvocation());
+            runSummary.put(prefix + "gc.count", phaseStatistics.getGcCount());
+            runSummary.put(prefix + "gc.timeInMs", phaseStatistics.getGcTimeInMs());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.profiling;
+
+/**
+ * Accumulated measurements of a {@link SimulationPhase}. They are only updated by the simulation thread; fields are volatile so they can be read through JMX while
+ * the simulation runs.
+ */
+public class PhaseStatistics implements PhaseStatisticsMBean {
+
+    private SimulationPhase phase;
+
+    private volatile long invocations;
+    private volatile long timeInNanoseconds;
+    private volatile long allocatedBytes;
+    private volatile long gcCount;
+    private volatile long gcTimeInMs;
+
+    public PhaseStatistics(SimulationPhase phase) {
+        this.phase = phase;
+    }
+
+    void add(long timeInNanoseconds, long allocatedBytes, long gcCount, long gcTimeInMs) {
+        this.invocations++;
+        this.timeInNanoseconds += timeInNanoseconds;
+        this.allocatedBytes = allocatedBytes < 0 ? -1 : this.allocatedBytes + allocatedBytes;
+        this.gcCount += gcCount;
+        this.gcTimeInMs += gcTimeInMs;
+    }
+
+    public SimulationPhase getPhase() {
+        return phase;
+    }
+
+    @Override
+    public String getMethodName() {
+        return phase.getMethodName();
+    }
+
+    @Override
+    public long getInvocations() {
+        return invocations;
+    }
+
+    @Override
+    public long getTimeInMs() {
+        return timeInNanoseconds / 1000000;
+    }
+
+    /**
+     * Bytes allocated by the simulation thread during the phase; it is -1 if the JVM does not measure allocations per thread.
+     */
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public long getAllocatedBytesPerInvocation() {
+        return invocations == 0 || allocatedBytes < 0 ? allocatedBytes : allocatedBytes / invocations;
+    }
+
+    /**
+     * Garbage collections that finished during the phase (of any thread, as collections are triggered by the allocations of the whole JVM).
+     */
+    @Override
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    @Override
+    public long getGcTimeInMs() {
+        return gcTimeInMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("phase [%s], invocations [%d], time [%d ms], allocated [%d bytes, %d bytes per invocation], garbage collections [%d, %d ms]", getMethodName(),
+                invocations, getTimeInMs(), allocatedBytes, getAllocatedBytesPerInvocation(), gcCount, gcTimeInMs);
+    }
+}
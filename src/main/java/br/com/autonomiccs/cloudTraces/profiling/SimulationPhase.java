@@ -0,0 +1,42 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.profiling;
+
+/**
+ * Phases of an iteration of the simulation measured by the {@link PhaseProfiler}; the names are the ones of the methods of
+ * {@link br.com.autonomiccs.cloudTraces.main.CloudTracesSimulator} that execute them.
+ */
+public enum SimulationPhase {
+
+    APPLY_LOAD("applyLoadOnCloudForCurrentTime"), DESTROY_VIRTUAL_MACHINES("destroyVirtualMachinesIfNeeded"), MANAGEMENT("executeManagement"),
+    CLUSTERS_LOG("logClustersConfigurationsAndStdAtTime");
+
+    private String methodName;
+
+    private SimulationPhase(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+}
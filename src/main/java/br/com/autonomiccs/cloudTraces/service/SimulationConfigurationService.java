@@ -0,0 +1,111 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.service;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.apache.commons.lang3.StringUtils;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * Central place to read the simulation configurations. Every configuration can be informed as a JVM system property (e.g. '-DcloudTraces.deploymentHeuristic=...'),
+ * or in a properties file pointed by the system property {@link #CONFIGURATION_FILE_PROPERTY}. Values informed as system properties override the ones in the file.
+ */
+public class SimulationConfigurationService {
+
+    public static final String CONFIGURATION_FILE_PROPERTY = "cloudTraces.configurationFile";
+
+    private static Properties configurationFileProperties;
+
+    public static String getProperty(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = getConfigurationFileProperties().getProperty(key);
+        }
+        return StringUtils.isBlank(value) ? defaultValue : StringUtils.trim(value);
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new GoogleTracesToCloudTracesException(String.format("Configuration [%s] has an invalid integer value [%s].", key, value));
+        }
+    }
+
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = getProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new GoogleTracesToCloudTracesException(String.format("Configuration [%s] has an invalid long value [%s].", key, value));
+        }
+    }
+
+    public static double getDoubleProperty(String key, double defaultValue) {
+        String value = getProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new GoogleTracesToCloudTracesException(String.format("Configuration [%s] has an invalid decimal value [%s].", key, value));
+        }
+    }
+
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = getProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static synchronized Properties getConfigurationFileProperties() {
+        if (configurationFileProperties != null) {
+            return configurationFileProperties;
+        }
+        configurationFileProperties = new Properties();
+        String configurationFile = System.getProperty(CONFIGURATION_FILE_PROPERTY);
+        if (StringUtils.isBlank(configurationFile)) {
+            return configurationFileProperties;
+        }
+        try (InputStream inputStream = new FileInputStream(configurationFile)) {
+            configurationFileProperties.load(inputStream);
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        return configurationFileProperties;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.stepping;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.beans.VmUsageSeries;
+
+/**
+ * The next events of the VMs deployed in the cloud: the earliest destroy time, and the earliest time of a usage sample after a given time (when the usage of a VM
+ * changes its trend). They are kept in priority queues, which are updated lazily: entries of VMs that are no longer deployed are dropped, and sample entries are
+ * advanced to the next sample of their VMs, only when they reach the head of their queues. Thus, adding a VM costs O(log n), and every sample of a VM is passed
+ * over once, in O(log n).
+ */
+public class VirtualMachineEventsQueue {
+
+    private PriorityQueue<VirtualMachine> virtualMachinesByDestroyTime = new PriorityQueue<>(11, new Comparator<VirtualMachine>() {
+        @Override
+        public int compare(VirtualMachine virtualMachine, VirtualMachine other) {
+            return Integer.compare(virtualMachine.getDestroyTime(), other.getDestroyTime());
+        }
+    });
+    private PriorityQueue<NextSample> nextSamples = new PriorityQueue<>();
+
+    private static class NextSample implements Comparable<NextSample> {
+        private VirtualMachine virtualMachine;
+        private int sample;
+        private int time;
+
+        private NextSample(VirtualMachine virtualMachine) {
+            this.virtualMachine = virtualMachine;
+        }
+
+        @Override
+        public int compareTo(NextSample other) {
+            return Integer.compare(time, other.time);
+        }
+    }
+
+    /**
+     * It adds a VM deployed at the given time; the samples of the VM until that time are not events anymore.
+     */
+    public void add(VirtualMachine virtualMachine, double time) {
+        virtualMachinesByDestroyTime.add(virtualMachine);
+        NextSample nextSample = new NextSample(virtualMachine);
+        nextSample.sample = virtualMachine.getUsageSeries().getIndexOfLastTimeUntil(time);
+        if (advance(nextSample, time)) {
+            nextSamples.add(nextSample);
+        }
+    }
+
+    /**
+     * It returns the lowest destroy time of the deployed VMs, or {@link Integer#MAX_VALUE} if no VM is deployed.
+     */
+    public int getMinimumDestroyTime() {
+        while (!virtualMachinesByDestroyTime.isEmpty() && virtualMachinesByDestroyTime.peek().getHost() == null) {
+            virtualMachinesByDestroyTime.poll();
+        }
+        return virtualMachinesByDestroyTime.isEmpty() ? Integer.MAX_VALUE : virtualMachinesByDestroyTime.peek().getDestroyTime();
+    }
+
+    /**
+     * It returns the lowest time of a sample of the deployed VMs after the given time, or {@link Integer#MAX_VALUE} if there is no such sample. Times must not
+     * decrease between calls.
+     */
+    public int getNextSampleTime(double time) {
+        while (!nextSamples.isEmpty()) {
+            NextSample nextSample = nextSamples.peek();
+            if (nextSample.virtualMachine.getHost() == null) {
+                nextSamples.poll();
+            } else if (nextSample.time <= time) {
+                nextSamples.poll();
+                if (advance(nextSample, time)) {
+                    nextSamples.add(nextSample);
+                }
+            } else {
+                return nextSample.time;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * It moves the entry to the first sample of its VM after the given time; it returns false if there is no such sample.
+     */
+    private static boolean advance(NextSample nextSample, double time) {
+        VmUsageSeries usageSeries = nextSample.virtualMachine.getUsageSeries();
+        nextSample.sample++;
+        while (nextSample.sample < usageSeries.size() && usageSeries.getTime(nextSample.sample) <= time) {
+            nextSample.sample++;
+        }
+        if (nextSample.sample >= usageSeries.size()) {
+            return false;
+        }
+        nextSample.time = usageSeries.getTime(nextSample.sample);
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.synthetic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * A host configuration of synthetic topologies and its weight (the relative frequency it is selected with).
+ */
+public class HostProfile {
+
+    private int numberOfCores;
+    private long coreSpeedInMhz;
+    private long memoryInMegaByte;
+    private double weight;
+
+    public HostProfile(int numberOfCores, long coreSpeedInMhz, long memoryInMegaByte, double weight) {
+        this.numberOfCores = numberOfCores;
+        this.coreSpeedInMhz = coreSpeedInMhz;
+        this.memoryInMegaByte = memoryInMegaByte;
+        this.weight = weight;
+    }
+
+    /**
+     * It parses profiles separated by commas, each one as 'cores:memoryInGib:coreSpeedInMhz:weight' (e.g. '16:60:3400:5,200:400:3400:1').
+     */
+    public static List<HostProfile> parseHostProfiles(String hostProfiles) {
+        List<HostProfile> profiles = new ArrayList<>();
+        for (String hostProfile : StringUtils.split(hostProfiles, ',')) {
+            String[] values = StringUtils.split(hostProfile.trim(), ':');
+            if (values.length != 4) {
+                throw new GoogleTracesToCloudTracesException(
+                        String.format("Invalid host profile [%s]; the expected format is 'cores:memoryInGib:coreSpeedInMhz:weight'.", hostProfile));
+            }
+            try {
+                profiles.add(new HostProfile(Integer.parseInt(values[0].trim()), Long.parseLong(values[2].trim()), Long.parseLong(values[1].trim()) * 1024,
+                        Double.parseDouble(values[3].trim())));
+            } catch (NumberFormatException e) {
+                throw new GoogleTracesToCloudTracesException(e);
+            }
+        }
+        return profiles;
+    }
+
+    public int getNumberOfCores() {
+        return numberOfCores;
+    }
+
+    public long getCoreSpeedInMhz() {
+        return coreSpeedInMhz;
+    }
+
+    public long getMemoryInMegaByte() {
+        return memoryInMegaByte;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d cores of %dMhz, %dMB (weight %.2f)", numberOfCores, coreSpeedInMhz, memoryInMegaByte, weight);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.synthetic;
+
+/**
+ * Usage model of the VMs of a service offering. The utilization (usage / allocated) of CPU and memory follows AR(1) processes, x(t) = mean + phi * (x(t-1) - mean) +
+ * noise, whose mean, standard deviation and lag-one autocorrelation (phi) are fitted from the samples of existing traces.
+ */
+public class OfferingUsageModel {
+
+    private String name;
+    private int numberOfCores;
+    private int totalCpuInMhz;
+    private long memoryInMegaByte;
+    private long numberOfVirtualMachines;
+
+    private AutoregressiveEstimator cpuUtilization = new AutoregressiveEstimator();
+    private AutoregressiveEstimator memoryUtilization = new AutoregressiveEstimator();
+
+    OfferingUsageModel(String name, int numberOfCores, int totalCpuInMhz, long memoryInMegaByte) {
+        this.name = name;
+        this.numberOfCores = numberOfCores;
+        this.totalCpuInMhz = totalCpuInMhz;
+        this.memoryInMegaByte = memoryInMegaByte;
+    }
+
+    void addVirtualMachine() {
+        numberOfVirtualMachines++;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getNumberOfCores() {
+        return numberOfCores;
+    }
+
+    public int getTotalCpuInMhz() {
+        return totalCpuInMhz;
+    }
+
+    public long getMemoryInMegaByte() {
+        return memoryInMegaByte;
+    }
+
+    public long getNumberOfVirtualMachines() {
+        return numberOfVirtualMachines;
+    }
+
+    public AutoregressiveEstimator getCpuUtilization() {
+        return cpuUtilization;
+    }
+
+    public AutoregressiveEstimator getMemoryUtilization() {
+        return memoryUtilization;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("offering [%s], #VMs [%d], cpu utilization [%s], memory utilization [%s]", name, numberOfVirtualMachines, cpuUtilization, memoryUtilization);
+    }
+
+    /**
+     * It accumulates the samples of a series (and the pairs of consecutive samples of each VM) in a single pass, so the parameters of the AR(1) process can be
+     * calculated without keeping the samples.
+     */
+    public static class AutoregressiveEstimator {
+
+        private long numberOfSamples;
+        private double sum;
+        private double sumOfSquares;
+
+        private long numberOfPairs;
+        private double sumOfPrevious;
+        private double sumOfCurrent;
+        private double sumOfPreviousSquares;
+        private double sumOfCurrentSquares;
+        private double sumOfProducts;
+
+        void addSample(double value) {
+            numberOfSamples++;
+            sum += value;
+            sumOfSquares += value * value;
+        }
+
+        void addConsecutiveSamples(double previous, double current) {
+            numberOfPairs++;
+            sumOfPrevious += previous;
+            sumOfCurrent += current;
+            sumOfPreviousSquares += previous * previous;
+            sumOfCurrentSquares += current * current;
+            sumOfProducts += previous * current;
+        }
+
+        public double getMean() {
+            return numberOfSamples == 0 ? 0 : sum / numberOfSamples;
+        }
+
+        public double getStandardDeviation() {
+            if (numberOfSamples < 2) {
+                return 0;
+            }
+            double mean = getMean();
+            return Math.sqrt(Math.max(0, (sumOfSquares - numberOfSamples * mean * mean) / (numberOfSamples - 1)));
+        }
+
+        /**
+         * The correlation between consecutive samples of the VMs, in [0, 1[ (negative correlations are not modeled).
+         */
+        public double getAutocorrelation() {
+            if (numberOfPairs < 2) {
+                return 0;
+            }
+            double covariance = numberOfPairs * sumOfProducts - sumOfPrevious * sumOfCurrent;
+            double previousVariance = numberOfPairs * sumOfPreviousSquares - sumOfPrevious * sumOfPrevious;
+            double currentVariance = numberOfPairs * sumOfCurrentSquares - sumOfCurrent * sumOfCurrent;
+            if (previousVariance <= 0 || currentVariance <= 0) {
+                return 0;
+            }
+            return Math.max(0, Math.min(0.999, covariance / Math.sqrt(previousVariance * currentVariance)));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mean %.4f, std %.4f, phi %.4f", getMean(), getStandardDeviation(), getAutocorrelation());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.synthetic;
+
+import java.util.List;
+import java.util.Random;
+
+import br.com.autonomiccs.cloudTraces.beans.Cloud;
+import br.com.autonomiccs.cloudTraces.beans.Cluster;
+import br.com.autonomiccs.cloudTraces.beans.Host;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * It creates large heterogeneous clouds for scaling tests. The number of hosts of every cluster is drawn uniformly from an interval, and host configurations are drawn
+ * from weighted {@link HostProfile}s, either once per cluster (clusters of identical hosts, as usual in data centers) or for every host. The random generator is
+ * seeded, so the same configuration always creates the same topology.
+ */
+public class SyntheticTopologyGenerator {
+
+    private long seed;
+    private int numberOfClusters;
+    private int minimumHostsPerCluster;
+    private int maximumHostsPerCluster;
+    private List<HostProfile> hostProfiles;
+    private boolean homogeneousClusters;
+
+    public SyntheticTopologyGenerator(long seed, int numberOfClusters, int minimumHostsPerCluster, int maximumHostsPerCluster, List<HostProfile> hostProfiles,
+            boolean homogeneousClusters) {
+        if (numberOfClusters <= 0 || minimumHostsPerCluster <= 0 || maximumHostsPerCluster < minimumHostsPerCluster || hostProfiles.isEmpty()) {
+            throw new GoogleTracesToCloudTracesException(String.format(
+                    "Invalid synthetic topology: [%d] clusters with [%d] to [%d] hosts and [%d] host profiles.", numberOfClusters, minimumHostsPerCluster,
+                    maximumHostsPerCluster, hostProfiles.size()));
+        }
+        this.seed = seed;
+        this.numberOfClusters = numberOfClusters;
+        this.minimumHostsPerCluster = minimumHostsPerCluster;
+        this.maximumHostsPerCluster = maximumHostsPerCluster;
+        this.hostProfiles = hostProfiles;
+        this.homogeneousClusters = homogeneousClusters;
+    }
+
+    public Cloud createCloud(String cloudId) {
+        Random random = new Random(seed);
+        Cloud cloud = new Cloud(cloudId);
+        long totalMemory = 0;
+        long totalCpu = 0;
+        for (int i = 0; i < numberOfClusters; i++) {
+            Cluster cluster = createCluster("cluster-" + (i + 1), random);
+            cloud.getClusters().add(cluster);
+            totalCpu += cluster.getTotalCpuPowerInMhz();
+            totalMemory += cluster.getTotalMemoryInBytes();
+        }
+        cloud.setTotalCpuPowerInMhz(totalCpu);
+        cloud.setTotalMemoryInBytes(totalMemory);
+        return cloud;
+    }
+
+    private Cluster createCluster(String clusterId, Random random) {
+        Cluster cluster = new Cluster(clusterId);
+        int numberOfHosts = minimumHostsPerCluster + random.nextInt(maximumHostsPerCluster - minimumHostsPerCluster + 1);
+        HostProfile clusterHostProfile = homogeneousClusters ? selectHostProfile(random) : null;
+
+        long totalMemory = 0;
+        long totalCpu = 0;
+        for (int i = 0; i < numberOfHosts; i++) {
+            HostProfile hostProfile = homogeneousClusters ? clusterHostProfile : selectHostProfile(random);
+            Host host = new Host("host-" + (i + 1));
+            host.setTotalCpuPowerInMhz(hostProfile.getNumberOfCores() * hostProfile.getCoreSpeedInMhz());
+            host.setTotalMemoryInBytes(hostProfile.getMemoryInMegaByte() * 1024);
+            host.setClusterId(clusterId);
+            cluster.getHosts().add(host);
+
+            totalCpu += host.getTotalCpuPowerInMhz();
+            totalMemory += host.getTotalMemoryInBytes();
+        }
+        cluster.setTotalCpuPowerInMhz(totalCpu);
+        cluster.setTotalMemoryInBytes(totalMemory);
+        return cluster;
+    }
+
+    private HostProfile selectHostProfile(Random random) {
+        double totalWeight = 0;
+        for (HostProfile hostProfile : hostProfiles) {
+            totalWeight += hostProfile.getWeight();
+        }
+        double selectedWeight = random.nextDouble() * totalWeight;
+        for (HostProfile hostProfile : hostProfiles) {
+            selectedWeight -= hostProfile.getWeight();
+            if (selectedWeight < 0) {
+                return hostProfile;
+            }
+        }
+        return hostProfiles.get(hostProfiles.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("seed [%d], [%d] clusters with [%d] to [%d] hosts, %s host profiles %s", seed, numberOfClusters, minimumHostsPerCluster,
+                maximumHostsPerCluster, homogeneousClusters ? "cluster" : "host", hostProfiles);
+    }
+}
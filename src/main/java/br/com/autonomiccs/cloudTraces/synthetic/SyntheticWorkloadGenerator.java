@@ -0,0 +1,182 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.synthetic;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * It writes cloud traces files (in the format of {@link br.com.autonomiccs.cloudTraces.main.GoogleTracesToCloudTracesParser}) with any number of VMs that follow a
+ * {@link WorkloadModel}: VMs arrive as a Poisson process (whose rate can be scaled), their lifetimes are drawn from the lifetimes of the model, their offerings from
+ * the offering mix, and their usage follows the AR(1) processes of their offering.
+ * <p>
+ * Lines are written in time order while the VMs are generated, so only the running VMs are kept in memory, whatever the size of the file.
+ */
+public class SyntheticWorkloadGenerator {
+
+    private WorkloadModel workloadModel;
+    private Random random;
+    private double arrivalRateFactor;
+    private long totalNumberOfVirtualMachines;
+
+    public SyntheticWorkloadGenerator(WorkloadModel workloadModel, long seed, double arrivalRateFactor) {
+        this.workloadModel = workloadModel;
+        this.random = new Random(seed);
+        this.arrivalRateFactor = arrivalRateFactor;
+        for (OfferingUsageModel offeringUsageModel : workloadModel.getOfferingUsageModels()) {
+            totalNumberOfVirtualMachines += offeringUsageModel.getNumberOfVirtualMachines();
+        }
+    }
+
+    /**
+     * It writes a traces file with the given number of VMs; it returns the number of lines written.
+     */
+    public long generate(String cloudTracesFile, int numberOfVirtualMachines) {
+        int sampleInterval = workloadModel.getSampleIntervalInTimeUnits();
+        double arrivalsPerSampleInterval = workloadModel.getArrivalsPerTimeUnit() * sampleInterval * arrivalRateFactor;
+
+        List<SyntheticVirtualMachine> runningVirtualMachines = new ArrayList<>();
+        int createdVirtualMachines = 0;
+        long lines = 0;
+        try (Formatter formatter = new Formatter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(cloudTracesFile))), Locale.US)) {
+            formatter.format(
+                    "#Time, vmName, deployTime, remove time, service offering name, service offering number of cores, total allocated cpu, allocated memory, used cpu, used memory%n");
+            for (int time = workloadModel.getFirstTime(); createdVirtualMachines < numberOfVirtualMachines || !runningVirtualMachines.isEmpty(); time += sampleInterval) {
+                int arrivals = Math.min(numberOfVirtualMachines - createdVirtualMachines, nextPoisson(arrivalsPerSampleInterval));
+                for (int i = 0; i < arrivals; i++) {
+                    createdVirtualMachines++;
+                    runningVirtualMachines.add(createVirtualMachine("VM-" + createdVirtualMachines, time));
+                }
+                int stillRunning = 0;
+                for (SyntheticVirtualMachine virtualMachine : runningVirtualMachines) {
+                    writeSample(formatter, virtualMachine, time);
+                    lines++;
+                    virtualMachine.nextSample(random);
+                    if (time + sampleInterval <= virtualMachine.destroyTime) {
+                        runningVirtualMachines.set(stillRunning++, virtualMachine);
+                    }
+                }
+                runningVirtualMachines.subList(stillRunning, runningVirtualMachines.size()).clear();
+                if (formatter.ioException() != null) {
+                    throw formatter.ioException();
+                }
+            }
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        return lines;
+    }
+
+    private void writeSample(Formatter formatter, SyntheticVirtualMachine virtualMachine, int time) {
+        OfferingUsageModel offering = virtualMachine.offering;
+        formatter.format("%d, %s, %d, %d, %s, %d, %d, %d, %.10f, %.10f%n", time, virtualMachine.vmId, virtualMachine.deployTime, virtualMachine.destroyTime,
+                offering.getName(), offering.getNumberOfCores(), offering.getTotalCpuInMhz(), offering.getMemoryInMegaByte(),
+                virtualMachine.cpuUtilization * offering.getTotalCpuInMhz(), virtualMachine.memoryUtilization * offering.getMemoryInMegaByte());
+    }
+
+    private SyntheticVirtualMachine createVirtualMachine(String vmId, int time) {
+        int[] lifetimes = workloadModel.getLifetimes();
+        int lifetime = lifetimes[random.nextInt(lifetimes.length)];
+        return new SyntheticVirtualMachine(vmId, time, time + lifetime, selectOffering(), random);
+    }
+
+    private OfferingUsageModel selectOffering() {
+        long selected = (long)(random.nextDouble() * totalNumberOfVirtualMachines);
+        for (OfferingUsageModel offeringUsageModel : workloadModel.getOfferingUsageModels()) {
+            selected -= offeringUsageModel.getNumberOfVirtualMachines();
+            if (selected < 0) {
+                return offeringUsageModel;
+            }
+        }
+        return workloadModel.getOfferingUsageModels().get(workloadModel.getOfferingUsageModels().size() - 1);
+    }
+
+    /**
+     * Knuth's method for small means; for large means the normal approximation is used (Knuth's method underflows).
+     */
+    private int nextPoisson(double mean) {
+        if (mean > 30) {
+            return Math.max(0, (int)Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int arrivals = 0;
+        while (product > limit) {
+            arrivals++;
+            product *= random.nextDouble();
+        }
+        return arrivals;
+    }
+
+    /**
+     * A VM being generated, with the current values of its utilization processes.
+     */
+    private static class SyntheticVirtualMachine {
+
+        private String vmId;
+        private int deployTime;
+        private int destroyTime;
+        private OfferingUsageModel offering;
+        private double cpuUtilization;
+        private double memoryUtilization;
+
+        private SyntheticVirtualMachine(String vmId, int deployTime, int destroyTime, OfferingUsageModel offering, Random random) {
+            this.vmId = vmId;
+            this.deployTime = deployTime;
+            this.destroyTime = destroyTime;
+            this.offering = offering;
+            this.cpuUtilization = firstSample(offering.getCpuUtilization(), random);
+            this.memoryUtilization = firstSample(offering.getMemoryUtilization(), random);
+        }
+
+        private static double firstSample(OfferingUsageModel.AutoregressiveEstimator estimator, Random random) {
+            return clampUtilization(estimator.getMean() + estimator.getStandardDeviation() * random.nextGaussian());
+        }
+
+        /**
+         * The noise of the AR(1) process has variance std^2 * (1 - phi^2), so the process keeps the fitted standard deviation.
+         */
+        private static double nextSample(OfferingUsageModel.AutoregressiveEstimator estimator, double value, Random random) {
+            double phi = estimator.getAutocorrelation();
+            double noise = estimator.getStandardDeviation() * Math.sqrt(1 - phi * phi) * random.nextGaussian();
+            return clampUtilization(estimator.getMean() + phi * (value - estimator.getMean()) + noise);
+        }
+
+        private void nextSample(Random random) {
+            cpuUtilization = nextSample(offering.getCpuUtilization(), cpuUtilization, random);
+            memoryUtilization = nextSample(offering.getMemoryUtilization(), memoryUtilization, random);
+        }
+
+        private static double clampUtilization(double utilization) {
+            return Math.max(0, Math.min(1, utilization));
+        }
+    }
+}
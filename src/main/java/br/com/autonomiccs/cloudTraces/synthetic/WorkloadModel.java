@@ -0,0 +1,213 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.synthetic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+import br.com.autonomiccs.cloudTraces.traces.CloudVmTraceRecord;
+import br.com.autonomiccs.cloudTraces.traces.CloudVmTracesScanner;
+
+/**
+ * The statistics of a cloud traces file that the {@link SyntheticWorkloadGenerator} reproduces: the arrival rate of VMs, the distribution of their lifetimes, the mix
+ * of service offerings and the usage model of each offering (see {@link OfferingUsageModel}).
+ * <p>
+ * The model is fitted in a single pass over the file, which must be sorted by time (as the files written by
+ * {@link br.com.autonomiccs.cloudTraces.main.GoogleTracesToCloudTracesParser}); only the VMs that are running at the time of the line being read are kept in memory,
+ * and lifetimes are kept in a fixed size reservoir sample.
+ */
+public class WorkloadModel {
+
+    private static final int LIFETIME_RESERVOIR_SIZE = 10000;
+
+    private int firstTime;
+    private int sampleIntervalInTimeUnits;
+    private double arrivalsPerTimeUnit;
+    private int[] lifetimes;
+    private List<OfferingUsageModel> offeringUsageModels;
+
+    private WorkloadModel(int firstTime, int sampleIntervalInTimeUnits, double arrivalsPerTimeUnit, int[] lifetimes, List<OfferingUsageModel> offeringUsageModels) {
+        this.firstTime = firstTime;
+        this.sampleIntervalInTimeUnits = sampleIntervalInTimeUnits;
+        this.arrivalsPerTimeUnit = arrivalsPerTimeUnit;
+        this.lifetimes = lifetimes;
+        this.offeringUsageModels = offeringUsageModels;
+    }
+
+    public static WorkloadModel fit(String cloudTracesFile, long seed) {
+        Random random = new Random(seed);
+        Map<String, OfferingUsageModel> offeringUsageModelsByName = new LinkedHashMap<>();
+        Map<Long, RunningVirtualMachine> runningVirtualMachines = new HashMap<>();
+        PriorityQueue<RunningVirtualMachine> runningVirtualMachinesByDestroyTime = new PriorityQueue<>();
+        Map<Integer, int[]> numberOfSampleIntervals = new HashMap<>();
+
+        int[] lifetimes = new int[LIFETIME_RESERVOIR_SIZE];
+        long numberOfVirtualMachines = 0;
+        int firstDeployTime = Integer.MAX_VALUE;
+        int lastDeployTime = Integer.MIN_VALUE;
+
+        CloudVmTraceRecord record = new CloudVmTraceRecord();
+        try (CloudVmTracesScanner scanner = new CloudVmTracesScanner(cloudTracesFile)) {
+            while (scanner.next(record)) {
+                while (!runningVirtualMachinesByDestroyTime.isEmpty() && runningVirtualMachinesByDestroyTime.peek().destroyTime < record.getTime()) {
+                    runningVirtualMachines.remove(runningVirtualMachinesByDestroyTime.poll().vmKey);
+                }
+                RunningVirtualMachine runningVirtualMachine = runningVirtualMachines.get(record.getVmKey());
+                if (runningVirtualMachine == null) {
+                    String offeringName = record.getServiceOfferingName();
+                    OfferingUsageModel offeringUsageModel = offeringUsageModelsByName.get(offeringName);
+                    if (offeringUsageModel == null) {
+                        offeringUsageModel = new OfferingUsageModel(offeringName, record.getNumberOfCores(), record.getTotalCpuInMhz(), record.getMemoryInMegaByte());
+                        offeringUsageModelsByName.put(offeringName, offeringUsageModel);
+                    }
+                    offeringUsageModel.addVirtualMachine();
+                    runningVirtualMachine = new RunningVirtualMachine(record.getVmKey(), record.getDestroyTime(), offeringUsageModel);
+                    runningVirtualMachines.put(record.getVmKey(), runningVirtualMachine);
+                    runningVirtualMachinesByDestroyTime.add(runningVirtualMachine);
+
+                    addToReservoir(lifetimes, numberOfVirtualMachines++, record.getDestroyTime() - record.getDeployTime(), random);
+                    firstDeployTime = Math.min(firstDeployTime, record.getDeployTime());
+                    lastDeployTime = Math.max(lastDeployTime, record.getDeployTime());
+                }
+                runningVirtualMachine.addSample(record, numberOfSampleIntervals);
+            }
+        }
+        if (numberOfVirtualMachines == 0) {
+            throw new GoogleTracesToCloudTracesException("There are no VMs in the cloud traces file: " + cloudTracesFile);
+        }
+        int sampleIntervalInTimeUnits = getMostFrequentSampleInterval(numberOfSampleIntervals);
+        double arrivalsPerTimeUnit = numberOfVirtualMachines / (double)(lastDeployTime - firstDeployTime + sampleIntervalInTimeUnits);
+        int[] lifetimesSample = new int[(int)Math.min(numberOfVirtualMachines, LIFETIME_RESERVOIR_SIZE)];
+        System.arraycopy(lifetimes, 0, lifetimesSample, 0, lifetimesSample.length);
+        return new WorkloadModel(firstDeployTime, sampleIntervalInTimeUnits, arrivalsPerTimeUnit, lifetimesSample, new ArrayList<>(offeringUsageModelsByName.values()));
+    }
+
+    private static void addToReservoir(int[] reservoir, long index, int value, Random random) {
+        if (index < reservoir.length) {
+            reservoir[(int)index] = value;
+            return;
+        }
+        long position = (long)(random.nextDouble() * (index + 1));
+        if (position < reservoir.length) {
+            reservoir[(int)position] = value;
+        }
+    }
+
+    private static int getMostFrequentSampleInterval(Map<Integer, int[]> numberOfSampleIntervals) {
+        int sampleInterval = 1;
+        int highestFrequency = 0;
+        for (Map.Entry<Integer, int[]> entry : numberOfSampleIntervals.entrySet()) {
+            if (entry.getValue()[0] > highestFrequency || (entry.getValue()[0] == highestFrequency && entry.getKey() < sampleInterval)) {
+                sampleInterval = entry.getKey();
+                highestFrequency = entry.getValue()[0];
+            }
+        }
+        return sampleInterval;
+    }
+
+    public int getFirstTime() {
+        return firstTime;
+    }
+
+    public int getSampleIntervalInTimeUnits() {
+        return sampleIntervalInTimeUnits;
+    }
+
+    public double getArrivalsPerTimeUnit() {
+        return arrivalsPerTimeUnit;
+    }
+
+    /**
+     * A sample of the lifetimes (destroy time - deploy time) of the VMs.
+     */
+    public int[] getLifetimes() {
+        return lifetimes;
+    }
+
+    public List<OfferingUsageModel> getOfferingUsageModels() {
+        return offeringUsageModels;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder offerings = new StringBuilder();
+        for (OfferingUsageModel offeringUsageModel : offeringUsageModels) {
+            offerings.append("\n\t").append(offeringUsageModel);
+        }
+        return String.format("first time [%d], sample interval [%d], arrivals per time unit [%.6f], [%d] sampled lifetimes, offerings:%s", firstTime,
+                sampleIntervalInTimeUnits, arrivalsPerTimeUnit, lifetimes.length, offerings);
+    }
+
+    /**
+     * A VM of the traces being fitted, with its last sample.
+     */
+    private static class RunningVirtualMachine implements Comparable<RunningVirtualMachine> {
+
+        private long vmKey;
+        private int destroyTime;
+        private OfferingUsageModel offeringUsageModel;
+
+        private boolean hasSample;
+        private int lastTime;
+        private double lastCpuUtilization;
+        private double lastMemoryUtilization;
+
+        private RunningVirtualMachine(long vmKey, int destroyTime, OfferingUsageModel offeringUsageModel) {
+            this.vmKey = vmKey;
+            this.destroyTime = destroyTime;
+            this.offeringUsageModel = offeringUsageModel;
+        }
+
+        private void addSample(CloudVmTraceRecord record, Map<Integer, int[]> numberOfSampleIntervals) {
+            double cpuUtilization = record.getTotalCpuInMhz() > 0 ? record.getCpuUsage() / record.getTotalCpuInMhz() : 0;
+            double memoryUtilization = record.getMemoryInMegaByte() > 0 ? record.getMemoryUsage() / record.getMemoryInMegaByte() : 0;
+            offeringUsageModel.getCpuUtilization().addSample(cpuUtilization);
+            offeringUsageModel.getMemoryUtilization().addSample(memoryUtilization);
+            if (hasSample) {
+                offeringUsageModel.getCpuUtilization().addConsecutiveSamples(lastCpuUtilization, cpuUtilization);
+                offeringUsageModel.getMemoryUtilization().addConsecutiveSamples(lastMemoryUtilization, memoryUtilization);
+                int sampleInterval = record.getTime() - lastTime;
+                int[] frequency = numberOfSampleIntervals.get(sampleInterval);
+                if (frequency == null) {
+                    frequency = new int[1];
+                    numberOfSampleIntervals.put(sampleInterval, frequency);
+                }
+                frequency[0]++;
+            }
+            hasSample = true;
+            lastTime = record.getTime();
+            lastCpuUtilization = cpuUtilization;
+            lastMemoryUtilization = memoryUtilization;
+        }
+
+        @Override
+        public int compareTo(RunningVirtualMachine other) {
+            return Integer.compare(destroyTime, other.destroyTime);
+        }
+    }
+}
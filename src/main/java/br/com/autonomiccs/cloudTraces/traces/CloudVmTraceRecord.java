@@ -0,0 +1,175 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.traces;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One line of a cloud VM traces file (see {@link CloudVmTracesScanner}). Records are reused by the scanner, and textual fields are only converted to {@link String}
+ * when requested, so scanning a file does not create objects per line.
+ */
+public class CloudVmTraceRecord {
+
+    private static final byte[] VM_ID_PREFIX = "VM-".getBytes(StandardCharsets.US_ASCII);
+
+    private ByteBuffer buffer;
+    private long lineNumber;
+    private long lineOffset;
+
+    private int time;
+    private long vmNumber;
+    private int vmNumberStart;
+    private int vmNumberEnd;
+    private int deployTime;
+    private int destroyTime;
+    private int serviceOfferingNameStart;
+    private int serviceOfferingNameEnd;
+    private int numberOfCores;
+    private int totalCpuInMhz;
+    private long memoryInMegaByte;
+    private double cpuUsage;
+    private double memoryUsage;
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Position of the beginning of the line in the file; the line can be read again with {@link CloudVmTracesScanner#readAt(long, CloudVmTraceRecord)}.
+     */
+    public long getLineOffset() {
+        return lineOffset;
+    }
+
+    public int getTime() {
+        return time;
+    }
+
+    /**
+     * It returns a key that identifies the VM of the record (two records have the same key only if their VM ids are equal); it is computed from the digits of the
+     * 'VM-<number>' id.
+     */
+    public long getVmKey() {
+        return (vmNumber << 5) | (vmNumberEnd - vmNumberStart);
+    }
+
+    /**
+     * It creates the VM id; it should only be called when the VM is seen for the first time.
+     */
+    public String getVmId() {
+        byte[] vmId = new byte[VM_ID_PREFIX.length + vmNumberEnd - vmNumberStart];
+        System.arraycopy(VM_ID_PREFIX, 0, vmId, 0, VM_ID_PREFIX.length);
+        for (int i = vmNumberStart; i < vmNumberEnd; i++) {
+            vmId[VM_ID_PREFIX.length + i - vmNumberStart] = buffer.get(i);
+        }
+        return new String(vmId, StandardCharsets.US_ASCII);
+    }
+
+    public int getDeployTime() {
+        return deployTime;
+    }
+
+    public int getDestroyTime() {
+        return destroyTime;
+    }
+
+    /**
+     * It creates the service offering name; it should only be called when the VM is seen for the first time.
+     */
+    public String getServiceOfferingName() {
+        byte[] name = new byte[serviceOfferingNameEnd - serviceOfferingNameStart];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = buffer.get(serviceOfferingNameStart + i);
+        }
+        return new String(name, StandardCharsets.US_ASCII);
+    }
+
+    public int getNumberOfCores() {
+        return numberOfCores;
+    }
+
+    public int getTotalCpuInMhz() {
+        return totalCpuInMhz;
+    }
+
+    public long getMemoryInMegaByte() {
+        return memoryInMegaByte;
+    }
+
+    public double getCpuUsage() {
+        return cpuUsage;
+    }
+
+    public double getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    void setLine(ByteBuffer buffer, long lineNumber, long lineOffset) {
+        this.buffer = buffer;
+        this.lineNumber = lineNumber;
+        this.lineOffset = lineOffset;
+    }
+
+    void setTime(int time) {
+        this.time = time;
+    }
+
+    void setVmNumber(long vmNumber, int vmNumberStart, int vmNumberEnd) {
+        this.vmNumber = vmNumber;
+        this.vmNumberStart = vmNumberStart;
+        this.vmNumberEnd = vmNumberEnd;
+    }
+
+    void setDeployTime(int deployTime) {
+        this.deployTime = deployTime;
+    }
+
+    void setDestroyTime(int destroyTime) {
+        this.destroyTime = destroyTime;
+    }
+
+    void setServiceOfferingName(int serviceOfferingNameStart, int serviceOfferingNameEnd) {
+        this.serviceOfferingNameStart = serviceOfferingNameStart;
+        this.serviceOfferingNameEnd = serviceOfferingNameEnd;
+    }
+
+    void setNumberOfCores(int numberOfCores) {
+        this.numberOfCores = numberOfCores;
+    }
+
+    void setTotalCpuInMhz(int totalCpuInMhz) {
+        this.totalCpuInMhz = totalCpuInMhz;
+    }
+
+    void setMemoryInMegaByte(long memoryInMegaByte) {
+        this.memoryInMegaByte = memoryInMegaByte;
+    }
+
+    void setCpuUsage(double cpuUsage) {
+        this.cpuUsage = cpuUsage;
+    }
+
+    void setMemoryUsage(double memoryUsage) {
+        this.memoryUsage = memoryUsage;
+    }
+}
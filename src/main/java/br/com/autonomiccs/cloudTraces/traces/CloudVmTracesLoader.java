@@ -0,0 +1,275 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.traces;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.beans.VmServiceOffering;
+import br.com.autonomiccs.cloudTraces.beans.VmUsageSeries;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * It loads the virtual machines (and their usage, see {@link VmUsageSeries}) of a cloud VM traces file. The file is split into chunks aligned to the beginning of lines, which are
+ * scanned in parallel (see {@link CloudVmTracesScanner}) into fragments of VMs; then, fragments are merged by VM in the order of the chunks, so the result is the
+ * same of reading the file sequentially. Instead of loading the usage of the VMs, the file can also be indexed (see {@link VirtualMachineTracesIndex}).
+ */
+public class CloudVmTracesLoader {
+
+    private static final int EXPECTED_NUMBER_OF_VIRTUAL_MACHINES = 1 << 12;
+
+    /**
+     * Files are not split into chunks smaller than this.
+     */
+    private static final long MINIMUM_CHUNK_SIZE_IN_BYTES = 4 << 20;
+
+    /**
+     * Every thread scans a few chunks, which balances the load when some parts of the file are slower to parse.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    public static Collection<VirtualMachine> loadVirtualMachines(String cloudTracesFile) {
+        return loadVirtualMachines(cloudTracesFile, CloudVmTracesScanner.DEFAULT_WINDOW_SIZE_IN_BYTES, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static Collection<VirtualMachine> loadVirtualMachines(String cloudTracesFile, int windowSizeInBytes, int numberOfThreads) {
+        List<VirtualMachine> virtualMachines = mergeFragments(scanFile(cloudTracesFile, windowSizeInBytes, numberOfThreads, true), null);
+        return getVirtualMachinesInPoolOrder(virtualMachines);
+    }
+
+    /**
+     * It creates the VMs of the file, but instead of loading their usage, it keeps the ranges of their lines, so they can be loaded when needed.
+     */
+    public static VirtualMachineTracesIndex indexVirtualMachines(String cloudTracesFile, int windowSizeInBytes, int numberOfThreads) {
+        VirtualMachineTracesIndex virtualMachineTracesIndex = new VirtualMachineTracesIndex(cloudTracesFile, windowSizeInBytes);
+        List<VirtualMachine> virtualMachines = mergeFragments(scanFile(cloudTracesFile, windowSizeInBytes, numberOfThreads, false), virtualMachineTracesIndex);
+        virtualMachineTracesIndex.setVirtualMachines(getVirtualMachinesInPoolOrder(virtualMachines));
+        return virtualMachineTracesIndex;
+    }
+
+    /**
+     * It creates an index of the file without VMs; the VMs are added later, with the ranges of lines found by the index of another process (see
+     * {@link VirtualMachineTracesIndex#readVirtualMachine(java.io.DataInput)}), so the file is not scanned.
+     */
+    public static VirtualMachineTracesIndex createEmptyIndex(String cloudTracesFile, int windowSizeInBytes) {
+        VirtualMachineTracesIndex virtualMachineTracesIndex = new VirtualMachineTracesIndex(cloudTracesFile, windowSizeInBytes);
+        virtualMachineTracesIndex.setVirtualMachines(new ArrayList<VirtualMachine>());
+        return virtualMachineTracesIndex;
+    }
+
+    private static List<List<VirtualMachineTraceFragment>> scanFile(String cloudTracesFile, int windowSizeInBytes, int numberOfThreads, boolean keepSamples) {
+        if (numberOfThreads < 1) {
+            throw new GoogleTracesToCloudTracesException(String.format("The number of threads [%d] to load the cloud traces must be positive.", numberOfThreads));
+        }
+        long[] chunksLimits = splitInLineAlignedChunks(cloudTracesFile, numberOfThreads == 1 ? 1 : numberOfThreads * CHUNKS_PER_THREAD);
+        return scanChunks(cloudTracesFile, chunksLimits, windowSizeInBytes, numberOfThreads, keepSamples);
+    }
+
+    /**
+     * It returns the VMs in the order they first appear in the file; the usage samples of each fragment are loaded into its VM or, when an index is given, added to
+     * the index.
+     */
+    private static List<VirtualMachine> mergeFragments(List<List<VirtualMachineTraceFragment>> fragmentsByChunk, VirtualMachineTracesIndex virtualMachineTracesIndex) {
+        List<VirtualMachine> virtualMachines = new ArrayList<>(EXPECTED_NUMBER_OF_VIRTUAL_MACHINES);
+        VirtualMachineKeyIndex virtualMachinesPositions = new VirtualMachineKeyIndex(EXPECTED_NUMBER_OF_VIRTUAL_MACHINES);
+        for (List<VirtualMachineTraceFragment> chunkFragments : fragmentsByChunk) {
+            for (VirtualMachineTraceFragment fragment : chunkFragments) {
+                int position = virtualMachinesPositions.get(fragment.getVmKey());
+                VirtualMachine virtualMachine;
+                if (position < 0) {
+                    virtualMachine = createVirtualMachine(fragment);
+                    virtualMachinesPositions.put(fragment.getVmKey(), virtualMachines.size());
+                    virtualMachines.add(virtualMachine);
+                } else {
+                    virtualMachine = virtualMachines.get(position);
+                }
+                if (virtualMachineTracesIndex == null) {
+                    loadUsageSamples(fragment, virtualMachine);
+                } else {
+                    virtualMachineTracesIndex.addTaskExecutions(virtualMachine, fragment);
+                }
+            }
+        }
+        if (virtualMachineTracesIndex == null) {
+            for (VirtualMachine virtualMachine : virtualMachines) {
+                virtualMachine.getUsageSeries().trimToSize();
+            }
+        }
+        return virtualMachines;
+    }
+
+    /**
+     * It returns the limits of the chunks: chunk 'i' goes from position 'i' (inclusive) to 'i + 1' (exclusive). Every limit is the beginning of a line.
+     */
+    static long[] splitInLineAlignedChunks(String cloudTracesFile, int maximumNumberOfChunks) {
+        try (RandomAccessFile file = new RandomAccessFile(cloudTracesFile, "r")) {
+            long fileSize = file.length();
+            int numberOfChunks = (int)Math.max(1, Math.min(maximumNumberOfChunks, fileSize / MINIMUM_CHUNK_SIZE_IN_BYTES));
+            List<Long> limits = new ArrayList<>();
+            limits.add(0l);
+            for (int i = 1; i < numberOfChunks; i++) {
+                long limit = getBeginningOfNextLine(file, fileSize * i / numberOfChunks);
+                if (limit > limits.get(limits.size() - 1) && limit < fileSize) {
+                    limits.add(limit);
+                }
+            }
+            limits.add(fileSize);
+
+            long[] chunksLimits = new long[limits.size()];
+            for (int i = 0; i < chunksLimits.length; i++) {
+                chunksLimits[i] = limits.get(i);
+            }
+            return chunksLimits;
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private static long getBeginningOfNextLine(RandomAccessFile file, long position) throws IOException {
+        file.seek(position);
+        byte[] buffer = new byte[8192];
+        long bufferStart = position;
+        int read;
+        while ((read = file.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    return bufferStart + i + 1;
+                }
+            }
+            bufferStart += read;
+        }
+        return bufferStart;
+    }
+
+    private static List<List<VirtualMachineTraceFragment>> scanChunks(final String cloudTracesFile, long[] chunksLimits, final int windowSizeInBytes, int numberOfThreads,
+            final boolean keepSamples) {
+        int numberOfChunks = chunksLimits.length - 1;
+        List<List<VirtualMachineTraceFragment>> fragmentsByChunk = new ArrayList<>(numberOfChunks);
+        if (numberOfChunks == 1) {
+            fragmentsByChunk.add(scanChunk(cloudTracesFile, chunksLimits[0], chunksLimits[1], windowSizeInBytes, keepSamples));
+            return fragmentsByChunk;
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(numberOfThreads, numberOfChunks));
+        try {
+            List<Future<List<VirtualMachineTraceFragment>>> futures = new ArrayList<>(numberOfChunks);
+            for (int i = 0; i < numberOfChunks; i++) {
+                final long chunkStart = chunksLimits[i];
+                final long chunkEnd = chunksLimits[i + 1];
+                futures.add(executorService.submit(new Callable<List<VirtualMachineTraceFragment>>() {
+                    @Override
+                    public List<VirtualMachineTraceFragment> call() {
+                        return scanChunk(cloudTracesFile, chunkStart, chunkEnd, windowSizeInBytes, keepSamples);
+                    }
+                }));
+            }
+            for (Future<List<VirtualMachineTraceFragment>> future : futures) {
+                fragmentsByChunk.add(future.get());
+            }
+            return fragmentsByChunk;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GoogleTracesToCloudTracesException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GoogleTracesToCloudTracesException) {
+                throw (GoogleTracesToCloudTracesException)e.getCause();
+            }
+            throw new GoogleTracesToCloudTracesException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * It returns the fragments of the VMs found in the chunk, in the order the VMs first appear in it.
+     */
+    private static List<VirtualMachineTraceFragment> scanChunk(String cloudTracesFile, long chunkStart, long chunkEnd, int windowSizeInBytes, boolean keepSamples) {
+        List<VirtualMachineTraceFragment> fragments = new ArrayList<>();
+        VirtualMachineKeyIndex fragmentsPositions = new VirtualMachineKeyIndex(EXPECTED_NUMBER_OF_VIRTUAL_MACHINES);
+        CloudVmTraceRecord record = new CloudVmTraceRecord();
+        try (CloudVmTracesScanner scanner = new CloudVmTracesScanner(cloudTracesFile, chunkStart, chunkEnd, windowSizeInBytes)) {
+            while (scanner.next(record)) {
+                int position = fragmentsPositions.get(record.getVmKey());
+                VirtualMachineTraceFragment fragment;
+                if (position < 0) {
+                    fragment = new VirtualMachineTraceFragment(record, keepSamples);
+                    fragmentsPositions.put(record.getVmKey(), fragments.size());
+                    fragments.add(fragment);
+                } else {
+                    fragment = fragments.get(position);
+                }
+                fragment.addSample(record);
+            }
+        }
+        return fragments;
+    }
+
+    /**
+     * The simulation deploys VMs in the order they are returned here; we keep the order of a hash map of VMs by id (filled in the order the VMs appear in the file), as
+     * it was the order used by the simulator since the first versions, so simulations produce the same results.
+     */
+    static Collection<VirtualMachine> getVirtualMachinesInPoolOrder(List<VirtualMachine> virtualMachinesInFileOrder) {
+        Map<String, VirtualMachine> poolOfVirtualMachines = new HashMap<>();
+        for (VirtualMachine virtualMachine : virtualMachinesInFileOrder) {
+            poolOfVirtualMachines.put(virtualMachine.getVmId(), virtualMachine);
+        }
+        return poolOfVirtualMachines.values();
+    }
+
+    private static void loadUsageSamples(VirtualMachineTraceFragment fragment, VirtualMachine virtualMachine) {
+        VmUsageSeries usageSeries = virtualMachine.getUsageSeries();
+        for (int sample = 0; sample < fragment.getNumberOfSamples(); sample++) {
+            usageSeries.add(fragment.getTime(sample), fragment.getCpuUsage(sample), fragment.getMemoryUsage(sample));
+        }
+    }
+
+    private static VirtualMachine createVirtualMachine(VirtualMachineTraceFragment fragment) {
+        VirtualMachine virtualMachine = new VirtualMachine();
+        virtualMachine.setVmId(fragment.getVmId());
+        virtualMachine.setDeployTime(fragment.getDeployTime());
+        virtualMachine.setDestroyTime(fragment.getDestroyTime());
+        virtualMachine.setUsageSeries(new VmUsageSeries());
+        virtualMachine.setVmServiceOffering(createVmServiceOffering(fragment));
+        return virtualMachine;
+    }
+
+    private static VmServiceOffering createVmServiceOffering(VirtualMachineTraceFragment fragment) {
+        VmServiceOffering vmServiceOffering = new VmServiceOffering();
+        vmServiceOffering.setName(fragment.getServiceOfferingName());
+        int numberOfCores = fragment.getNumberOfCores();
+        vmServiceOffering.setNumberOfCores(numberOfCores);
+        vmServiceOffering.setCoreSpeed(fragment.getTotalCpuInMhz() / numberOfCores);
+        vmServiceOffering.setMemoryInMegaByte(fragment.getMemoryInMegaByte());
+        return vmServiceOffering;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.traces;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * It scans cloud VM traces files (the ones created by {@link br.com.autonomiccs.cloudTraces.main.GoogleTracesToCloudTracesParser}) directly from memory-mapped
+ * windows of the file, parsing the fields of every line byte by byte, without regular expressions or intermediate {@link String}s. Lines have the format:
+ *
+ * <pre>
+ * time, VM-id, deploy time, destroy time, service offering name, number of cores, total cpu, memory, cpu usage, memory usage
+ * </pre>
+ *
+ * Empty lines and lines starting with '#' are ignored. Windows are aligned to the beginning of lines, so files of any size can be scanned with a bounded amount
+ * of mapped memory; a single line, however, must fit in a window.
+ */
+public class CloudVmTracesScanner implements Closeable {
+
+    public static final int DEFAULT_WINDOW_SIZE_IN_BYTES = 64 << 20;
+
+    /**
+     * VM numbers with more digits would not fit in the VM key (see {@link CloudVmTraceRecord#getVmKey()}).
+     */
+    private static final int MAXIMUM_VM_NUMBER_DIGITS = 17;
+
+    /**
+     * Powers of ten that are exactly represented as doubles.
+     */
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    private static final long MAXIMUM_EXACT_DOUBLE_MANTISSA = 1l << 53;
+
+    private RandomAccessFile file;
+    private FileChannel fileChannel;
+    private long fileSize;
+    private int windowSize;
+
+    private long windowStart;
+    private ByteBuffer window;
+    private int windowLimit;
+    private int position;
+
+    private long lineNumber;
+    private int lineStart;
+    private int lineEnd;
+
+    /**
+     * End (exclusive) of the last field parsed.
+     */
+    private int fieldEnd;
+
+    /**
+     * It scans part of a file: from 'start' (that must be the beginning of a line) until 'end' (exclusive, it must be the end of the file or the position right
+     * after a line break).
+     */
+    public CloudVmTracesScanner(String cloudTracesFile, long start, long end, int windowSize) {
+        try {
+            file = new RandomAccessFile(cloudTracesFile, "r");
+            fileChannel = file.getChannel();
+            fileSize = Math.min(end, fileChannel.size());
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+        this.windowSize = windowSize;
+        mapWindow(start);
+    }
+
+    public CloudVmTracesScanner(String cloudTracesFile) {
+        this(cloudTracesFile, 0, Long.MAX_VALUE, DEFAULT_WINDOW_SIZE_IN_BYTES);
+    }
+
+    /**
+     * It reads the next VM record into the given (reusable) record. It returns false when there are no more records.
+     */
+    public boolean next(CloudVmTraceRecord record) {
+        while (true) {
+            int lineBreak = findLineBreak();
+            if (lineBreak < 0) {
+                if (windowStart + position >= fileSize) {
+                    return false;
+                }
+                if (windowStart + windowLimit < fileSize) {
+                    if (position == 0) {
+                        throw new GoogleTracesToCloudTracesException(String.format("Line [%d] is bigger than the scanner window [%d bytes].", lineNumber + 1, windowSize));
+                    }
+                    mapWindow(windowStart + position);
+                    continue;
+                }
+                lineBreak = windowLimit;
+            }
+            lineNumber++;
+            lineStart = position;
+            position = Math.min(lineBreak + 1, windowLimit);
+            lineEnd = lineBreak;
+            if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (isEmptyOrComment()) {
+                continue;
+            }
+            parseRecord(record);
+            return true;
+        }
+    }
+
+    /**
+     * It reads the record of the line that starts at the given position of the file (see {@link CloudVmTraceRecord#getLineOffset()}). The window is only moved when
+     * the line is not in it, so reading lines in the order of the file maps each part of the file once.
+     */
+    public boolean readAt(long lineOffset, CloudVmTraceRecord record) {
+        if (lineOffset < windowStart || lineOffset >= windowStart + windowLimit) {
+            mapWindow(lineOffset);
+        } else {
+            position = (int)(lineOffset - windowStart);
+        }
+        return next(record);
+    }
+
+    private void mapWindow(long start) {
+        try {
+            windowStart = start;
+            long size = Math.max(0, Math.min(windowSize, fileSize - start));
+            window = fileChannel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            windowLimit = (int)size;
+            position = 0;
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+
+    private int findLineBreak() {
+        for (int i = position; i < windowLimit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isEmptyOrComment() {
+        if (lineStart < lineEnd && window.get(lineStart) == '#') {
+            return true;
+        }
+        for (int i = lineStart; i < lineEnd; i++) {
+            if ((window.get(i) & 0xff) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void parseRecord(CloudVmTraceRecord record) {
+        record.setLine(window, lineNumber, windowStart + lineStart);
+        int cursor = lineStart;
+
+        record.setTime((int)parseLong(cursor, Integer.MAX_VALUE));
+        cursor = skipSeparator(fieldEnd);
+
+        cursor = expectVmIdPrefix(cursor);
+        long vmNumber = parseLong(cursor, Long.MAX_VALUE);
+        if (fieldEnd - cursor > MAXIMUM_VM_NUMBER_DIGITS) {
+            throw invalidLine();
+        }
+        record.setVmNumber(vmNumber, cursor, fieldEnd);
+        cursor = skipSeparator(fieldEnd);
+
+        record.setDeployTime((int)parseLong(cursor, Integer.MAX_VALUE));
+        cursor = skipSeparator(fieldEnd);
+        record.setDestroyTime((int)parseLong(cursor, Integer.MAX_VALUE));
+        cursor = skipSeparator(fieldEnd);
+
+        int nameEnd = cursor;
+        while (nameEnd < lineEnd && isWordCharacter(window.get(nameEnd))) {
+            nameEnd++;
+        }
+        if (nameEnd == cursor) {
+            throw invalidLine();
+        }
+        record.setServiceOfferingName(cursor, nameEnd);
+        cursor = skipSeparator(nameEnd);
+
+        record.setNumberOfCores((int)parseLong(cursor, Integer.MAX_VALUE));
+        cursor = skipSeparator(fieldEnd);
+        record.setTotalCpuInMhz((int)parseLong(cursor, Integer.MAX_VALUE));
+        cursor = skipSeparator(fieldEnd);
+        record.setMemoryInMegaByte(parseLong(cursor, Long.MAX_VALUE));
+        cursor = skipSeparator(fieldEnd);
+        record.setCpuUsage(parseDouble(cursor));
+        cursor = skipSeparator(fieldEnd);
+        record.setMemoryUsage(parseDouble(cursor));
+        if (fieldEnd != lineEnd) {
+            throw invalidLine();
+        }
+    }
+
+    private long parseLong(int start, long maximumValue) {
+        long value = 0;
+        int i = start;
+        while (i < lineEnd && isDigit(window.get(i))) {
+            int digit = window.get(i) - '0';
+            if (value > (maximumValue - digit) / 10) {
+                throw invalidLine();
+            }
+            value = value * 10 + digit;
+            i++;
+        }
+        if (i == start) {
+            throw invalidLine();
+        }
+        fieldEnd = i;
+        return value;
+    }
+
+    /**
+     * Numbers with the format 'digits[.digits]'. When the digits fit in a double mantissa and the number of decimal places is small, the value is calculated with a
+     * single division, which is correctly rounded (therefore, it is equal to the one of {@link Double#parseDouble(String)}); otherwise, it falls back to
+     * {@link Double#parseDouble(String)}.
+     */
+    private double parseDouble(int start) {
+        long mantissa = 0;
+        int numberOfDecimalPlaces = 0;
+        boolean mantissaOverflow = false;
+        boolean decimalPoint = false;
+        int i = start;
+        for (; i < lineEnd; i++) {
+            byte b = window.get(i);
+            if (isDigit(b)) {
+                if (mantissa < MAXIMUM_EXACT_DOUBLE_MANTISSA) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (decimalPoint) {
+                        numberOfDecimalPlaces++;
+                    }
+                } else {
+                    mantissaOverflow = true;
+                }
+            } else if (b == '.' && !decimalPoint && i > start && i + 1 < lineEnd && isDigit(window.get(i + 1))) {
+                decimalPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (i == start) {
+            throw invalidLine();
+        }
+        fieldEnd = i;
+        if (mantissaOverflow || mantissa > MAXIMUM_EXACT_DOUBLE_MANTISSA || numberOfDecimalPlaces >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(getText(start, i));
+        }
+        return mantissa / POWERS_OF_TEN[numberOfDecimalPlaces];
+    }
+
+    private int expectVmIdPrefix(int cursor) {
+        if (cursor + 3 > lineEnd || window.get(cursor) != 'V' || window.get(cursor + 1) != 'M' || window.get(cursor + 2) != '-') {
+            throw invalidLine();
+        }
+        return cursor + 3;
+    }
+
+    /**
+     * Fields are separated by a comma followed by one white space character.
+     */
+    private int skipSeparator(int cursor) {
+        if (cursor + 2 > lineEnd || window.get(cursor) != ',' || !isWhiteSpace(window.get(cursor + 1))) {
+            throw invalidLine();
+        }
+        return cursor + 2;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isWordCharacter(byte b) {
+        return isDigit(b) || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || b == '_';
+    }
+
+    private static boolean isWhiteSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    private GoogleTracesToCloudTracesException invalidLine() {
+        return new GoogleTracesToCloudTracesException(String.format("String [%s] (line [%d]) does not meet the expected pattern.", getText(lineStart, lineEnd), lineNumber));
+    }
+
+    private String getText(int start, int end) {
+        byte[] text = new byte[Math.max(0, end - start)];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = window.get(start + i);
+        }
+        return new String(text, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void close() {
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new GoogleTracesToCloudTracesException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.traces;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from VM keys (see {@link CloudVmTraceRecord#getVmKey()}, which are never negative) to positions, without boxing keys or values.
+ */
+class VirtualMachineKeyIndex {
+
+    private static final long EMPTY_KEY = -1;
+
+    private long[] keys;
+    private int[] positions;
+    private int mask;
+    private int size;
+
+    VirtualMachineKeyIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * It returns the position mapped to the key, or -1 if the key is not mapped.
+     */
+    int get(long key) {
+        for (int slot = slot(key);; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return positions[slot];
+            }
+            if (keys[slot] == EMPTY_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    void put(long key, int position) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY_KEY) {
+            size++;
+        }
+        keys[slot] = key;
+        positions[slot] = position;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15l;
+        return (int)(hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        positions = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldPositions = positions;
+        allocate(keys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                put(oldKeys[i], oldPositions[i]);
+            }
+        }
+    }
+}
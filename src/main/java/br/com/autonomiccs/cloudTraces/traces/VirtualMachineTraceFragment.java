@@ -0,0 +1,152 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.traces;
+
+import java.util.Arrays;
+
+/**
+ * The records of one VM found in a chunk of a cloud VM traces file: the VM configuration (taken from its first record in the chunk) and its usage samples in
+ * the order they appear in the file. When the file is indexed (see {@link VirtualMachineTracesIndex}), samples are not kept; only the range of lines of the VM in
+ * the chunk (positions of its first and last lines), the number of samples and the first and last times are.
+ */
+class VirtualMachineTraceFragment {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long vmKey;
+    private String vmId;
+    private int deployTime;
+    private int destroyTime;
+    private String serviceOfferingName;
+    private int numberOfCores;
+    private int totalCpuInMhz;
+    private long memoryInMegaByte;
+
+    private int[] times;
+    private double[] cpuUsages;
+    private double[] memoryUsages;
+    private int numberOfSamples;
+
+    private long firstLineOffset;
+    private long lastLineOffset;
+    private int firstTime = Integer.MAX_VALUE;
+    private int lastTime = Integer.MIN_VALUE;
+
+    VirtualMachineTraceFragment(CloudVmTraceRecord record, boolean keepSamples) {
+        vmKey = record.getVmKey();
+        vmId = record.getVmId();
+        deployTime = record.getDeployTime();
+        destroyTime = record.getDestroyTime();
+        serviceOfferingName = record.getServiceOfferingName();
+        numberOfCores = record.getNumberOfCores();
+        totalCpuInMhz = record.getTotalCpuInMhz();
+        memoryInMegaByte = record.getMemoryInMegaByte();
+        firstLineOffset = record.getLineOffset();
+        if (keepSamples) {
+            times = new int[INITIAL_CAPACITY];
+            cpuUsages = new double[INITIAL_CAPACITY];
+            memoryUsages = new double[INITIAL_CAPACITY];
+        }
+    }
+
+    void addSample(CloudVmTraceRecord record) {
+        if (times != null) {
+            if (numberOfSamples == times.length) {
+                int capacity = times.length * 2;
+                times = Arrays.copyOf(times, capacity);
+                cpuUsages = Arrays.copyOf(cpuUsages, capacity);
+                memoryUsages = Arrays.copyOf(memoryUsages, capacity);
+            }
+            times[numberOfSamples] = record.getTime();
+            cpuUsages[numberOfSamples] = record.getCpuUsage();
+            memoryUsages[numberOfSamples] = record.getMemoryUsage();
+        }
+        lastLineOffset = record.getLineOffset();
+        firstTime = Math.min(firstTime, record.getTime());
+        lastTime = Math.max(lastTime, record.getTime());
+        numberOfSamples++;
+    }
+
+    long getVmKey() {
+        return vmKey;
+    }
+
+    String getVmId() {
+        return vmId;
+    }
+
+    int getDeployTime() {
+        return deployTime;
+    }
+
+    int getDestroyTime() {
+        return destroyTime;
+    }
+
+    String getServiceOfferingName() {
+        return serviceOfferingName;
+    }
+
+    int getNumberOfCores() {
+        return numberOfCores;
+    }
+
+    int getTotalCpuInMhz() {
+        return totalCpuInMhz;
+    }
+
+    long getMemoryInMegaByte() {
+        return memoryInMegaByte;
+    }
+
+    int getNumberOfSamples() {
+        return numberOfSamples;
+    }
+
+    int getTime(int sample) {
+        return times[sample];
+    }
+
+    double getCpuUsage(int sample) {
+        return cpuUsages[sample];
+    }
+
+    double getMemoryUsage(int sample) {
+        return memoryUsages[sample];
+    }
+
+    long getFirstLineOffset() {
+        return firstLineOffset;
+    }
+
+    long getLastLineOffset() {
+        return lastLineOffset;
+    }
+
+    int getFirstTime() {
+        return firstTime;
+    }
+
+    int getLastTime() {
+        return lastTime;
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.traces;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.beans.VmServiceOffering;
+import br.com.autonomiccs.cloudTraces.beans.VmUsageSeries;
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * An index of a cloud VM traces file (see {@link CloudVmTracesLoader#indexVirtualMachines(String, int, int)}): it has the VMs of the file and, for each VM, the
+ * ranges of lines that have its task executions (one range per chunk of the file in which the VM appears, with the positions of its first and last lines and its
+ * number of task executions) and the times of its first and last task executions. The index does not grow with the number of task executions, only with the number
+ * of VMs. The task executions of a VM are only loaded into its {@link VmUsageSeries} when the VM is materialized (right before it is deployed), and they are dropped
+ * when the VM is released (after it is destroyed); therefore, the memory used by task executions follows the number of VMs running in the cloud, instead of the size
+ * of the file.
+ *
+ * Materializing VMs reads every line in their ranges, including the lines of other VMs in between; the ranges of the VMs materialized together are read in a single
+ * sweep of the file.
+ *
+ * A VM and its ranges can be sent to another process (see {@link #writeVirtualMachine(VirtualMachine, DataOutput)}), which materializes the VM from the same file
+ * without indexing it.
+ */
+public class VirtualMachineTracesIndex implements Closeable {
+
+    private String cloudTracesFile;
+    private int windowSizeInBytes;
+
+    private Collection<VirtualMachine> virtualMachines;
+    private Map<VirtualMachine, TaskExecutionLines> taskExecutionLinesByVirtualMachine = new IdentityHashMap<>();
+
+    private CloudVmTracesScanner scanner;
+    private CloudVmTraceRecord record = new CloudVmTraceRecord();
+
+    private int numberOfMaterializedVirtualMachines;
+    private int peakNumberOfMaterializedVirtualMachines;
+
+    private static class TaskExecutionLines {
+        private long vmKey;
+        /**
+         * Positions of the first and last lines of every range.
+         */
+        private long[] rangesLineOffsets = new long[0];
+        private int[] rangesNumberOfSamples = new int[0];
+        private int numberOfSamples;
+        private int firstTime = Integer.MAX_VALUE;
+        private int lastTime = Integer.MIN_VALUE;
+        private boolean materialized;
+
+        private int getNumberOfRanges() {
+            return rangesNumberOfSamples.length;
+        }
+
+        private long getFirstLineOffset(int range) {
+            return rangesLineOffsets[2 * range];
+        }
+
+        private long getLastLineOffset(int range) {
+            return rangesLineOffsets[2 * range + 1];
+        }
+    }
+
+    /**
+     * Next range to be read of a VM that is being materialized.
+     */
+    private static class TaskExecutionLinesCursor implements Comparable<TaskExecutionLinesCursor> {
+        private VmUsageSeries usageSeries;
+        private TaskExecutionLines taskExecutionLines;
+        private int range;
+        private int remainingSamplesInRange;
+        private boolean reading;
+
+        private TaskExecutionLinesCursor(VmUsageSeries usageSeries, TaskExecutionLines taskExecutionLines) {
+            this.usageSeries = usageSeries;
+            this.taskExecutionLines = taskExecutionLines;
+            this.remainingSamplesInRange = taskExecutionLines.rangesNumberOfSamples[0];
+        }
+
+        private long getFirstLineOffset() {
+            return taskExecutionLines.getFirstLineOffset(range);
+        }
+
+        private long getLastLineOffset() {
+            return taskExecutionLines.getLastLineOffset(range);
+        }
+
+        @Override
+        public int compareTo(TaskExecutionLinesCursor other) {
+            return Long.compare(getFirstLineOffset(), other.getFirstLineOffset());
+        }
+    }
+
+    VirtualMachineTracesIndex(String cloudTracesFile, int windowSizeInBytes) {
+        this.cloudTracesFile = cloudTracesFile;
+        this.windowSizeInBytes = windowSizeInBytes;
+    }
+
+    void setVirtualMachines(Collection<VirtualMachine> virtualMachines) {
+        this.virtualMachines = virtualMachines;
+    }
+
+    /**
+     * Fragments of a VM must be added in the order of the file.
+     */
+    void addTaskExecutions(VirtualMachine virtualMachine, VirtualMachineTraceFragment fragment) {
+        TaskExecutionLines taskExecutionLines = taskExecutionLinesByVirtualMachine.get(virtualMachine);
+        if (taskExecutionLines == null) {
+            taskExecutionLines = new TaskExecutionLines();
+            taskExecutionLines.vmKey = fragment.getVmKey();
+            taskExecutionLinesByVirtualMachine.put(virtualMachine, taskExecutionLines);
+        }
+        int range = taskExecutionLines.getNumberOfRanges();
+        taskExecutionLines.rangesLineOffsets = Arrays.copyOf(taskExecutionLines.rangesLineOffsets, 2 * (range + 1));
+        taskExecutionLines.rangesLineOffsets[2 * range] = fragment.getFirstLineOffset();
+        taskExecutionLines.rangesLineOffsets[2 * range + 1] = fragment.getLastLineOffset();
+        taskExecutionLines.rangesNumberOfSamples = Arrays.copyOf(taskExecutionLines.rangesNumberOfSamples, range + 1);
+        taskExecutionLines.rangesNumberOfSamples[range] = fragment.getNumberOfSamples();
+        taskExecutionLines.numberOfSamples += fragment.getNumberOfSamples();
+        taskExecutionLines.firstTime = Math.min(taskExecutionLines.firstTime, fragment.getFirstTime());
+        taskExecutionLines.lastTime = Math.max(taskExecutionLines.lastTime, fragment.getLastTime());
+    }
+
+    /**
+     * The VMs in the same order {@link CloudVmTracesLoader#loadVirtualMachines(String, int, int)} returns them.
+     */
+    public Collection<VirtualMachine> getVirtualMachines() {
+        return virtualMachines;
+    }
+
+    /**
+     * It returns the time of the first task execution of the VM, which is the time it arrives in the cloud.
+     */
+    public int getFirstTaskExecutionTime(VirtualMachine virtualMachine) {
+        return getTaskExecutionLines(virtualMachine).firstTime;
+    }
+
+    public int getLastTaskExecutionTime(VirtualMachine virtualMachine) {
+        return getTaskExecutionLines(virtualMachine).lastTime;
+    }
+
+    /**
+     * It loads the task executions of the VMs from the file (the ones of VMs already materialized are not loaded again). The ranges of lines of all of the VMs are read
+     * in the order of the file, so the file is swept once, instead of once per VM.
+     */
+    public void materialize(Collection<VirtualMachine> virtualMachinesToMaterialize) {
+        PriorityQueue<TaskExecutionLinesCursor> cursorsToStart = new PriorityQueue<>();
+        List<TaskExecutionLinesCursor> cursors = new ArrayList<>();
+        VirtualMachineKeyIndex cursorsPositions = new VirtualMachineKeyIndex(virtualMachinesToMaterialize.size());
+        for (VirtualMachine virtualMachine : virtualMachinesToMaterialize) {
+            TaskExecutionLines taskExecutionLines = getTaskExecutionLines(virtualMachine);
+            if (taskExecutionLines.materialized) {
+                continue;
+            }
+            taskExecutionLines.materialized = true;
+            numberOfMaterializedVirtualMachines++;
+            VmUsageSeries usageSeries = new VmUsageSeries(taskExecutionLines.numberOfSamples);
+            virtualMachine.setUsageSeries(usageSeries);
+            if (taskExecutionLines.numberOfSamples > 0) {
+                TaskExecutionLinesCursor cursor = new TaskExecutionLinesCursor(usageSeries, taskExecutionLines);
+                cursorsPositions.put(taskExecutionLines.vmKey, cursors.size());
+                cursors.add(cursor);
+                cursorsToStart.add(cursor);
+            }
+        }
+        peakNumberOfMaterializedVirtualMachines = Math.max(peakNumberOfMaterializedVirtualMachines, numberOfMaterializedVirtualMachines);
+        if (cursors.isEmpty()) {
+            return;
+        }
+        if (scanner == null) {
+            scanner = new CloudVmTracesScanner(cloudTracesFile, 0, Long.MAX_VALUE, windowSizeInBytes);
+        }
+        int numberOfCursorsReading = 0;
+        while (numberOfCursorsReading > 0 || !cursorsToStart.isEmpty()) {
+            boolean hasRecord = numberOfCursorsReading == 0 ? scanner.readAt(cursorsToStart.peek().getFirstLineOffset(), record) : scanner.next(record);
+            if (!hasRecord) {
+                throw createFileChangedException();
+            }
+            long lineOffset = record.getLineOffset();
+            while (!cursorsToStart.isEmpty() && cursorsToStart.peek().getFirstLineOffset() <= lineOffset) {
+                TaskExecutionLinesCursor cursor = cursorsToStart.poll();
+                if (cursor.getFirstLineOffset() != lineOffset) {
+                    throw createFileChangedException();
+                }
+                cursor.reading = true;
+                numberOfCursorsReading++;
+            }
+            int position = cursorsPositions.get(record.getVmKey());
+            if (position < 0) {
+                continue;
+            }
+            TaskExecutionLinesCursor cursor = cursors.get(position);
+            if (!cursor.reading || cursor.remainingSamplesInRange == 0) {
+                throw createFileChangedException();
+            }
+            cursor.usageSeries.add(record.getTime(), record.getCpuUsage(), record.getMemoryUsage());
+            cursor.remainingSamplesInRange--;
+            if (lineOffset == cursor.getLastLineOffset()) {
+                if (cursor.remainingSamplesInRange != 0) {
+                    throw createFileChangedException();
+                }
+                cursor.reading = false;
+                numberOfCursorsReading--;
+                cursor.range++;
+                if (cursor.range < cursor.taskExecutionLines.getNumberOfRanges()) {
+                    cursor.remainingSamplesInRange = cursor.taskExecutionLines.rangesNumberOfSamples[cursor.range];
+                    cursorsToStart.add(cursor);
+                }
+            }
+        }
+    }
+
+    public void materialize(VirtualMachine virtualMachine) {
+        materialize(Collections.singletonList(virtualMachine));
+    }
+
+    /**
+     * It drops the task executions of the VM; they are loaded again if the VM is materialized again.
+     */
+    public void release(VirtualMachine virtualMachine) {
+        TaskExecutionLines taskExecutionLines = getTaskExecutionLines(virtualMachine);
+        if (!taskExecutionLines.materialized) {
+            return;
+        }
+        virtualMachine.getUsageSeries().clear();
+        taskExecutionLines.materialized = false;
+        numberOfMaterializedVirtualMachines--;
+    }
+
+    /**
+     * It releases the VM and drops it from the index; it is used for VMs that are not going to be materialized again.
+     */
+    public void remove(VirtualMachine virtualMachine) {
+        release(virtualMachine);
+        taskExecutionLinesByVirtualMachine.remove(virtualMachine);
+    }
+
+    /**
+     * It writes the VM (its id, times and service offering) and the ranges of lines of its task executions.
+     */
+    public void writeVirtualMachine(VirtualMachine virtualMachine, DataOutput output) throws IOException {
+        TaskExecutionLines taskExecutionLines = getTaskExecutionLines(virtualMachine);
+        output.writeUTF(virtualMachine.getVmId());
+        output.writeInt(virtualMachine.getDeployTime());
+        output.writeInt(virtualMachine.getDestroyTime());
+        VmServiceOffering vmServiceOffering = virtualMachine.getVmServiceOffering();
+        output.writeUTF(vmServiceOffering.getName());
+        output.writeInt(vmServiceOffering.getNumberOfCores());
+        output.writeInt(vmServiceOffering.getCoreSpeed());
+        output.writeLong(vmServiceOffering.getMemoryInMegaByte());
+        output.writeLong(taskExecutionLines.vmKey);
+        output.writeInt(taskExecutionLines.numberOfSamples);
+        output.writeInt(taskExecutionLines.firstTime);
+        output.writeInt(taskExecutionLines.lastTime);
+        output.writeInt(taskExecutionLines.getNumberOfRanges());
+        for (int range = 0; range < taskExecutionLines.getNumberOfRanges(); range++) {
+            output.writeLong(taskExecutionLines.getFirstLineOffset(range));
+            output.writeLong(taskExecutionLines.getLastLineOffset(range));
+            output.writeInt(taskExecutionLines.rangesNumberOfSamples[range]);
+        }
+    }
+
+    /**
+     * It reads a VM written by {@link #writeVirtualMachine(VirtualMachine, DataOutput)} and adds it to this index.
+     */
+    public VirtualMachine readVirtualMachine(DataInput input) throws IOException {
+        VirtualMachine virtualMachine = new VirtualMachine();
+        virtualMachine.setVmId(input.readUTF());
+        virtualMachine.setDeployTime(input.readInt());
+        virtualMachine.setDestroyTime(input.readInt());
+        virtualMachine.setUsageSeries(new VmUsageSeries());
+        VmServiceOffering vmServiceOffering = new VmServiceOffering();
+        vmServiceOffering.setName(input.readUTF());
+        vmServiceOffering.setNumberOfCores(input.readInt());
+        vmServiceOffering.setCoreSpeed(input.readInt());
+        vmServiceOffering.setMemoryInMegaByte(input.readLong());
+        virtualMachine.setVmServiceOffering(vmServiceOffering);
+
+        TaskExecutionLines taskExecutionLines = new TaskExecutionLines();
+        taskExecutionLines.vmKey = input.readLong();
+        taskExecutionLines.numberOfSamples = input.readInt();
+        taskExecutionLines.firstTime = input.readInt();
+        taskExecutionLines.lastTime = input.readInt();
+        int numberOfRanges = input.readInt();
+        taskExecutionLines.rangesLineOffsets = new long[2 * numberOfRanges];
+        taskExecutionLines.rangesNumberOfSamples = new int[numberOfRanges];
+        for (int range = 0; range < numberOfRanges; range++) {
+            taskExecutionLines.rangesLineOffsets[2 * range] = input.readLong();
+            taskExecutionLines.rangesLineOffsets[2 * range + 1] = input.readLong();
+            taskExecutionLines.rangesNumberOfSamples[range] = input.readInt();
+        }
+        taskExecutionLinesByVirtualMachine.put(virtualMachine, taskExecutionLines);
+        return virtualMachine;
+    }
+
+    public int getPeakNumberOfMaterializedVirtualMachines() {
+        return peakNumberOfMaterializedVirtualMachines;
+    }
+
+    private TaskExecutionLines getTaskExecutionLines(VirtualMachine virtualMachine) {
+        TaskExecutionLines taskExecutionLines = taskExecutionLinesByVirtualMachine.get(virtualMachine);
+        if (taskExecutionLines == null) {
+            throw new GoogleTracesToCloudTracesException(String.format("VM [%s] is not in the index of [%s].", virtualMachine.getVmId(), cloudTracesFile));
+        }
+        return taskExecutionLines;
+    }
+
+    private GoogleTracesToCloudTracesException createFileChangedException() {
+        return new GoogleTracesToCloudTracesException(String.format("The cloud traces file [%s] has changed after it was indexed.", cloudTracesFile));
+    }
+
+    @Override
+    public void close() {
+        if (scanner != null) {
+            scanner.close();
+            scanner = null;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.traces;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import br.com.autonomiccs.cloudTraces.exceptions.GoogleTracesToCloudTracesException;
+
+/**
+ * The scanner must accept the same lines as the pattern previously used to read cloud VM traces files, and its values must be equal to the ones of
+ * {@link Long#parseLong(String)} and {@link Double#parseDouble(String)}.
+ */
+public class CloudVmTracesScannerTest {
+
+    private static final int SMALL_WINDOW_SIZE_IN_BYTES = 4096;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void usageValuesAreEqualToTheOnesOfParseDouble() throws IOException {
+        String[] values = {"0", "0.0", "1", "0.5", "0.1", "3.14159", "100.25", "0.000001", "123456789.987654321", "9007199254740991", "9007199254740992",
+                "9007199254740993", "9007199254740993.5", "12345678901234567890", "0.12345678901234567890123", "1.0000000000000000000000001",
+                "0.0000000000000000000000001", "99999999999999999999999999999.9", "179769313486231570000000000000000000000000000000000000000000000000000000000000"};
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            lines.add(createLine(i, i, values[i], values[values.length - 1 - i]));
+        }
+        File file = writeFile(lines, "\n", true);
+
+        List<CloudVmTraceRecord> records = scan(file, 0, file.length(), CloudVmTracesScanner.DEFAULT_WINDOW_SIZE_IN_BYTES);
+        assertEquals(lines.size(), records.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertRecordMatchesLine(lines.get(i), records.get(i));
+        }
+    }
+
+    @Test
+    public void integerFieldsAreEqualToTheOnesOfParseLong() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("0, VM-0, 0, 0, offering, 0, 0, 0, 0, 0");
+        lines.add("2147483647, VM-99999999999999999, 2147483647, 2147483647, offering_2, 2147483647, 2147483647, 9223372036854775807, 1, 1");
+        lines.add("007, VM-0042, 0300, 0600, Offering9, 08, 02000, 04096, 0.25, 0.75");
+        File file = writeFile(lines, "\n", true);
+
+        List<CloudVmTraceRecord> records = scan(file, 0, file.length(), CloudVmTracesScanner.DEFAULT_WINDOW_SIZE_IN_BYTES);
+        assertEquals(lines.size(), records.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertRecordMatchesLine(lines.get(i), records.get(i));
+        }
+    }
+
+    @Test
+    public void signedAndMalformedFieldsAreRejected() throws IOException {
+        String[] invalidLines = {
+                "-0, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5",
+                "+1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5",
+                "1, VM--1, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5",
+                "1, VM-1, 0, 300, offering, -1, 1000, 1024, 0.5, 0.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, -0, 0.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, -0.5, 0.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, +0.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 1., 0.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, .5, 0.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 1e5, 0.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, NaN",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, Infinity",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5 ",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5, 1",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5,0.5",
+                "1, VM-1, 0, 300, , 1, 1000, 1024, 0.5, 0.5",
+                "1, VM-1, 0, 300, offering-1, 1, 1000, 1024, 0.5, 0.5",
+                "1, vm-1, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5",
+                "1, VM-, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5",
+                "1, VM-123456789012345678, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5",
+                "2147483648, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5",
+                "1, VM-1, 0, 300, offering, 1, 1000, 9223372036854775808, 0.5, 0.5",
+                " 1, VM-1, 0, 300, offering, 1, 1000, 1024, 0.5, 0.5"};
+        for (String invalidLine : invalidLines) {
+            List<String> lines = new ArrayList<>();
+            lines.add(createLine(1, 1, "0.5", "0.5"));
+            lines.add(invalidLine);
+            File file = writeFile(lines, "\n", true);
+            try {
+                scan(file, 0, file.length(), CloudVmTracesScanner.DEFAULT_WINDOW_SIZE_IN_BYTES);
+                fail("Line [" + invalidLine + "] should have been rejected.");
+            } catch (GoogleTracesToCloudTracesException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("line [2]"));
+            }
+        }
+    }
+
+    @Test
+    public void crlfLineBreaksCommentsAndEmptyLinesAreAccepted() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# time, VM-id, deploy time, destroy time, service offering name, number of cores, total cpu, memory, cpu usage, memory usage");
+        lines.add(createLine(0, 1, "0.25", "0.5"));
+        lines.add("");
+        lines.add("   ");
+        lines.add(createLine(300, 1, "0.125", "0.0625"));
+
+        for (String lineBreak : new String[] {"\n", "\r\n"}) {
+            for (boolean lineBreakAtTheEnd : new boolean[] {true, false}) {
+                File file = writeFile(lines, lineBreak, lineBreakAtTheEnd);
+                List<CloudVmTraceRecord> records = scan(file, 0, file.length(), CloudVmTracesScanner.DEFAULT_WINDOW_SIZE_IN_BYTES);
+                assertEquals(2, records.size());
+                assertRecordMatchesLine(lines.get(1), records.get(0));
+                assertRecordMatchesLine(lines.get(4), records.get(1));
+                assertEquals(2, records.get(0).getLineNumber());
+                assertEquals(5, records.get(1).getLineNumber());
+            }
+        }
+    }
+
+    @Test
+    public void linesThatSpanWindowBoundariesAreRead() throws IOException {
+        List<String> lines = createRandomLines(200, new Random(1));
+        for (String lineBreak : new String[] {"\n", "\r\n"}) {
+            for (boolean lineBreakAtTheEnd : new boolean[] {true, false}) {
+                File file = writeFile(lines, lineBreak, lineBreakAtTheEnd);
+                for (int windowSize = getLongestLineLength(lines) + 2; windowSize < 300; windowSize += 7) {
+                    List<CloudVmTraceRecord> records = scan(file, 0, file.length(), windowSize);
+                    assertEquals(lines.size(), records.size());
+                    for (int i = 0; i < lines.size(); i++) {
+                        assertRecordMatchesLine(lines.get(i), records.get(i));
+                    }
+                    assertLinesAreReadAtTheirOffsets(file, lines, records, windowSize);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void linesBiggerThanTheWindowAreRejected() throws IOException {
+        List<String> lines = createRandomLines(10, new Random(1));
+        File file = writeFile(lines, "\n", true);
+        try {
+            scan(file, 0, file.length(), 32);
+            fail("Lines bigger than the window should have been rejected.");
+        } catch (GoogleTracesToCloudTracesException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("bigger than the scanner window"));
+        }
+    }
+
+    @Test
+    public void chunksAreAlignedToLinesAndCoverTheWholeFile() throws IOException {
+        List<String> lines = createRandomLines(150000, new Random(2));
+        for (String lineBreak : new String[] {"\n", "\r\n"}) {
+            File file = writeFile(lines, lineBreak, false);
+            assertTrue(file.length() > 8 << 20);
+
+            long[] chunksLimits = CloudVmTracesLoader.splitInLineAlignedChunks(file.getAbsolutePath(), 7);
+            assertTrue(chunksLimits.length > 2);
+            assertEquals(0, chunksLimits[0]);
+            assertEquals(file.length(), chunksLimits[chunksLimits.length - 1]);
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+                for (int i = 1; i < chunksLimits.length - 1; i++) {
+                    assertTrue(chunksLimits[i] > chunksLimits[i - 1]);
+                    randomAccessFile.seek(chunksLimits[i] - 1);
+                    assertEquals('\n', randomAccessFile.read());
+                }
+            }
+
+            List<CloudVmTraceRecord> records = new ArrayList<>();
+            for (int i = 0; i < chunksLimits.length - 1; i++) {
+                records.addAll(scan(file, chunksLimits[i], chunksLimits[i + 1], SMALL_WINDOW_SIZE_IN_BYTES));
+            }
+            assertEquals(lines.size(), records.size());
+            for (int i = 0; i < lines.size(); i++) {
+                assertRecordMatchesLine(lines.get(i), records.get(i));
+            }
+        }
+    }
+
+    private void assertLinesAreReadAtTheirOffsets(File file, List<String> lines, List<CloudVmTraceRecord> records, int windowSize) {
+        try (CloudVmTracesScanner scanner = new CloudVmTracesScanner(file.getAbsolutePath(), 0, file.length(), windowSize)) {
+            CloudVmTraceRecord record = new CloudVmTraceRecord();
+            for (int i = lines.size() - 1; i >= 0; i -= 3) {
+                assertTrue(scanner.readAt(records.get(i).getLineOffset(), record));
+                assertRecordMatchesLine(lines.get(i), record);
+            }
+        }
+    }
+
+    private static void assertRecordMatchesLine(String line, CloudVmTraceRecord record) {
+        String[] fields = line.split(", ");
+        assertEquals(line, Integer.parseInt(fields[0]), record.getTime());
+        assertEquals(line, fields[1], record.getVmId());
+        assertEquals(line, Integer.parseInt(fields[2]), record.getDeployTime());
+        assertEquals(line, Integer.parseInt(fields[3]), record.getDestroyTime());
+        assertEquals(line, fields[4], record.getServiceOfferingName());
+        assertEquals(line, Integer.parseInt(fields[5]), record.getNumberOfCores());
+        assertEquals(line, Integer.parseInt(fields[6]), record.getTotalCpuInMhz());
+        assertEquals(line, Long.parseLong(fields[7]), record.getMemoryInMegaByte());
+        assertSameDouble(line, Double.parseDouble(fields[8]), record.getCpuUsage());
+        assertSameDouble(line, Double.parseDouble(fields[9]), record.getMemoryUsage());
+    }
+
+    private static void assertSameDouble(String line, double expected, double actual) {
+        assertEquals(line, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+    }
+
+    private static String createLine(int time, int vmNumber, String cpuUsage, String memoryUsage) {
+        return String.format(Locale.US, "%d, VM-%d, 0, 86400, offering_%d, 2, 4000, 8192, %s, %s", time, vmNumber, vmNumber % 3, cpuUsage, memoryUsage);
+    }
+
+    private static List<String> createRandomLines(int numberOfLines, Random random) {
+        List<String> lines = new ArrayList<>(numberOfLines);
+        for (int i = 0; i < numberOfLines; i++) {
+            lines.add(createLine(i * 300, random.nextInt(1000), createRandomUsage(random), createRandomUsage(random)));
+        }
+        return lines;
+    }
+
+    /**
+     * Usages with up to 20 decimal places, so both the exact division and the fallback to {@link Double#parseDouble(String)} are used.
+     */
+    private static String createRandomUsage(Random random) {
+        String usage = Double.toString(random.nextDouble());
+        if (usage.contains("E")) {
+            return "0";
+        }
+        return random.nextBoolean() ? usage : usage + random.nextInt(10000);
+    }
+
+    private static int getLongestLineLength(List<String> lines) {
+        int longestLineLength = 0;
+        for (String line : lines) {
+            longestLineLength = Math.max(longestLineLength, line.length());
+        }
+        return longestLineLength;
+    }
+
+    private File writeFile(List<String> lines, String lineBreak, boolean lineBreakAtTheEnd) throws IOException {
+        File file = temporaryFolder.newFile();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII))) {
+            for (int i = 0; i < lines.size(); i++) {
+                writer.write(lines.get(i));
+                if (i < lines.size() - 1 || lineBreakAtTheEnd) {
+                    writer.write(lineBreak);
+                }
+            }
+        }
+        return file;
+    }
+
+    private static List<CloudVmTraceRecord> scan(File file, long start, long end, int windowSize) {
+        List<CloudVmTraceRecord> records = new ArrayList<>();
+        try (CloudVmTracesScanner scanner = new CloudVmTracesScanner(file.getAbsolutePath(), start, end, windowSize)) {
+            CloudVmTraceRecord record = new CloudVmTraceRecord();
+            while (scanner.next(record)) {
+                records.add(record);
+                record = new CloudVmTraceRecord();
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Cloud traces
+ * Copyright (C) 2016 Autonomiccs, Inc.
+ *
+ * Licensed to the Autonomiccs, Inc. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The Autonomiccs, Inc. licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package br.com.autonomiccs.cloudTraces.traces;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import br.com.autonomiccs.cloudTraces.beans.VirtualMachine;
+import br.com.autonomiccs.cloudTraces.beans.VmUsageSeries;
+
+/**
+ * VMs materialized from the index must have the same usage series the loader creates, also when their lines are spread over several chunks of the file, and when
+ * they are sent to the index of another process.
+ */
+public class VirtualMachineTracesIndexTest {
+
+    private static final int NUMBER_OF_THREADS = 4;
+    private static final int WINDOW_SIZE_IN_BYTES = 64 << 10;
+    private static final int SAMPLE_INTERVAL = 300;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void materializedVirtualMachinesHaveTheUsageOfTheLoadedOnes() throws IOException {
+        File file = writeTracesFile(3000, 250000, new Random(1));
+        assertTrue(CloudVmTracesLoader.splitInLineAlignedChunks(file.getAbsolutePath(), NUMBER_OF_THREADS * 4).length > 4);
+
+        Map<String, VirtualMachine> loadedVirtualMachines = new HashMap<>();
+        for (VirtualMachine virtualMachine : CloudVmTracesLoader.loadVirtualMachines(file.getAbsolutePath(), WINDOW_SIZE_IN_BYTES, NUMBER_OF_THREADS)) {
+            loadedVirtualMachines.put(virtualMachine.getVmId(), virtualMachine);
+        }
+
+        try (VirtualMachineTracesIndex index = CloudVmTracesLoader.indexVirtualMachines(file.getAbsolutePath(), WINDOW_SIZE_IN_BYTES, NUMBER_OF_THREADS)) {
+            assertEquals(loadedVirtualMachines.size(), index.getVirtualMachines().size());
+            List<VirtualMachine> batch = new ArrayList<>();
+            for (VirtualMachine virtualMachine : index.getVirtualMachines()) {
+                VmUsageSeries loadedUsageSeries = loadedVirtualMachines.get(virtualMachine.getVmId()).getUsageSeries();
+                assertEquals(loadedUsageSeries.getTime(0), index.getFirstTaskExecutionTime(virtualMachine));
+                assertEquals(loadedUsageSeries.getTime(loadedUsageSeries.size() - 1), index.getLastTaskExecutionTime(virtualMachine));
+                batch.add(virtualMachine);
+                if (batch.size() == 97) {
+                    assertMaterializedUsage(index, batch, loadedVirtualMachines);
+                    batch.clear();
+                }
+            }
+            assertMaterializedUsage(index, batch, loadedVirtualMachines);
+            assertEquals(97, index.getPeakNumberOfMaterializedVirtualMachines());
+        }
+    }
+
+    @Test
+    public void virtualMachinesReadByAnEmptyIndexHaveTheUsageOfTheLoadedOnes() throws IOException {
+        File file = writeTracesFile(300, 30000, new Random(2));
+        Map<String, VirtualMachine> loadedVirtualMachines = new HashMap<>();
+        for (VirtualMachine virtualMachine : CloudVmTracesLoader.loadVirtualMachines(file.getAbsolutePath(), WINDOW_SIZE_IN_BYTES, NUMBER_OF_THREADS)) {
+            loadedVirtualMachines.put(virtualMachine.getVmId(), virtualMachine);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (VirtualMachineTracesIndex index = CloudVmTracesLoader.indexVirtualMachines(file.getAbsolutePath(), WINDOW_SIZE_IN_BYTES, NUMBER_OF_THREADS);
+                DataOutputStream output = new DataOutputStream(bytes)) {
+            for (VirtualMachine virtualMachine : index.getVirtualMachines()) {
+                index.writeVirtualMachine(virtualMachine, output);
+            }
+        }
+
+        try (VirtualMachineTracesIndex index = CloudVmTracesLoader.createEmptyIndex(file.getAbsolutePath(), WINDOW_SIZE_IN_BYTES);
+                DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            List<VirtualMachine> virtualMachines = new ArrayList<>();
+            for (int i = 0; i < loadedVirtualMachines.size(); i++) {
+                VirtualMachine virtualMachine = index.readVirtualMachine(input);
+                VirtualMachine loadedVirtualMachine = loadedVirtualMachines.get(virtualMachine.getVmId());
+                assertEquals(loadedVirtualMachine.getVmServiceOffering().toString(), virtualMachine.getVmServiceOffering().toString());
+                assertEquals(loadedVirtualMachine.getDestroyTime(), virtualMachine.getDestroyTime());
+                virtualMachines.add(virtualMachine);
+            }
+            assertEquals(0, input.available());
+            assertMaterializedUsage(index, virtualMachines, loadedVirtualMachines);
+            for (VirtualMachine virtualMachine : virtualMachines) {
+                index.remove(virtualMachine);
+            }
+        }
+    }
+
+    private static void assertMaterializedUsage(VirtualMachineTracesIndex index, List<VirtualMachine> virtualMachines, Map<String, VirtualMachine> loadedVirtualMachines) {
+        index.materialize(virtualMachines);
+        for (VirtualMachine virtualMachine : virtualMachines) {
+            VmUsageSeries expected = loadedVirtualMachines.get(virtualMachine.getVmId()).getUsageSeries();
+            VmUsageSeries actual = virtualMachine.getUsageSeries();
+            assertEquals(virtualMachine.getVmId(), expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(virtualMachine.getVmId(), expected.getTime(i), actual.getTime(i));
+                assertEquals(virtualMachine.getVmId(), expected.getCpuUsage(i), actual.getCpuUsage(i), 0);
+                assertEquals(virtualMachine.getVmId(), expected.getMemoryUsage(i), actual.getMemoryUsage(i), 0);
+            }
+        }
+        for (VirtualMachine virtualMachine : virtualMachines) {
+            index.release(virtualMachine);
+            assertEquals(0, virtualMachine.getUsageSeries().size());
+        }
+    }
+
+    /**
+     * Lines are sorted by time, as the ones of converted traces; VMs live for a random number of samples, so the lines of many of them cross chunk boundaries.
+     */
+    private File writeTracesFile(int numberOfVirtualMachines, int numberOfLines, Random random) throws IOException {
+        int[] remainingSamples = new int[numberOfVirtualMachines];
+        int numberOfLiveVirtualMachines = 500;
+        int nextVirtualMachine = 0;
+        List<Integer> liveVirtualMachines = new ArrayList<>();
+        File file = temporaryFolder.newFile();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII))) {
+            int time = 0;
+            int lines = 0;
+            while (lines < numberOfLines) {
+                while (liveVirtualMachines.size() < numberOfLiveVirtualMachines && nextVirtualMachine < numberOfVirtualMachines) {
+                    remainingSamples[nextVirtualMachine] = 1 + random.nextInt(2 * numberOfLines / numberOfVirtualMachines);
+                    liveVirtualMachines.add(nextVirtualMachine++);
+                }
+                if (liveVirtualMachines.isEmpty()) {
+                    break;
+                }
+                for (int i = liveVirtualMachines.size() - 1; i >= 0; i--) {
+                    int vm = liveVirtualMachines.get(i);
+                    writer.write(String.format(Locale.US, "%d, VM-%d, 0, 999999999, offering, 1, 3400, 2048, %s, %s%n", time, vm, random.nextDouble() * 3400,
+                            random.nextDouble() * 2048));
+                    lines++;
+                    if (--remainingSamples[vm] == 0) {
+                        liveVirtualMachines.remove(i);
+                    }
+                }
+                time += SAMPLE_INTERVAL;
+            }
+        }
+        return file;
+    }
+}